@@ -0,0 +1,112 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Request;
+import org.restlet.data.CharacterSet;
+import org.restlet.data.Language;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.engine.application.FlexibleConneg;
+import org.restlet.engine.application.StrictConneg;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.representation.Variant;
+import org.restlet.service.MetadataService;
+
+/**
+ * Benchmarks the content negotiation algorithms.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ConnegBenchmark {
+
+    /** The metadata service. */
+    private final MetadataService metadataService = new MetadataService();
+
+    /** The request with the client preferences. */
+    private Request request;
+
+    /** The available variants. */
+    private final List<Variant> variants = new ArrayList<Variant>();
+
+    @Benchmark
+    public Variant flexible() {
+        return new FlexibleConneg(this.request, this.metadataService)
+                .getPreferredVariant(this.variants);
+    }
+
+    @Setup
+    public void setUp() {
+        this.request = new Request(Method.GET, "http://www.example.com/items");
+        PreferenceReader.addMediaTypes(
+                "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+                this.request.getClientInfo());
+        PreferenceReader.addLanguages("fr-FR,fr;q=0.8,en-US;q=0.6,en;q=0.4",
+                this.request.getClientInfo());
+        PreferenceReader.addCharacterSets("utf-8,iso-8859-1;q=0.5",
+                this.request.getClientInfo());
+
+        MediaType[] mediaTypes = { MediaType.APPLICATION_JSON,
+                MediaType.APPLICATION_XML, MediaType.TEXT_HTML,
+                MediaType.TEXT_PLAIN };
+        Language[] languages = { Language.ENGLISH, Language.FRENCH };
+
+        for (MediaType mediaType : mediaTypes) {
+            for (Language language : languages) {
+                Variant variant = new Variant(mediaType, language);
+                variant.setCharacterSet(CharacterSet.UTF_8);
+                this.variants.add(variant);
+            }
+        }
+    }
+
+    @Benchmark
+    public Variant strict() {
+        return new StrictConneg(this.request, this.metadataService)
+                .getPreferredVariant(this.variants);
+    }
+
+}
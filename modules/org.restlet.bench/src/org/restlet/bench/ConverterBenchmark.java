@@ -0,0 +1,90 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.data.Form;
+import org.restlet.data.MediaType;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.service.ConverterService;
+
+/**
+ * Benchmarks the conversion between objects and representations.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ConverterBenchmark {
+
+    /** The converter service. */
+    private final ConverterService converterService = new ConverterService();
+
+    /** The form to convert. */
+    private final Form form = new Form("name=Restlet&version=3.0&type=framework");
+
+    @Benchmark
+    public Form formToObject() throws IOException {
+        return this.converterService.toObject(new StringRepresentation(
+                "name=Restlet&version=3.0&type=framework",
+                MediaType.APPLICATION_WWW_FORM), Form.class, null);
+    }
+
+    @Benchmark
+    public Representation formToRepresentation() throws IOException {
+        return this.converterService.toRepresentation(this.form,
+                MediaType.APPLICATION_WWW_FORM);
+    }
+
+    @Benchmark
+    public String stringToObject() throws IOException {
+        return this.converterService.toObject(new StringRepresentation(
+                "Hello world", MediaType.TEXT_PLAIN), String.class, null);
+    }
+
+    @Benchmark
+    public Representation stringToRepresentation() throws IOException {
+        return this.converterService.toRepresentation("Hello world",
+                MediaType.TEXT_PLAIN);
+    }
+
+}
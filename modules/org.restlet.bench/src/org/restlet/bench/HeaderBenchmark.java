@@ -0,0 +1,134 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.ClientInfo;
+import org.restlet.data.Header;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Preference;
+import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.engine.header.HeaderReader;
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the parsing and the writing of HTTP headers.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class HeaderBenchmark {
+
+    /** A typical browser Accept header. */
+    private final String accept = "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8";
+
+    /** A typical Date header. */
+    private final String date = "Sun, 06 Nov 1994 08:49:37 GMT";
+
+    /** The request to write. */
+    private Request request;
+
+    /** The response to write. */
+    private Response response;
+
+    @Benchmark
+    public Date readDate() {
+        return HeaderReader.readDate(this.date, false);
+    }
+
+    @Benchmark
+    public Header readHeader() throws IOException {
+        return HeaderReader.readHeader("Accept: " + this.accept);
+    }
+
+    @Benchmark
+    public List<Preference<MediaType>> readMediaTypes() {
+        ClientInfo clientInfo = new ClientInfo();
+        PreferenceReader.addMediaTypes(this.accept, clientInfo);
+        return clientInfo.getAcceptedMediaTypes();
+    }
+
+    @Setup
+    public void setUp() {
+        this.request = new Request(Method.GET,
+                "http://www.example.com/app/items/123?sort=desc");
+        this.request.getClientInfo().setAgent("Restlet-Bench/3.0");
+        PreferenceReader.addMediaTypes(this.accept,
+                this.request.getClientInfo());
+        this.response = new Response(this.request);
+        this.response.setStatus(Status.SUCCESS_OK);
+        this.response.setEntity(new StringRepresentation("Hello world",
+                MediaType.TEXT_PLAIN));
+        this.response.getEntity().setModificationDate(new Date(0));
+        this.response.getEntity().setTag(new Tag("xyzzy", false));
+        this.response.getAllowedMethods().add(Method.GET);
+        this.response.getAllowedMethods().add(Method.PUT);
+    }
+
+    @Benchmark
+    public Series<Header> writeRequestHeaders() {
+        Series<Header> result = new Series<Header>(Header.class);
+        HeaderUtils.addGeneralHeaders(this.request, result);
+        HeaderUtils.addRequestHeaders(this.request, result);
+        return result;
+    }
+
+    @Benchmark
+    public Series<Header> writeResponseHeaders() {
+        Series<Header> result = new Series<Header>(Header.class);
+        HeaderUtils.addGeneralHeaders(this.response, result);
+        HeaderUtils.addResponseHeaders(this.response, result);
+        HeaderUtils.addEntityHeaders(this.response.getEntity(), result);
+        return result;
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.data.MediaType;
+import org.restlet.ext.jackson.JacksonConverter;
+import org.restlet.ext.jackson.JacksonRepresentation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+
+/**
+ * Benchmarks the per request serialization and deserialization of a bean in
+ * JSON, either with a new Jackson object mapper for each representation or with
+ * the mappers shared by the {@link JacksonConverter}.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class JacksonBenchmark {
+
+    /**
+     * Bean serialized by the benchmark.
+     */
+    public static class Order {
+
+        private String customer;
+
+        private List<String> items = new ArrayList<String>();
+
+        private int quantity;
+
+        private boolean shipped;
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public List<String> getItems() {
+            return items;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public boolean isShipped() {
+            return shipped;
+        }
+
+        public void setCustomer(String customer) {
+            this.customer = customer;
+        }
+
+        public void setItems(List<String> items) {
+            this.items = items;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public void setShipped(boolean shipped) {
+            this.shipped = shipped;
+        }
+    }
+
+    /** The converter sharing its mappers. */
+    private final JacksonConverter converter = new JacksonConverter();
+
+    /** The JSON document to parse. */
+    private String json;
+
+    /** The bean to serialize. */
+    private Order order;
+
+    /** The target variant. */
+    private final Variant variant = new Variant(MediaType.APPLICATION_JSON);
+
+    @Setup
+    public void setUp() throws IOException {
+        this.order = new Order();
+        this.order.setCustomer("Restlet");
+        this.order.setQuantity(3);
+        this.order.setShipped(true);
+        this.order.getItems().add("framework");
+        this.order.getItems().add("studio");
+        this.order.getItems().add("client");
+        this.json = new JacksonRepresentation<Order>(this.order).getText();
+    }
+
+    @Benchmark
+    public Order readNewMapper() throws IOException {
+        return new JacksonRepresentation<Order>(new StringRepresentation(
+                this.json, MediaType.APPLICATION_JSON), Order.class)
+                .getObject();
+    }
+
+    @Benchmark
+    public Order readSharedMapper() throws IOException {
+        return this.converter.toObject(new StringRepresentation(this.json,
+                MediaType.APPLICATION_JSON), Order.class, null);
+    }
+
+    @Benchmark
+    public int writeNewMapper() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new JacksonRepresentation<Order>(this.order).write(baos);
+        return baos.size();
+    }
+
+    @Benchmark
+    public int writeSharedMapper() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        this.converter.toRepresentation(this.order, this.variant, null).write(
+                baos);
+        return baos.size();
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.data.Reference;
+
+/**
+ * Benchmarks the parsing and normalization of URI references.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ReferenceBenchmark {
+
+    /** The base reference. */
+    private final Reference base = new Reference(
+            "http://www.example.com:8182/app/v1/");
+
+    /** The absolute URI with all components. */
+    private final String uri = "http://user@www.example.com:8182/app/v1/../v2/./items/123?sort=desc&limit=10#top";
+
+    @Benchmark
+    public Reference normalize() {
+        return new Reference(this.uri).normalize();
+    }
+
+    @Benchmark
+    public String parse() {
+        Reference ref = new Reference(this.uri);
+        ref.getScheme();
+        ref.getHostDomain();
+        ref.getHostPort();
+        ref.getPath();
+        ref.getQuery();
+        return ref.getFragment();
+    }
+
+    @Benchmark
+    public Reference relativeRef() {
+        return new Reference(this.base, "http://www.example.com:8182/app/v1/items/123")
+                .getRelativeRef();
+    }
+
+    @Benchmark
+    public Reference targetRef() {
+        return new Reference(this.base, "../v2/items/123?sort=desc")
+                .getTargetRef();
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Application;
+import org.restlet.Client;
+import org.restlet.Component;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.routing.Router;
+
+/**
+ * Benchmarks a full in-process round trip through the RIAP connectors, from
+ * the client to an application attached to the internal router of a component.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class RiapBenchmark {
+
+    /** The RIAP client. */
+    private Client client;
+
+    /** The component hosting the application. */
+    private Component component;
+
+    @Benchmark
+    public Response roundTrip() {
+        Request request = new Request(Method.GET,
+                "riap://component/app/items/123");
+        Response response = new Response(request);
+        this.client.handle(request, response);
+        return response;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        this.component = new Component();
+        this.component.getLogService().setEnabled(false);
+        this.component.getClients().add(Protocol.RIAP);
+
+        Application application = new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                Router router = new Router(getContext());
+                router.attach("/items/{id}", new Restlet(getContext()) {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setEntity("Item "
+                                + request.getAttributes().get("id"),
+                                MediaType.TEXT_PLAIN);
+                    }
+                });
+                return router;
+            }
+        };
+
+        this.component.getInternalRouter().attach("/app", application);
+        this.component.start();
+        this.client = new Client(Protocol.RIAP);
+        this.client.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.client.stop();
+        this.component.stop();
+    }
+
+}
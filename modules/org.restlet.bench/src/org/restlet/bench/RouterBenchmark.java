@@ -0,0 +1,122 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.data.Reference;
+import org.restlet.routing.Router;
+
+/**
+ * Benchmarks the selection of the next Restlet by a {@link Router} with a
+ * growing number of attached routes, with and without compiled matching.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class RouterBenchmark {
+
+    /** Indicates if the routes are matched with a compiled pattern. */
+    @Param({ "false", "true" })
+    private boolean compiled;
+
+    /** The URI matching the first route. */
+    private String firstUri;
+
+    /** The URI matching the last route. */
+    private String lastUri;
+
+    /** The router to test. */
+    private Router router;
+
+    /** The number of attached routes. */
+    @Param({ "10", "100", "1000" })
+    private int routes;
+
+    /**
+     * Returns the next Restlet selected for the given URI.
+     * 
+     * @param uri
+     *            The resource URI.
+     * @return The next Restlet.
+     */
+    private Restlet getNext(String uri) {
+        Request request = new Request(Method.GET, uri);
+        request.getResourceRef().setBaseRef(
+                new Reference("http://localhost:8182"));
+        return this.router.getNext(request, new Response(request));
+    }
+
+    @Benchmark
+    public Restlet getNextFirst() {
+        return getNext(this.firstUri);
+    }
+
+    @Benchmark
+    public Restlet getNextLast() {
+        return getNext(this.lastUri);
+    }
+
+    @Setup
+    public void setUp() {
+        Context context = new Context();
+        Restlet target = new Restlet(context) {
+        };
+        this.router = new Router(context);
+        this.router.setCompiledMatching(this.compiled);
+
+        for (int i = 0; i < this.routes; i++) {
+            this.router.attach("/resources" + i + "/{id}/items/{item}",
+                    target);
+        }
+
+        this.firstUri = "http://localhost:8182/resources0/123/items/4";
+        this.lastUri = "http://localhost:8182/resources" + (this.routes - 1)
+                + "/123/items/4";
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.data.Header;
+import org.restlet.engine.util.HeaderSeries;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the lookups in a series of headers, with and without the name
+ * index of {@link HeaderSeries}.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class SeriesBenchmark {
+
+    /** The headers of a typical browser request. */
+    private Series<Header> headers;
+
+    /** Indicates if the headers are stored in an indexed series. */
+    @Param({ "false", "true" })
+    private boolean indexed;
+
+    @Benchmark
+    public String getFirstValue() {
+        return this.headers.getFirstValue("Cookie");
+    }
+
+    @Benchmark
+    public String getFirstValueIgnoreCase() {
+        return this.headers.getFirstValue("cookie", true);
+    }
+
+    @Benchmark
+    public String getFirstValueMissing() {
+        return this.headers.getFirstValue("X-Forwarded-For", true);
+    }
+
+    @Benchmark
+    public String getValues() {
+        return this.headers.getValues("Accept-Encoding");
+    }
+
+    @Setup
+    public void setUp() {
+        this.headers = this.indexed ? new HeaderSeries()
+                : new Series<Header>(Header.class);
+        this.headers.add("Host", "www.example.com");
+        this.headers.add("Connection", "keep-alive");
+        this.headers.add("Cache-Control", "max-age=0");
+        this.headers
+                .add("Accept",
+                        "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+        this.headers.add("User-Agent",
+                "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36");
+        this.headers.add("Accept-Encoding", "gzip");
+        this.headers.add("Accept-Encoding", "deflate");
+        this.headers.add("Accept-Language", "en-US,en;q=0.8");
+        this.headers.add("If-None-Match", "\"xyzzy\"");
+        this.headers.add("Referer", "http://www.example.com/");
+        this.headers.add("Cookie", "session=1234567890");
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.routing.Template;
+
+/**
+ * Benchmarks the matching, parsing and formatting of URI templates.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class TemplateBenchmark {
+
+    /** The URI to match. */
+    private final String uri = "/users/jlouvel/orders/12345/items/6?expand=true";
+
+    /** The template to test. */
+    private final Template template = new Template(
+            "/users/{user}/orders/{order}/items/{item}",
+            Template.MODE_STARTS_WITH);
+
+    /** The variable values to format. */
+    private final Map<String, Object> values = new HashMap<String, Object>();
+
+    /**
+     * Constructor.
+     */
+    public TemplateBenchmark() {
+        this.values.put("user", "jlouvel");
+        this.values.put("order", "12345");
+        this.values.put("item", "6");
+    }
+
+    @Benchmark
+    public String format() {
+        return this.template.format(this.values);
+    }
+
+    @Benchmark
+    public int match() {
+        return this.template.match(this.uri);
+    }
+
+    @Benchmark
+    public Map<String, Object> parse() {
+        Map<String, Object> result = new HashMap<String, Object>();
+        this.template.parse(this.uri, result);
+        return result;
+    }
+
+}
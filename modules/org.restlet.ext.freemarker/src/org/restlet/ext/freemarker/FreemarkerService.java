@@ -0,0 +1,177 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.freemarker;
+
+import org.restlet.Application;
+import org.restlet.representation.Representation;
+import org.restlet.service.TemplateService;
+
+import freemarker.cache.MruCacheStorage;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+/**
+ * Application service sharing a FreeMarker configuration and its parsed
+ * templates. Templates loaded by name are cached by the configuration and
+ * checked for modification at most every {@link #getCheckInterval()} seconds.
+ * Templates provided via representations, for example by the
+ * {@link TemplateFilter}, are cached by location URI and modification date, so
+ * that a modified template is parsed again. Both caches are bounded by
+ * {@link #getCacheSize()}.<br>
+ * <br>
+ * When this service is added to the application's services, the
+ * {@link TemplateRepresentation} constructors without configuration and the
+ * {@link TemplateFilter} use it by default.
+ * 
+ * @author Jerome Louvel
+ */
+public class FreemarkerService extends TemplateService<Template> {
+
+    /**
+     * Returns the FreeMarker service of the current application.
+     * 
+     * @return The FreeMarker service of the current application or null.
+     */
+    public static FreemarkerService getCurrent() {
+        Application application = Application.getCurrent();
+        return (application == null) ? null : application.getServices().get(
+                FreemarkerService.class);
+    }
+
+    /** The shared FreeMarker configuration. */
+    private volatile Configuration configuration;
+
+    /**
+     * Constructor.
+     */
+    public FreemarkerService() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public FreemarkerService(boolean enabled) {
+        super(enabled);
+    }
+
+    /**
+     * Clears the cached templates, including the ones cached by the
+     * configuration.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+
+        if (this.configuration != null) {
+            this.configuration.clearTemplateCache();
+        }
+    }
+
+    /**
+     * Creates the shared FreeMarker configuration. By default, it configures
+     * the template cache based on the {@link #getCacheSize()} and
+     * {@link #getCheckInterval()} properties.
+     * 
+     * @return The new FreeMarker configuration.
+     */
+    protected Configuration createConfiguration() {
+        Configuration result = new Configuration();
+        result.setCacheStorage(new MruCacheStorage(getCacheSize(), 0));
+        result.setTemplateUpdateDelay(getCheckInterval());
+        return result;
+    }
+
+    /**
+     * Returns the shared FreeMarker configuration, creating it if necessary.
+     * 
+     * @return The shared FreeMarker configuration.
+     */
+    public Configuration getConfiguration() {
+        Configuration result = this.configuration;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.configuration;
+
+                if (result == null) {
+                    result = createConfiguration();
+                    this.configuration = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a template provided via a representation. It is parsed once per
+     * location URI and modification date. Representations without location
+     * reference or modification date are parsed each time.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The template or null if not found.
+     */
+    public Template getTemplate(Representation templateRepresentation) {
+        Template result = getCachedTemplate(templateRepresentation);
+
+        if (result == null) {
+            result = TemplateRepresentation.getTemplate(getConfiguration(),
+                    templateRepresentation);
+            cacheTemplate(templateRepresentation, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a template by name, using the configuration cache.
+     * 
+     * @param templateName
+     *            The template name.
+     * @return The template or null if not found.
+     */
+    public Template getTemplate(String templateName) {
+        return TemplateRepresentation.getTemplate(getConfiguration(),
+                templateName);
+    }
+
+    /**
+     * Sets the shared FreeMarker configuration.
+     * 
+     * @param configuration
+     *            The shared FreeMarker configuration.
+     */
+    public void setConfiguration(Configuration configuration) {
+        this.configuration = configuration;
+        clear();
+    }
+
+}
@@ -34,6 +34,7 @@ import org.restlet.routing.Filter;
 import org.restlet.util.Resolver;
 
 import freemarker.template.Configuration;
+import freemarker.template.Template;
 import freemarker.template.TemplateHashModel;
 
 /**
@@ -41,7 +42,9 @@ import freemarker.template.TemplateHashModel;
  * representation. By default, the template representation provides a data model
  * based on the request and response objects. In order for the wrapping to
  * happen, the representations must have the {@link Encoding#FREEMARKER}
- * encoding set.<br>
+ * encoding set. When no FreeMarker configuration is set, the one of the
+ * application's {@link FreemarkerService} is used if available, with its cache
+ * of parsed templates.<br>
  * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
@@ -62,7 +65,6 @@ public class TemplateFilter extends Filter {
      */
     public TemplateFilter() {
         super();
-        this.configuration = new Configuration();
     }
 
     /**
@@ -73,7 +75,6 @@ public class TemplateFilter extends Filter {
      */
     public TemplateFilter(Context context) {
         super(context);
-        this.configuration = new Configuration();
     }
 
     /**
@@ -86,7 +87,6 @@ public class TemplateFilter extends Filter {
      */
     public TemplateFilter(Context context, Restlet next) {
         super(context, next);
-        this.configuration = new Configuration();
     }
 
     /**
@@ -125,9 +125,18 @@ public class TemplateFilter extends Filter {
         if (response.isEntityAvailable()
                 && response.getEntity().getEncodings()
                         .contains(Encoding.FREEMARKER)) {
+            FreemarkerService service = getService();
+            Template template;
+
+            if ((this.configuration == null) && (service != null)) {
+                template = service.getTemplate(response.getEntity());
+            } else {
+                template = TemplateRepresentation.getTemplate(
+                        getConfiguration(), response.getEntity());
+            }
+
             TemplateRepresentation representation = new TemplateRepresentation(
-                    response.getEntity(), this.configuration, response
-                            .getEntity().getMediaType());
+                    template, response.getEntity().getMediaType());
             representation.setDataModel(createDataModel(request, response));
             response.setEntity(representation);
         }
@@ -159,12 +168,42 @@ public class TemplateFilter extends Filter {
     }
 
     /**
-     * Returns the FreeMarker configuration.
+     * Returns the FreeMarker configuration. If none was set, returns the one of
+     * the application's {@link FreemarkerService} if available or creates a
+     * default one.
      * 
      * @return The FreeMarker configuration.
      */
     public Configuration getConfiguration() {
-        return this.configuration;
+        Configuration result = this.configuration;
+
+        if (result == null) {
+            FreemarkerService service = getService();
+
+            if (service != null) {
+                result = service.getConfiguration();
+            } else {
+                synchronized (this) {
+                    if (this.configuration == null) {
+                        this.configuration = new Configuration();
+                    }
+
+                    result = this.configuration;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the FreeMarker service of the parent application.
+     * 
+     * @return The FreeMarker service of the parent application or null.
+     */
+    private FreemarkerService getService() {
+        return (getApplication() == null) ? null : getApplication()
+                .getServices().get(FreemarkerService.class);
     }
 
     /**
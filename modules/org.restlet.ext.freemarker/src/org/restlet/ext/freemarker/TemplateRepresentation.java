@@ -50,6 +50,26 @@ import freemarker.template.TemplateException;
  */
 public class TemplateRepresentation extends WriterRepresentation {
 
+    /**
+     * Returns a FreeMarker template from a representation. The current
+     * {@link FreemarkerService} is used if available, otherwise the template is
+     * parsed with a default configuration.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The template or null if not found.
+     */
+    private static Template getDefaultTemplate(
+            Representation templateRepresentation) {
+        FreemarkerService service = FreemarkerService.getCurrent();
+
+        if (service == null) {
+            return getTemplate(new Configuration(), templateRepresentation);
+        }
+
+        return service.getTemplate(templateRepresentation);
+    }
+
     /**
      * Returns a FreeMarker template from a representation and a configuration.
      * 
@@ -140,7 +160,9 @@ public class TemplateRepresentation extends WriterRepresentation {
     }
 
     /**
-     * Constructor.
+     * Constructor. Uses the configuration of the current
+     * {@link FreemarkerService} if available or a default FreeMarker
+     * configuration.
      * 
      * @param templateRepresentation
      *            The FreeMarker template provided via a representation.
@@ -149,11 +171,13 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public TemplateRepresentation(Representation templateRepresentation,
             MediaType mediaType) {
-        this(templateRepresentation, new Configuration(), mediaType);
+        this(getDefaultTemplate(templateRepresentation), mediaType);
     }
 
     /**
-     * Constructor. Uses a default FreeMarker configuration.
+     * Constructor. Uses the configuration of the current
+     * {@link FreemarkerService} if available or a default FreeMarker
+     * configuration.
      * 
      * @param templateRepresentation
      *            The FreeMarker template provided via a representation.
@@ -164,7 +188,7 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public TemplateRepresentation(Representation templateRepresentation,
             Object dataModel, MediaType mediaType) {
-        this(templateRepresentation, new Configuration(), dataModel, mediaType);
+        this(getDefaultTemplate(templateRepresentation), dataModel, mediaType);
     }
 
     /**
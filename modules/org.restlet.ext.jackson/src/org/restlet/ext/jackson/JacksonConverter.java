@@ -26,7 +26,11 @@ package org.restlet.ext.jackson;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.restlet.Context;
 import org.restlet.data.MediaType;
 import org.restlet.data.Preference;
 import org.restlet.engine.converter.ConverterHelper;
@@ -35,14 +39,48 @@ import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
 /**
  * Converter between the JSON, JSON Smile, CBOR, CSV, XML, YAML and Representation
- * classes based on Jackson.
+ * classes based on Jackson.<br>
+ * <br>
+ * As building Jackson object mappers and their serializers is costly, the
+ * converter shares one object mapper per media type across all the
+ * representations it creates, and caches the object readers, writers and CSV
+ * schemas per object mapper and object class. Note that customizing the object
+ * mapper of such representations affects all of them. The shared mappers can
+ * be replaced globally with {@link #setObjectMapper(MediaType, ObjectMapper)}
+ * or for a given application by setting a {@link Map} of object mappers per
+ * media type in the {@link #ATTRIBUTE_OBJECT_MAPPERS} attribute of its
+ * context.
  * 
  * @author Jerome Louvel
  * @author Thierry Boileau
  */
 public class JacksonConverter extends ConverterHelper {
+    /**
+     * Name of the context attribute holding the application specific Jackson
+     * object mappers, as a map of {@link ObjectMapper} instances per
+     * {@link MediaType}.
+     */
+    public static final String ATTRIBUTE_OBJECT_MAPPERS = "org.restlet.ext.jackson.objectMappers";
+
+    /** The media types for which a distinct object mapper is shared. */
+    private static final MediaType[] MEDIA_TYPES = new MediaType[] {
+            MediaType.APPLICATION_JSON, MediaType.APPLICATION_JSON_SMILE,
+            MediaType.APPLICATION_CBOR,
+            // [ifndef android] line
+            MediaType.APPLICATION_XML,
+            // [ifndef android] line
+            MediaType.TEXT_XML,
+            MediaType.APPLICATION_YAML, MediaType.TEXT_YAML,
+            MediaType.TEXT_CSV };
+
     // [ifndef android] instruction
     /** Variant with media type application/xml. */
     private static final VariantInfo VARIANT_APPLICATION_XML = new VariantInfo(
@@ -77,6 +115,85 @@ public class JacksonConverter extends ConverterHelper {
     private static final VariantInfo VARIANT_TEXT_YAML = new VariantInfo(
             MediaType.TEXT_YAML);
 
+    /**
+     * Returns the media type under which the object mapper of a given media
+     * type is shared.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @return The media type under which the object mapper is shared.
+     */
+    private static MediaType getMediaTypeKey(MediaType mediaType) {
+        if (mediaType != null) {
+            for (MediaType candidate : MEDIA_TYPES) {
+                if (candidate.isCompatible(mediaType)) {
+                    return candidate;
+                }
+            }
+        }
+
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /** The cached CSV schemas per CSV mapper and object class. */
+    private final ConcurrentMap<CsvMapper, ConcurrentMap<Class<?>, CsvSchema>> csvSchemas;
+
+    /** The shared object mappers per media type. */
+    private final ConcurrentMap<MediaType, ObjectMapper> objectMappers;
+
+    /** The cached object readers per object mapper and object class. */
+    private final ConcurrentMap<ObjectMapper, ConcurrentMap<Class<?>, ObjectReader>> objectReaders;
+
+    /** The cached object writers per object mapper and object class. */
+    private final ConcurrentMap<ObjectMapper, ConcurrentMap<Class<?>, ObjectWriter>> objectWriters;
+
+    /**
+     * Constructor.
+     */
+    public JacksonConverter() {
+        this.csvSchemas = new ConcurrentHashMap<CsvMapper, ConcurrentMap<Class<?>, CsvSchema>>();
+        this.objectMappers = new ConcurrentHashMap<MediaType, ObjectMapper>();
+        this.objectReaders = new ConcurrentHashMap<ObjectMapper, ConcurrentMap<Class<?>, ObjectReader>>();
+        this.objectWriters = new ConcurrentHashMap<ObjectMapper, ConcurrentMap<Class<?>, ObjectWriter>>();
+    }
+
+    /**
+     * Configures a representation created by this converter to use the shared
+     * object mapper and the cached object reader, writer and CSV schema. The
+     * subclasses of {@link JacksonRepresentation} are left untouched as they
+     * may customize the creation of their mapper, as well as the
+     * representations whose mapper was already set or customized, typically
+     * by an overridden {@code create} method.
+     * 
+     * @param representation
+     *            The representation to configure.
+     * @param resource
+     *            The calling resource or null.
+     */
+    private void configure(JacksonRepresentation<?> representation,
+            Resource resource) {
+        if ((representation != null)
+                && (representation.getClass() == JacksonRepresentation.class)
+                && !representation.hasObjectMapper()) {
+            ObjectMapper objectMapper = getObjectMapper(
+                    representation.getMediaType(), resource);
+            representation.setObjectMapper(objectMapper);
+            Class<?> objectClass = representation.getObjectClass();
+
+            if (objectClass != null) {
+                if (objectMapper instanceof CsvMapper) {
+                    representation.setCsvSchema(getCsvSchema(objectClass,
+                            (CsvMapper) objectMapper));
+                }
+
+                representation.setObjectReader(getObjectReader(objectClass,
+                        objectMapper));
+                representation.setObjectWriter(getObjectWriter(objectClass,
+                        objectMapper));
+            }
+        }
+    }
+
     /**
      * Creates the marshaling {@link JacksonRepresentation}.
      * 
@@ -106,6 +223,44 @@ public class JacksonConverter extends ConverterHelper {
         return new JacksonRepresentation<T>(source, objectClass);
     }
 
+    /**
+     * Returns the cached CSV schema for an object class, creating it with the
+     * given CSV mapper if needed.
+     * 
+     * @param objectClass
+     *            The object class.
+     * @param csvMapper
+     *            The CSV mapper.
+     * @return The CSV schema.
+     */
+    protected CsvSchema getCsvSchema(Class<?> objectClass, CsvMapper csvMapper) {
+        ConcurrentMap<Class<?>, CsvSchema> schemas = this.csvSchemas
+                .get(csvMapper);
+
+        if (schemas == null) {
+            schemas = new ConcurrentHashMap<Class<?>, CsvSchema>();
+            ConcurrentMap<Class<?>, CsvSchema> current = this.csvSchemas
+                    .putIfAbsent(csvMapper, schemas);
+
+            if (current != null) {
+                schemas = current;
+            }
+        }
+
+        CsvSchema result = schemas.get(objectClass);
+
+        if (result == null) {
+            result = csvMapper.schemaFor(objectClass);
+            CsvSchema current = schemas.putIfAbsent(objectClass, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<Class<?>> getObjectClasses(Variant source) {
         List<Class<?>> result = null;
@@ -118,6 +273,160 @@ public class JacksonConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Returns the object mapper shared for a given media type, creating it if
+     * needed.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @return The shared object mapper.
+     */
+    public ObjectMapper getObjectMapper(MediaType mediaType) {
+        MediaType key = getMediaTypeKey(mediaType);
+        ObjectMapper result = this.objectMappers.get(key);
+
+        if (result == null) {
+            boolean expandingEntityRefs = false;
+            boolean validatingDtd = false;
+            // [ifndef android]
+            expandingEntityRefs = JacksonRepresentation.XML_EXPANDING_ENTITY_REFS;
+            validatingDtd = JacksonRepresentation.XML_VALIDATING_DTD;
+            // [enddef]
+            result = JacksonRepresentation.createObjectMapper(key,
+                    expandingEntityRefs, validatingDtd);
+            ObjectMapper current = this.objectMappers.putIfAbsent(key, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the object mapper to use for a given media type and resource.
+     * The object mappers set in the {@link #ATTRIBUTE_OBJECT_MAPPERS} context
+     * attribute of the resource's application have precedence over the shared
+     * ones.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @param resource
+     *            The calling resource or null.
+     * @return The object mapper.
+     */
+    protected ObjectMapper getObjectMapper(MediaType mediaType,
+            Resource resource) {
+        Context context = (resource == null) ? null : resource.getContext();
+
+        if (context != null) {
+            Object objectMappers = context.getAttributes().get(
+                    ATTRIBUTE_OBJECT_MAPPERS);
+
+            if (objectMappers instanceof Map) {
+                Object result = ((Map<?, ?>) objectMappers)
+                        .get(getMediaTypeKey(mediaType));
+
+                if (result instanceof ObjectMapper) {
+                    return (ObjectMapper) result;
+                }
+            }
+        }
+
+        return getObjectMapper(mediaType);
+    }
+
+    /**
+     * Returns the cached object reader for an object class, creating it with
+     * the given object mapper if needed.
+     * 
+     * @param objectClass
+     *            The object class.
+     * @param objectMapper
+     *            The object mapper.
+     * @return The object reader.
+     */
+    protected ObjectReader getObjectReader(Class<?> objectClass,
+            ObjectMapper objectMapper) {
+        ConcurrentMap<Class<?>, ObjectReader> readers = this.objectReaders
+                .get(objectMapper);
+
+        if (readers == null) {
+            readers = new ConcurrentHashMap<Class<?>, ObjectReader>();
+            ConcurrentMap<Class<?>, ObjectReader> current = this.objectReaders
+                    .putIfAbsent(objectMapper, readers);
+
+            if (current != null) {
+                readers = current;
+            }
+        }
+
+        ObjectReader result = readers.get(objectClass);
+
+        if (result == null) {
+            if (objectMapper instanceof CsvMapper) {
+                result = objectMapper.reader(objectClass).with(
+                        getCsvSchema(objectClass, (CsvMapper) objectMapper));
+            } else {
+                result = objectMapper.reader(objectClass);
+            }
+
+            ObjectReader current = readers.putIfAbsent(objectClass, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the cached object writer for an object class, creating it with
+     * the given object mapper if needed.
+     * 
+     * @param objectClass
+     *            The object class.
+     * @param objectMapper
+     *            The object mapper.
+     * @return The object writer.
+     */
+    protected ObjectWriter getObjectWriter(Class<?> objectClass,
+            ObjectMapper objectMapper) {
+        ConcurrentMap<Class<?>, ObjectWriter> writers = this.objectWriters
+                .get(objectMapper);
+
+        if (writers == null) {
+            writers = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+            ConcurrentMap<Class<?>, ObjectWriter> current = this.objectWriters
+                    .putIfAbsent(objectMapper, writers);
+
+            if (current != null) {
+                writers = current;
+            }
+        }
+
+        ObjectWriter result = writers.get(objectClass);
+
+        if (result == null) {
+            if (objectMapper instanceof CsvMapper) {
+                result = objectMapper.writer(getCsvSchema(objectClass,
+                        (CsvMapper) objectMapper));
+            } else {
+                result = objectMapper.writerWithType(objectClass);
+            }
+
+            ObjectWriter current = writers.putIfAbsent(objectClass, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<VariantInfo> getVariants(Class<?> source) {
         List<VariantInfo> result = null;
@@ -209,6 +518,7 @@ public class JacksonConverter extends ConverterHelper {
             jacksonSource = (JacksonRepresentation<?>) source;
         } else if (isCompatible(source)) {
             jacksonSource = create(source, target);
+            configure(jacksonSource, resource);
         }
 
         if (jacksonSource != null) {
@@ -236,13 +546,37 @@ public class JacksonConverter extends ConverterHelper {
                 target.setMediaType(MediaType.APPLICATION_JSON);
             }
             if (isCompatible(target)) {
-                result = create(target.getMediaType(), source);
+                JacksonRepresentation<Object> jacksonResult = create(
+                        target.getMediaType(), source);
+                configure(jacksonResult, resource);
+                result = jacksonResult;
             }
         }
 
         return result;
     }
 
+    /**
+     * Replaces the object mapper shared for a given media type. Useful to
+     * customize the mappings of all the representations created by this
+     * converter.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @param objectMapper
+     *            The object mapper to share.
+     */
+    public void setObjectMapper(MediaType mediaType, ObjectMapper objectMapper) {
+        MediaType key = getMediaTypeKey(mediaType);
+        ObjectMapper previous = this.objectMappers.put(key, objectMapper);
+
+        if (previous != null) {
+            this.csvSchemas.remove(previous);
+            this.objectReaders.remove(previous);
+            this.objectWriters.remove(previous);
+        }
+    }
+
     @Override
     public <T> void updatePreferences(List<Preference<MediaType>> preferences,
             Class<T> entity) {
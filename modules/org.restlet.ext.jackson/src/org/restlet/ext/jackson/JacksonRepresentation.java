@@ -194,47 +194,54 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
      * Creates a Jackson object mapper based on a media type. It supports JSON,
      * JSON Smile, XML, YAML and CSV.
      * 
+     * @param mediaType
+     *            The target media type.
+     * @param expandingEntityRefs
+     *            True if the XML parser will expand entity reference nodes.
+     * @param validatingDtd
+     *            True if the XML parser will validate DTD documents.
      * @return The Jackson object mapper.
      */
-    protected ObjectMapper createObjectMapper() {
+    static ObjectMapper createObjectMapper(MediaType mediaType,
+            boolean expandingEntityRefs, boolean validatingDtd) {
         ObjectMapper result = null;
 
-        if (MediaType.APPLICATION_JSON.isCompatible(getMediaType())) {
+        if (MediaType.APPLICATION_JSON.isCompatible(mediaType)) {
             JsonFactory jsonFactory = new JsonFactory();
             jsonFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
             result = new ObjectMapper(jsonFactory);
         } else if (MediaType.APPLICATION_JSON_SMILE
-                .isCompatible(getMediaType())) {
+                .isCompatible(mediaType)) {
             SmileFactory smileFactory = new SmileFactory();
             smileFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
             result = new ObjectMapper(smileFactory);
         } else if (MediaType.APPLICATION_CBOR
-                .isCompatible(getMediaType())) {
+                .isCompatible(mediaType)) {
             CBORFactory cborFactory = new CBORFactory();
             cborFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
             result = new ObjectMapper(cborFactory);
             // [ifndef android]
-        } else if (MediaType.APPLICATION_XML.isCompatible(getMediaType())
-                || MediaType.TEXT_XML.isCompatible(getMediaType())) {
+        } else if (MediaType.APPLICATION_XML.isCompatible(mediaType)
+                || MediaType.TEXT_XML.isCompatible(mediaType)) {
             javax.xml.stream.XMLInputFactory xif = XmlFactoryProvider.newInputFactory();
             xif.setProperty(
                     javax.xml.stream.XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
-                    isExpandingEntityRefs());
+                    expandingEntityRefs);
             xif.setProperty(javax.xml.stream.XMLInputFactory.SUPPORT_DTD,
-                    isExpandingEntityRefs());
+                    expandingEntityRefs);
             xif.setProperty(javax.xml.stream.XMLInputFactory.IS_VALIDATING,
-                    isValidatingDtd());
+                    validatingDtd);
             javax.xml.stream.XMLOutputFactory xof = XmlFactoryProvider.newOutputFactory();
             XmlFactory xmlFactory = new XmlFactory(xif, xof);
             xmlFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
             result = new XmlMapper(xmlFactory);
             // [enddef]
-        } else if (MediaType.APPLICATION_YAML.isCompatible(getMediaType())
-                || MediaType.TEXT_YAML.isCompatible(getMediaType())) {
+        } else if (MediaType.APPLICATION_YAML.isCompatible(mediaType)
+                || MediaType.TEXT_YAML.isCompatible(mediaType)) {
             YAMLFactory yamlFactory = new YAMLFactory();
             yamlFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
             result = new ObjectMapper(yamlFactory);
-        } else if (MediaType.TEXT_CSV.isCompatible(getMediaType())) {
+        } else if (MediaType.TEXT_CSV.isCompatible(mediaType)) {
             CsvFactory csvFactory = new CsvFactory();
             csvFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
             result = new CsvMapper(csvFactory);
@@ -247,6 +254,23 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         return result;
     }
 
+    /**
+     * Creates a Jackson object mapper based on a media type. It supports JSON,
+     * JSON Smile, XML, YAML and CSV.
+     * 
+     * @return The Jackson object mapper.
+     */
+    protected ObjectMapper createObjectMapper() {
+        boolean expandingEntityRefs = false;
+        boolean validatingDtd = false;
+        // [ifndef android]
+        expandingEntityRefs = isExpandingEntityRefs();
+        validatingDtd = isValidatingDtd();
+        // [enddef]
+        return createObjectMapper(getMediaType(), expandingEntityRefs,
+                validatingDtd);
+    }
+
     /**
      * Creates a Jackson object reader based on a mapper. Has a special handling
      * for CSV media types.
@@ -371,6 +395,15 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         return this.objectWriter;
     }
 
+    /**
+     * Indicates if an object mapper was already set or created.
+     * 
+     * @return True if an object mapper was already set or created.
+     */
+    boolean hasObjectMapper() {
+        return this.objectMapper != null;
+    }
+
     // [ifndef android] method
     /**
      * Indicates if the parser will expand entity reference nodes. By default
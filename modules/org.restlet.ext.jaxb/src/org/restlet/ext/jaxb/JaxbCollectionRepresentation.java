@@ -0,0 +1,237 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.jaxb;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.logging.Level;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.restlet.Context;
+import org.restlet.data.MediaType;
+import org.restlet.ext.jaxb.internal.Marshaller;
+
+/**
+ * An XML representation based on JAXB that streams a collection of elements
+ * inside a root element. Elements are marshalled one after the other into a
+ * StAX writer so that large or lazily computed collections don't need to be
+ * wrapped into a single JAXB content tree.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The type of the elements.
+ */
+public class JaxbCollectionRepresentation<T> extends
+        JaxbRepresentation<Iterable<T>> {
+
+    /**
+     * The name of the elements, used when they aren't JAXB root elements.
+     */
+    private volatile QName elementName;
+
+    /** The type of the elements. */
+    private final Class<T> elementType;
+
+    /** The name of the root element. */
+    private volatile QName rootName;
+
+    /**
+     * Constructor with {@link MediaType#APPLICATION_XML}.
+     * 
+     * @param rootName
+     *            The name of the root element.
+     * @param elements
+     *            The elements to marshal.
+     * @param elementType
+     *            The type of the elements.
+     */
+    public JaxbCollectionRepresentation(QName rootName, Iterable<T> elements,
+            Class<T> elementType) {
+        this(MediaType.APPLICATION_XML, rootName, elements, elementType);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param mediaType
+     *            The representation's media type.
+     * @param rootName
+     *            The name of the root element.
+     * @param elements
+     *            The elements to marshal.
+     * @param elementType
+     *            The type of the elements.
+     * @throws IllegalArgumentException
+     *             If the type of the elements is in the default package.
+     */
+    public JaxbCollectionRepresentation(MediaType mediaType, QName rootName,
+            Iterable<T> elements, Class<T> elementType) {
+        super(mediaType, elements, elementType.getClassLoader());
+
+        // The package object may be undefined by the class loader, so rely on
+        // the class name. JAXB context paths can't denote the default package.
+        String typeName = elementType.getName();
+        int index = typeName.lastIndexOf('.');
+
+        if (index == -1) {
+            throw new IllegalArgumentException(
+                    "The type of the elements can't be in the default package: "
+                            + typeName);
+        }
+
+        setContextPath(typeName.substring(0, index));
+        this.elementName = null;
+        this.elementType = elementType;
+        this.rootName = rootName;
+    }
+
+    /**
+     * Creates the StAX writer used to stream the collection. By default, it
+     * uses a new factory, like the SAX parsers created for unmarshalling.
+     * 
+     * @param writer
+     *            The target writer.
+     * @return The StAX writer.
+     * @throws XMLStreamException
+     */
+    protected XMLStreamWriter createXmlStreamWriter(Writer writer)
+            throws XMLStreamException {
+        return XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+    }
+
+    /**
+     * Returns the name of the elements, used when they aren't JAXB root
+     * elements.
+     * 
+     * @return The name of the elements.
+     */
+    public QName getElementName() {
+        return elementName;
+    }
+
+    /**
+     * Returns the type of the elements.
+     * 
+     * @return The type of the elements.
+     */
+    public Class<T> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Returns the name of the root element.
+     * 
+     * @return The name of the root element.
+     */
+    public QName getRootName() {
+        return rootName;
+    }
+
+    /**
+     * Sets the name of the elements, used when they aren't JAXB root elements.
+     * 
+     * @param elementName
+     *            The name of the elements.
+     */
+    public void setElementName(QName elementName) {
+        this.elementName = elementName;
+    }
+
+    /**
+     * Sets the name of the root element.
+     * 
+     * @param rootName
+     *            The name of the root element.
+     */
+    public void setRootName(QName rootName) {
+        this.rootName = rootName;
+    }
+
+    /**
+     * Writes the root element and streams each element inside it.
+     * 
+     * @param writer
+     *            The writer to use when writing.
+     * 
+     * @throws IOException
+     *             If any error occurs attempting to write the stream.
+     */
+    @Override
+    public void write(Writer writer) throws IOException {
+        try {
+            XMLStreamWriter xmlWriter = createXmlStreamWriter(writer);
+            QName root = getRootName();
+            boolean namespaced = !XMLConstants.NULL_NS_URI.equals(root
+                    .getNamespaceURI());
+
+            if (!isFragment()) {
+                xmlWriter.writeStartDocument((getCharacterSet() == null) ? "UTF-8"
+                        : getCharacterSet().getName(), "1.0");
+            }
+
+            if (namespaced) {
+                xmlWriter.setPrefix(root.getPrefix(), root.getNamespaceURI());
+                xmlWriter.writeStartElement(root.getPrefix(),
+                        root.getLocalPart(), root.getNamespaceURI());
+
+                if (XMLConstants.DEFAULT_NS_PREFIX.equals(root.getPrefix())) {
+                    xmlWriter.writeDefaultNamespace(root.getNamespaceURI());
+                } else {
+                    xmlWriter.writeNamespace(root.getPrefix(),
+                            root.getNamespaceURI());
+                }
+            } else {
+                xmlWriter.writeStartElement(root.getLocalPart());
+            }
+
+            new Marshaller<Iterable<T>>(this, getContextPath(),
+                    getClassLoader()).marshal(getObject(), getElementName(),
+                    xmlWriter);
+            xmlWriter.writeEndElement();
+
+            if (!isFragment()) {
+                xmlWriter.writeEndDocument();
+            }
+
+            xmlWriter.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to stream the XML collection: "
+                    + e.getMessage());
+        } catch (JAXBException e) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "JAXB marshalling error caught.", e);
+            throw new IOException("Unable to marshal the XML collection: "
+                    + e.getMessage());
+        }
+    }
+
+}
@@ -26,8 +26,11 @@ package org.restlet.ext.jaxb;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 
 import javax.xml.bind.JAXBContext;
@@ -56,8 +59,12 @@ import com.sun.xml.bind.marshaller.NamespacePrefixMapper;
  */
 public class JaxbRepresentation<T> extends WriterRepresentation {
 
-    /** Improves performance by caching contexts which are expensive to create. */
-    private final static Map<String, JAXBContext> contexts = new ConcurrentHashMap<String, JAXBContext>();
+    /**
+     * Improves performance by caching contexts which are expensive to create.
+     * Each context is created once by the first thread asking for it, while
+     * the other threads wait for the same future task.
+     */
+    private final static ConcurrentMap<String, FutureTask<JAXBContext>> contexts = new ConcurrentHashMap<String, FutureTask<JAXBContext>>();
 
     /**
      * Returns the JAXB context, if possible from the cached contexts.
@@ -68,7 +75,7 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
      * @return The JAXB context.
      * @throws JAXBException
      */
-    public static synchronized JAXBContext getContext(String contextPath)
+    public static JAXBContext getContext(String contextPath)
             throws JAXBException {
         return getContext(contextPath, null);
     }
@@ -85,19 +92,44 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
      * @return The JAXB context.
      * @throws JAXBException
      */
-    public static synchronized JAXBContext getContext(String contextPath,
-            ClassLoader classLoader) throws JAXBException {
+    public static JAXBContext getContext(final String contextPath,
+            final ClassLoader classLoader) throws JAXBException {
         // Contexts are thread-safe so reuse those.
-        JAXBContext result = contexts.get(contextPath);
-
-        if (result == null) {
-            result = (classLoader == null) ? JAXBContext
-                    .newInstance(contextPath) : JAXBContext.newInstance(
-                    contextPath, classLoader);
-            contexts.put(contextPath, result);
+        FutureTask<JAXBContext> task = contexts.get(contextPath);
+
+        if (task == null) {
+            FutureTask<JAXBContext> newTask = new FutureTask<JAXBContext>(
+                    new Callable<JAXBContext>() {
+                        public JAXBContext call() throws Exception {
+                            return (classLoader == null) ? JAXBContext
+                                    .newInstance(contextPath) : JAXBContext
+                                    .newInstance(contextPath, classLoader);
+                        }
+                    });
+            task = contexts.putIfAbsent(contextPath, newTask);
+
+            if (task == null) {
+                task = newTask;
+                task.run();
+            }
         }
 
-        return result;
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JAXBException("Interrupted while creating the context",
+                    e);
+        } catch (ExecutionException e) {
+            // Let a later call try again
+            contexts.remove(contextPath, task);
+
+            if (e.getCause() instanceof JAXBException) {
+                throw (JAXBException) e.getCause();
+            }
+
+            throw new JAXBException(e.getCause());
+        }
     }
 
     /**
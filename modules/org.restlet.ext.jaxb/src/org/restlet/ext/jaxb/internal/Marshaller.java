@@ -27,11 +27,12 @@ package org.restlet.ext.jaxb.internal;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.logging.Level;
 
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamWriter;
 
-import org.restlet.Context;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 
 /**
@@ -40,12 +41,18 @@ import org.restlet.ext.jaxb.JaxbRepresentation;
  * 
  * This class is a factory that constructs an instance of itself for multiple
  * uses. The created instance is thread safe and is optimized to be used for
- * multiple, possibly concurrent calls.
+ * multiple, possibly concurrent calls. The underlying JAXB marshallers are
+ * taken from a pool shared by all instances, unless the parent representation
+ * sets a schema location or a namespace prefix mapper.
  * 
  * @author Overstock.com
  */
 public class Marshaller<T> {
 
+    /** The pool of JAXB marshallers, by context path. */
+    private static final Pool<javax.xml.bind.Marshaller> pool = new Pool<javax.xml.bind.Marshaller>(
+            4 * Runtime.getRuntime().availableProcessors());
+
     /** The JAXB classloader. */
     private final ClassLoader classLoader;
 
@@ -55,52 +62,6 @@ public class Marshaller<T> {
     /** The parent JAXB representation. */
     private final JaxbRepresentation<T> jaxbRepresentation;
 
-    /** Use thread identity to preserve safety of access to marshalers. */
-    private final ThreadLocal<javax.xml.bind.Marshaller> marshaller = new ThreadLocal<javax.xml.bind.Marshaller>() {
-
-        @Override
-        protected synchronized javax.xml.bind.Marshaller initialValue() {
-            javax.xml.bind.Marshaller m = null;
-
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createMarshaller();
-                m.setProperty("jaxb.formatted.output", getJaxbRepresentation()
-                        .isFormattedOutput());
-
-                if (getJaxbRepresentation().getSchemaLocation() != null) {
-                    m.setProperty("jaxb.schemaLocation",
-                            getJaxbRepresentation().getSchemaLocation());
-                }
-                if (getJaxbRepresentation().getNoNamespaceSchemaLocation() != null) {
-                    m.setProperty("jaxb.noNamespaceSchemaLocation",
-                            getJaxbRepresentation()
-                                    .getNoNamespaceSchemaLocation());
-                }
-
-                if (Marshaller.this.jaxbRepresentation.getCharacterSet() != null) {
-                    m.setProperty("jaxb.encoding",
-                            Marshaller.this.jaxbRepresentation
-                                    .getCharacterSet().getName());
-                }
-
-                if (getJaxbRepresentation().getNamespacePrefixMapper() != null) {
-                    m.setProperty("com.sun.xml.bind.namespacePrefixMapper",
-                            getJaxbRepresentation().getNamespacePrefixMapper());
-                }
-
-                m.setProperty("jaxb.fragment", getJaxbRepresentation()
-                        .isFragment());
-            } catch (Exception e) {
-                Context.getCurrentLogger().log(Level.WARNING,
-                        "Problem creating Marshaller", e);
-                return null;
-            }
-
-            return m;
-        }
-    };
-
     // This is a factory class.
     public Marshaller(JaxbRepresentation<T> jaxbRepresentation) {
         this(jaxbRepresentation, null, null);
@@ -151,18 +112,94 @@ public class Marshaller<T> {
     }
 
     /**
-     * Returns the JAXB marshaller.
+     * Returns a JAXB marshaller configured for the parent representation. It
+     * must be released after use.
      * 
      * @return The JAXB marshaller.
      * @throws JAXBException
      */
     private javax.xml.bind.Marshaller getMarshaller() throws JAXBException {
-        final javax.xml.bind.Marshaller m = this.marshaller.get();
-        if (m == null) {
-            Context.getCurrentLogger().warning("Unable to locate marshaller.");
-            throw new JAXBException("Unable to locate marshaller.");
+        JaxbRepresentation<T> rep = getJaxbRepresentation();
+        javax.xml.bind.Marshaller result = isPoolable() ? pool
+                .poll(getContextPath()) : null;
+
+        if (result == null) {
+            result = JaxbRepresentation.getContext(getContextPath(),
+                    getClassLoader()).createMarshaller();
+
+            if (rep.getSchemaLocation() != null) {
+                result.setProperty("jaxb.schemaLocation",
+                        rep.getSchemaLocation());
+            }
+
+            if (rep.getNoNamespaceSchemaLocation() != null) {
+                result.setProperty("jaxb.noNamespaceSchemaLocation",
+                        rep.getNoNamespaceSchemaLocation());
+            }
+
+            if (rep.getNamespacePrefixMapper() != null) {
+                result.setProperty("com.sun.xml.bind.namespacePrefixMapper",
+                        rep.getNamespacePrefixMapper());
+            }
         }
-        return m;
+
+        // Reset the properties that may differ from the previous use
+        result.setProperty("jaxb.formatted.output", rep.isFormattedOutput());
+        result.setProperty("jaxb.encoding",
+                (rep.getCharacterSet() == null) ? "UTF-8" : rep
+                        .getCharacterSet().getName());
+        result.setProperty("jaxb.fragment", rep.isFragment());
+        result.setEventHandler(rep.getValidationEventHandler());
+        return result;
+    }
+
+    /**
+     * Indicates if the JAXB marshallers can be pooled. This isn't the case
+     * when properties that can't be reset are set on the parent
+     * representation.
+     * 
+     * @return True if the JAXB marshallers can be pooled.
+     */
+    private boolean isPoolable() {
+        JaxbRepresentation<T> rep = getJaxbRepresentation();
+        return (getContextPath() != null) && (rep.getSchemaLocation() == null)
+                && (rep.getNoNamespaceSchemaLocation() == null)
+                && (rep.getNamespacePrefixMapper() == null);
+    }
+
+    /**
+     * Marshals a sequence of elements into a StAX writer, one after the other.
+     * Elements that aren't JAXB root elements are wrapped into a
+     * {@link JAXBElement} with the given name.
+     * 
+     * @param elements
+     *            The elements to marshal.
+     * @param elementName
+     *            The name of the wrapping element or null.
+     * @param writer
+     *            The target StAX writer.
+     * @throws JAXBException
+     *             If any unexpected problem occurs during marshalling.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void marshal(Iterable<?> elements, QName elementName,
+            XMLStreamWriter writer) throws JAXBException {
+        javax.xml.bind.Marshaller m = getMarshaller();
+
+        // No document level events for each element
+        m.setProperty("jaxb.fragment", true);
+
+        for (Object element : elements) {
+            if ((elementName != null) && (element != null)
+                    && !(element instanceof JAXBElement)) {
+                m.marshal(new JAXBElement(elementName, element.getClass(),
+                        element), writer);
+            } else {
+                m.marshal(element, writer);
+            }
+        }
+
+        release(m);
     }
 
     /**
@@ -192,9 +229,22 @@ public class Marshaller<T> {
      *             If any unexpected problem occurs during marshaling.
      */
     public void marshal(Object jaxbElement, Writer writer) throws JAXBException {
-        getMarshaller().setEventHandler(
-                getJaxbRepresentation().getValidationEventHandler());
-        getMarshaller().marshal(jaxbElement, writer);
+        javax.xml.bind.Marshaller m = getMarshaller();
+        m.marshal(jaxbElement, writer);
+        release(m);
+    }
+
+    /**
+     * Returns a JAXB marshaller to the pool, if possible. Marshallers that
+     * failed aren't released, in case they are left in an inconsistent state.
+     * 
+     * @param marshaller
+     *            The JAXB marshaller.
+     */
+    private void release(javax.xml.bind.Marshaller marshaller) {
+        if (isPoolable()) {
+            pool.offer(getContextPath(), marshaller);
+        }
     }
 
 }
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.jaxb.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of reusable objects, such as JAXB marshallers, grouped by key.
+ * Unlike thread locals, pooled objects are shared by all threads, which suits
+ * a large number of short-lived threads such as virtual threads. The pool
+ * never blocks: when empty, the caller creates a new object and when full, the
+ * released object is discarded.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The type of pooled objects.
+ */
+public class Pool<T> {
+
+    /** The idle objects and their count, for a given key. */
+    private static class Entry<T> {
+
+        /** The idle objects. */
+        private final ConcurrentLinkedQueue<T> objects = new ConcurrentLinkedQueue<T>();
+
+        /** The number of idle objects. */
+        private final AtomicInteger size = new AtomicInteger();
+
+    }
+
+    /** The maximum number of idle objects per key. */
+    private final int capacity;
+
+    /** The idle objects by key. */
+    private final ConcurrentMap<String, Entry<T>> entries;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The maximum number of idle objects per key.
+     */
+    public Pool(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<String, Entry<T>>();
+    }
+
+    /**
+     * Removes all the idle objects.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the maximum number of idle objects per key.
+     * 
+     * @return The maximum number of idle objects per key.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns an idle object to the pool.
+     * 
+     * @param key
+     *            The object key.
+     * @param object
+     *            The object to return.
+     * @return True if the object was kept, false if the pool is full.
+     */
+    public boolean offer(String key, T object) {
+        Entry<T> entry = this.entries.get(key);
+
+        if (entry == null) {
+            Entry<T> newEntry = new Entry<T>();
+            entry = this.entries.putIfAbsent(key, newEntry);
+
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+
+        if (entry.size.incrementAndGet() > getCapacity()) {
+            entry.size.decrementAndGet();
+            return false;
+        }
+
+        entry.objects.offer(object);
+        return true;
+    }
+
+    /**
+     * Takes an idle object from the pool.
+     * 
+     * @param key
+     *            The object key.
+     * @return An idle object or null if none is available.
+     */
+    public T poll(String key) {
+        Entry<T> entry = this.entries.get(key);
+        T result = (entry == null) ? null : entry.objects.poll();
+
+        if (result != null) {
+            entry.size.decrementAndGet();
+        }
+
+        return result;
+    }
+
+}
@@ -28,7 +28,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.logging.Level;
 
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBException;
@@ -36,7 +35,6 @@ import javax.xml.bind.ValidationEventHandler;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.sax.SAXSource;
 
-import org.restlet.Context;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
@@ -46,8 +44,8 @@ import org.xml.sax.XMLReader;
  * tree.
  * 
  * Each {@code unmarshal} method takes a different source for the XML. This
- * class caches information to improve unmarshaling performance across calls
- * using the same schema (package).
+ * class pools the JAXB unmarshallers to improve unmarshaling performance
+ * across calls using the same schema (package).
  * 
  * @author Overstock.com
  */
@@ -59,24 +57,12 @@ public class Unmarshaller<T> {
     /** The JAXB context path. */
     private final String contextPath;
 
-    /**
-     * Use thread identity to preserve safety of access to unmarshallers.
-     */
-    private final ThreadLocal<javax.xml.bind.Unmarshaller> unmarshaller = new ThreadLocal<javax.xml.bind.Unmarshaller>() {
-        @Override
-        protected synchronized javax.xml.bind.Unmarshaller initialValue() {
-            javax.xml.bind.Unmarshaller m = null;
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createUnmarshaller();
-            } catch (Exception e) {
-                Context.getCurrentLogger().log(Level.WARNING,
-                        "Problem creating Unmarshaller", e);
-                return null;
-            }
-            return m;
-        }
-    };
+    /** The pool of JAXB unmarshallers, by context path. */
+    private static final Pool<javax.xml.bind.Unmarshaller> pool = new Pool<javax.xml.bind.Unmarshaller>(
+            4 * Runtime.getRuntime().availableProcessors());
+
+    /** The validation event handler. */
+    private volatile ValidationEventHandler eventHandler;
 
     /**
      * Constructor.
@@ -110,19 +96,40 @@ public class Unmarshaller<T> {
     }
 
     /**
-     * Returns the JAXB unmarshaller.
+     * Returns the validation event handler.
+     * 
+     * @return The validation event handler.
+     */
+    public ValidationEventHandler getEventHandler() {
+        return eventHandler;
+    }
+
+    /**
+     * Returns a JAXB unmarshaller, either idle in the pool or newly created.
+     * It must be released after use.
      * 
      * @return The JAXB unmarshaller.
      * @throws JAXBException
      */
     private javax.xml.bind.Unmarshaller getUnmarshaller() throws JAXBException {
-        final javax.xml.bind.Unmarshaller m = this.unmarshaller.get();
-        if (m == null) {
-            Context.getCurrentLogger()
-                    .warning("Unable to locate unmarshaller.");
-            throw new JAXBException("Unable to locate unmarshaller.");
+        javax.xml.bind.Unmarshaller result = pool.poll(getContextPath());
+
+        if (result == null) {
+            result = JaxbRepresentation.getContext(getContextPath(),
+                    getClassLoader()).createUnmarshaller();
         }
-        return m;
+
+        return result;
+    }
+
+    /**
+     * Returns a JAXB unmarshaller to the pool.
+     * 
+     * @param unmarshaller
+     *            The JAXB unmarshaller.
+     */
+    private void release(javax.xml.bind.Unmarshaller unmarshaller) {
+        pool.offer(getContextPath(), unmarshaller);
     }
 
     /**
@@ -135,7 +142,7 @@ public class Unmarshaller<T> {
      */
     public void setEventHandler(ValidationEventHandler handler)
             throws JAXBException {
-        getUnmarshaller().setEventHandler(handler);
+        this.eventHandler = handler;
     }
 
     /**
@@ -209,7 +216,11 @@ public class Unmarshaller<T> {
             throw new JAXBException("Unable to create customized SAX source", e);
         }
 
-        getUnmarshaller().setEventHandler(jaxbRep.getValidationEventHandler());
-        return getUnmarshaller().unmarshal(ss);
+        ValidationEventHandler handler = jaxbRep.getValidationEventHandler();
+        javax.xml.bind.Unmarshaller u = getUnmarshaller();
+        u.setEventHandler((handler == null) ? getEventHandler() : handler);
+        Object result = u.unmarshal(ss);
+        release(u);
+        return result;
     }
 }
@@ -915,8 +915,10 @@ public class JaxRsRestlet extends Restlet {
         // e: Set<RegExp>
         // Map<UriTemplateRegExp, Class> eAndCs = new HashMap();
         Collection<RootResourceClass> eAndCs = new ArrayList<RootResourceClass>();
-        // (a) and (b) and (c) Filter E
-        for (RootResourceClass rootResourceClass : this.resourceClasses.roots()) {
+        // (a) and (b) and (c) Filter E; only the root resource classes with a
+        // matching first literal path segment are checked.
+        for (RootResourceClass rootResourceClass : this.resourceClasses
+                .rootsTable().getCandidates(u)) {
             // Map.Entry<UriTemplateRegExp, Class> eAndC = eAndCIter.next();
             // UriTemplateRegExp regExp = eAndC.getKey();
             // Class clazz = eAndC.getValue();
@@ -1112,7 +1114,7 @@ public class JaxRsRestlet extends Restlet {
             // (c) and (d) Filter E: remove members do not match U or final
             // match not empty
             for (ResourceMethodOrLocator methodOrLocator : resClass
-                    .getResourceMethodsAndLocators()) {
+                    .getResourceMethodsAndLocators(u)) {
                 PathRegExp pathRegExp = methodOrLocator.getPathRegExp();
                 MatchingResult matchingResult = pathRegExp.match(u);
                 if (matchingResult == null)
@@ -1242,6 +1244,8 @@ public class JaxRsRestlet extends Restlet {
     @Override
     public void start() throws Exception {
         providers.initAll();
+        // Compiles the dispatch table of the root resource classes
+        resourceClasses.rootsTable();
 
         // Must be invoked as a last step
         super.start();
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxrs.internal.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.ext.jaxrs.internal.wrappers.RrcOrRml;
+
+/**
+ * Precompiled dispatch table for root resource classes or for the sub
+ * resource methods and locators of a resource class. The members are indexed
+ * by the first literal segment of their path, so that only the members that
+ * could match a given remaining path have to be checked against their regular
+ * expression. The candidates keep the order of the given members, so the
+ * result of the request matching algorithm is not changed.
+ * 
+ * @author Stephan Koops
+ * @param <R>
+ *            the type of the members.
+ * @see PathRegExp#getFirstLiteralSegment()
+ */
+public class PathDispatchTable<R extends RrcOrRml> {
+
+    /**
+     * The candidates for the remaining paths starting with one of the literal
+     * segments.
+     */
+    private final Map<String, List<R>> candidates;
+
+    /**
+     * The members without a first literal segment. They are the candidates for
+     * all remaining paths not starting with one of the literal segments.
+     */
+    private final List<R> unindexed;
+
+    /**
+     * Creates a new dispatch table.
+     * 
+     * @param members
+     *            the root resource classes, sub resource methods or sub
+     *            resource locators, in the order to check them.
+     */
+    public PathDispatchTable(Iterable<? extends R> members) {
+        final Map<String, List<R>> candidates = new HashMap<String, List<R>>();
+        final List<R> unindexed = new ArrayList<R>();
+        for (final R member : members) {
+            final String segment = member.getPathRegExp()
+                    .getFirstLiteralSegment();
+            if (segment == null) {
+                unindexed.add(member);
+            } else if (!candidates.containsKey(segment)) {
+                candidates.put(segment, new ArrayList<R>());
+            }
+        }
+        // the members without literal segment may match every path, so they
+        // are added to every list, keeping the order of all members.
+        for (final R member : members) {
+            final String segment = member.getPathRegExp()
+                    .getFirstLiteralSegment();
+            for (final Map.Entry<String, List<R>> entry : candidates
+                    .entrySet()) {
+                if ((segment == null) || segment.equals(entry.getKey())) {
+                    entry.getValue().add(member);
+                }
+            }
+        }
+        for (final Map.Entry<String, List<R>> entry : candidates.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.candidates = candidates;
+        this.unindexed = Collections.unmodifiableList(unindexed);
+    }
+
+    /**
+     * Returns the members that could match the given remaining path, in the
+     * order given to the constructor. The other members could not match the
+     * remaining path.
+     * 
+     * @param remainingPath
+     *            the remaining path to match.
+     * @return an unmodifiable list of the candidates. Never returns null.
+     */
+    public List<R> getCandidates(RemainingPath remainingPath) {
+        final String path = remainingPath.getWithoutParams();
+        final int slash = path.indexOf('/');
+        List<R> result = null;
+        if (slash > 0) {
+            result = this.candidates.get(path.substring(0, slash));
+        }
+        return (result == null) ? this.unindexed : result;
+    }
+}
@@ -131,8 +131,48 @@ public class PathRegExp {
         }
     }
 
+    /**
+     * Returns the first segment of the given path template, if it only
+     * contains characters that are matched literally by the regular
+     * expression, otherwise null.
+     * 
+     * @param pathTemplate
+     *            the path template
+     * @return the first literal path segment, or null.
+     */
+    private static String extractFirstLiteralSegment(String pathTemplate) {
+        final int l = pathTemplate.length();
+        final int start = (l > 0 && pathTemplate.charAt(0) == '/') ? 1 : 0;
+        int end = start;
+        for (; end < l; end++) {
+            final char c = pathTemplate.charAt(end);
+            if (c == '/') {
+                break;
+            }
+            // '.' is not escaped in the regular expression, so it is not
+            // matched literally
+            if (!(((c >= 'A') && (c <= 'Z')) || ((c >= 'a') && (c <= 'z'))
+                    || ((c >= '0') && (c <= '9')) || (c == '-')
+                    || (c == '_') || (c == '~'))) {
+                return null;
+            }
+        }
+        if (end == start) {
+            return null;
+        }
+        return pathTemplate.substring(start, end);
+    }
+
     private final boolean emptyOrSlash;
 
+    /**
+     * The first path segment of the template, if it is matched literally,
+     * otherwise null.
+     * 
+     * @see #getFirstLiteralSegment()
+     */
+    private final String firstLiteralSegment;
+
     /** Contains the number of literal chars in this Regular Expression */
     private final Integer noLitChars;
 
@@ -224,6 +264,7 @@ public class PathRegExp {
 
         this.pattern = Pattern.compile(pathPattern.toString());
         this.emptyOrSlash = Util.isEmptyOrSlash(pathTemplate);
+        this.firstLiteralSegment = extractFirstLiteralSegment(pathTemplate);
         if (l > 0) {
             if (pathTemplate.charAt(0) != '/') {
                 pathTemplate = '/' + pathTemplate;
@@ -253,6 +294,18 @@ public class PathRegExp {
         return this.pattern.pattern().equals(otherRegExp.pattern.pattern());
     }
 
+    /**
+     * Returns the first path segment of the template, if it only contains
+     * characters that are matched literally. A remaining path could only match
+     * this regular expression, if its first segment is equal to it.
+     * 
+     * @return the first literal path segment, or null if the first segment
+     *         contains a variable or characters not matched literally.
+     */
+    public String getFirstLiteralSegment() {
+        return this.firstLiteralSegment;
+    }
+
     /**
      * @return the number of capturing groups with regular expressions that are
      *         not the default.
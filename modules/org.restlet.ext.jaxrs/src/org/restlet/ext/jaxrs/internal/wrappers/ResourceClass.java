@@ -50,6 +50,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalParamTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnClassException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnMethodException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
+import org.restlet.ext.jaxrs.internal.util.PathDispatchTable;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
 import org.restlet.ext.jaxrs.internal.util.RemainingPath;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
@@ -92,6 +93,18 @@ public class ResourceClass extends AbstractJaxRsWrapper {
      */
     private final Collection<ResourceMethodOrLocator> resourceMethodsAndLocators = new ArrayList<ResourceMethodOrLocator>();
 
+    /**
+     * The resource methods and sub resource locators of this resource class,
+     * indexed by the first literal segment of their path.
+     */
+    private final PathDispatchTable<ResourceMethodOrLocator> resourceMethodsAndLocatorsTable;
+
+    /**
+     * The resource methods of this resource class, indexed by the first
+     * literal segment of their path.
+     */
+    private final PathDispatchTable<ResourceMethod> resourceMethodsTable;
+
     /**
      * The sub resource locators of this resource class. (It is initialized in
      * method.)
@@ -128,6 +141,10 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         this.jaxRsClass = jaxRsClass;
         this.initResourceMethodsAndLocators(tlContext, jaxRsProviders,
                 extensionBackwardMapping, logger);
+        this.resourceMethodsTable = new PathDispatchTable<ResourceMethod>(
+                this.resourceMethods);
+        this.resourceMethodsAndLocatorsTable = new PathDispatchTable<ResourceMethodOrLocator>(
+                this.resourceMethodsAndLocators);
     }
 
     /**
@@ -157,6 +174,10 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         this.jaxRsClass = jaxRsClass;
         initResourceMethodsAndLocators(tlContext, jaxRsProviders,
                 extensionBackwardMapping, logger);
+        this.resourceMethodsTable = new PathDispatchTable<ResourceMethod>(
+                this.resourceMethods);
+        this.resourceMethodsAndLocatorsTable = new PathDispatchTable<ResourceMethodOrLocator>(
+                this.resourceMethodsAndLocators);
     }
 
     /**
@@ -304,7 +325,8 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         // NICE results may be chached, if any method is returned.
         // The 404 case will be called rarely and produce a lot of cached data.
         final List<ResourceMethod> resourceMethods = new ArrayList<ResourceMethod>();
-        for (final ResourceMethod method : this.resourceMethods) {
+        for (final ResourceMethod method : this.resourceMethodsTable
+                .getCandidates(remainingPath)) {
             final PathRegExp methodPath = method.getPathRegExp();
             if (remainingPath.isEmptyOrSlash()) {
                 if (methodPath.isEmptyOrSlash()) {
@@ -340,6 +362,22 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         return this.resourceMethodsAndLocators;
     }
 
+    /**
+     * Returns the sub resource methods and sub resource locators, that could
+     * match the given remaining path. The others could not match it.
+     * 
+     * @param remainingPath
+     *            the remaining path
+     * @return Returns the candidate sub resource locatores and sub resource
+     *         methods, in the order of
+     *         {@link #getResourceMethodsAndLocators()}.
+     */
+    public final Collection<ResourceMethodOrLocator> getResourceMethodsAndLocators(
+            RemainingPath remainingPath) {
+        return this.resourceMethodsAndLocatorsTable
+                .getCandidates(remainingPath);
+    }
+
     /**
      * @return Returns the sub resource locators of the given class.
      */
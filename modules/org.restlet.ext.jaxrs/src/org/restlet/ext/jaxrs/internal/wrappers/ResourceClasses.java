@@ -43,6 +43,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathParamTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.InjectException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingConstructorException;
+import org.restlet.ext.jaxrs.internal.util.PathDispatchTable;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.JaxRsProviders;
@@ -68,6 +69,12 @@ public class ResourceClasses {
      */
     private final Set<RootResourceClass> rootResourceClasses = new CopyOnWriteArraySet<RootResourceClass>();
 
+    /**
+     * The dispatch table of the root resource classes. Is null, until it is
+     * compiled the first time, and after a root resource class was added.
+     */
+    private volatile PathDispatchTable<RootResourceClass> rootsTable;
+
     private final ThreadLocalizedContext tlContext;
 
     /**
@@ -157,6 +164,7 @@ public class ResourceClasses {
             }
         }
         rootResourceClasses.add(newRrc);
+        invalidateRootsTable();
         return true;
     }
 
@@ -241,6 +249,7 @@ public class ResourceClasses {
             }
         }
         rootResourceClasses.add(newRrc);
+        invalidateRootsTable();
         return true;
     }
 
@@ -325,10 +334,41 @@ public class ResourceClasses {
                 this.extensionBackwardMapping, Context.getCurrentLogger());
     }
 
+    /**
+     * Invalidates the dispatch table of the root resource classes, so that it
+     * is compiled again on next use.
+     */
+    private void invalidateRootsTable() {
+        synchronized (this) {
+            this.rootsTable = null;
+        }
+    }
+
     /**
      * @return the wrapped root resource classes
      */
     public Iterable<RootResourceClass> roots() {
         return this.rootResourceClasses;
     }
+
+    /**
+     * Returns the dispatch table of the wrapped root resource classes. It is
+     * compiled on first use and after root resource classes were added.
+     * 
+     * @return the dispatch table of the wrapped root resource classes.
+     */
+    public PathDispatchTable<RootResourceClass> rootsTable() {
+        PathDispatchTable<RootResourceClass> result = this.rootsTable;
+        if (result == null) {
+            synchronized (this) {
+                result = this.rootsTable;
+                if (result == null) {
+                    result = new PathDispatchTable<RootResourceClass>(
+                            this.rootResourceClasses);
+                    this.rootsTable = result;
+                }
+            }
+        }
+        return result;
+    }
 }
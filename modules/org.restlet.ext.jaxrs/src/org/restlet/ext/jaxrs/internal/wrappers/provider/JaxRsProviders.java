@@ -31,6 +31,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +73,13 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
 
     private static final Logger localLogger = Context.getCurrentLogger();
 
+    /**
+     * The maximum number of media types for which the supporting message body
+     * readers are cached, and of entity classes for which the supporting
+     * message body writers are cached.
+     */
+    private static final int MAX_CACHED_MEDIA_TYPES = 256;
+
     /**
      * Returns the generic class of the given {@link ContextResolver} class.
      */
@@ -109,8 +117,20 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
 
     private volatile ObjectFactory objectFactory;
 
+    /**
+     * Caches the message body reader wrappers supporting a media type, by the
+     * name of the media type. Replaced, if the providers are changed.
+     */
+    private volatile Map<String, List<ProviderWrapper>> readersByMediaType;
+
     private final ThreadLocalizedContext tlContext;
 
+    /**
+     * Caches the message body writer wrappers supporting an entity class.
+     * Replaced, if the providers are changed.
+     */
+    private volatile Map<Class<?>, List<ProviderWrapper>> writersByClass;
+
     /**
      * Creates a new JaxRsProviders.
      * 
@@ -127,6 +147,8 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         this.messageBodyWriterWrappers = new CopyOnWriteArrayList<ProviderWrapper>();
         this.contextResolvers = new CopyOnWriteArraySet<ProviderWrapper>();
         this.excMappers = new ConcurrentHashMap<Class<? extends Throwable>, ProviderWrapper>();
+        this.readersByMediaType = new ConcurrentHashMap<String, List<ProviderWrapper>>();
+        this.writersByClass = new ConcurrentHashMap<Class<?>, List<ProviderWrapper>>();
 
         this.objectFactory = objectFactory;
         this.tlContext = tlContext;
@@ -159,6 +181,7 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         if (provider.isExceptionMapper())
             this.addExcMapper(provider);
         this.all.add(provider);
+        clearCaches();
     }
 
     /**
@@ -291,6 +314,14 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         return response;
     }
 
+    /**
+     * Clears the cached message body reader and writer wrappers.
+     */
+    private void clearCaches() {
+        this.readersByMediaType = new ConcurrentHashMap<String, List<ProviderWrapper>>();
+        this.writersByClass = new ConcurrentHashMap<Class<?>, List<ProviderWrapper>>();
+    }
+
     /**
      * Returns the {@link MessageBodyReader}, that best matches the given
      * criteria.
@@ -308,21 +339,18 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
      */
     public MessageBodyReader getBestReader(Class<?> paramType,
             Type genericType, Annotation[] annotations, MediaType mediaType) {
-        // NICE optimization: may be cached for speed.
-        for (ProviderWrapper mbrw : this.messageBodyReaderWrappers) {
-            if (mbrw.supportsRead(mediaType)) {
-                MessageBodyReader mbr;
-                try {
-                    mbr = mbrw.getInitializedReader();
-                } catch (ProviderNotInitializableException e) {
-                    continue;
-                } catch (WebApplicationException e) {
-                    continue;
-                }
-                if (mbr.isReadable(paramType, genericType, annotations,
-                        Converter.toJaxRsMediaType(mediaType)))
-                    return mbr;
+        for (ProviderWrapper mbrw : getReaderWrappers(mediaType)) {
+            MessageBodyReader mbr;
+            try {
+                mbr = mbrw.getInitializedReader();
+            } catch (ProviderNotInitializableException e) {
+                continue;
+            } catch (WebApplicationException e) {
+                continue;
             }
+            if (mbr.isReadable(paramType, genericType, annotations,
+                    Converter.toJaxRsMediaType(mediaType)))
+                return mbr;
         }
         return null;
     }
@@ -480,6 +508,63 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         return null;
     }
 
+    /**
+     * Returns the message body reader wrappers supporting the given media type,
+     * in the order they have to be checked. The result is cached by the name
+     * of the media type, because the parameters are ignored by the check.
+     * 
+     * @param mediaType
+     *            the media type to read, may be null.
+     * @return the message body reader wrappers supporting the media type.
+     */
+    private List<ProviderWrapper> getReaderWrappers(MediaType mediaType) {
+        final Map<String, List<ProviderWrapper>> cache = this.readersByMediaType;
+        List<ProviderWrapper> result = (mediaType == null) ? null : cache
+                .get(mediaType.getName());
+        if (result == null) {
+            result = new ArrayList<ProviderWrapper>();
+            for (ProviderWrapper mbrw : this.messageBodyReaderWrappers) {
+                if (mbrw.supportsRead(mediaType))
+                    result.add(mbrw);
+            }
+            if (mediaType != null) {
+                if (cache.size() >= MAX_CACHED_MEDIA_TYPES)
+                    cache.clear();
+                cache.put(mediaType.getName(), result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the message body writer wrappers supporting the given entity
+     * class, in the order they have to be checked. The result is cached by the
+     * entity class, up to {@link #MAX_CACHED_MEDIA_TYPES} classes.
+     * 
+     * @param entityClass
+     * @param genericType
+     *            may be null
+     * @return the message body writer wrappers supporting the entity class.
+     */
+    private List<ProviderWrapper> getWriterWrappers(Class<?> entityClass,
+            Type genericType) {
+        if (entityClass == null)
+            return Collections.emptyList();
+        final Map<Class<?>, List<ProviderWrapper>> cache = this.writersByClass;
+        List<ProviderWrapper> result = cache.get(entityClass);
+        if (result == null) {
+            result = new ArrayList<ProviderWrapper>();
+            for (ProviderWrapper mbww : this.messageBodyWriterWrappers) {
+                if (mbww.supportsWrite(entityClass, genericType))
+                    result.add(mbww);
+            }
+            if (cache.size() >= MAX_CACHED_MEDIA_TYPES)
+                cache.clear();
+            cache.put(entityClass, result);
+        }
+        return result;
+    }
+
     /**
      * Init all providers. If an error for one provider occurs, this provider is
      * ignored and the next provider initialized.
@@ -534,6 +619,7 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
             if (providerWrapper.equals(provider))
                 excMapperEntryIter.remove();
         }
+        clearCaches();
     }
 
     /**
@@ -561,18 +647,14 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
     public MessageBodyWriterSubSet writerSubSet(Class<?> entityClass,
             Type genericType) {
         final List<MessageBodyWriter> mbws = new ArrayList<MessageBodyWriter>();
-        for (ProviderWrapper mbww : this.messageBodyWriterWrappers) {
-            MessageBodyWriter mbw;
+        for (ProviderWrapper mbww : getWriterWrappers(entityClass,
+                genericType)) {
             try {
-                mbw = mbww.getInitializedWriter();
+                mbws.add(mbww.getInitializedWriter());
             } catch (ProviderNotInitializableException e) {
                 continue;
             }
-            if (mbw.supportsWrite(entityClass, genericType)) {
-                mbws.add(mbw);
-            }
         }
-        // NICE optimization: may be cached for speed.
         return new MessageBodyWriterSubSet(mbws, entityClass, genericType);
     }
 }
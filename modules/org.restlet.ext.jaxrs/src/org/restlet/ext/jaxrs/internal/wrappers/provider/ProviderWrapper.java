@@ -25,6 +25,7 @@
 package org.restlet.ext.jaxrs.internal.wrappers.provider;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
 import java.util.List;
 
 import javax.ws.rs.ext.ExceptionMapper;
@@ -175,6 +176,19 @@ public interface ProviderWrapper {
      */
     boolean supportsRead(MediaType mediaType);
 
+    /**
+     * Checks, if the wrapped MessageBodyWriter supports the given type (by the
+     * type parameter of the {@link javax.ws.rs.ext.MessageBodyWriter}).
+     * 
+     * @param entityClass
+     *            the type
+     * @param genericType
+     *            the generic type
+     * @return true, if the wrapped MessageBodyWriter supports the given type,
+     *         false, if not.
+     */
+    boolean supportsWrite(Class<?> entityClass, Type genericType);
+
     /**
      * Checks, if the wrapped MessageBodyWriter supports at least one of the
      * requested {@link MediaType}s.
@@ -448,6 +448,18 @@ public class HttpClientHelper extends
         return getHelpedParameters().getFirstValue("userAgentField", null);
     }
 
+    /**
+     * Returns true as asynchronous calls are sent without blocking the calling
+     * thread, the callback being invoked once the response headers are
+     * received.
+     * 
+     * @return True.
+     */
+    @Override
+    public boolean isAsynchronous() {
+        return true;
+    }
+
     /**
      * Whether to dispatch I/O operations from the selector thread to a
      * different thread. Defaults to true.
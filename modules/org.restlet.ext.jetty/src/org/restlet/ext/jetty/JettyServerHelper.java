@@ -30,6 +30,7 @@ import java.util.Arrays;
 import java.util.concurrent.Executor;
 import java.util.logging.Level;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 
 import org.eclipse.jetty.io.ArrayByteBufferPool;
@@ -40,6 +41,7 @@ import org.eclipse.jetty.server.HttpChannel;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.LowResourceMonitor;
+import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.spdy.server.NPNServerConnectionFactory;
 import org.eclipse.jetty.spdy.server.http.HTTPSPDYServerConnectionFactory;
@@ -50,6 +52,7 @@ import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.ThreadPool;
 import org.restlet.Server;
 import org.restlet.ext.jetty.internal.JettyServerCall;
+import org.restlet.ext.jetty.internal.RequestEntityReader;
 
 /**
  * Abstract Jetty web server connector. Here is the list of parameters that are
@@ -143,6 +146,25 @@ import org.restlet.ext.jetty.internal.JettyServerCall;
  * <td>HTTP header cache size in bytes</td>
  * </tr>
  * <tr>
+ * <td>http.asyncTimeout</td>
+ * <td>long</td>
+ * <td>30000</td>
+ * <td>HTTP asynchronous timeout in milliseconds; the maximum time a call whose
+ * response isn't automatically committed (see
+ * {@link org.restlet.Response#setAutoCommitting(boolean)}) can stay suspended
+ * without holding a thread before a 503 status is returned; also applies to the
+ * non-blocking reading of request entities</td>
+ * </tr>
+ * <tr>
+ * <td>http.requestBufferSize</td>
+ * <td>int</td>
+ * <td>8*1024</td>
+ * <td>HTTP request buffer size in bytes; request entities whose length is known
+ * and doesn't exceed this size are read with non-blocking I/O before the call
+ * is handled, so that slow clients don't hold a thread; when 0, request
+ * entities are always read with blocking I/O</td>
+ * </tr>
+ * <tr>
  * <td>http.requestHeaderSize</td>
  * <td>int</td>
  * <td>8*1024</td>
@@ -262,6 +284,9 @@ public abstract class JettyServerHelper extends
 
         /**
          * Handler method converting a Jetty HttpChannel into a Restlet Call.
+         * Request entities of small known size are first read using
+         * non-blocking I/O, then the request is dispatched again to
+         * {@link #handleAsync(HttpChannel)}.
          * 
          * @param channel
          *            The channel to handle.
@@ -270,19 +295,44 @@ public abstract class JettyServerHelper extends
         public void handle(HttpChannel<?> channel) throws IOException,
                 ServletException {
             try {
-                helper.handle(new JettyServerCall(helper.getHelped(), channel));
+                Request request = channel.getRequest();
+                long size = request.getContentLengthLong();
+
+                if ((size > 0) && (size <= helper.getHttpRequestBufferSize())
+                        && request.isAsyncSupported()) {
+                    AsyncContext asyncContext = request.startAsync();
+                    RequestEntityReader reader = new RequestEntityReader(
+                            asyncContext, request.getInputStream(), (int) size);
+                    asyncContext.setTimeout(helper.getHttpAsyncTimeout());
+                    asyncContext.addListener(reader);
+                    request.getInputStream().setReadListener(reader);
+                } else {
+                    helper.handle(new JettyServerCall(helper.getHelped(),
+                            channel, helper.getHttpAsyncTimeout(), null));
+                }
             } catch (Throwable e) {
                 channel.getEndPoint().close();
                 throw new IOException("Restlet exception", e);
             }
         }
 
+        /**
+         * Handler method converting a Jetty HttpChannel dispatched again after
+         * the non-blocking reading of its request entity into a Restlet Call.
+         * 
+         * @param channel
+         *            The channel to handle.
+         */
         @Override
         public void handleAsync(HttpChannel<?> channel) throws IOException,
                 ServletException {
-            // TODO: should we handle async differently?
             try {
-                helper.handle(new JettyServerCall(helper.getHelped(), channel));
+                Request request = channel.getRequest();
+                byte[] entity = (byte[]) request
+                        .getAttribute(RequestEntityReader.ATTRIBUTE_ENTITY);
+                request.removeAttribute(RequestEntityReader.ATTRIBUTE_ENTITY);
+                helper.handle(new JettyServerCall(helper.getHelped(), channel,
+                        helper.getHttpAsyncTimeout(), entity));
             } catch (Throwable e) {
                 channel.getEndPoint().close();
                 throw new IOException("Restlet exception", e);
@@ -594,6 +644,19 @@ public abstract class JettyServerHelper extends
                 "connector.stopTimeout", "30000"));
     }
 
+    /**
+     * HTTP asynchronous timeout in milliseconds. Defaults to 30000.
+     * <p>
+     * The maximum time a suspended call can wait for its response to be
+     * committed, or for its request entity to be fully received.
+     * 
+     * @return HTTP asynchronous timeout.
+     */
+    public long getHttpAsyncTimeout() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "http.asyncTimeout", "30000"));
+    }
+
     /**
      * HTTP header cache size in bytes. Defaults to 512.
      * 
@@ -618,6 +681,20 @@ public abstract class JettyServerHelper extends
                 "http.outputBufferSize", "32768"));
     }
 
+    /**
+     * HTTP request buffer size in bytes. Defaults to 8*1024.
+     * <p>
+     * Request entities whose length is known and doesn't exceed this size are
+     * read with non-blocking I/O before the call is handled. When 0, request
+     * entities are always read with blocking I/O.
+     * 
+     * @return HTTP request buffer size.
+     */
+    public int getHttpRequestBufferSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "http.requestBufferSize", "8192"));
+    }
+
     /**
      * HTTP request header size in bytes. Defaults to 8*1024.
      * <p>
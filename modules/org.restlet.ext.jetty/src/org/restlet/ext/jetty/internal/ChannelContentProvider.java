@@ -0,0 +1,126 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.jetty.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.jetty.client.api.ContentProvider;
+
+/**
+ * Jetty content provider reading the request entity from a readable byte
+ * channel, one buffer at a time, without going through an input stream.
+ * 
+ * @author Jerome Louvel
+ */
+public class ChannelContentProvider implements ContentProvider {
+
+    /**
+     * Iterator reading the next buffers from the channel.
+     */
+    private class ChannelIterator implements Iterator<ByteBuffer>, Closeable {
+
+        /** The next buffer to return. */
+        private ByteBuffer next;
+
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        public boolean hasNext() {
+            if ((this.next == null) && channel.isOpen()) {
+                try {
+                    ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+
+                    if (channel.read(buffer) == -1) {
+                        close();
+                    } else {
+                        buffer.flip();
+                        this.next = buffer;
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(
+                            "Unable to read the request entity", e);
+                }
+            }
+
+            return this.next != null;
+        }
+
+        public ByteBuffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            ByteBuffer result = this.next;
+            this.next = null;
+            return result;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** The size of the buffers to read. */
+    private final int bufferSize;
+
+    /** The channel to read. */
+    private final ReadableByteChannel channel;
+
+    /** The expected length or -1 if unknown. */
+    private final long length;
+
+    /**
+     * Constructor.
+     * 
+     * @param channel
+     *            The channel to read.
+     * @param length
+     *            The expected length or -1 if unknown.
+     * @param bufferSize
+     *            The size of the buffers to read.
+     */
+    public ChannelContentProvider(ReadableByteChannel channel, long length,
+            int bufferSize) {
+        this.bufferSize = bufferSize;
+        this.channel = channel;
+        this.length = length;
+    }
+
+    public long getLength() {
+        return this.length;
+    }
+
+    public Iterator<ByteBuffer> iterator() {
+        return new ChannelIterator();
+    }
+
+}
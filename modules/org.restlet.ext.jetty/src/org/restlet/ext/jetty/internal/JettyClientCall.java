@@ -24,6 +24,8 @@
 
 package org.restlet.ext.jetty.internal;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,8 +37,12 @@ import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
 import org.eclipse.jetty.client.HttpRequest;
+import org.eclipse.jetty.client.api.ContentProvider;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.client.util.InputStreamContentProvider;
 import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.client.util.PathContentProvider;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.restlet.Request;
@@ -48,7 +54,11 @@ import org.restlet.data.Status;
 import org.restlet.engine.adapter.ClientCall;
 import org.restlet.engine.header.HeaderConstants;
 import org.restlet.ext.jetty.HttpClientHelper;
+import org.restlet.representation.BufferingRepresentation;
+import org.restlet.representation.ChannelRepresentation;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.util.Series;
 
 /**
@@ -64,6 +74,11 @@ public class JettyClientCall extends ClientCall {
      */
     private final HttpClientHelper clientHelper;
 
+    /**
+     * The failure that prevented the response from being received.
+     */
+    private volatile Throwable failure;
+
     /**
      * The wrapped HTTP request.
      */
@@ -113,6 +128,47 @@ public class JettyClientCall extends ClientCall {
         }
     }
 
+    /**
+     * Creates a Jetty content provider for the given request entity. Entities
+     * exposing a channel, like files, are read one buffer at a time, and
+     * entities fully available in memory are sent in one buffer. Other
+     * entities are read from their input stream.
+     * 
+     * @param entity
+     *            The request entity.
+     * @return The content provider.
+     * @throws IOException
+     */
+    private ContentProvider createContentProvider(Representation entity)
+            throws IOException {
+        ContentProvider result = null;
+        int bufferSize = this.clientHelper.getRequestBufferSize();
+
+        if ((entity instanceof FileRepresentation)
+                && (entity.getRange() == null)) {
+            File file = ((FileRepresentation) entity).getFile();
+
+            if (file.isFile()) {
+                result = new PathContentProvider(file.toPath(), bufferSize);
+            }
+        } else if (entity instanceof ChannelRepresentation) {
+            result = new ChannelContentProvider(entity.getChannel(),
+                    entity.getAvailableSize(), bufferSize);
+        } else if ((entity instanceof StringRepresentation)
+                || (entity instanceof BufferingRepresentation)) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            entity.write(baos);
+            result = new BytesContentProvider(baos.toByteArray());
+        }
+
+        if (result == null) {
+            result = new InputStreamContentProvider(entity.getStream(),
+                    bufferSize);
+        }
+
+        return result;
+    }
+
     /**
      * Returns the HTTP request.
      * 
@@ -148,6 +204,11 @@ public class JettyClientCall extends ClientCall {
     @Override
     public String getReasonPhrase() {
         final org.eclipse.jetty.client.api.Response httpResponse = getHttpResponse();
+
+        if ((httpResponse == null) && (this.failure != null)) {
+            return this.failure.getMessage();
+        }
+
         return httpResponse == null ? null : httpResponse.getReason();
     }
 
@@ -240,9 +301,72 @@ public class JettyClientCall extends ClientCall {
     @Override
     public int getStatusCode() {
         final org.eclipse.jetty.client.api.Response httpResponse = getHttpResponse();
+
+        if ((httpResponse == null) && (this.failure != null)) {
+            return Status.CONNECTOR_ERROR_COMMUNICATION.getCode();
+        }
+
         return httpResponse == null ? null : httpResponse.getStatus();
     }
 
+    /**
+     * Invokes the callbacks using a thread of the Jetty client executor, so
+     * that they can consume the response entity while the connector keeps
+     * receiving its content.
+     * 
+     * @param request
+     *            The high-level request.
+     * @param response
+     *            The high-level response.
+     * @param callback
+     *            The callback invoked upon request completion.
+     */
+    private void notifyResponse(final Request request,
+            final Response response, final Uniform callback) {
+        this.clientHelper.getHttpClient().getExecutor().execute(new Runnable() {
+            public void run() {
+                final Uniform getOnSent = request.getOnSent();
+                if (getOnSent != null)
+                    getOnSent.handle(request, response);
+
+                if (callback != null)
+                    // Transmit to the callback, if any
+                    callback.handle(request, response);
+            }
+        });
+    }
+
+    /**
+     * Sets the request entity and headers on the wrapped HTTP request.
+     * 
+     * @param request
+     *            The high-level request.
+     * @throws IOException
+     */
+    private void prepareRequest(Request request) throws IOException {
+        final Representation entity = request.getEntity();
+
+        // Request entity
+        if (entity != null && entity.isAvailable())
+            this.httpRequest.content(createContentProvider(entity));
+
+        // Set the request headers
+        for (Header header : getRequestHeaders()) {
+            final String name = header.getName();
+            switch (name) {
+            case HeaderConstants.HEADER_CONTENT_LENGTH:
+                // skip this header
+                break;
+            case HeaderConstants.HEADER_USER_AGENT:
+                this.httpRequest.agent(header.getValue());
+                break;
+            default:
+                this.httpRequest.header(name, header.getValue());
+                break;
+            }
+        }
+    }
+
     /**
      * Sends the request to the client. Commits the request line, headers and
      * optional entity and send them over the network.
@@ -256,28 +380,7 @@ public class JettyClientCall extends ClientCall {
         Status result = null;
 
         try {
-            final Representation entity = request.getEntity();
-
-            // Request entity
-            if (entity != null && entity.isAvailable())
-                this.httpRequest.content(new InputStreamContentProvider(entity
-                        .getStream()));
-
-            // Set the request headers
-            for (Header header : getRequestHeaders()) {
-                final String name = header.getName();
-                switch (name) {
-                case HeaderConstants.HEADER_CONTENT_LENGTH:
-                    // skip this header
-                    break;
-                case HeaderConstants.HEADER_USER_AGENT:
-                    this.httpRequest.agent(header.getValue());
-                    break;
-                default:
-                    this.httpRequest.header(name, header.getValue());
-                    break;
-                }
-            }
+            prepareRequest(request);
 
             // Ensure that the connection is active
             this.inputStreamResponseListener = new InputStreamResponseListener();
@@ -319,17 +422,46 @@ public class JettyClientCall extends ClientCall {
         return result;
     }
 
+    /**
+     * Sends the request without blocking the calling thread. The callback is
+     * invoked by a thread of the Jetty client executor as soon as the response
+     * headers are received, or when the call fails before. The response entity
+     * is then streamed as its content arrives.
+     * 
+     * @param request
+     *            The high-level request.
+     * @param response
+     *            The high-level response.
+     * @param callback
+     *            The callback invoked upon request completion.
+     */
     @Override
-    public void sendRequest(Request request, Response response, Uniform callback)
-            throws Exception {
-        sendRequest(request);
+    public void sendRequest(final Request request, final Response response,
+            final Uniform callback) throws Exception {
+        prepareRequest(request);
+
+        this.inputStreamResponseListener = new InputStreamResponseListener() {
+            @Override
+            public void onComplete(Result result) {
+                super.onComplete(result);
+
+                if (result.isFailed() && (getHttpResponse() == null)) {
+                    failure = result.getFailure();
+                    clientHelper.getLogger().log(Level.FINE,
+                            "An error occurred while processing the HTTP request.",
+                            failure);
+                    notifyResponse(request, response, callback);
+                }
+            }
 
-        final Uniform getOnSent = request.getOnSent();
-        if (getOnSent != null)
-            getOnSent.handle(request, response);
+            @Override
+            public void onHeaders(org.eclipse.jetty.client.api.Response r) {
+                super.onHeaders(r);
+                httpResponse = r;
+                notifyResponse(request, response, callback);
+            }
+        };
 
-        if (callback != null)
-            // Transmit to the callback, if any
-            callback.handle(request, response);
+        this.httpRequest.send(this.inputStreamResponseListener);
     }
 }
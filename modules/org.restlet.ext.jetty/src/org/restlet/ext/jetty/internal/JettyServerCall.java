@@ -24,23 +24,37 @@
 
 package org.restlet.ext.jetty.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.security.cert.Certificate;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletResponse;
+
 import org.eclipse.jetty.io.EofException;
 import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
 import org.restlet.Response;
 import org.restlet.Server;
 import org.restlet.data.Header;
 import org.restlet.data.Status;
 import org.restlet.engine.adapter.ServerCall;
+import org.restlet.engine.application.RangeRepresentation;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.representation.Representation;
 import org.restlet.util.Series;
 
 /**
@@ -51,9 +65,27 @@ import org.restlet.util.Series;
  */
 public class JettyServerCall extends ServerCall {
 
+    /** The asynchronous context when the call is suspended. */
+    private volatile AsyncContext asyncContext;
+
+    /** The timeout in milliseconds of a suspended call. */
+    private final long asyncTimeout;
+
     /** The wrapped Jetty HTTP channel. */
     private final HttpChannel<?> channel;
 
+    /**
+     * Indicates if the response of a suspended call was claimed, either by a
+     * commit or by the expiration of the call.
+     */
+    private final AtomicBoolean claimed;
+
+    /** Indicates if the suspended call expired before being committed. */
+    private volatile boolean expired;
+
+    /** The request entity already buffered, or null. */
+    private final byte[] requestEntity;
+
     /** Indicates if the request headers were parsed and added. */
     private volatile boolean requestHeadersAdded;
 
@@ -66,8 +98,29 @@ public class JettyServerCall extends ServerCall {
      *            The wrapped Jetty HTTP channel.
      */
     public JettyServerCall(Server server, HttpChannel<?> channel) {
+        this(server, channel, 30000, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param server
+     *            The parent server.
+     * @param channel
+     *            The wrapped Jetty HTTP channel.
+     * @param asyncTimeout
+     *            The timeout in milliseconds of a suspended call.
+     * @param requestEntity
+     *            The request entity already buffered, or null.
+     */
+    public JettyServerCall(Server server, HttpChannel<?> channel,
+            long asyncTimeout, byte[] requestEntity) {
         super(server);
+        this.asyncTimeout = asyncTimeout;
         this.channel = channel;
+        this.claimed = new AtomicBoolean(false);
+        this.expired = false;
+        this.requestEntity = requestEntity;
         this.requestHeadersAdded = false;
     }
 
@@ -81,6 +134,11 @@ public class JettyServerCall extends ServerCall {
 
     @Override
     public void complete() {
+        if (this.expired) {
+            // The response was already sent on expiration
+            return;
+        }
+
         // Flush the response
         try {
             getChannel().getResponse().flushBuffer();
@@ -96,6 +154,16 @@ public class JettyServerCall extends ServerCall {
         } catch (IOException e) {
             getLogger().log(Level.FINE, "Unable to complete the response", e);
         }
+
+        // Resume the suspended call
+        if (this.asyncContext != null) {
+            try {
+                this.asyncContext.complete();
+            } catch (IllegalStateException e) {
+                getLogger().log(Level.FINE,
+                        "Unable to complete the suspended call", e);
+            }
+        }
     }
 
     @Override
@@ -151,6 +219,10 @@ public class JettyServerCall extends ServerCall {
     }
 
     public InputStream getRequestEntityStream(long size) {
+        if (this.requestEntity != null) {
+            return new ByteArrayInputStream(this.requestEntity);
+        }
+
         try {
             return getChannel().getRequest().getInputStream();
         } catch (IOException e) {
@@ -265,6 +337,13 @@ public class JettyServerCall extends ServerCall {
 
     @Override
     public void sendResponse(Response response) throws IOException {
+        if ((this.asyncContext != null)
+                && !this.claimed.compareAndSet(false, true)) {
+            getLogger().fine("The suspended call has already expired");
+            this.expired = true;
+            return;
+        }
+
         // Add call headers
         for (Iterator<Header> iter = getResponseHeaders().iterator(); iter
                 .hasNext();) {
@@ -295,4 +374,97 @@ public class JettyServerCall extends ServerCall {
             }
         }
     }
+
+    /**
+     * Suspends the call by starting an asynchronous context on the Jetty
+     * request, releasing the connector thread. When the timeout is reached
+     * before the response is committed, a 503 (Service unavailable) status is
+     * sent back.
+     * 
+     * @return True if the call was suspended.
+     */
+    @Override
+    public boolean suspend() {
+        Request request = getChannel().getRequest();
+
+        if (!request.isAsyncSupported()) {
+            return false;
+        }
+
+        this.asyncContext = request.startAsync();
+        this.asyncContext.setTimeout(this.asyncTimeout);
+        this.asyncContext.addListener(new AsyncListener() {
+            public void onComplete(AsyncEvent event) throws IOException {
+            }
+
+            public void onError(AsyncEvent event) throws IOException {
+            }
+
+            public void onStartAsync(AsyncEvent event) throws IOException {
+            }
+
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (claimed.compareAndSet(false, true)) {
+                    getChannel().getResponse().sendError(
+                            HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    event.getAsyncContext().complete();
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Writes the response entity. Complete files and byte ranges of files are
+     * handed to Jetty as a positioned channel, read directly into Jetty's
+     * buffers. If the file representation is memory mapped, the mapped buffer
+     * is handed instead.
+     * 
+     * @param responseEntity
+     *            The representation to write as entity of the body.
+     * @see FileRepresentation#isMapped()
+     */
+    @Override
+    protected void writeResponseBody(Representation responseEntity)
+            throws IOException {
+        FileRepresentation fileEntity = null;
+        long start = 0;
+        long count = responseEntity.getAvailableSize();
+
+        if ((responseEntity instanceof FileRepresentation)
+                && (responseEntity.getRange() == null)) {
+            fileEntity = (FileRepresentation) responseEntity;
+        } else if (responseEntity instanceof RangeRepresentation) {
+            RangeRepresentation range = (RangeRepresentation) responseEntity;
+            fileEntity = range.getFileRepresentation();
+            start = range.getStartIndex();
+        }
+
+        File file = (fileEntity == null) ? null : fileEntity.getFile();
+
+        if ((file == null) || !file.isFile() || (count < 0)
+                || (start + count > file.length())) {
+            super.writeResponseBody(responseEntity);
+        } else if (fileEntity.isMapped() && (count <= Integer.MAX_VALUE)) {
+            FileChannel fileChannel = fileEntity.getChannel();
+
+            try {
+                getChannel().getResponse().getHttpOutput().sendContent(
+                        fileChannel.map(FileChannel.MapMode.READ_ONLY, start,
+                                count));
+            } finally {
+                fileChannel.close();
+            }
+        } else {
+            // The channel of a range is positioned at its start index
+            ReadableByteChannel channel = responseEntity.getChannel();
+
+            try {
+                getChannel().getResponse().getHttpOutput()
+                        .sendContent(channel);
+            } finally {
+                channel.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,154 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.jetty.internal;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.logging.Level;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.restlet.Context;
+
+/**
+ * Jetty read listener buffering a request entity of known size without
+ * blocking the calling thread. Once the entity is fully read, the request is
+ * dispatched again to the Jetty server which can then handle the call with the
+ * entity available in memory.
+ * 
+ * @author Jerome Louvel
+ */
+public class RequestEntityReader implements AsyncListener, ReadListener {
+
+    /** The name of the request attribute holding the buffered entity. */
+    public static final String ATTRIBUTE_ENTITY = "org.restlet.ext.jetty.requestEntity";
+
+    /** The asynchronous context of the request. */
+    private final AsyncContext asyncContext;
+
+    /** The buffer receiving the entity. */
+    private final byte[] buffer;
+
+    /** The number of bytes read. */
+    private volatile int count;
+
+    /** The request input stream. */
+    private final ServletInputStream input;
+
+    /**
+     * Constructor.
+     * 
+     * @param asyncContext
+     *            The asynchronous context of the request.
+     * @param input
+     *            The request input stream.
+     * @param size
+     *            The size of the entity.
+     */
+    public RequestEntityReader(AsyncContext asyncContext,
+            ServletInputStream input, int size) {
+        this.asyncContext = asyncContext;
+        this.buffer = new byte[size];
+        this.count = 0;
+        this.input = input;
+    }
+
+    /**
+     * Dispatches the request once the entity is fully read.
+     */
+    public void onAllDataRead() throws IOException {
+        byte[] entity = (this.count == this.buffer.length) ? this.buffer
+                : Arrays.copyOf(this.buffer, this.count);
+        this.asyncContext.getRequest().setAttribute(ATTRIBUTE_ENTITY, entity);
+        this.asyncContext.dispatch();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) throws IOException {
+    }
+
+    /**
+     * Reads the available bytes until the stream would block. Once the buffer
+     * is full, the end of the stream is read so that
+     * {@link #onAllDataRead()} gets called.
+     */
+    public void onDataAvailable() throws IOException {
+        int read = 0;
+
+        while ((read != -1) && this.input.isReady()) {
+            if (this.count < this.buffer.length) {
+                read = this.input.read(this.buffer, this.count,
+                        this.buffer.length - this.count);
+
+                if (read > 0) {
+                    this.count += read;
+                }
+            } else {
+                read = this.input.read();
+
+                if (read != -1) {
+                    throw new IOException(
+                            "The request entity exceeds its declared length");
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the request when the entity couldn't be read, typically because
+     * the connection was broken.
+     */
+    public void onError(Throwable t) {
+        Context.getCurrentLogger().log(Level.FINE,
+                "Unable to read the request entity", t);
+        this.asyncContext.complete();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) throws IOException {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) throws IOException {
+    }
+
+    /**
+     * Answers with a 408 (Request timeout) status when the entity wasn't fully
+     * received in time.
+     */
+    @Override
+    public void onTimeout(AsyncEvent event) throws IOException {
+        ((HttpServletResponse) this.asyncContext.getResponse())
+                .sendError(HttpServletResponse.SC_REQUEST_TIMEOUT);
+        this.asyncContext.complete();
+    }
+
+}
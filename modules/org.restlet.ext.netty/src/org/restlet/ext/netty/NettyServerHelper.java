@@ -24,26 +24,181 @@
 
 package org.restlet.ext.netty;
 
-import java.net.InetSocketAddress;
-
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.logging.LogLevel;
-import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.ssl.SslContext;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.restlet.Server;
+import org.restlet.engine.log.LoggingThreadFactory;
 import org.restlet.ext.netty.internal.HttpServerInitializer;
 
 /**
+ * Abstract Netty web server connector. The Restlet calls are handled off the
+ * Netty event loops, on a separate executor. Here is the list of parameters
+ * that are supported. They should be set in the Server's context before it is
+ * started. Their names and defaults match the ones of the Jetty connector so
+ * that both can be swapped without changing the configuration; the Jetty
+ * parameters that have no Netty equivalent are ignored.
+ * <table>
+ * <tr>
+ * <th>Parameter name</th>
+ * <th>Value type</th>
+ * <th>Default value</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>threadPool.minThreads</td>
+ * <td>int</td>
+ * <td>8</td>
+ * <td>Thread pool minimum threads, started with the connector</td>
+ * </tr>
+ * <tr>
+ * <td>threadPool.maxThreads</td>
+ * <td>int</td>
+ * <td>200</td>
+ * <td>Thread pool max threads, started once the queue is full</td>
+ * </tr>
+ * <tr>
+ * <td>threadPool.maxQueued</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Maximum number of calls queued when the minimum threads are busy. If
+ * the value is '0', then no queue is used. If the value is '-1', then an
+ * unbounded queue is used and the thread pool doesn't grow beyond the minimum
+ * threads. Calls that can't be queued nor handled by a new thread are rejected
+ * with a 503 status</td>
+ * </tr>
+ * <tr>
+ * <td>threadPool.threadsPriority</td>
+ * <td>int</td>
+ * <td>{@link Thread#NORM_PRIORITY}</td>
+ * <td>Thread pool threads priority</td>
+ * </tr>
+ * <tr>
+ * <td>threadPool.idleTimeout</td>
+ * <td>int</td>
+ * <td>60000</td>
+ * <td>Thread pool idle timeout in milliseconds; threads above the minimum
+ * that are idle for longer than this period are stopped</td>
+ * </tr>
+ * <tr>
+ * <td>threadPool.stopTimeout</td>
+ * <td>long</td>
+ * <td>5000</td>
+ * <td>Thread pool stop timeout in milliseconds; the maximum time allowed for
+ * the service to shutdown</td>
+ * </tr>
+ * <tr>
+ * <td>connector.acceptors</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>Connector acceptor thread count; when -1, a single acceptor thread is
+ * used</td>
+ * </tr>
+ * <tr>
+ * <td>connector.selectors</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>Connector selector thread count; when -1, Netty will default to twice
+ * {@link Runtime#availableProcessors()}</td>
+ * </tr>
+ * <tr>
+ * <td>connector.acceptQueueSize</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Connector accept queue size; also known as accept backlog; when 0, the
+ * system default is used</td>
+ * </tr>
+ * <tr>
+ * <td>connector.idleTimeout</td>
+ * <td>int</td>
+ * <td>30000</td>
+ * <td>Connector idle timeout in milliseconds; connections that neither read nor
+ * write anything during this period are closed; when 0, idle connections are
+ * kept open</td>
+ * </tr>
+ * <tr>
+ * <td>connector.soLingerTime</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>Connector TCP/IP SO linger time in milliseconds; when -1 is disabled; see
+ * {@link java.net.Socket#setSoLinger(boolean, int)}</td>
+ * </tr>
+ * <tr>
+ * <td>connector.stopTimeout</td>
+ * <td>long</td>
+ * <td>30000</td>
+ * <td>Connector stop timeout in milliseconds; the maximum time allowed for the
+ * event loops to shutdown</td>
+ * </tr>
+ * <tr>
+ * <td>connector.writeBufferHighWaterMark</td>
+ * <td>int</td>
+ * <td>64*1024</td>
+ * <td>Number of bytes pending in the outbound buffer of a connection above
+ * which writing a response entity blocks until the client catches up. This is
+ * also the number of request entity bytes buffered before reading from the
+ * connection is suspended</td>
+ * </tr>
+ * <tr>
+ * <td>connector.writeBufferLowWaterMark</td>
+ * <td>int</td>
+ * <td>32*1024</td>
+ * <td>Number of bytes pending in the outbound buffer of a connection below
+ * which writing a blocked response entity resumes</td>
+ * </tr>
+ * <tr>
+ * <td>http.requestHeaderSize</td>
+ * <td>int</td>
+ * <td>8*1024</td>
+ * <td>HTTP request header size in bytes; larger headers are rejected with a
+ * 400 (Bad request) status</td>
+ * </tr>
+ * <tr>
+ * <td>http.outputBufferSize</td>
+ * <td>int</td>
+ * <td>32*1024</td>
+ * <td>HTTP output buffer size in bytes; the response entities of unknown size
+ * are sent as chunks of this size</td>
+ * </tr>
+ * </table>
  * 
+ * @see <a href="http://netty.io/">Netty home page</a>
  * @author Jerome Louvel
  */
 public abstract class NettyServerHelper extends
         org.restlet.engine.adapter.HttpServerHelper {
 
+    /** The Netty event loop group accepting the connections. */
+    private volatile NioEventLoopGroup bossGroup;
+
+    /** The Netty server channel. */
+    private volatile Channel channel;
+
+    /** The executor handling the Restlet calls. */
+    private volatile ExecutorService executor;
+
+    /** Indicates if the executor was created by this connector. */
+    private volatile boolean internalExecutor;
+
+    /** The Netty server bootstrap. */
+    private volatile ServerBootstrap serverBootstrap;
+
+    /** The Netty event loop group serving the accepted connections. */
+    private volatile NioEventLoopGroup workerGroup;
+
     /**
      * Constructor.
      * 
@@ -54,58 +209,374 @@ public abstract class NettyServerHelper extends
         super(server);
     }
 
-    private ServerBootstrap serverBootstrap;
+    /**
+     * Creates the SSL context of the connections. Returns null by default.
+     * 
+     * @return The SSL context or null.
+     * @throws Exception
+     */
+    protected SslContext createSslContext() throws Exception {
+        return null;
+    }
+
+    /**
+     * Creates the executor handling the Restlet calls, based on the
+     * "threadPool.*" parameters.
+     * 
+     * @return The executor handling the Restlet calls.
+     */
+    protected ExecutorService createThreadPool() {
+        final int priority = getThreadPoolThreadsPriority();
+        BlockingQueue<Runnable> queue = null;
+
+        if (getThreadPoolMaxQueued() == 0) {
+            queue = new SynchronousQueue<Runnable>();
+        } else if (getThreadPoolMaxQueued() < 0) {
+            queue = new LinkedBlockingQueue<Runnable>();
+        } else {
+            queue = new ArrayBlockingQueue<Runnable>(getThreadPoolMaxQueued());
+        }
 
-    private Channel channel;
+        ThreadPoolExecutor result = new ThreadPoolExecutor(
+                getThreadPoolMinThreads(), getThreadPoolMaxThreads(),
+                getThreadPoolIdleTimeout(), TimeUnit.MILLISECONDS, queue,
+                new LoggingThreadFactory(getLogger(), true) {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread result = super.newThread(r);
+                        result.setName("Restlet-Netty-" + result.hashCode());
+                        result.setPriority(priority);
+                        return result;
+                    }
+                });
+
+        // Ensure that core threads act like a minimum number of threads
+        result.prestartAllCoreThreads();
+        return result;
+    }
 
+    /**
+     * Returns the Netty event loop group accepting the connections.
+     * 
+     * @return The Netty event loop group accepting the connections.
+     */
+    protected NioEventLoopGroup getBossGroup() {
+        return bossGroup;
+    }
+
+    /**
+     * Returns the Netty server channel.
+     * 
+     * @return The Netty server channel.
+     */
     protected Channel getChannel() {
         return channel;
     }
 
-    protected void setChannel(Channel channel) {
-        this.channel = channel;
+    /**
+     * Connector acceptor thread count. Defaults to -1. When -1, a single
+     * acceptor thread is used.
+     * 
+     * @return Connector acceptor thread count.
+     */
+    public int getConnectorAcceptors() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "connector.acceptors", "-1"));
     }
 
-    protected void setServerBootstrap(ServerBootstrap serverBootstrap) {
-        this.serverBootstrap = serverBootstrap;
+    /**
+     * Connector accept queue size. Defaults to 0, using the system default.
+     * <p>
+     * Also known as accept backlog.
+     * 
+     * @return Connector accept queue size.
+     */
+    public int getConnectorAcceptQueueSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "connector.acceptQueueSize", "0"));
+    }
+
+    /**
+     * Connector idle timeout in milliseconds. Defaults to 30000. When 0, idle
+     * connections are kept open.
+     * 
+     * @return Connector idle timeout.
+     */
+    public int getConnectorIdleTimeout() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "connector.idleTimeout", "30000"));
+    }
+
+    /**
+     * Connector selector thread count. Defaults to -1. When -1, Netty will
+     * default to twice {@link Runtime#availableProcessors()}.
+     * 
+     * @return Connector selector thread count.
+     */
+    public int getConnectorSelectors() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "connector.selectors", "-1"));
+    }
+
+    /**
+     * Connector TCP/IP SO linger time in milliseconds. Defaults to -1
+     * (disabled).
+     * 
+     * @return Connector TCP/IP SO linger time.
+     */
+    public int getConnectorSoLingerTime() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "connector.soLingerTime", "-1"));
+    }
+
+    /**
+     * Connector stop timeout in milliseconds. Defaults to 30000.
+     * <p>
+     * The maximum time allowed for the event loops to shutdown.
+     * 
+     * @return Connector stop timeout.
+     */
+    public long getConnectorStopTimeout() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "connector.stopTimeout", "30000"));
+    }
+
+    /**
+     * Number of bytes pending in the outbound buffer of a connection above
+     * which writing a response entity blocks. Defaults to 64*1024.
+     * 
+     * @return The write buffer high water mark.
+     */
+    public int getConnectorWriteBufferHighWaterMark() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "connector.writeBufferHighWaterMark", "65536"));
+    }
+
+    /**
+     * Number of bytes pending in the outbound buffer of a connection below
+     * which writing a blocked response entity resumes. Defaults to 32*1024.
+     * 
+     * @return The write buffer low water mark.
+     */
+    public int getConnectorWriteBufferLowWaterMark() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "connector.writeBufferLowWaterMark", "32768"));
+    }
+
+    /**
+     * Returns the executor handling the Restlet calls.
+     * 
+     * @return The executor handling the Restlet calls.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * HTTP output buffer size in bytes. Defaults to 32*1024.
+     * <p>
+     * The response entities of unknown size are sent as chunks of this size.
+     * 
+     * @return HTTP output buffer size.
+     */
+    public int getHttpOutputBufferSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "http.outputBufferSize", "32768"));
+    }
+
+    /**
+     * HTTP request header size in bytes. Defaults to 8*1024.
+     * <p>
+     * Larger headers are rejected with a 400 (Bad request) status.
+     * 
+     * @return HTTP request header size.
+     */
+    public int getHttpRequestHeaderSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "http.requestHeaderSize", "8192"));
     }
 
+    /**
+     * Returns the Netty server bootstrap.
+     * 
+     * @return The Netty server bootstrap.
+     */
     protected ServerBootstrap getServerBootstrap() {
         return serverBootstrap;
     }
 
-    private NioEventLoopGroup bossGroup;
+    /**
+     * Thread pool idle timeout in milliseconds. Defaults to 60000.
+     * <p>
+     * Threads that are idle for longer than this period may be stopped.
+     * 
+     * @return Thread pool idle timeout.
+     */
+    public int getThreadPoolIdleTimeout() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "threadPool.idleTimeout", "60000"));
+    }
 
-    protected NioEventLoopGroup getBossGroup() {
-        return bossGroup;
+    /**
+     * Thread pool maximum number of queued calls. Defaults to 0.
+     * 
+     * @return Thread pool maximum number of queued calls.
+     */
+    public int getThreadPoolMaxQueued() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "threadPool.maxQueued", "0"));
     }
 
-    protected void setBossGroup(NioEventLoopGroup bossGroup) {
-        this.bossGroup = bossGroup;
+    /**
+     * Thread pool maximum number of threads. Defaults to 200.
+     * 
+     * @return Thread pool maximum number of threads.
+     */
+    public int getThreadPoolMaxThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "threadPool.maxThreads", "200"));
     }
 
+    /**
+     * Thread pool minimum number of threads. Defaults to 8.
+     * 
+     * @return Thread pool minimum number of threads.
+     */
+    public int getThreadPoolMinThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "threadPool.minThreads", "8"));
+    }
+
+    /**
+     * Thread pool stop timeout in milliseconds. Defaults to 5000.
+     * <p>
+     * The maximum time allowed for the service to shutdown.
+     * 
+     * @return Thread pool stop timeout.
+     */
+    public long getThreadPoolStopTimeout() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "threadPool.stopTimeout", "5000"));
+    }
+
+    /**
+     * Thread pool threads priority. Defaults to {@link Thread#NORM_PRIORITY}.
+     * 
+     * @return Thread pool maximum number of threads.
+     */
+    public int getThreadPoolThreadsPriority() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "threadPool.threadsPriority",
+                String.valueOf(Thread.NORM_PRIORITY)));
+    }
+
+    /**
+     * Returns the Netty event loop group serving the accepted connections.
+     * 
+     * @return The Netty event loop group serving the accepted connections.
+     */
     protected NioEventLoopGroup getWorkerGroup() {
         return workerGroup;
     }
 
+    /**
+     * Sets the Netty event loop group accepting the connections.
+     * 
+     * @param bossGroup
+     *            The Netty event loop group accepting the connections.
+     */
+    protected void setBossGroup(NioEventLoopGroup bossGroup) {
+        this.bossGroup = bossGroup;
+    }
+
+    /**
+     * Sets the Netty server channel.
+     * 
+     * @param channel
+     *            The Netty server channel.
+     */
+    protected void setChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Sets the executor handling the Restlet calls. If set before the
+     * connector is started, it is used instead of the internal thread pool and
+     * isn't shut down when the connector stops.
+     * 
+     * @param executor
+     *            The executor handling the Restlet calls.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the Netty server bootstrap.
+     * 
+     * @param serverBootstrap
+     *            The Netty server bootstrap.
+     */
+    protected void setServerBootstrap(ServerBootstrap serverBootstrap) {
+        this.serverBootstrap = serverBootstrap;
+    }
+
+    /**
+     * Sets the Netty event loop group serving the accepted connections.
+     * 
+     * @param workerGroup
+     *            The Netty event loop group serving the accepted connections.
+     */
     protected void setWorkerGroup(NioEventLoopGroup workerGroup) {
         this.workerGroup = workerGroup;
     }
 
-    private NioEventLoopGroup workerGroup;
-
     @Override
-    public void start() throws Exception {
+    public synchronized void start() throws Exception {
         super.start();
-        setBossGroup(new NioEventLoopGroup(1));
-        setWorkerGroup(new NioEventLoopGroup());
+
+        if (getExecutor() == null) {
+            setExecutor(createThreadPool());
+            this.internalExecutor = true;
+        }
+
+        int acceptors = getConnectorAcceptors();
+        int selectors = getConnectorSelectors();
+        setBossGroup(new NioEventLoopGroup((acceptors > 0) ? acceptors : 1));
+        setWorkerGroup((selectors > 0) ? new NioEventLoopGroup(selectors)
+                : new NioEventLoopGroup());
+
         setServerBootstrap(new ServerBootstrap());
-        getServerBootstrap().option(ChannelOption.SO_BACKLOG, 1024);
-        getServerBootstrap().group(bossGroup, workerGroup)
+        getServerBootstrap().group(getBossGroup(), getWorkerGroup())
                 .channel(NioServerSocketChannel.class)
-                .handler(new LoggingHandler(LogLevel.INFO))
-                .childHandler(new HttpServerInitializer(this, null));
-        setChannel(serverBootstrap.bind(getHelped().getPort()).sync().channel());
+                .childHandler(new HttpServerInitializer(this,
+                        createSslContext()))
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK,
+                        getConnectorWriteBufferHighWaterMark())
+                .childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK,
+                        getConnectorWriteBufferLowWaterMark());
+
+        if (getConnectorAcceptQueueSize() > 0) {
+            getServerBootstrap().option(ChannelOption.SO_BACKLOG,
+                    getConnectorAcceptQueueSize());
+        }
+
+        if (getConnectorSoLingerTime() >= 0) {
+            // Netty expects seconds, like the Socket API
+            getServerBootstrap().childOption(ChannelOption.SO_LINGER,
+                    getConnectorSoLingerTime() / 1000);
+        }
+
+        if (getHelped().getAddress() != null) {
+            setChannel(getServerBootstrap()
+                    .bind(getHelped().getAddress(), getHelped().getPort())
+                    .sync().channel());
+        } else {
+            setChannel(getServerBootstrap().bind(getHelped().getPort()).sync()
+                    .channel());
+        }
+
         setEphemeralPort(((InetSocketAddress) getChannel().localAddress())
                 .getPort());
         getLogger().info(
@@ -114,13 +585,38 @@ public abstract class NettyServerHelper extends
     }
 
     @Override
-    public void stop() throws Exception {
+    public synchronized void stop() throws Exception {
         getLogger().info(
                 "Stopping the Netty " + getProtocols() + " server on port "
                         + getHelped().getPort());
-        getChannel().close().sync();
-        getBossGroup().shutdownGracefully();
-        getWorkerGroup().shutdownGracefully();
+
+        if (getChannel() != null) {
+            getChannel().close().sync();
+            setChannel(null);
+        }
+
+        long stopTimeout = getConnectorStopTimeout();
+
+        if (getBossGroup() != null) {
+            getBossGroup().shutdownGracefully(0, stopTimeout,
+                    TimeUnit.MILLISECONDS);
+            setBossGroup(null);
+        }
+
+        if (getWorkerGroup() != null) {
+            getWorkerGroup().shutdownGracefully(0, stopTimeout,
+                    TimeUnit.MILLISECONDS).await(stopTimeout);
+            setWorkerGroup(null);
+        }
+
+        if (this.internalExecutor && (getExecutor() != null)) {
+            getExecutor().shutdown();
+            getExecutor().awaitTermination(getThreadPoolStopTimeout(),
+                    TimeUnit.MILLISECONDS);
+            setExecutor(null);
+            this.internalExecutor = false;
+        }
+
         super.stop();
     }
 
@@ -25,113 +25,228 @@
 package org.restlet.ext.netty.internal;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandlerContext;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 import org.restlet.engine.io.IoUtils;
 
 /**
+ * Input stream exposing the request content received by a Netty event loop to
+ * the thread handling the Restlet call. The content chunks are queued without
+ * blocking the event loop. Once the number of queued bytes reaches the
+ * capacity, the stream is suspended and the handler stops reading from the
+ * connection until half of the capacity has been consumed.
  * 
  * @author Jerome Louvel
  */
 public class HttpContentInputStream extends InputStream {
 
-    private final CyclicBarrier barrier;
+    /** The number of queued bytes that suspends the reading. */
+    private final int capacity;
 
-    private volatile ByteBuf content;
+    /** Indicates if the stream was closed. */
+    private boolean closed;
 
-    private volatile boolean lastContent;
+    /** The queued content chunks. */
+    private final Queue<ByteBuf> contents;
 
-    private final ChannelHandlerContext nettyContext;
+    /** The error to report once the queued content is consumed. */
+    private IOException error;
 
-    public HttpContentInputStream(ChannelHandlerContext nettyContext) {
-        this.nettyContext = nettyContext;
+    /** The parent handler. */
+    private final HttpServerHandler handler;
+
+    /** Indicates if the last content chunk was received. */
+    private boolean lastContent;
+
+    /** The number of queued bytes. */
+    private int queuedBytes;
+
+    /** Indicates if the reading from the connection is suspended. */
+    private boolean suspended;
+
+    /**
+     * Constructor.
+     * 
+     * @param handler
+     *            The parent handler.
+     * @param capacity
+     *            The number of queued bytes that suspends the reading.
+     */
+    public HttpContentInputStream(HttpServerHandler handler, int capacity) {
+        this.capacity = capacity;
+        this.closed = false;
+        this.contents = new ArrayDeque<ByteBuf>();
+        this.error = null;
+        this.handler = handler;
         this.lastContent = false;
-        this.content = null;
-        this.barrier = new CyclicBarrier(2);
+        this.queuedBytes = 0;
+        this.suspended = false;
     }
 
     @Override
-    public int available() throws IOException {
-        return (content == null) ? 0 : content.readableBytes();
+    public synchronized int available() throws IOException {
+        return queuedBytes;
     }
 
-    protected void getMoreContent() {
-        try {
-            // Ask to read more content
-            nettyContext.channel().config().setAutoRead(true);
-
-            // Block until new content is available
-            barrier.await(IoUtils.TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } catch (BrokenBarrierException e) {
-            e.printStackTrace();
-        } catch (TimeoutException e) {
-            e.printStackTrace();
+    /**
+     * Closes the stream and releases the queued content. Content received
+     * later is discarded.
+     */
+    @Override
+    public void close() throws IOException {
+        boolean resume;
+
+        synchronized (this) {
+            this.closed = true;
+            releaseContents();
+            resume = this.suspended;
+            this.suspended = false;
+            notifyAll();
+        }
+
+        if (resume) {
+            handler.resumeReading();
         }
     }
 
-    protected boolean isLastContent() {
-        return lastContent;
+    /**
+     * Indicates if the reading from the connection should be suspended.
+     * 
+     * @return True if the reading from the connection should be suspended.
+     */
+    public synchronized boolean isSuspended() {
+        return suspended;
     }
 
-    public void onContent(ByteBuf content, boolean lastContent)
-            throws IOException {
-        try {
-            // Set the new content
-            this.content = content;
-            this.lastContent = lastContent;
-
-            // Unblock waiting consumer thread
-            barrier.await(IoUtils.TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } catch (BrokenBarrierException e) {
-            e.printStackTrace();
-        } catch (TimeoutException e) {
-            e.printStackTrace();
+    /**
+     * Queues a chunk of content received by the event loop. The buffer is
+     * retained until consumed, so the caller keeps the ownership of its own
+     * reference.
+     * 
+     * @param content
+     *            The content chunk.
+     * @param lastContent
+     *            True if this is the last chunk.
+     */
+    public synchronized void onContent(ByteBuf content, boolean lastContent) {
+        if (!closed && content.isReadable()) {
+            this.contents.add(content.retain());
+            this.queuedBytes += content.readableBytes();
+
+            if (this.queuedBytes >= this.capacity) {
+                this.suspended = true;
+            }
         }
+
+        if (lastContent) {
+            this.lastContent = true;
+        }
+
+        notifyAll();
     }
 
     @Override
     public int read() throws IOException {
-        int available = available();
+        byte[] b = new byte[1];
+        int result = read(b, 0, 1);
+        return (result == -1) ? -1 : (b[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        int result;
+        boolean resume = false;
+
+        synchronized (this) {
+            long deadline = System.currentTimeMillis() + IoUtils.TIMEOUT_MS;
+
+            while (contents.isEmpty() && !lastContent && (error == null)
+                    && !closed) {
+                long remaining = deadline - System.currentTimeMillis();
+
+                if (remaining <= 0) {
+                    throw new IOException(
+                            "Timeout while waiting for the request content");
+                }
+
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(
+                            "Interrupted while waiting for the request content");
+                }
+            }
+
+            if (closed) {
+                throw new IOException("The request content stream is closed");
+            }
+
+            ByteBuf content = contents.peek();
+
+            if (content == null) {
+                if (error != null) {
+                    throw error;
+                }
 
-        if (available == 0) {
-            if (isLastContent()) {
                 return -1;
-            } else {
-                getMoreContent();
-                available = available();
+            }
+
+            result = Math.min(len, content.readableBytes());
+            content.readBytes(b, off, result);
+            this.queuedBytes -= result;
+
+            if (!content.isReadable()) {
+                contents.poll().release();
+            }
+
+            if (this.suspended && (this.queuedBytes <= this.capacity / 2)) {
+                this.suspended = false;
+                resume = true;
             }
         }
 
-        return content.readByte() & 0xff;
+        if (resume) {
+            handler.resumeReading();
+        }
+
+        return result;
     }
 
-    @Override
-    public int read(byte[] b, int off, int len) throws IOException {
-        int available = available();
+    /**
+     * Releases the queued content chunks.
+     */
+    private void releaseContents() {
+        ByteBuf content;
 
-        if (available == 0) {
-            if (isLastContent()) {
-                return -1;
-            } else {
-                getMoreContent();
-                available = available();
-            }
+        while ((content = contents.poll()) != null) {
+            content.release();
+        }
+
+        this.queuedBytes = 0;
+    }
+
+    /**
+     * Sets the error to report to the reader once the queued content is
+     * consumed, typically because the connection was closed.
+     * 
+     * @param error
+     *            The error to report.
+     */
+    public synchronized void setError(IOException error) {
+        if (!lastContent) {
+            this.error = error;
         }
 
-        len = Math.min(available, len);
-        content.readBytes(b, off, len);
-        return len;
+        notifyAll();
     }
 
 }
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.netty.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.restlet.engine.io.IoUtils;
+
+/**
+ * Output stream sending the response content as chunks written to a Netty
+ * channel. Before writing a chunk, the calling thread blocks while the channel
+ * isn't writable, meaning that the pending outbound bytes went above the write
+ * buffer high water mark, until they go below the low water mark again.
+ * 
+ * @author Jerome Louvel
+ */
+public class HttpContentOutputStream extends OutputStream {
+
+    /** The current chunk buffer. */
+    private ByteBuf buffer;
+
+    /** The size of the chunk buffers. */
+    private final int bufferSize;
+
+    /** Indicates if the stream was closed. */
+    private volatile boolean closed;
+
+    /** The error reported by a previous write. */
+    private volatile IOException error;
+
+    /** The Netty channel context. */
+    private final ChannelHandlerContext nettyContext;
+
+    /** The monitor used to wait for the channel writability. */
+    private final Object writability;
+
+    /**
+     * Constructor.
+     * 
+     * @param nettyContext
+     *            The Netty channel context.
+     * @param bufferSize
+     *            The size of the chunk buffers.
+     */
+    public HttpContentOutputStream(ChannelHandlerContext nettyContext,
+            int bufferSize) {
+        this.buffer = null;
+        this.bufferSize = bufferSize;
+        this.closed = false;
+        this.error = null;
+        this.nettyContext = nettyContext;
+        this.writability = new Object();
+    }
+
+    /**
+     * Waits until the channel is writable.
+     * 
+     * @throws IOException
+     */
+    private void awaitWritable() throws IOException {
+        if (nettyContext.executor().inEventLoop()) {
+            // Never block the event loop
+            return;
+        }
+
+        synchronized (writability) {
+            long deadline = System.currentTimeMillis() + IoUtils.TIMEOUT_MS;
+
+            while (!nettyContext.channel().isWritable()
+                    && nettyContext.channel().isActive() && (error == null)) {
+                long remaining = deadline - System.currentTimeMillis();
+
+                if (remaining <= 0) {
+                    throw new IOException(
+                            "Timeout while waiting for the client to read the response content");
+                }
+
+                try {
+                    writability.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(
+                            "Interrupted while writing the response content");
+                }
+            }
+        }
+
+        checkError();
+    }
+
+    /**
+     * Throws the error reported by a previous write or because the connection
+     * was closed.
+     * 
+     * @throws IOException
+     */
+    private void checkError() throws IOException {
+        if (error != null) {
+            throw error;
+        } else if (!nettyContext.channel().isActive()) {
+            throw new IOException("The connection was closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                flush();
+            } finally {
+                closed = true;
+
+                if (buffer != null) {
+                    buffer.release();
+                    buffer = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if ((buffer != null) && buffer.isReadable()) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Notifies the threads blocked while writing that the writability of the
+     * channel changed.
+     */
+    public void onWritabilityChanged() {
+        synchronized (writability) {
+            writability.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the current chunk buffer, allocating it if needed.
+     * 
+     * @return The current chunk buffer.
+     * @throws IOException
+     */
+    private ByteBuf getBuffer() throws IOException {
+        if (closed) {
+            throw new IOException("The response content stream is closed");
+        }
+
+        if (buffer == null) {
+            checkError();
+            buffer = nettyContext.alloc().buffer(bufferSize);
+        }
+
+        return buffer;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuf target = getBuffer();
+            int count = Math.min(len, bufferSize - target.writerIndex());
+            target.writeBytes(b, off, count);
+            off += count;
+            len -= count;
+
+            if (target.writerIndex() >= bufferSize) {
+                writeBuffer();
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ByteBuf target = getBuffer();
+        target.writeByte(b);
+
+        if (target.writerIndex() >= bufferSize) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Writes and flushes the current chunk buffer to the channel.
+     * 
+     * @throws IOException
+     */
+    private void writeBuffer() throws IOException {
+        awaitWritable();
+        ByteBuf chunk = buffer;
+        buffer = null;
+        ChannelFuture future = nettyContext.writeAndFlush(new DefaultHttpContent(
+                chunk));
+        future.addListener(new ChannelFutureListener() {
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess()) {
+                    error = new IOException(
+                            "Unable to write the response content",
+                            future.cause());
+                    onWritabilityChanged();
+                }
+            }
+        });
+    }
+
+}
@@ -24,108 +24,327 @@
 
 package org.restlet.ext.netty.internal;
 
-import static io.netty.handler.codec.http.HttpResponseStatus.CONTINUE;
-import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
-
-import java.io.IOException;
-
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.handler.codec.DecoderResult;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderUtil;
-import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
 
 import org.restlet.ext.netty.NettyServerHelper;
 
 /**
+ * Handles the HTTP messages of a connection. The requests are handled one at a
+ * time, in order, by the executor of the server helper. The requests pipelined
+ * by the client are queued until the response of the current call was fully
+ * written. All the methods are invoked by the event loop of the connection,
+ * except {@link #onCallCompleted(NettyServerCall)} and
+ * {@link #resumeReading()}.
  * 
  * @author Jerome Louvel
  */
-public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
+public class HttpServerHandler extends ChannelInboundHandlerAdapter {
 
-    private static void appendDecoderResult(HttpObject httpObject) {
-        DecoderResult result = httpObject.decoderResult();
+    /** The current call. */
+    private NettyServerCall call;
 
-        if (result.isSuccess()) {
-            return;
-        }
+    /** Indicates if the last content of the current request was received. */
+    private boolean callContentComplete;
 
-        // TODO: ???
-    }
+    /** The Netty channel context. */
+    private volatile ChannelHandlerContext nettyContext;
 
-    private static void send100Continue(ChannelHandlerContext ctx) {
-        FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1,
-                CONTINUE);
-        ctx.write(response);
-    }
+    /** Indicates if the remaining content of a request is discarded. */
+    private boolean discarding;
 
-    private volatile NettyServerCall call;
+    /** The messages pipelined after the current request. */
+    private final Queue<Object> pendingMessages;
 
+    /** The parent server helper. */
     private final NettyServerHelper serverHelper;
 
+    /**
+     * Constructor.
+     * 
+     * @param serverHelper
+     *            The parent server helper.
+     */
     public HttpServerHandler(NettyServerHelper serverHelper) {
+        this.call = null;
+        this.callContentComplete = false;
+        this.discarding = false;
+        this.pendingMessages = new ArrayDeque<Object>();
         this.serverHelper = serverHelper;
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
-        System.out.println("Message received: " + msg);
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (this.call != null) {
+            this.call.onChannelClosed();
+        }
+
+        Object msg;
+
+        while ((msg = pendingMessages.poll()) != null) {
+            ReferenceCountUtil.release(msg);
+        }
+
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!pendingMessages.isEmpty() || isBlocked(msg)) {
+            // Wait for the current call to be completed
+            pendingMessages.add(msg);
+        } else {
+            handleMessage(ctx, msg);
+        }
+
+        updateAutoRead(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx)
+            throws Exception {
+        if (this.call != null) {
+            this.call.onWritabilityChanged();
+        }
+
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        getServerHelper().getLogger().log(Level.FINE,
+                "Closing the connection after an error", cause);
+        ctx.close();
+    }
+
+    /**
+     * Returns the parent server helper.
+     * 
+     * @return The parent server helper.
+     */
+    public NettyServerHelper getServerHelper() {
+        return serverHelper;
+    }
+
+    /**
+     * Handles a new call on the executor of the server helper.
+     * 
+     * @param ctx
+     *            The Netty channel context.
+     * @param call
+     *            The call to handle.
+     */
+    private void handleCall(ChannelHandlerContext ctx,
+            final NettyServerCall call) {
+        try {
+            getServerHelper().getExecutor().execute(new Runnable() {
+                public void run() {
+                    try {
+                        getServerHelper().handle(call);
+                    } finally {
+                        call.complete();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            getServerHelper().getLogger().log(Level.WARNING,
+                    "Unable to handle the call, the executor is saturated",
+                    ree);
+            this.call = null;
+            sendError(ctx, HttpResponseStatus.SERVICE_UNAVAILABLE);
+        }
+    }
 
+    /**
+     * Handles an HTTP message.
+     * 
+     * @param ctx
+     *            The Netty channel context.
+     * @param msg
+     *            The HTTP message.
+     */
+    private void handleMessage(ChannelHandlerContext ctx, Object msg) {
         try {
             if (msg instanceof HttpRequest) {
                 HttpRequest request = (HttpRequest) msg;
 
+                if (!request.decoderResult().isSuccess()) {
+                    getServerHelper().getLogger().log(Level.FINE,
+                            "Invalid HTTP request",
+                            request.decoderResult().cause());
+                    sendError(ctx, HttpResponseStatus.BAD_REQUEST);
+                    return;
+                }
+
                 if (HttpHeaderUtil.is100ContinueExpected(request)) {
-                    send100Continue(ctx);
+                    ctx.writeAndFlush(new DefaultFullHttpResponse(
+                            HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE));
                 }
 
-                call = new NettyServerCall(getServerHelper().getHelped(), ctx,
+                this.call = new NettyServerCall(getServerHelper(), this, ctx,
                         request);
-                serverHelper.handle(call);
-                appendDecoderResult(request);
-            } else if (msg instanceof HttpContent) {
-                HttpContent httpContent = (HttpContent) msg;
-                ctx.channel().config().setAutoRead(false);
+                this.callContentComplete = false;
+                this.discarding = false;
+                handleCall(ctx, this.call);
+            }
 
-                if (call != null) {
-                    call.onContent(httpContent);
-                } else {
-                    throw new IOException(
-                            "Unexpected error, content arrived before call created");
-                }
+            if (msg instanceof HttpContent) {
+                HttpContent httpContent = (HttpContent) msg;
+                boolean last = httpContent instanceof LastHttpContent;
 
-                if (msg instanceof LastHttpContent) {
-                    LastHttpContent trailer = (LastHttpContent) msg;
+                if (this.call != null && !this.callContentComplete) {
+                    this.call.getNettyEntityStream().onContent(
+                            httpContent.content(), last);
 
-                    if (!trailer.trailingHeaders().isEmpty()) {
-                        // TODO
+                    if (last) {
+                        this.callContentComplete = true;
                     }
+                } else if (this.discarding && last) {
+                    this.discarding = false;
                 }
             }
-        } catch (Throwable e) {
-            // TODO
-            e.printStackTrace();
+        } finally {
+            ReferenceCountUtil.release(msg);
         }
     }
 
     @Override
-    public void channelReadComplete(ChannelHandlerContext ctx) {
-        ctx.flush();
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.nettyContext = ctx;
+        super.handlerAdded(ctx);
     }
 
-    @Override
-    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-        cause.printStackTrace();
-        ctx.close();
+    /**
+     * Indicates if the message must wait for the completion of the current
+     * call, either because it starts a pipelined request or because it belongs
+     * to one.
+     * 
+     * @param msg
+     *            The HTTP message.
+     * @return True if the message must wait.
+     */
+    private boolean isBlocked(Object msg) {
+        return (this.call != null)
+                && (this.callContentComplete || (msg instanceof HttpRequest));
     }
 
-    public NettyServerHelper getServerHelper() {
-        return serverHelper;
+    /**
+     * Notifies that the response of the given call was fully written and that
+     * the connection can be reused by the next pipelined request.
+     * 
+     * @param completedCall
+     *            The completed call.
+     */
+    public void onCallCompleted(final NettyServerCall completedCall) {
+        final ChannelHandlerContext ctx = this.nettyContext;
+
+        ctx.executor().execute(new Runnable() {
+            public void run() {
+                if (call != completedCall) {
+                    return;
+                }
+
+                try {
+                    completedCall.getNettyEntityStream().close();
+                } catch (IOException e) {
+                    // Nothing to close
+                }
+
+                call = null;
+                discarding = !callContentComplete;
+
+                // Handle the pipelined messages
+                Object msg;
+
+                while (((msg = pendingMessages.peek()) != null)
+                        && ctx.channel().isActive() && !isBlocked(msg)) {
+                    handleMessage(ctx, pendingMessages.poll());
+                }
+
+                updateAutoRead(ctx);
+            }
+        });
+    }
+
+    /**
+     * Asks to resume the reading from the connection, typically after some
+     * request content was consumed.
+     */
+    public void resumeReading() {
+        final ChannelHandlerContext ctx = this.nettyContext;
+
+        if (ctx != null) {
+            ctx.executor().execute(new Runnable() {
+                public void run() {
+                    updateAutoRead(ctx);
+                }
+            });
+        }
+    }
+
+    /**
+     * Sends an error response and closes the connection.
+     * 
+     * @param ctx
+     *            The Netty channel context.
+     * @param status
+     *            The error status.
+     */
+    private void sendError(ChannelHandlerContext ctx, HttpResponseStatus status) {
+        FullHttpResponse response = new DefaultFullHttpResponse(
+                HttpVersion.HTTP_1_1, status);
+        HttpHeaderUtil.setContentLength(response, 0);
+        response.headers().set(HttpHeaderNames.CONNECTION,
+                HttpHeaderValues.CLOSE);
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    /**
+     * Reads from the connection only if there are no pending messages and if
+     * the request content of the current call isn't suspended.
+     * 
+     * @param ctx
+     *            The Netty channel context.
+     */
+    private void updateAutoRead(ChannelHandlerContext ctx) {
+        boolean autoRead = pendingMessages.isEmpty()
+                && ((this.call == null) || !this.call.getNettyEntityStream()
+                        .isSuspended());
+
+        if (ctx.channel().config().isAutoRead() != autoRead) {
+            ctx.channel().config().setAutoRead(autoRead);
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt)
+            throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            if (this.call == null) {
+                ctx.close();
+            }
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
     }
 
 }
@@ -29,20 +29,39 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.ssl.SslContext;
-import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+
+import java.util.concurrent.TimeUnit;
 
 import org.restlet.ext.netty.NettyServerHelper;
 
 /**
+ * Initializes the pipeline of the accepted HTTP connections.
  * 
  * @author Jerome Louvel
  */
 public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
 
-    private final SslContext sslCtx;
+    /** The maximum size of the request content chunks. */
+    private static final int MAX_CHUNK_SIZE = 8192;
 
+    /** The maximum length of the HTTP request line. */
+    private static final int MAX_INITIAL_LINE_LENGTH = 4096;
+
+    /** The parent server helper. */
     private final NettyServerHelper serverHelper;
 
+    /** The SSL context or null. */
+    private final SslContext sslCtx;
+
+    /**
+     * Constructor.
+     * 
+     * @param serverHelper
+     *            The parent server helper.
+     * @param sslCtx
+     *            The SSL context or null.
+     */
     public HttpServerInitializer(NettyServerHelper serverHelper,
             SslContext sslCtx) {
         this.serverHelper = serverHelper;
@@ -57,8 +76,15 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
             p.addLast(sslCtx.newHandler(ch.alloc()));
         }
 
-        p.addLast(new HttpServerCodec());
-        p.addLast(new ChunkedWriteHandler());
+        int idleTimeout = serverHelper.getConnectorIdleTimeout();
+
+        if (idleTimeout > 0) {
+            p.addLast(new IdleStateHandler(0, 0, idleTimeout,
+                    TimeUnit.MILLISECONDS));
+        }
+
+        p.addLast(new HttpServerCodec(MAX_INITIAL_LINE_LENGTH, serverHelper
+                .getHttpRequestHeaderSize(), MAX_CHUNK_SIZE));
         p.addLast(new HttpServerHandler(serverHelper));
     }
 
@@ -24,91 +24,169 @@
 
 package org.restlet.ext.netty.internal;
 
-import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpResponse;
-import io.netty.handler.codec.http.HttpChunkedInput;
-import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderUtil;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
-import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.ssl.SslHandler;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.util.Map;
-import java.util.logging.Level;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.SSLEngine;
 
 import org.restlet.Response;
-import org.restlet.Server;
 import org.restlet.data.Header;
 import org.restlet.engine.adapter.ServerCall;
+import org.restlet.engine.application.RangeRepresentation;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.ext.netty.NettyServerHelper;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.util.Series;
 
 /**
+ * Call that is used by the Netty HTTP server connector. The call is created by
+ * the event loop of the connection and handled by a thread of the connector
+ * executor.
  * 
  * @author Jerome Louvel
  */
 public class NettyServerCall extends ServerCall {
 
+    /** Indicates if the call was completed. */
+    private final AtomicBoolean completed;
+
+    /** Indicates if the connection should be kept alive after the response. */
+    private volatile boolean keepAlive;
+
+    /** The Netty channel context. */
     private final ChannelHandlerContext nettyContext;
 
-    private volatile HttpContentInputStream nettyEntityStream;
+    /** The request entity stream. */
+    private final HttpContentInputStream nettyEntityStream;
 
+    /** The Netty request. */
     private final HttpRequest nettyRequest;
 
+    /** The Netty response. */
     private volatile HttpResponse nettyResponse;
 
     /** Indicates if the request headers were parsed and added. */
     private volatile boolean requestHeadersAdded;
 
-    public NettyServerCall(Server server, ChannelHandlerContext nettyContext,
-            HttpRequest httpRequest) {
-        super(server);
+    /** The response entity stream. */
+    private volatile HttpContentOutputStream responseEntityStream;
+
+    /** Indicates if the response tail was written. */
+    private volatile boolean responseTailWritten;
+
+    /** The parent server helper. */
+    private final NettyServerHelper serverHelper;
+
+    /** The parent handler. */
+    private final HttpServerHandler serverHandler;
+
+    /**
+     * Constructor.
+     * 
+     * @param serverHelper
+     *            The parent server helper.
+     * @param serverHandler
+     *            The parent handler.
+     * @param nettyContext
+     *            The Netty channel context.
+     * @param nettyRequest
+     *            The Netty request.
+     */
+    public NettyServerCall(NettyServerHelper serverHelper,
+            HttpServerHandler serverHandler,
+            ChannelHandlerContext nettyContext, HttpRequest nettyRequest) {
+        super(serverHelper.getHelped());
+        this.completed = new AtomicBoolean(false);
+        this.keepAlive = HttpHeaderUtil.isKeepAlive(nettyRequest);
         this.nettyContext = nettyContext;
-        this.nettyRequest = httpRequest;
+        this.nettyEntityStream = new HttpContentInputStream(serverHandler,
+                serverHelper.getConnectorWriteBufferHighWaterMark());
+        this.nettyRequest = nettyRequest;
         this.nettyResponse = null;
         this.requestHeadersAdded = false;
+        this.responseEntityStream = null;
+        this.responseTailWritten = false;
+        this.serverHandler = serverHandler;
+        this.serverHelper = serverHelper;
     }
 
     @Override
     public boolean abort() {
-        try {
-            getNettyContext().close().sync();
-            return true;
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-            return false;
-        }
+        getNettyContext().close();
+        return true;
     }
 
+    /**
+     * Completes the call once the Restlet handling is over. If the response
+     * couldn't be fully sent, an error response is sent if possible and the
+     * connection is closed. Can be invoked several times.
+     */
     @Override
     public void complete() {
-        getNettyContext().flush();
+        if (completed.compareAndSet(false, true)) {
+            try {
+                getNettyEntityStream().close();
+            } catch (IOException e) {
+                // Nothing to close
+            }
+
+            if (!this.responseTailWritten) {
+                if (getNettyResponse() == null) {
+                    // No response was sent at all
+                    HttpResponse response = new DefaultFullHttpResponse(
+                            getNettyRequest().protocolVersion(),
+                            HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                    HttpHeaderUtil.setContentLength(response, 0);
+                    response.headers().set(HttpHeaderNames.CONNECTION,
+                            HttpHeaderValues.CLOSE);
+                    getNettyContext().writeAndFlush(response).addListener(
+                            ChannelFutureListener.CLOSE);
+                } else {
+                    // The response was interrupted
+                    getNettyContext().close();
+                }
+            }
+        }
     }
 
     @Override
     public void flushBuffers() throws IOException {
-        getNettyContext().flush();
+        if (this.responseEntityStream != null) {
+            this.responseEntityStream.flush();
+        } else {
+            getNettyContext().flush();
+        }
     }
 
     @Override
     public String getClientAddress() {
         InetSocketAddress isa = (InetSocketAddress) getNettyContext().channel()
                 .remoteAddress();
-        return isa.getHostString();
+        return isa.getAddress().getHostAddress();
     }
 
     @Override
@@ -123,23 +201,73 @@ public class NettyServerCall extends ServerCall {
         return getNettyRequest().method().name();
     }
 
+    /**
+     * Returns a zero-copy file region for the entity if possible. This is the
+     * case for complete files and for byte ranges of files sent over a clear
+     * connection.
+     * 
+     * @param entity
+     *            The response entity.
+     * @return The file region or null.
+     */
+    private DefaultFileRegion getFileRegion(Representation entity) {
+        if (getNettyContext().pipeline().get(SslHandler.class) != null) {
+            return null;
+        }
+
+        if ((entity instanceof FileRepresentation)
+                && (entity.getRange() == null)) {
+            File file = ((FileRepresentation) entity).getFile();
+
+            if (file.isFile() && (file.length() == entity.getAvailableSize())) {
+                return new DefaultFileRegion(file, 0, file.length());
+            }
+        } else if (entity instanceof RangeRepresentation) {
+            RangeRepresentation range = (RangeRepresentation) entity;
+            FileRepresentation fileEntity = range.getFileRepresentation();
+
+            if ((fileEntity != null) && fileEntity.getFile().isFile()
+                    && (range.getAvailableSize() >= 0)) {
+                return new DefaultFileRegion(fileEntity.getFile(),
+                        range.getStartIndex(), range.getAvailableSize());
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the Netty channel context.
+     * 
+     * @return The Netty channel context.
+     */
     protected ChannelHandlerContext getNettyContext() {
         return nettyContext;
     }
 
+    /**
+     * Returns the request entity stream.
+     * 
+     * @return The request entity stream.
+     */
     protected HttpContentInputStream getNettyEntityStream() {
-        if (this.nettyEntityStream == null) {
-            this.nettyEntityStream = new HttpContentInputStream(
-                    getNettyContext());
-        }
-
         return this.nettyEntityStream;
     }
 
+    /**
+     * Returns the Netty request.
+     * 
+     * @return The Netty request.
+     */
     protected HttpRequest getNettyRequest() {
         return nettyRequest;
     }
 
+    /**
+     * Returns the Netty response.
+     * 
+     * @return The Netty response.
+     */
     protected HttpResponse getNettyResponse() {
         return nettyResponse;
     }
@@ -179,13 +307,19 @@ public class NettyServerCall extends ServerCall {
 
     @Override
     public OutputStream getResponseEntityStream() {
-        return null;
+        if (this.responseEntityStream == null) {
+            this.responseEntityStream = new HttpContentOutputStream(
+                    getNettyContext(), serverHelper.getHttpOutputBufferSize());
+        }
+
+        return this.responseEntityStream;
     }
 
     @Override
     protected SSLEngine getSslEngine() {
-        // TODO
-        return null;
+        SslHandler sslHandler = getNettyContext().pipeline().get(
+                SslHandler.class);
+        return (sslHandler == null) ? null : sslHandler.engine();
     }
 
     @Override
@@ -202,65 +336,103 @@ public class NettyServerCall extends ServerCall {
         return result;
     }
 
-    public void onContent(HttpContent httpContent) throws IOException {
-        ByteBuf content = httpContent.content();
+    /**
+     * Indicates if the connection should be kept alive after the response.
+     * 
+     * @return True if the connection should be kept alive.
+     */
+    public boolean isResponseKeepAlive() {
+        return this.keepAlive;
+    }
+
+    /**
+     * Notifies that the channel was closed.
+     */
+    public void onChannelClosed() {
+        getNettyEntityStream().setError(
+                new IOException("The connection was closed"));
 
-        if (content.isReadable()) {
-            getNettyEntityStream().onContent(content,
-                    httpContent instanceof LastHttpContent);
+        if (this.responseEntityStream != null) {
+            this.responseEntityStream.onWritabilityChanged();
         }
     }
 
-    protected void setNettyResponse(HttpResponse nettyResponse) {
-        this.nettyResponse = nettyResponse;
+    /**
+     * Notifies that the writability of the channel changed.
+     */
+    public void onWritabilityChanged() {
+        if (this.responseEntityStream != null) {
+            this.responseEntityStream.onWritabilityChanged();
+        }
     }
 
     @Override
     protected void writeResponseBody(Representation responseEntity)
             throws IOException {
-        try {
-            // Send the entity to the client
-            InputStream is = responseEntity.getStream();
-            getNettyContext()
-                    .write(new HttpChunkedInput(new ChunkedStream(is)));
-            getNettyContext().writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
-        } catch (IOException ioe) {
-            // The stream was probably already closed by the
-            // connector. Probably OK, low message priority.
-            getLogger().log(Level.FINE,
-                    "Exception while writing the entity stream.", ioe);
+        DefaultFileRegion fileRegion = getFileRegion(responseEntity);
+
+        if (fileRegion != null) {
+            // Let the kernel transfer the file content to the socket
+            getNettyContext().writeAndFlush(fileRegion).addListener(
+                    ChannelFutureListener.CLOSE_ON_FAILURE);
+        } else {
+            super.writeResponseBody(responseEntity);
         }
     }
 
     @Override
-    public void writeResponseHead(org.restlet.Response restletResponse)
-            throws IOException {
-        setNettyResponse(new DefaultHttpResponse(HTTP_1_1,
-                new HttpResponseStatus(getStatusCode(), getReasonPhrase())));
-        HttpHeaders headers = getNettyResponse().headers();
+    public void writeResponseHead(Response restletResponse) throws IOException {
+        HttpVersion version = getNettyRequest().protocolVersion();
+        HttpResponse response = new DefaultHttpResponse(version,
+                new HttpResponseStatus(getStatusCode(), getReasonPhrase()));
+        HttpHeaders headers = response.headers();
 
-        // this.response.clear();
         for (Header header : getResponseHeaders()) {
             headers.add(header.getName(), header.getValue());
         }
 
-        // Decide whether to close the connection or not.
-        if (isKeepAlive()) {
-            headers.set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
-            getNettyContext().write(getNettyResponse());
-        } else {
-            getNettyContext().writeAndFlush(getNettyResponse()).addListener(
-                    ChannelFutureListener.CLOSE);
+        if (HeaderUtils.isConnectionClose(getResponseHeaders())
+                || !isServerKeepAlive()) {
+            this.keepAlive = false;
+        }
+
+        if ((restletResponse.getEntity() != null)
+                && !HttpHeaderUtil.isContentLengthSet(response)) {
+            if (HttpVersion.HTTP_1_1.equals(version)) {
+                // Stream the entity of unknown size as chunks
+                HttpHeaderUtil.setTransferEncodingChunked(response, true);
+            } else {
+                // The end of the entity is signaled by closing the connection
+                this.keepAlive = false;
+            }
         }
+
+        if (!this.keepAlive) {
+            headers.set(HeaderConstants.HEADER_CONNECTION,
+                    HttpHeaderValues.CLOSE);
+        } else if (!HttpVersion.HTTP_1_1.equals(version)) {
+            headers.set(HeaderConstants.HEADER_CONNECTION,
+                    HttpHeaderValues.KEEP_ALIVE);
+        }
+
+        this.nettyResponse = response;
+        getNettyContext().write(response);
     }
 
     @Override
     protected void writeResponseTail(Response response) {
-        if (!isKeepAlive()) {
-            // Close the connection once the content is fully written.
-            getNettyContext().writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(
-                    ChannelFutureListener.CLOSE);
-        }
+        final boolean keepAlive = this.keepAlive;
+        this.responseTailWritten = true;
+        getNettyContext().writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT)
+                .addListener(new ChannelFutureListener() {
+                    public void operationComplete(ChannelFuture future) {
+                        if (keepAlive && future.isSuccess()) {
+                            serverHandler.onCallCompleted(NettyServerCall.this);
+                        } else {
+                            future.channel().close();
+                        }
+                    }
+                });
     }
 
 }
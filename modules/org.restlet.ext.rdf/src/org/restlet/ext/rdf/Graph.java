@@ -24,7 +24,15 @@
 
 package org.restlet.ext.rdf;
 
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
@@ -32,18 +40,174 @@ import org.restlet.representation.Representation;
 
 /**
  * Graph composed of links. This also called a set of RDF statements or a RDF
- * model.
+ * model.<br>
+ * <br>
+ * The links are indexed by source, type reference and target (respectively
+ * SPO, POS and OSP indexes in RDF terminology), so adding a link takes a
+ * constant time and the links matching a pattern can be retrieved with the
+ * {@link #getLinks(Object, Reference, Object)} method without scanning the
+ * whole graph. The references given to the convenience add methods are
+ * interned, so that equal references share the same instance, until no link of
+ * the graph uses them anymore. Note that the links, as well as their reference
+ * and literal nodes which are indexed by value, shouldn't be modified once
+ * added to the graph.<br>
+ * <br>
+ * This class is thread-safe. Iterators work on a snapshot of the links taken
+ * when they are created.
  * 
  * @author Jerome Louvel
  */
-public class Graph extends CopyOnWriteArraySet<Link> {
+public class Graph extends AbstractSet<Link> implements Serializable {
+
+    /**
+     * Key of a graph or link node in the indexes. Such nodes are compared by
+     * identity as their content may change.
+     */
+    private static final class NodeKey implements Serializable {
+
+        /** The serialization unique identifier. */
+        private static final long serialVersionUID = 1L;
+
+        /** The graph or link node. */
+        private final Object node;
+
+        /**
+         * Constructor.
+         * 
+         * @param node
+         *            The graph or link node.
+         */
+        private NodeKey(Object node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return (object instanceof NodeKey)
+                    && (((NodeKey) object).node == this.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.node);
+        }
+    }
 
     /** The serialization unique identifier. */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Adds the links of all the lists of the given index entry.
+     * 
+     * @param entry
+     *            The index entry, may be null.
+     * @param result
+     *            The list of links to complete.
+     */
+    private static void addLinks(Map<Object, List<Link>> entry,
+            List<Link> result) {
+        if (entry != null) {
+            for (List<Link> links : entry.values()) {
+                result.addAll(links);
+            }
+        }
+    }
+
+    /**
+     * Returns the key of a source or target node in the indexes. References
+     * and literals are compared by value, other nodes by identity.
+     * 
+     * @param node
+     *            The source or target node.
+     * @return The key of the node.
+     */
+    private static Object getKey(Object node) {
+        if ((node == null) || (node instanceof Reference)
+                || (node instanceof Literal)) {
+            return node;
+        }
+
+        return new NodeKey(node);
+    }
+
+    /**
+     * Adds a link to an index.
+     * 
+     * @param index
+     *            The index to update.
+     * @param first
+     *            The first key.
+     * @param second
+     *            The second key.
+     * @param link
+     *            The link to add.
+     */
+    private static void index(Map<Object, Map<Object, List<Link>>> index,
+            Object first, Object second, Link link) {
+        Map<Object, List<Link>> entry = index.get(first);
+
+        if (entry == null) {
+            entry = new HashMap<Object, List<Link>>(4);
+            index.put(first, entry);
+        }
+
+        List<Link> links = entry.get(second);
+
+        if (links == null) {
+            links = new ArrayList<Link>(1);
+            entry.put(second, links);
+        }
+
+        links.add(link);
+    }
+
+    /**
+     * Removes a link from an index.
+     * 
+     * @param index
+     *            The index to update.
+     * @param first
+     *            The first key.
+     * @param second
+     *            The second key.
+     * @param link
+     *            The link to remove.
+     */
+    private static void unindex(Map<Object, Map<Object, List<Link>>> index,
+            Object first, Object second, Link link) {
+        Map<Object, List<Link>> entry = index.get(first);
+
+        if (entry != null) {
+            List<Link> links = entry.get(second);
+
+            if ((links != null) && links.remove(link) && links.isEmpty()) {
+                entry.remove(second);
+
+                if (entry.isEmpty()) {
+                    index.remove(first);
+                }
+            }
+        }
+    }
+
     /** The default link that is used to complete new links. */
     private Link defaultLink;
 
+    /** The links, in the order they were added. */
+    private final Set<Link> links;
+
+    /** The interned references. */
+    private final Map<Reference, Reference> references;
+
+    /** The index of links by source then by type reference (SPO). */
+    private final Map<Object, Map<Object, List<Link>>> sourceIndex;
+
+    /** The index of links by target then by source (OSP). */
+    private final Map<Object, Map<Object, List<Link>>> targetIndex;
+
+    /** The index of links by type reference then by target (POS). */
+    private final Map<Object, Map<Object, List<Link>>> typeIndex;
+
     /**
      * Default constructor.
      */
@@ -59,6 +223,33 @@ public class Graph extends CopyOnWriteArraySet<Link> {
      */
     public Graph(Link defaultLink) {
         this.defaultLink = defaultLink;
+        this.links = new LinkedHashSet<Link>();
+        this.references = new HashMap<Reference, Reference>();
+        this.sourceIndex = new HashMap<Object, Map<Object, List<Link>>>();
+        this.targetIndex = new HashMap<Object, Map<Object, List<Link>>>();
+        this.typeIndex = new HashMap<Object, Map<Object, List<Link>>>();
+    }
+
+    /**
+     * Adds a link and indexes it by source, type reference and target.
+     * 
+     * @param link
+     *            The link to add.
+     * @return True if the link wasn't already in the graph.
+     */
+    @Override
+    public synchronized boolean add(Link link) {
+        boolean result = this.links.add(link);
+
+        if (result) {
+            Object sourceKey = getKey(link.getSource());
+            Object targetKey = getKey(link.getTarget());
+            index(this.sourceIndex, sourceKey, link.getTypeRef(), link);
+            index(this.typeIndex, link.getTypeRef(), targetKey, link);
+            index(this.targetIndex, targetKey, sourceKey, link);
+        }
+
+        return result;
     }
 
     /**
@@ -300,6 +491,20 @@ public class Graph extends CopyOnWriteArraySet<Link> {
                 new Reference(targetRef));
     }
 
+    @Override
+    public synchronized void clear() {
+        this.links.clear();
+        this.references.clear();
+        this.sourceIndex.clear();
+        this.targetIndex.clear();
+        this.typeIndex.clear();
+    }
+
+    @Override
+    public synchronized boolean contains(Object object) {
+        return this.links.contains(object);
+    }
+
     /**
      * Returns the default link that is used to complete new links.
      * 
@@ -309,6 +514,65 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         return defaultLink;
     }
 
+    /**
+     * Returns the links matching the given pattern. A null parameter matches
+     * any value. References and literals are compared by value, graphs and
+     * links by identity. The lookup relies on the indexes, except when no
+     * parameter is given.
+     * 
+     * @param source
+     *            The source or subject of the links, or null.
+     * @param typeRef
+     *            The type reference or predicate of the links, or null.
+     * @param target
+     *            The target or object of the links, or null.
+     * @return A new list of the matching links.
+     */
+    public synchronized List<Link> getLinks(Object source, Reference typeRef,
+            Object target) {
+        List<Link> result = new ArrayList<Link>();
+        Object sourceKey = getKey(source);
+        Object targetKey = getKey(target);
+
+        if ((source != null) && (typeRef != null)) {
+            Map<Object, List<Link>> entry = this.sourceIndex.get(sourceKey);
+            List<Link> links = (entry == null) ? null : entry.get(typeRef);
+
+            if (links != null) {
+                for (Link link : links) {
+                    if ((target == null)
+                            || targetKey.equals(getKey(link.getTarget()))) {
+                        result.add(link);
+                    }
+                }
+            }
+        } else if ((source != null) && (target != null)) {
+            Map<Object, List<Link>> entry = this.targetIndex.get(targetKey);
+            List<Link> links = (entry == null) ? null : entry.get(sourceKey);
+
+            if (links != null) {
+                result.addAll(links);
+            }
+        } else if (source != null) {
+            addLinks(this.sourceIndex.get(sourceKey), result);
+        } else if ((typeRef != null) && (target != null)) {
+            Map<Object, List<Link>> entry = this.typeIndex.get(typeRef);
+            List<Link> links = (entry == null) ? null : entry.get(targetKey);
+
+            if (links != null) {
+                result.addAll(links);
+            }
+        } else if (typeRef != null) {
+            addLinks(this.typeIndex.get(typeRef), result);
+        } else if (target != null) {
+            addLinks(this.targetIndex.get(targetKey), result);
+        } else {
+            result.addAll(this.links);
+        }
+
+        return result;
+    }
+
     /**
      * Returns a representation in the RDF/n3 format.
      * 
@@ -378,7 +642,7 @@ public class Graph extends CopyOnWriteArraySet<Link> {
             result = getDefaultLink().getSourceAsReference();
         }
 
-        return result;
+        return intern(result);
     }
 
     /**
@@ -414,7 +678,7 @@ public class Graph extends CopyOnWriteArraySet<Link> {
             result = getDefaultLink().getTargetAsReference();
         }
 
-        return result;
+        return intern(result);
     }
 
     /**
@@ -432,6 +696,91 @@ public class Graph extends CopyOnWriteArraySet<Link> {
             result = getDefaultLink().getTypeRef();
         }
 
+        return intern(result);
+    }
+
+    /**
+     * Returns the interned instance of a reference. The first instance of
+     * equal references is kept and shared by the links of the graph, which
+     * noticeably reduces memory usage for large graphs.
+     * 
+     * @param reference
+     *            The reference to intern.
+     * @return The interned reference.
+     */
+    private synchronized Reference intern(Reference reference) {
+        Reference result = reference;
+
+        if (result != null) {
+            result = this.references.get(reference);
+
+            if (result == null) {
+                this.references.put(reference, reference);
+                result = reference;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns an iterator on a snapshot of the links, in the order they were
+     * added.
+     * 
+     * @return An iterator on a snapshot of the links.
+     */
+    @Override
+    public synchronized Iterator<Link> iterator() {
+        final Iterator<Link> snapshot = new ArrayList<Link>(this.links)
+                .iterator();
+
+        return new Iterator<Link>() {
+            /** The last link returned. */
+            private Link current;
+
+            public boolean hasNext() {
+                return snapshot.hasNext();
+            }
+
+            public Link next() {
+                this.current = snapshot.next();
+                return this.current;
+            }
+
+            public void remove() {
+                if (this.current == null) {
+                    throw new IllegalStateException();
+                }
+
+                Graph.this.remove(this.current);
+                this.current = null;
+            }
+        };
+    }
+
+    /**
+     * Removes a link and its index entries.
+     * 
+     * @param object
+     *            The link to remove.
+     * @return True if the link was in the graph.
+     */
+    @Override
+    public synchronized boolean remove(Object object) {
+        boolean result = this.links.remove(object);
+
+        if (result) {
+            Link link = (Link) object;
+            Object sourceKey = getKey(link.getSource());
+            Object targetKey = getKey(link.getTarget());
+            unindex(this.sourceIndex, sourceKey, link.getTypeRef(), link);
+            unindex(this.typeIndex, link.getTypeRef(), targetKey, link);
+            unindex(this.targetIndex, targetKey, sourceKey, link);
+            unintern(link.getSource());
+            unintern(link.getTypeRef());
+            unintern(link.getTarget());
+        }
+
         return result;
     }
 
@@ -445,4 +794,24 @@ public class Graph extends CopyOnWriteArraySet<Link> {
         this.defaultLink = defaultLink;
     }
 
+    @Override
+    public synchronized int size() {
+        return this.links.size();
+    }
+
+    /**
+     * Removes the interned instance of a reference node once no link of the
+     * graph uses it anymore as source, type reference or target.
+     * 
+     * @param node
+     *            The node of a removed link.
+     */
+    private void unintern(Object node) {
+        if ((node instanceof Reference) && !this.sourceIndex.containsKey(node)
+                && !this.typeIndex.containsKey(node)
+                && !this.targetIndex.containsKey(node)) {
+            this.references.remove(node);
+        }
+    }
+
 }
@@ -26,10 +26,15 @@ package org.restlet.ext.rdf;
 
 import org.restlet.data.Language;
 import org.restlet.data.Reference;
+import org.restlet.engine.util.SystemUtils;
 
 /**
  * Literal as defined by RDF. Composed of the literal value, optional datatype
- * reference and language properties.
+ * reference and language properties.<br>
+ * <br>
+ * Literals are compared by value. As a {@link Graph} indexes the target
+ * literals of its links by value, a literal shouldn't be modified once its
+ * link has been added to a graph.
  * 
  * @author Jerome Louvel
  * @see <a href="http://www.w3.org/TR/rdf-concepts/#section-Graph-Literal">RDF
@@ -84,6 +89,31 @@ public class Literal {
         this.language = language;
     }
 
+    /**
+     * Indicates if the given object is equal to this literal, i.e. if it is a
+     * literal with equal value, datatype reference and language.
+     * 
+     * @param object
+     *            The object to compare.
+     * @return True if both literals are equal.
+     */
+    @Override
+    public boolean equals(Object object) {
+        boolean result = (object == this);
+
+        if (!result && (object instanceof Literal)) {
+            Literal that = (Literal) object;
+            result = ((getValue() == null) ? that.getValue() == null
+                    : getValue().equals(that.getValue()))
+                    && ((getDatatypeRef() == null) ? that.getDatatypeRef() == null
+                            : getDatatypeRef().equals(that.getDatatypeRef()))
+                    && ((getLanguage() == null) ? that.getLanguage() == null
+                            : getLanguage().equals(that.getLanguage()));
+        }
+
+        return result;
+    }
+
     /**
      * Returns the optional datatype reference.
      * 
@@ -111,6 +141,12 @@ public class Literal {
         return value;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return SystemUtils.hashCode(getValue(), getDatatypeRef(), getLanguage());
+    }
+
     /**
      * Indicates if the literal is plain. Plain literals have a value and an
      * optional language tag.
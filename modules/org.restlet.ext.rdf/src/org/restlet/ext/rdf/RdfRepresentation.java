@@ -217,7 +217,9 @@ public class RdfRepresentation extends WriterRepresentation {
 
     /**
      * Parses the inner RDF representation. The given graph handler is invoked
-     * each time a link is detected.
+     * each time a link is detected. The links aren't collected into a graph, so
+     * large representations can be processed in a streaming way by a custom
+     * handler instead of calling {@link #getGraph()}.
      * 
      * @param graphHandler
      *            The graph handler.
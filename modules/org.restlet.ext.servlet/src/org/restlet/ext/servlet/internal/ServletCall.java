@@ -52,6 +52,7 @@ import org.restlet.engine.header.HeaderConstants;
 import org.restlet.engine.header.LanguageReader;
 import org.restlet.engine.io.UnclosableInputStream;
 import org.restlet.engine.io.UnclosableOutputStream;
+import org.restlet.engine.util.HeaderSeries;
 import org.restlet.representation.Representation;
 import org.restlet.util.Series;
 
@@ -238,7 +239,7 @@ public class ServletCall extends ServerCall {
     @Override
     public Series<Header> getRequestHeaders() {
         if (this.requestHeaders == null) {
-            this.requestHeaders = new Series<Header>(Header.class);
+            this.requestHeaders = new HeaderSeries();
 
             // Copy the headers from the request object
             String headerName;
@@ -152,6 +152,19 @@ public class TemplateRepresentation extends WriterRepresentation {
         return templateResolver;
     }
 
+    /**
+     * Returns the template engine of the current {@link ThymeleafService} if
+     * available, otherwise a new one created by calling
+     * {@link #createTemplateEngine()}.
+     * 
+     * @return The template engine to use by default.
+     */
+    private static TemplateEngine getDefaultTemplateEngine() {
+        ThymeleafService service = ThymeleafService.getCurrent();
+        return (service == null) ? createTemplateEngine() : service
+                .getTemplateEngine();
+    }
+
     /** The template's data model. */
     protected volatile IContext context;
 
@@ -179,7 +192,8 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public TemplateRepresentation(String templateName, Locale locale,
             Map<String, Object> dataModel, MediaType mediaType) {
-        this(templateName, createTemplateEngine(), locale, mediaType);
+        this(templateName, getDefaultTemplateEngine(), locale, dataModel,
+                mediaType);
     }
 
     /**
@@ -256,7 +270,8 @@ public class TemplateRepresentation extends WriterRepresentation {
     public TemplateRepresentation(
             TemplateRepresentation templateRepresentation, Locale locale,
             MediaType mediaType) throws IOException {
-        this(templateRepresentation, createTemplateEngine(), locale, mediaType);
+        this(templateRepresentation, getDefaultTemplateEngine(), locale,
+                mediaType);
     }
 
     /**
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.thymeleaf;
+
+import org.restlet.Application;
+import org.restlet.service.TemplateService;
+import org.thymeleaf.Template;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.templateresolver.ITemplateResolver;
+import org.thymeleaf.templateresolver.TemplateResolver;
+
+/**
+ * Application service sharing a Thymeleaf template engine and its cache of
+ * parsed templates. The cache is bounded by {@link #getCacheSize()} and, with
+ * the default template resolver, its entries are parsed again after
+ * {@link #getCheckInterval()} seconds.<br>
+ * <br>
+ * When this service is added to the application's services, the
+ * {@link TemplateRepresentation} constructors without template engine, the
+ * {@link ThymeleafConverter} and the {@link TemplateFilter} use it by default.
+ * 
+ * @author Jerome Louvel
+ */
+public class ThymeleafService extends TemplateService<Template> {
+
+    /**
+     * Returns the Thymeleaf service of the current application.
+     * 
+     * @return The Thymeleaf service of the current application or null.
+     */
+    public static ThymeleafService getCurrent() {
+        Application application = Application.getCurrent();
+        return (application == null) ? null : application.getServices().get(
+                ThymeleafService.class);
+    }
+
+    /** The shared template engine. */
+    private volatile TemplateEngine templateEngine;
+
+    /** The template resolver. */
+    private volatile ITemplateResolver templateResolver;
+
+    /**
+     * Constructor.
+     */
+    public ThymeleafService() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public ThymeleafService(boolean enabled) {
+        super(enabled);
+    }
+
+    /**
+     * Clears the templates cached by the template engine.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        TemplateEngine engine = this.templateEngine;
+
+        if ((engine != null) && engine.isInitialized()) {
+            engine.clearTemplateCache();
+        }
+    }
+
+    /**
+     * Creates the shared template engine. By default, it relies on the
+     * {@link #getTemplateResolver()} property and bounds its template cache
+     * with the {@link #getCacheSize()} property.
+     * 
+     * @return The new template engine.
+     */
+    protected TemplateEngine createTemplateEngine() {
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(getCacheSize());
+        TemplateEngine result = TemplateRepresentation
+                .createTemplateEngine(getTemplateResolver());
+        result.setCacheManager(cacheManager);
+        return result;
+    }
+
+    /**
+     * Creates the default template resolver, see
+     * {@link TemplateRepresentation#createTemplateResolver()}. Its cache time
+     * to live is set with the {@link #getCheckInterval()} property.
+     * 
+     * @return The new template resolver.
+     */
+    protected ITemplateResolver createTemplateResolver() {
+        ITemplateResolver result = TemplateRepresentation
+                .createTemplateResolver();
+
+        if (result instanceof TemplateResolver) {
+            ((TemplateResolver) result).setCacheable(true);
+            ((TemplateResolver) result)
+                    .setCacheTTLMs(1000L * getCheckInterval());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the shared template engine, creating it if necessary.
+     * 
+     * @return The shared template engine.
+     */
+    public TemplateEngine getTemplateEngine() {
+        TemplateEngine result = this.templateEngine;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.templateEngine;
+
+                if (result == null) {
+                    result = createTemplateEngine();
+                    this.templateEngine = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the template resolver, creating a default one if necessary.
+     * 
+     * @return The template resolver.
+     */
+    public ITemplateResolver getTemplateResolver() {
+        ITemplateResolver result = this.templateResolver;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.templateResolver;
+
+                if (result == null) {
+                    result = createTemplateResolver();
+                    this.templateResolver = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Sets the shared template engine.
+     * 
+     * @param templateEngine
+     *            The shared template engine.
+     */
+    public void setTemplateEngine(TemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+    }
+
+    /**
+     * Sets the template resolver. It must be set before the template engine is
+     * created.
+     * 
+     * @param templateResolver
+     *            The template resolver.
+     */
+    public void setTemplateResolver(ITemplateResolver templateResolver) {
+        this.templateResolver = templateResolver;
+    }
+
+}
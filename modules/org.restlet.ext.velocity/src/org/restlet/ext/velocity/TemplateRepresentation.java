@@ -36,6 +36,7 @@ import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.RuntimeServices;
 import org.apache.velocity.runtime.RuntimeSingleton;
 import org.restlet.Context;
 import org.restlet.Request;
@@ -54,6 +55,80 @@ import org.restlet.util.Resolver;
  * @author Jerome Louvel
  */
 public class TemplateRepresentation extends WriterRepresentation {
+
+    /**
+     * Parses a Velocity template from a representation, using the runtime
+     * services of the Velocity singleton.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The parsed template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public static Template createTemplate(Representation templateRepresentation)
+            throws ResourceNotFoundException, ParseErrorException, IOException {
+        return createTemplate(templateRepresentation,
+                RuntimeSingleton.getRuntimeServices());
+    }
+
+    /**
+     * Parses a Velocity template from a representation.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @param runtimeServices
+     *            The runtime services of the Velocity engine.
+     * @return The parsed template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public static Template createTemplate(
+            Representation templateRepresentation,
+            RuntimeServices runtimeServices) throws ResourceNotFoundException,
+            ParseErrorException, IOException {
+        Template result = new Template();
+
+        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
+                .getCharacterSet() : CharacterSet.DEFAULT;
+        result.setEncoding(charSet.getName());
+        result.setLastModified((templateRepresentation.getModificationDate() == null) ? new Date()
+                .getTime() : templateRepresentation.getModificationDate()
+                .getTime());
+        result.setName("org.restlet.resource.representation");
+        result.setRuntimeServices(runtimeServices);
+        result.setResourceLoader(new RepresentationResourceLoader(
+                templateRepresentation));
+        result.process();
+        return result;
+    }
+
+    /**
+     * Returns a Velocity template from a representation. The current
+     * {@link VelocityService} is used if available, otherwise the template is
+     * parsed each time.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The parsed template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    private static Template getDefaultTemplate(
+            Representation templateRepresentation)
+            throws ResourceNotFoundException, ParseErrorException, IOException {
+        VelocityService service = VelocityService.getCurrent();
+
+        if (service == null) {
+            return createTemplate(templateRepresentation);
+        }
+
+        return service.getTemplate(templateRepresentation);
+    }
+
     /**
      * Velocity context based on a Resolver.
      * 
@@ -138,6 +213,9 @@ public class TemplateRepresentation extends WriterRepresentation {
     /** The Velocity engine. */
     private volatile VelocityEngine engine;
 
+    /** The Velocity service loading the named template. */
+    private volatile VelocityService service;
+
     /** The template. */
     private volatile Template template;
 
@@ -163,22 +241,7 @@ public class TemplateRepresentation extends WriterRepresentation {
         super(mediaType);
         setDataModel(dataModel);
         this.engine = null;
-        this.template = new Template();
-
-        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
-                .getCharacterSet() : CharacterSet.DEFAULT;
-        this.template.setEncoding(charSet.getName());
-
-        if (templateRepresentation.getModificationDate() != null) {
-            this.template.setLastModified(templateRepresentation
-                    .getModificationDate().getTime());
-        }
-
-        this.template.setName("org.restlet.resource.representation");
-        this.template.setRuntimeServices(RuntimeSingleton.getRuntimeServices());
-        this.template.setResourceLoader(new RepresentationResourceLoader(
-                templateRepresentation));
-        this.template.process();
+        this.template = getDefaultTemplate(templateRepresentation);
         this.templateName = null;
     }
 
@@ -198,24 +261,15 @@ public class TemplateRepresentation extends WriterRepresentation {
             ParseErrorException, IOException {
         super(mediaType);
         this.engine = null;
-        this.template = new Template();
-
-        CharacterSet charSet = (templateRepresentation.getCharacterSet() != null) ? templateRepresentation
-                .getCharacterSet() : CharacterSet.DEFAULT;
-        this.template.setEncoding(charSet.getName());
-        this.template.setLastModified((templateRepresentation
-                .getModificationDate() == null) ? new Date().getTime()
-                : templateRepresentation.getModificationDate().getTime());
-        this.template.setName("org.restlet.resource.representation");
-        this.template.setRuntimeServices(RuntimeSingleton.getRuntimeServices());
-        this.template.setResourceLoader(new RepresentationResourceLoader(
-                templateRepresentation));
-        this.template.process();
+        this.template = getDefaultTemplate(templateRepresentation);
         this.templateName = null;
     }
 
     /**
-     * Constructor.
+     * Constructor. The template is loaded by the shared engine of the current
+     * {@link VelocityService} if available, or by the dedicated engine returned
+     * by {@link #getEngine()} otherwise. See {@link #setService(VelocityService)}
+     * to use the dedicated engine even if the service is available.
      * 
      * @param templateName
      *            The Velocity template's name. The actual template is retrieved
@@ -232,6 +286,7 @@ public class TemplateRepresentation extends WriterRepresentation {
         try {
             setDataModel(dataModel);
             this.engine = new VelocityEngine();
+            this.service = VelocityService.getCurrent();
             this.template = null;
             this.templateName = templateName;
         } catch (Exception e) {
@@ -296,7 +351,9 @@ public class TemplateRepresentation extends WriterRepresentation {
     }
 
     /**
-     * Returns the Velocity engine.
+     * Returns the Velocity engine dedicated to this representation. It loads
+     * the named template when no {@link VelocityService} is set and can be
+     * configured without affecting the shared engine of the service.
      * 
      * @return The Velocity engine.
      */
@@ -304,6 +361,16 @@ public class TemplateRepresentation extends WriterRepresentation {
         return this.engine;
     }
 
+    /**
+     * Returns the Velocity service loading the named template. By default, it
+     * is the service of the current application, if available.
+     * 
+     * @return The Velocity service loading the named template or null.
+     */
+    public VelocityService getService() {
+        return this.service;
+    }
+
     /**
      * Returns the Velocity template.
      * 
@@ -313,8 +380,14 @@ public class TemplateRepresentation extends WriterRepresentation {
         if (this.template == null) {
             if (this.templateName != null) {
                 try {
-                    getEngine().init();
-                    this.template = getEngine().getTemplate(this.templateName);
+                    if (getService() != null) {
+                        this.template = getService().getTemplate(
+                                this.templateName);
+                    } else {
+                        getEngine().init();
+                        this.template = getEngine().getTemplate(
+                                this.templateName);
+                    }
                 } catch (Exception e) {
                     final Context context = Context.getCurrent();
 
@@ -376,6 +449,18 @@ public class TemplateRepresentation extends WriterRepresentation {
         setContext(new ResolverContext(resolver));
     }
 
+    /**
+     * Sets the Velocity service loading the named template. Set it to null to
+     * load the template with the dedicated engine returned by
+     * {@link #getEngine()} instead.
+     * 
+     * @param service
+     *            The Velocity service loading the named template or null.
+     */
+    public void setService(VelocityService service) {
+        this.service = service;
+    }
+
     /**
      * Writes the datum as a stream of characters.
      * 
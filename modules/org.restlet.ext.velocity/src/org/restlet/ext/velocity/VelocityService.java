@@ -0,0 +1,237 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.velocity;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.RuntimeSingleton;
+import org.restlet.Application;
+import org.restlet.Context;
+import org.restlet.representation.Representation;
+import org.restlet.service.TemplateService;
+
+/**
+ * Application service sharing an initialized Velocity engine and its parsed
+ * templates. Templates loaded by name are cached by the engine's resource
+ * manager and checked for modification at most every
+ * {@link #getCheckInterval()} seconds. Templates provided via representations,
+ * for example by the {@link TemplateFilter}, are cached by location URI and
+ * modification date, so that a modified template is parsed again. Both caches
+ * are bounded by {@link #getCacheSize()}.<br>
+ * <br>
+ * When this service is added to the application's services, the
+ * {@link TemplateRepresentation} constructors and the {@link TemplateFilter}
+ * use it by default. Additional engine properties, such as the
+ * "file.resource.loader.path", can be set via the {@link #getProperties()} map
+ * before the engine is created. The shared engine shouldn't be configured
+ * afterwards as it is used by concurrent calls.
+ * 
+ * @author Jerome Louvel
+ */
+public class VelocityService extends TemplateService<Template> {
+
+    /**
+     * Returns the Velocity service of the current application.
+     * 
+     * @return The Velocity service of the current application or null.
+     */
+    public static VelocityService getCurrent() {
+        Application application = Application.getCurrent();
+        return (application == null) ? null : application.getServices().get(
+                VelocityService.class);
+    }
+
+    /** The shared Velocity engine. */
+    private volatile VelocityEngine engine;
+
+    /** The additional engine properties. */
+    private final Map<String, Object> properties;
+
+    /**
+     * Constructor.
+     */
+    public VelocityService() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public VelocityService(boolean enabled) {
+        super(enabled);
+        this.properties = new ConcurrentHashMap<String, Object>();
+    }
+
+    /**
+     * Creates and initializes the shared Velocity engine. By default, it
+     * enables the cache of the file resource loader based on the
+     * {@link #getCacheSize()} and {@link #getCheckInterval()} properties, then
+     * applies the additional {@link #getProperties()}.
+     * 
+     * @return The new Velocity engine.
+     * @throws Exception
+     */
+    protected VelocityEngine createEngine() throws Exception {
+        VelocityEngine result = new VelocityEngine();
+        result.setProperty(RuntimeConstants.RESOURCE_MANAGER_DEFAULTCACHE_SIZE,
+                Integer.toString(getCacheSize()));
+        result.setProperty(RuntimeConstants.FILE_RESOURCE_LOADER_CACHE, "true");
+        result.setProperty("file.resource.loader.modificationCheckInterval",
+                Integer.toString(getCheckInterval()));
+
+        for (Map.Entry<String, Object> property : getProperties().entrySet()) {
+            result.setProperty(property.getKey(), property.getValue());
+        }
+
+        result.init();
+        return result;
+    }
+
+    /**
+     * Returns the shared Velocity engine, creating and initializing it if
+     * necessary.
+     * 
+     * @return The shared Velocity engine.
+     */
+    public VelocityEngine getEngine() {
+        VelocityEngine result = this.engine;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.engine;
+
+                if (result == null) {
+                    try {
+                        result = createEngine();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(
+                                "Unable to initialize the Velocity engine", e);
+                    }
+
+                    this.engine = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the modifiable map of additional engine properties.
+     * 
+     * @return The modifiable map of additional engine properties.
+     */
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Returns the runtime services of the shared Velocity engine, used to parse
+     * the templates provided via representations. As the Velocity engine
+     * doesn't expose them, they are looked up by reflection. The runtime
+     * services of the Velocity singleton are returned if this fails.
+     * 
+     * @return The runtime services of the shared Velocity engine.
+     */
+    public RuntimeServices getRuntimeServices() {
+        VelocityEngine engine = getEngine();
+
+        try {
+            Field field = VelocityEngine.class.getDeclaredField("ri");
+            field.setAccessible(true);
+            return (RuntimeServices) field.get(engine);
+        } catch (Exception e) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "Unable to get the runtime services of the Velocity engine",
+                    e);
+            return RuntimeSingleton.getRuntimeServices();
+        }
+    }
+
+    /**
+     * Returns a template provided via a representation. It is parsed once per
+     * location URI and modification date. Representations without location
+     * reference or modification date are parsed each time.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The parsed template.
+     * @throws IOException
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public Template getTemplate(Representation templateRepresentation)
+            throws ResourceNotFoundException, ParseErrorException, IOException {
+        Template result = getCachedTemplate(templateRepresentation);
+
+        if (result == null) {
+            result = TemplateRepresentation.createTemplate(
+                    templateRepresentation, getRuntimeServices());
+            cacheTemplate(templateRepresentation, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a template by name, using the engine cache.
+     * 
+     * @param templateName
+     *            The template name.
+     * @return The template.
+     * @throws ParseErrorException
+     * @throws ResourceNotFoundException
+     */
+    public Template getTemplate(String templateName)
+            throws ResourceNotFoundException, ParseErrorException {
+        return getEngine().getTemplate(templateName);
+    }
+
+    /**
+     * Sets the shared Velocity engine. It must be initialized.
+     * 
+     * @param engine
+     *            The shared Velocity engine.
+     */
+    public void setEngine(VelocityEngine engine) {
+        this.engine = engine;
+        clear();
+    }
+
+}
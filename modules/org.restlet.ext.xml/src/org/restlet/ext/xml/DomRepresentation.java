@@ -31,6 +31,7 @@ import java.io.Writer;
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
 import org.restlet.engine.Edition;
+import org.restlet.ext.xml.internal.XmlUtils;
 import org.restlet.representation.Representation;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentType;
@@ -108,8 +109,16 @@ public class DomRepresentation extends XmlRepresentation {
     protected javax.xml.transform.Transformer createTransformer()
             throws IOException {
         try {
-            javax.xml.transform.Transformer transformer = javax.xml.transform.TransformerFactory
-                    .newInstance().newTransformer();
+            javax.xml.transform.TransformerFactory transformerFactory = XmlUtils
+                    .checkoutTransformerFactory();
+            javax.xml.transform.Transformer transformer;
+
+            try {
+                transformer = transformerFactory.newTransformer();
+            } finally {
+                XmlUtils.checkin(transformerFactory);
+            }
+
             transformer.setOutputProperty(
                     javax.xml.transform.OutputKeys.METHOD, "xml");
             transformer.setOutputProperty(
@@ -30,6 +30,7 @@ import java.io.Writer;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Result;
+import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -39,6 +40,7 @@ import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.sax.SAXSource;
 
 import org.restlet.data.MediaType;
+import org.restlet.ext.xml.internal.XmlUtils;
 import org.restlet.representation.Representation;
 import org.w3c.dom.Document;
 import org.xml.sax.ContentHandler;
@@ -174,19 +176,16 @@ public class SaxRepresentation extends XmlRepresentation {
                 this.source = ((XmlRepresentation) xmlRepresentation)
                         .getSaxSource();
             } else {
+                // The factory is pooled, configure it fully
+                SAXParserFactory spf = XmlUtils.checkoutSaxParserFactory();
+
                 try {
-                    SAXParserFactory spf = SAXParserFactory.newInstance();
                     spf.setNamespaceAware(isNamespaceAware());
 
                     // Keep before the external entity preferences
                     spf.setValidating(isValidatingDtd());
 
-                    javax.xml.validation.Schema xsd = getSchema();
-
-                    if (xsd != null) {
-                        spf.setSchema(xsd);
-                    }
-
+                    spf.setSchema(getSchema());
                     spf.setXIncludeAware(isXIncludeAware());
                     spf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
                             isSecureProcessing());
@@ -202,6 +201,8 @@ public class SaxRepresentation extends XmlRepresentation {
                 } catch (Exception e) {
                     throw new IOException(
                             "Unable to create customized SAX source", e);
+                } finally {
+                    XmlUtils.checkin(spf);
                 }
             }
 
@@ -233,8 +234,17 @@ public class SaxRepresentation extends XmlRepresentation {
         if (contentHandler != null) {
             try {
                 Result result = new SAXResult(contentHandler);
-                TransformerFactory.newInstance().newTransformer()
-                        .transform(getSaxSource(), result);
+                TransformerFactory transformerFactory = XmlUtils
+                        .checkoutTransformerFactory();
+                Transformer transformer;
+
+                try {
+                    transformer = transformerFactory.newTransformer();
+                } finally {
+                    XmlUtils.checkin(transformerFactory);
+                }
+
+                transformer.transform(getSaxSource(), result);
             } catch (TransformerConfigurationException tce) {
                 throw new IOException(
                         "Couldn't parse the source representation: "
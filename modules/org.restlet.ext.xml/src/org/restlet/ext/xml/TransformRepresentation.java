@@ -49,6 +49,7 @@ import javax.xml.transform.stream.StreamSource;
 import org.restlet.Context;
 import org.restlet.ext.xml.internal.AbstractXmlReader;
 import org.restlet.ext.xml.internal.ContextResolver;
+import org.restlet.ext.xml.internal.XmlUtils;
 import org.restlet.representation.Representation;
 import org.restlet.representation.WriterRepresentation;
 import org.xml.sax.InputSource;
@@ -277,17 +278,6 @@ public class TransformRepresentation extends WriterRepresentation {
         return toSaxSource(getSourceRepresentation());
     }
 
-    /**
-     * Returns the default SAX transformer factory.
-     * 
-     * @return The default SAX transformer factory.
-     */
-    private SAXTransformerFactory getSaxTransformerFactory() {
-        SAXTransformerFactory result = (SAXTransformerFactory) TransformerFactory
-                .newInstance();
-        return result;
-    }
-
     /**
      * Returns the source representation to transform.
      * 
@@ -317,18 +307,20 @@ public class TransformRepresentation extends WriterRepresentation {
                                 .getLocationRef().getTargetRef().toString());
                     }
 
-                    // Create the transformer factory
-                    final TransformerFactory transformerFactory = TransformerFactory
-                            .newInstance();
+                    // Reuse a pooled transformer factory
+                    final TransformerFactory transformerFactory = XmlUtils
+                            .checkoutTransformerFactory();
 
-                    // Set the URI resolver
-                    if (getUriResolver() != null) {
+                    try {
+                        // Set the URI resolver, reset on check in
                         transformerFactory.setURIResolver(getUriResolver());
-                    }
 
-                    // Create a new transformer
-                    this.templates = transformerFactory
-                            .newTemplates(transformSource);
+                        // Create a new transformer
+                        this.templates = transformerFactory
+                                .newTemplates(transformSource);
+                    } finally {
+                        XmlUtils.checkin(transformerFactory);
+                    }
                 } catch (TransformerConfigurationException tce) {
                     throw new IOException(
                             "Transformer configuration exception. "
@@ -395,12 +387,16 @@ public class TransformRepresentation extends WriterRepresentation {
         Templates templates = getTemplates();
 
         if (templates != null) {
+            SAXTransformerFactory transformerFactory = (SAXTransformerFactory) XmlUtils
+                    .checkoutTransformerFactory();
+
             try {
-                result = getSaxTransformerFactory().newTransformerHandler(
-                        templates);
+                result = transformerFactory.newTransformerHandler(templates);
             } catch (TransformerConfigurationException tce) {
                 throw new IOException("Transformer configuration exception. "
                         + tce.getMessage());
+            } finally {
+                XmlUtils.checkin(transformerFactory);
             }
         }
 
@@ -436,11 +432,16 @@ public class TransformRepresentation extends WriterRepresentation {
         final Templates templates = getTemplates();
 
         if (templates != null) {
+            SAXTransformerFactory transformerFactory = (SAXTransformerFactory) XmlUtils
+                    .checkoutTransformerFactory();
+
             try {
-                result = getSaxTransformerFactory().newXMLFilter(templates);
+                result = transformerFactory.newXMLFilter(templates);
             } catch (TransformerConfigurationException tce) {
                 throw new IOException("Transformer configuration exception. "
                         + tce.getMessage());
+            } finally {
+                XmlUtils.checkin(transformerFactory);
             }
         }
 
@@ -24,8 +24,12 @@
 
 package org.restlet.ext.xml;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+import javax.xml.transform.Templates;
 
 import org.restlet.Request;
 import org.restlet.Response;
@@ -33,6 +37,7 @@ import org.restlet.data.CharacterSet;
 import org.restlet.data.Encoding;
 import org.restlet.data.Language;
 import org.restlet.data.MediaType;
+import org.restlet.ext.xml.internal.ContextResolver;
 import org.restlet.representation.Representation;
 import org.restlet.routing.Filter;
 
@@ -83,6 +88,9 @@ public class Transformer extends Filter {
      */
     private volatile MediaType resultMediaType;
 
+    /** The templates compiled from the transform sheet, reused across calls. */
+    private volatile Templates templates;
+
     /** The XSLT transform sheet to apply to message entities. */
     private volatile Representation transformSheet;
 
@@ -196,6 +204,32 @@ public class Transformer extends Filter {
         return this.resultMediaType;
     }
 
+    /**
+     * Returns the templates compiled from the transform sheet. They are
+     * compiled on first call and then reused by all transformations until the
+     * transform sheet is changed.
+     * 
+     * @return The templates compiled from the transform sheet.
+     * @throws IOException
+     */
+    public Templates getTemplates() throws IOException {
+        Templates result = this.templates;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.templates;
+
+                if ((result == null) && (getTransformSheet() != null)) {
+                    result = new TransformRepresentation(getContext(), null,
+                            getTransformSheet()).getTemplates();
+                    this.templates = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the XSLT transform sheet to apply to message entities.
      * 
@@ -261,8 +295,9 @@ public class Transformer extends Filter {
      * @param transformSheet
      *            The XSLT transform sheet to apply to message entities.
      */
-    public void setTransformSheet(Representation transformSheet) {
+    public synchronized void setTransformSheet(Representation transformSheet) {
         this.transformSheet = transformSheet;
+        this.templates = null;
     }
 
     /**
@@ -274,8 +309,24 @@ public class Transformer extends Filter {
      * @return The generated result representation.
      */
     public Representation transform(Representation source) {
-        final Representation result = new TransformRepresentation(getContext(),
-                source, getTransformSheet());
+        Representation result = null;
+        Templates templates = null;
+
+        try {
+            templates = getTemplates();
+        } catch (IOException ioe) {
+            getLogger().log(Level.WARNING,
+                    "Unable to compile the XSLT transform sheet", ioe);
+        }
+
+        if (templates != null) {
+            result = new TransformRepresentation(
+                    (getContext() == null) ? null : new ContextResolver(
+                            getContext()), source, templates);
+        } else {
+            result = new TransformRepresentation(getContext(), source,
+                    getTransformSheet());
+        }
 
         if (this.resultLanguages != null) {
             result.getLanguages().addAll(getResultLanguages());
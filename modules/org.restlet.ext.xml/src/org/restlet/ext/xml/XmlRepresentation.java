@@ -37,11 +37,10 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathFactory;
 
 import org.restlet.Context;
 import org.restlet.data.MediaType;
+import org.restlet.ext.xml.internal.XmlUtils;
 import org.restlet.representation.Representation;
 import org.restlet.representation.WriterRepresentation;
 import org.w3c.dom.Document;
@@ -86,6 +85,27 @@ public abstract class XmlRepresentation extends WriterRepresentation
     public static boolean XML_VALIDATING_DTD = Boolean
             .getBoolean("org.restlet.ext.xml.validatingDtd");
 
+    // [ifndef android] member
+    /**
+     * Indicates for each class if it overrides the namespace context methods.
+     * It is computed once per class as it relies on reflection.
+     */
+    private static final ClassValue<Boolean> namespaceContextOverridden = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return (type.getMethod("getNamespaceURI", String.class)
+                        .getDeclaringClass() != XmlRepresentation.class)
+                        || (type.getMethod("getPrefix", String.class)
+                                .getDeclaringClass() != XmlRepresentation.class)
+                        || (type.getMethod("getPrefixes", String.class)
+                                .getDeclaringClass() != XmlRepresentation.class);
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    };
+
     // [ifdef android] method
     /**
      * Appends the text content of a given node and its descendants to the given
@@ -365,8 +385,10 @@ public abstract class XmlRepresentation extends WriterRepresentation
     protected DocumentBuilder getDocumentBuilder() throws IOException {
         DocumentBuilder result = null;
 
+        // The factory is pooled, configure it fully
+        DocumentBuilderFactory dbf = XmlUtils.checkoutDocumentBuilderFactory();
+
         try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
             dbf.setNamespaceAware(isNamespaceAware());
             dbf.setValidating(isValidatingDtd());
             dbf.setCoalescing(isCoalescing());
@@ -382,11 +404,7 @@ public abstract class XmlRepresentation extends WriterRepresentation
             }
 
             // [ifndef android]
-            javax.xml.validation.Schema xsd = getSchema();
-
-            if (xsd != null) {
-                dbf.setSchema(xsd);
-            }
+            dbf.setSchema(getSchema());
             // [enddef]
 
             result = dbf.newDocumentBuilder();
@@ -395,6 +413,8 @@ public abstract class XmlRepresentation extends WriterRepresentation
         } catch (ParserConfigurationException pce) {
             throw new IOException("Couldn't create the empty document: "
                     + pce.getMessage());
+        } finally {
+            XmlUtils.checkin(dbf);
         }
 
         return result;
@@ -617,12 +637,17 @@ public abstract class XmlRepresentation extends WriterRepresentation
             javax.xml.namespace.QName returnType) {
         try {
             Object result = null;
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            xpath.setNamespaceContext(this);
             Document xmlDocument = getDocument();
 
             if (xmlDocument != null) {
-                result = xpath.evaluate(expression, xmlDocument, returnType);
+                if (isNamespaceContextOverridden()) {
+                    // The namespaces may not only depend on the map
+                    result = XmlUtils.evaluate(expression, this, xmlDocument,
+                            returnType);
+                } else {
+                    result = XmlUtils.evaluate(expression, getNamespaces(),
+                            xmlDocument, returnType);
+                }
             } else {
                 throw new Exception(
                         "Unable to obtain a DOM document for the XML representation. "
@@ -689,6 +714,18 @@ public abstract class XmlRepresentation extends WriterRepresentation
         return this.namespaceAware;
     }
 
+    // [ifndef android] method
+    /**
+     * Indicates if a subclass overrides the namespace context methods, in
+     * which case the namespaces may not only depend on the map returned by
+     * {@link #getNamespaces()}.
+     * 
+     * @return True if the namespace context methods are overridden.
+     */
+    private boolean isNamespaceContextOverridden() {
+        return namespaceContextOverridden.get(getClass());
+    }
+
     /**
      * Indicates the desire for validating this type of XML representations
      * against an XML schema if one is referenced within the contents.
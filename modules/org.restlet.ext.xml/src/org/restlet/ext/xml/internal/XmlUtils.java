@@ -0,0 +1,361 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.ext.xml.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.restlet.engine.util.Pool;
+
+/**
+ * XML related utilities. Looking up the JAXP factories relies on a service
+ * lookup which is expensive, so factory instances are reused. As the JAXP
+ * factories aren't thread-safe, they are checked out of a small bounded pool
+ * and must be checked in once used. Callers must fully configure the
+ * factories before each use, as another caller may have configured them
+ * differently.<br>
+ * <br>
+ * The pools are static members of this class, so they are collected with the
+ * class loader of the extension. The {@link #clear()} method can be called to
+ * release them earlier.
+ * 
+ * @author Jerome Louvel
+ */
+public class XmlUtils {
+
+    /**
+     * Pool of JAXP objects, bounded to {@link XmlUtils#POOL_SIZE} idle
+     * objects. Objects checked in when the pool is full are dropped.
+     * 
+     * @param <T>
+     *            The pooled type.
+     */
+    private static abstract class BoundedPool<T> extends Pool<T> {
+
+        @Override
+        protected Queue<T> createStore() {
+            return new ArrayBlockingQueue<T>(POOL_SIZE);
+        }
+    }
+
+    /**
+     * Namespace context based on an immutable map of namespaces. Used to
+     * compile the cached XPath expressions.
+     */
+    private static class MapNamespaceContext implements NamespaceContext {
+
+        /** The map of namespaces, prefixes are keys and URIs are values. */
+        private final Map<String, String> namespaces;
+
+        /**
+         * Constructor.
+         * 
+         * @param namespaces
+         *            The map of namespaces.
+         */
+        private MapNamespaceContext(Map<String, String> namespaces) {
+            this.namespaces = namespaces;
+        }
+
+        public String getNamespaceURI(String prefix) {
+            return this.namespaces.get(prefix);
+        }
+
+        public String getPrefix(String namespaceURI) {
+            Iterator<String> prefixes = getPrefixes(namespaceURI);
+            return prefixes.hasNext() ? prefixes.next() : null;
+        }
+
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            List<String> result = new ArrayList<String>();
+
+            for (Map.Entry<String, String> entry : this.namespaces.entrySet()) {
+                if (entry.getValue().equals(namespaceURI)) {
+                    result.add(entry.getKey());
+                }
+            }
+
+            return result.iterator();
+        }
+    }
+
+    /** The maximum number of distinct XPath expressions cached. */
+    private static final int MAX_XPATH_EXPRESSIONS = 128;
+
+    /** The maximum number of idle instances kept by each pool. */
+    private static final int POOL_SIZE = 16;
+
+    /** The pool of document builder factories. */
+    private static final Pool<DocumentBuilderFactory> documentBuilderFactories = new BoundedPool<DocumentBuilderFactory>() {
+        @Override
+        protected DocumentBuilderFactory createObject() {
+            return DocumentBuilderFactory.newInstance();
+        }
+    };
+
+    /** The pool of SAX parser factories. */
+    private static final Pool<SAXParserFactory> saxParserFactories = new BoundedPool<SAXParserFactory>() {
+        @Override
+        protected SAXParserFactory createObject() {
+            return SAXParserFactory.newInstance();
+        }
+    };
+
+    /** The pool of transformer factories. */
+    private static final Pool<TransformerFactory> transformerFactories = new BoundedPool<TransformerFactory>() {
+        @Override
+        protected void clear(TransformerFactory object) {
+            object.setURIResolver(null);
+        }
+
+        @Override
+        protected TransformerFactory createObject() {
+            return TransformerFactory.newInstance();
+        }
+    };
+
+    /**
+     * The pools of compiled XPath expressions, by expression and map of
+     * namespaces.
+     */
+    private static final ConcurrentMap<List<Object>, Queue<XPathExpression>> xPathExpressions = new ConcurrentHashMap<List<Object>, Queue<XPathExpression>>();
+
+    /** The pool of XPath compilers. */
+    private static final Pool<XPath> xPaths = new BoundedPool<XPath>() {
+        @Override
+        protected void clear(XPath object) {
+            object.reset();
+        }
+
+        @Override
+        protected XPath createObject() {
+            return XPathFactory.newInstance().newXPath();
+        }
+    };
+
+    /**
+     * Checks in a document builder factory checked out with
+     * {@link #checkoutDocumentBuilderFactory()}.
+     * 
+     * @param factory
+     *            The factory to check in.
+     */
+    public static void checkin(DocumentBuilderFactory factory) {
+        documentBuilderFactories.checkin(factory);
+    }
+
+    /**
+     * Checks in a SAX parser factory checked out with
+     * {@link #checkoutSaxParserFactory()}.
+     * 
+     * @param factory
+     *            The factory to check in.
+     */
+    public static void checkin(SAXParserFactory factory) {
+        saxParserFactories.checkin(factory);
+    }
+
+    /**
+     * Checks in a transformer factory checked out with
+     * {@link #checkoutTransformerFactory()}. Its URI resolver is reset.
+     * 
+     * @param factory
+     *            The factory to check in.
+     */
+    public static void checkin(TransformerFactory factory) {
+        transformerFactories.checkin(factory);
+    }
+
+    /**
+     * Checks out a document builder factory. It must be checked in with
+     * {@link #checkin(DocumentBuilderFactory)} once used.
+     * 
+     * @return A document builder factory.
+     */
+    public static DocumentBuilderFactory checkoutDocumentBuilderFactory() {
+        return documentBuilderFactories.checkout();
+    }
+
+    /**
+     * Checks out a SAX parser factory. It must be checked in with
+     * {@link #checkin(SAXParserFactory)} once used.
+     * 
+     * @return A SAX parser factory.
+     */
+    public static SAXParserFactory checkoutSaxParserFactory() {
+        return saxParserFactories.checkout();
+    }
+
+    /**
+     * Checks out a transformer factory. It must be checked in with
+     * {@link #checkin(TransformerFactory)} once used.
+     * 
+     * @return A transformer factory.
+     */
+    public static TransformerFactory checkoutTransformerFactory() {
+        return transformerFactories.checkout();
+    }
+
+    /**
+     * Clears the pooled factories and the cached XPath expressions.
+     */
+    public static void clear() {
+        documentBuilderFactories.clear();
+        saxParserFactories.clear();
+        transformerFactories.clear();
+        xPaths.clear();
+        xPathExpressions.clear();
+    }
+
+    // [ifndef android] method
+    /**
+     * Compiles an XPath expression with a pooled XPath compiler.
+     * 
+     * @param expression
+     *            The XPath expression.
+     * @param namespaceContext
+     *            The namespace context.
+     * @return The compiled XPath expression.
+     * @throws XPathExpressionException
+     */
+    private static XPathExpression compile(String expression,
+            NamespaceContext namespaceContext)
+            throws XPathExpressionException {
+        XPath compiler = xPaths.checkout();
+
+        try {
+            compiler.setNamespaceContext(namespaceContext);
+            return compiler.compile(expression);
+        } finally {
+            xPaths.checkin(compiler);
+        }
+    }
+
+    // [ifndef android] method
+    /**
+     * Evaluates an XPath expression. The compiled expression is cached for the
+     * given expression and map of namespaces. As compiled expressions aren't
+     * thread-safe, they are pooled.
+     * 
+     * @param expression
+     *            The XPath expression.
+     * @param namespaces
+     *            The map of namespaces, prefixes are keys and URIs are values.
+     * @param item
+     *            The item to evaluate the expression on.
+     * @param returnType
+     *            The qualified name of the return type.
+     * @return The evaluation result.
+     * @throws XPathExpressionException
+     */
+    public static Object evaluate(String expression,
+            Map<String, String> namespaces, Object item, QName returnType)
+            throws XPathExpressionException {
+        Map<String, String> copy = null;
+        Queue<XPathExpression> expressions = xPathExpressions.get(Arrays
+                .<Object> asList(expression, namespaces));
+
+        if (expressions == null) {
+            if (xPathExpressions.size() >= MAX_XPATH_EXPRESSIONS) {
+                xPathExpressions.clear();
+            }
+
+            copy = new HashMap<String, String>(namespaces);
+            expressions = new ArrayBlockingQueue<XPathExpression>(POOL_SIZE);
+            Queue<XPathExpression> existing = xPathExpressions.putIfAbsent(
+                    Arrays.<Object> asList(expression, copy), expressions);
+
+            if (existing != null) {
+                expressions = existing;
+            }
+        }
+
+        XPathExpression compiled = expressions.poll();
+
+        if (compiled == null) {
+            if (copy == null) {
+                copy = new HashMap<String, String>(namespaces);
+            }
+
+            compiled = compile(expression, new MapNamespaceContext(copy));
+        }
+
+        try {
+            return compiled.evaluate(item, returnType);
+        } finally {
+            expressions.offer(compiled);
+        }
+    }
+
+    // [ifndef android] method
+    /**
+     * Evaluates an XPath expression with a given namespace context. The
+     * compiled expression isn't cached as the namespace context may change.
+     * 
+     * @param expression
+     *            The XPath expression.
+     * @param namespaceContext
+     *            The namespace context.
+     * @param item
+     *            The item to evaluate the expression on.
+     * @param returnType
+     *            The qualified name of the return type.
+     * @return The evaluation result.
+     * @throws XPathExpressionException
+     */
+    public static Object evaluate(String expression,
+            NamespaceContext namespaceContext, Object item, QName returnType)
+            throws XPathExpressionException {
+        return compile(expression, namespaceContext).evaluate(item,
+                returnType);
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility class
+     * i.e. it isn't instantiable and extensible.
+     */
+    private XmlUtils() {
+    }
+
+}
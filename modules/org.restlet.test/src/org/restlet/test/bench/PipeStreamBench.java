@@ -0,0 +1,153 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.restlet.engine.io.PipeStream;
+
+/**
+ * Compares the throughput of the ring buffer based {@link PipeStream} with the
+ * former implementation based on a blocking queue of boxed bytes.
+ * 
+ * @author Jerome Louvel
+ */
+public class PipeStreamBench {
+
+    /** Former pipe implementation, based on a queue of integers. */
+    private static class QueuePipeStream {
+
+        private final BlockingQueue<Integer> queue = new ArrayBlockingQueue<Integer>(
+                1024);
+
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private boolean endReached = false;
+
+                @Override
+                public int read() throws IOException {
+                    try {
+                        if (this.endReached) {
+                            return -1;
+                        }
+
+                        Integer value = queue.poll(5, TimeUnit.SECONDS);
+
+                        if (value == null) {
+                            throw new IOException("Timeout");
+                        }
+
+                        this.endReached = (value == -1);
+                        return value.intValue();
+                    } catch (InterruptedException ie) {
+                        throw new IOException("Interrupted");
+                    }
+                }
+            };
+        }
+
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void close() throws IOException {
+                    offer(-1);
+                }
+
+                private void offer(int value) throws IOException {
+                    try {
+                        if (!queue.offer(value, 5, TimeUnit.SECONDS)) {
+                            throw new IOException("Timeout");
+                        }
+                    } catch (InterruptedException ie) {
+                        throw new IOException("Interrupted");
+                    }
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    offer(b & 0xff);
+                }
+            };
+        }
+    }
+
+    /** The number of bytes transferred per run. */
+    private static final int SIZE = 8 * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            QueuePipeStream queuePipe = new QueuePipeStream();
+            report("Queue pipe", run(queuePipe.getInputStream(),
+                    queuePipe.getOutputStream()));
+
+            PipeStream ringPipe = new PipeStream();
+            report("Ring pipe ", run(ringPipe.getInputStream(),
+                    ringPipe.getOutputStream()));
+        }
+    }
+
+    private static void report(String name, long durationNs) {
+        double seconds = durationNs / 1e9;
+        System.out.println(name + ": "
+                + String.format("%.1f MB/s", SIZE / seconds / (1024 * 1024)));
+    }
+
+    private static long run(InputStream is, final OutputStream os)
+            throws Exception {
+        final byte[] chunk = new byte[8192];
+
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int written = 0; written < SIZE; written += chunk.length) {
+                        os.write(chunk);
+                    }
+
+                    os.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+
+        long start = System.nanoTime();
+        writer.start();
+        byte[] buffer = new byte[8192];
+
+        while (is.read(buffer) != -1) {
+        }
+
+        writer.join();
+        return System.nanoTime() - start;
+    }
+
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.bench;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Protocol;
+import org.restlet.engine.util.ThreadUtils;
+import org.restlet.resource.ClientResource;
+import org.restlet.service.TaskService;
+
+/**
+ * Compares the throughput of the internal HTTP server and of the task service
+ * when running on pools of platform threads and on virtual threads, with
+ * handlers blocking on a slow downstream server. Virtual threads require Java
+ * 21 or later, on older JVMs both modes use platform threads.
+ * 
+ * @author Jerome Louvel
+ */
+public class VirtualThreadsBench {
+
+    /** The number of concurrent client threads. */
+    private static final int CLIENTS = 100;
+
+    /** The latency of the downstream server in milliseconds. */
+    private static final int DOWNSTREAM_LATENCY = 20;
+
+    /** The number of requests sent by each client thread. */
+    private static final int REQUESTS = 10;
+
+    /** The number of tasks submitted to the task service. */
+    private static final int TASKS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Virtual threads supported: "
+                + ThreadUtils.isVirtualThreadsSupported());
+
+        // Downstream server simulating a slow remote resource
+        Server downstream = new Server(new Context(), Protocol.HTTP, 0, new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                try {
+                    Thread.sleep(DOWNSTREAM_LATENCY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                response.setEntity("downstream", MediaType.TEXT_PLAIN);
+            }
+        });
+        downstream.getContext().getParameters().add("maxQueued", "-1");
+        downstream.getContext().getParameters().add("minThreads", "200");
+        downstream.getContext().getParameters().add("maxThreads", "200");
+        downstream.start();
+        String downstreamUri = "http://localhost:"
+                + downstream.getEphemeralPort() + "/";
+
+        Client client = new Client(Protocol.HTTP);
+        client.start();
+
+        for (int i = 0; i < 3; i++) {
+            report("Server, worker threads ", runServer(false, client,
+                    downstreamUri), CLIENTS * REQUESTS);
+            report("Server, virtual threads", runServer(true, client,
+                    downstreamUri), CLIENTS * REQUESTS);
+            report("Tasks, pooled threads  ", runTasks(false), TASKS);
+            report("Tasks, virtual threads ", runTasks(true), TASKS);
+        }
+
+        client.stop();
+        downstream.stop();
+    }
+
+    private static void report(String name, long durationNs, int count) {
+        double seconds = durationNs / 1e9;
+        System.out.println(name + ": "
+                + String.format("%.0f calls/s", count / seconds));
+    }
+
+    private static long runServer(boolean virtualThreads, final Client client,
+            final String downstreamUri) throws Exception {
+        // Front server calling the downstream server
+        Server server = new Server(new Context(), Protocol.HTTP, 0, new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                ClientResource resource = new ClientResource(downstreamUri);
+                resource.setNext(client);
+
+                try {
+                    response.setEntity(resource.get().getText(),
+                            MediaType.TEXT_PLAIN);
+                } catch (Exception e) {
+                    response.setStatus(
+                            org.restlet.data.Status.SERVER_ERROR_INTERNAL, e);
+                }
+            }
+        });
+        // Queue the calls exceeding the default maximum of worker threads
+        server.getContext().getParameters().add("maxQueued", "-1");
+        server.getContext().getParameters().add("minThreads", "10");
+        server.getContext().getParameters()
+                .add("virtualThreads", Boolean.toString(virtualThreads));
+        server.start();
+
+        final URL url = new URL("http://localhost:" + server.getEphemeralPort()
+                + "/");
+        final CountDownLatch latch = new CountDownLatch(CLIENTS);
+        final AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < REQUESTS; j++) {
+                            HttpURLConnection connection = (HttpURLConnection) url
+                                    .openConnection();
+
+                            if (connection.getResponseCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+
+                            InputStream is = connection.getInputStream();
+
+                            while (is.read() != -1) {
+                            }
+
+                            is.close();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        latch.await();
+        long result = System.nanoTime() - start;
+        server.stop();
+
+        if (errors.get() > 0) {
+            System.out.println(errors.get() + " failed calls");
+        }
+
+        return result;
+    }
+
+    private static long runTasks(boolean virtualThreads) throws Exception {
+        TaskService taskService = new TaskService();
+        taskService.setVirtualThreads(virtualThreads);
+        taskService.setShutdownAllowed(true);
+        taskService.start();
+        Future<?>[] futures = new Future<?>[TASKS];
+        long start = System.nanoTime();
+
+        for (int i = 0; i < TASKS; i++) {
+            futures[i] = taskService.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    Thread.sleep(DOWNSTREAM_LATENCY);
+                    return null;
+                }
+            });
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        long result = System.nanoTime() - start;
+        taskService.shutdown();
+        taskService.stop();
+        return result;
+    }
+
+}
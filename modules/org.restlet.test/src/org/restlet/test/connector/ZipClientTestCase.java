@@ -24,14 +24,26 @@
 
 package org.restlet.test.connector;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.restlet.data.LocalReference;
+import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.local.ZipArchive;
 import org.restlet.representation.EmptyRepresentation;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
@@ -58,11 +70,97 @@ public class ZipClientTestCase extends RestletTestCase {
         zipFile = new File(testDir, "test.zip");
     }
 
+    /**
+     * Writes a Zip file with a stored entry and a deflated entry in an implied
+     * directory.
+     * 
+     * @param stored
+     *            The content of the stored entry.
+     * @param deflated
+     *            The content of the deflated entry.
+     */
+    private void writeZipFile(String stored, String deflated)
+            throws IOException {
+        ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(
+                zipFile));
+        byte[] bytes = stored.getBytes("UTF-8");
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ZipEntry entry = new ZipEntry("stored.txt");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        zipOut.putNextEntry(entry);
+        zipOut.write(bytes);
+        zipOut.closeEntry();
+        zipOut.putNextEntry(new ZipEntry("a/b/deflated.txt"));
+        zipOut.write(deflated.getBytes("UTF-8"));
+        zipOut.closeEntry();
+        zipOut.close();
+    }
+
     @Override
     protected void tearDown() throws Exception {
         // BioUtils.delete(testDir, true);
     }
 
+    public void testArchive() throws Exception {
+        writeZipFile("Stored content", "Deflated content");
+        ZipArchive archive = new ZipArchive(zipFile);
+        archive.acquire();
+
+        // Implied directories are indexed
+        List<ZipEntry> children = archive.getChildren("");
+        assertEquals(2, children.size());
+        assertEquals("stored.txt", children.get(0).getName());
+        assertEquals("a/", children.get(1).getName());
+        assertTrue(archive.getEntry("a/b/").isDirectory());
+        assertEquals("a/b/deflated.txt", archive.getChildren("a/b/").get(0)
+                .getName());
+        assertNull(archive.getEntry("a/c/"));
+
+        // Only stored entries are located
+        long offset = archive.getDataOffset(archive.getEntry("stored.txt"));
+        assertTrue(offset > 0);
+        assertEquals(-1,
+                archive.getDataOffset(archive.getEntry("a/b/deflated.txt")));
+        assertFalse(archive.isStale());
+
+        archive.evict();
+        assertTrue(archive.getChannel().isOpen());
+        archive.release();
+        assertFalse(archive.getChannel().isOpen());
+    }
+
+    public void testCachedArchive() throws Exception {
+        writeZipFile("Stored content", "Deflated content");
+        LocalReference fr = LocalReference.createFileReference(zipFile);
+        String zr = "zip:" + fr.toString();
+
+        // Stored entries are transferred from the archive file
+        ClientResource r = new ClientResource(zr + "!/stored.txt");
+        Representation entity = r.get();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.write(Channels.newChannel(out));
+        assertEquals("Stored content", out.toString("UTF-8"));
+        r.release();
+
+        r = new ClientResource(zr + "!/a/b/deflated.txt");
+        assertEquals("Deflated content", r.get().getText());
+        r.release();
+
+        // Only the direct children are listed
+        r = new ClientResource(zr + "!/a/");
+        assertEquals(zr + "!/a/b/", r.get().getText().trim());
+        r.release();
+
+        // The archive is reopened when its file changes
+        writeZipFile("Updated stored content", "Deflated content");
+        r = new ClientResource(zr + "!/stored.txt");
+        assertEquals("Updated stored content", r.get().getText());
+        r.release();
+    }
+
     public void testFileClient() throws IOException, InterruptedException {
         String text = "Test content\r\nLine 2\r\nLine2";
         String text2 = "Test content\nLine 2";
@@ -128,4 +226,30 @@ public class ZipClientTestCase extends RestletTestCase {
         } catch (ResourceException e) {
         }
     }
+
+    public void testPrefixedArchive() throws Exception {
+        writeZipFile("Stored content", "Deflated content");
+
+        // Prepend a launcher script like a self-extracting archive does
+        File prefixedFile = new File(testDir, "prefixed.zip");
+        FileOutputStream fos = new FileOutputStream(prefixedFile);
+        fos.write("#!/bin/sh\nexit 0\n".getBytes("UTF-8"));
+        new FileRepresentation(zipFile, MediaType.APPLICATION_ZIP).write(fos);
+        fos.close();
+
+        ZipArchive archive = new ZipArchive(prefixedFile);
+        archive.acquire();
+        long offset = archive.getDataOffset(archive.getEntry("stored.txt"));
+        ByteBuffer data = ByteBuffer.allocate(14);
+        archive.getChannel().read(data, offset);
+        assertEquals("Stored content", new String(data.array(), "UTF-8"));
+        archive.evict();
+        archive.release();
+
+        LocalReference fr = LocalReference.createFileReference(prefixedFile);
+        ClientResource r = new ClientResource("zip:" + fr.toString()
+                + "!/stored.txt");
+        assertEquals("Stored content", r.get().getText());
+        r.release();
+    }
 }
@@ -26,6 +26,7 @@ package org.restlet.test.data;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.restlet.Request;
 import org.restlet.data.ClientInfo;
@@ -58,6 +59,31 @@ public class ClientInfoTestCase extends RestletTestCase {
         super.tearDown();
     }
 
+    /**
+     * Tests that the cached agent attributes are copied for each client info.
+     */
+    public void testAgentAttributes() {
+        String agent = "Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.1; SV1)";
+        ClientInfo ci1 = new ClientInfo();
+        ci1.setAgent(agent);
+        ClientInfo ci2 = new ClientInfo();
+        ci2.setAgent(agent);
+
+        Map<String, String> attributes1 = ci1.getAgentAttributes();
+        Map<String, String> attributes2 = ci2.getAgentAttributes();
+        assertEquals("MSIE", attributes1.get("agentName"));
+        assertEquals("Windows NT 5.1", attributes1.get("agentOs"));
+        assertEquals(attributes1, attributes2);
+        assertNotSame(attributes1, attributes2);
+
+        // Modifying the attributes doesn't affect the cache
+        attributes1.put("agentName", "foo");
+        assertEquals("MSIE", attributes2.get("agentName"));
+        ClientInfo ci3 = new ClientInfo();
+        ci3.setAgent(agent);
+        assertEquals("MSIE", ci3.getAgentAttributes().get("agentName"));
+    }
+
     /**
      * Conneg tests.
      */
@@ -34,6 +34,22 @@ import org.restlet.test.RestletTestCase;
  */
 public class LanguageTestCase extends RestletTestCase {
 
+    /**
+     * Testing {@link Language#register(String, String)}
+     */
+    public void testRegister() {
+        assertSame(Language.ENGLISH, Language.register("en", "English"));
+
+        // The registration is permanent for the whole JVM, so a private use
+        // tag specific to this test is registered
+        Language language = Language.register("x-restlet-test",
+                "Restlet test");
+        assertSame(language, Language.valueOf("x-restlet-test"));
+        assertSame(language, Language.valueOf("X-RESTLET-TEST"));
+        assertNotSame(Language.valueOf("x-unknown"),
+                Language.valueOf("x-unknown"));
+    }
+
     /**
      * Testing {@link Language#valueOf(String)}
      */
@@ -24,6 +24,7 @@
 
 package org.restlet.test.engine;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
@@ -102,4 +103,34 @@ public class AnnotationUtilsTestCase extends RestletTestCase {
                 "Didn't find a method with IChild as the declaring class.",
                 true, found);
     }
+
+    public void testGetMethodAnnotations() {
+        AnnotationUtils utils = AnnotationUtils.getInstance();
+        List<AnnotationInfo> infos = utils.getAnnotations(IChild.class);
+        List<MethodAnnotationInfo> expected = new ArrayList<MethodAnnotationInfo>();
+
+        for (AnnotationInfo ai : infos) {
+            if (ai instanceof MethodAnnotationInfo
+                    && ((MethodAnnotationInfo) ai).getRestletMethod().equals(
+                            Method.GET)) {
+                expected.add((MethodAnnotationInfo) ai);
+            }
+        }
+
+        List<MethodAnnotationInfo> gets = utils.getMethodAnnotations(
+                IChild.class, Method.GET);
+        Assert.assertEquals(expected, gets);
+        Assert.assertSame(gets,
+                utils.getMethodAnnotations(IChild.class, Method.GET));
+        Assert.assertTrue(utils.getMethodAnnotations(IChild.class,
+                Method.POST).isEmpty());
+        Assert.assertEquals(2, utils.getRestletMethods(IChild.class).size());
+        Assert.assertTrue(utils.getRestletMethods(IChild.class).contains(
+                Method.PUT));
+        Assert.assertSame(infos, utils.getAnnotations(IChild.class));
+
+        utils.clearCache();
+        Assert.assertNotSame(gets,
+                utils.getMethodAnnotations(IChild.class, Method.GET));
+    }
 }
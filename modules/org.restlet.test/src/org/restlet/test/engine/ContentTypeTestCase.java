@@ -24,6 +24,8 @@
 
 package org.restlet.test.engine;
 
+import org.restlet.data.CharacterSet;
+import org.restlet.data.MediaType;
 import org.restlet.engine.header.ContentType;
 import org.restlet.test.RestletTestCase;
 
@@ -34,6 +36,19 @@ import org.restlet.test.RestletTestCase;
  */
 public class ContentTypeTestCase extends RestletTestCase {
 
+    public void testInterning() {
+        String h1 = "application/json; charset=UTF-8";
+
+        ContentType ct1 = new ContentType(h1);
+        ContentType ct2 = new ContentType(h1);
+
+        assertSame(MediaType.APPLICATION_JSON, ct1.getMediaType());
+        assertSame(CharacterSet.UTF_8, ct1.getCharacterSet());
+        assertSame(ct1.getMediaType(), ct2.getMediaType());
+        assertSame(ct1.getCharacterSet(), ct2.getCharacterSet());
+        assertEquals(h1, ct2.toString());
+    }
+
     public void testParsingInvalid() {
         String h1 = "application/docbook+xml; version='my version 1.0'";
 
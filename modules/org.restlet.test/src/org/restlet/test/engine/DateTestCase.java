@@ -24,9 +24,15 @@
 
 package org.restlet.test.engine;
 
+import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
 
 import org.restlet.engine.util.DateUtils;
+import org.restlet.engine.util.HttpDateFormat;
 import org.restlet.test.RestletTestCase;
 
 /**
@@ -54,6 +60,52 @@ public class DateTestCase extends RestletTestCase {
 
     private String DATE_RFC822_1 = "Fri, 12 Apr 85 23:20:50 GMT";
 
+    /**
+     * Tests the HTTP date formats against {@link SimpleDateFormat}.
+     */
+    public void testHttpDateFormat() throws Exception {
+        String[] formats = { DateUtils.FORMAT_RFC_1123.get(0),
+                DateUtils.FORMAT_RFC_1036.get(0),
+                DateUtils.FORMAT_ASC_TIME.get(0) };
+        Random random = new Random(0);
+
+        for (int i = 0; i < 10000; i++) {
+            // Between 1900 and 2100, including leap days
+            long time = (random.nextLong() % 3155760000000L)
+                    + ((i % 2 == 0) ? 0 : 951782400000L);
+            Date date = new Date(time - (time % 1000));
+
+            for (String format : formats) {
+                SimpleDateFormat sdf = new SimpleDateFormat(format, Locale.US);
+                sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+                String expected = sdf.format(date);
+                assertEquals(expected, DateUtils.format(date, format));
+
+                if (!formats[1].equals(format)) {
+                    assertEquals(date, DateUtils.parse(expected,
+                            Collections.singletonList(format)));
+                }
+            }
+        }
+
+        // Lenient values are parsed by the fallback parsers
+        assertEquals(DateUtils.parse(DATE_RFC1123_1),
+                DateUtils.parse("Fri, 12 Apr 1985 23:20:50 +0000"));
+        assertNull(HttpDateFormat.parse("Fri, 12 Apr 1985 23:20:50 +0000"));
+        assertEquals(DateUtils.parse(DATE_RFC1123_1),
+                HttpDateFormat.parseAscTime("Fri Apr 12 23:20:50 1985"));
+        assertEquals(DateUtils.parse("Sun, 06 Nov 1994 08:49:37 GMT"),
+                HttpDateFormat.parseAscTime("Sun Nov  6 08:49:37 1994"));
+        assertEquals(DateUtils.parse("Sun, 06 Nov 1994 08:49:37 GMT"),
+                HttpDateFormat.parseRfc1036("Sun, 06-Nov-1994 08:49:37 GMT"));
+        assertNull(HttpDateFormat.parse("Fri, 12 Apr 1985 23:20"));
+        assertNull(HttpDateFormat.parseRfc1036("Friday, 12-Apr"));
+
+        // The current date is cached
+        String current = HttpDateFormat.getCurrentDate();
+        assertSame(current, HttpDateFormat.format(DateUtils.parse(current)));
+    }
+
     /**
      * Tests for dates in the RFC 822 format.
      */
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.restlet.data.ClientInfo;
 import org.restlet.data.MediaType;
 import org.restlet.data.Preference;
 import org.restlet.engine.header.PreferenceReader;
@@ -69,6 +70,32 @@ public class PreferencesTestCase extends RestletTestCase {
         }
     }
 
+    /**
+     * Tests that repeated headers share the parsed metadata while returning
+     * distinct preferences.
+     */
+    public void testCaching() {
+        String header = "text/html, application/xhtml+xml, application/xml;q=0.9, */*;q=0.8";
+        ClientInfo ci1 = new ClientInfo();
+        ClientInfo ci2 = new ClientInfo();
+        PreferenceReader.addMediaTypes(header, ci1);
+        PreferenceReader.addMediaTypes(header, ci2);
+
+        List<Preference<MediaType>> prefs1 = ci1.getAcceptedMediaTypes();
+        List<Preference<MediaType>> prefs2 = ci2.getAcceptedMediaTypes();
+        assertEquals(4, prefs1.size());
+        assertEquals(PreferenceWriter.write(prefs1),
+                PreferenceWriter.write(prefs2));
+        assertSame(MediaType.TEXT_HTML, prefs1.get(0).getMetadata());
+        assertSame(MediaType.APPLICATION_XML, prefs1.get(2).getMetadata());
+        assertSame(prefs1.get(2).getMetadata(), prefs2.get(2).getMetadata());
+        assertNotSame(prefs1.get(2), prefs2.get(2));
+
+        // Preferences stay independent
+        prefs1.get(2).setQuality(0.1F);
+        assertEquals(0.9F, prefs2.get(2).getQuality());
+    }
+
     /**
      * Tests the preferences parsing.
      */
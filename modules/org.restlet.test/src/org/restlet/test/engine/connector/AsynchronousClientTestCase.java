@@ -0,0 +1,241 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.engine.connector;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Application;
+import org.restlet.Client;
+import org.restlet.Component;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.Uniform;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.data.Status;
+import org.restlet.engine.Engine;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.ext.jetty.HttpClientHelper;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.representation.ReadableRepresentation;
+import org.restlet.resource.ClientResource;
+import org.restlet.resource.Promise;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the asynchronous calls of the Jetty client connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class AsynchronousClientTestCase extends RestletTestCase {
+
+    private Component component;
+
+    private HttpClientHelper helper;
+
+    private String uri;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.component = new Component();
+        Server server = this.component.getServers().add(Protocol.HTTP, 0);
+        this.component.getDefaultHost().attach(new Restlet() {
+            @Override
+            public void handle(final Request request, final Response response) {
+                if (Method.POST.equals(request.getMethod())) {
+                    try {
+                        response.setEntity(request.getEntity().getText(),
+                                MediaType.TEXT_PLAIN);
+                    } catch (IOException e) {
+                        response.setStatus(Status.SERVER_ERROR_INTERNAL, e);
+                    }
+                } else {
+                    response.setEntity(request.getResourceRef().getPath(),
+                            MediaType.TEXT_PLAIN);
+                }
+            }
+        });
+        this.component.start();
+        this.uri = "http://localhost:" + server.getEphemeralPort();
+
+        Client client = new Client(new Context(), Protocol.HTTP);
+        this.helper = new HttpClientHelper(client);
+        this.helper.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.helper.stop();
+        this.component.stop();
+        this.component = null;
+        this.helper = null;
+        super.tearDown();
+    }
+
+    public void testAsynchronous() throws Exception {
+        assertTrue(this.helper.isAsynchronous());
+
+        int count = 50;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final AtomicInteger failures = new AtomicInteger();
+
+        for (int i = 0; i < count; i++) {
+            final String path = "/item" + i;
+            Request request = new Request(Method.GET, this.uri + path);
+            request.setOnResponse(new Uniform() {
+                public void handle(Request request, Response response) {
+                    try {
+                        if (!Status.SUCCESS_OK.equals(response.getStatus())
+                                || !path.equals(response.getEntity()
+                                        .getText())) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+
+            // Returns before the response is received
+            this.helper.handle(request, new Response(request));
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, failures.get());
+    }
+
+    public void testChannelEntity() throws Exception {
+        Request request = new Request(Method.POST, this.uri + "/echo");
+        request.setEntity(new ReadableRepresentation(
+                Channels.newChannel(new ByteArrayInputStream("Hello channel"
+                        .getBytes())), MediaType.TEXT_PLAIN));
+        Response response = new Response(request);
+        this.helper.handle(request, response);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("Hello channel", response.getEntity().getText());
+    }
+
+    public void testClientResource() throws Exception {
+        Engine.getInstance().getRegisteredClients()
+                .add(0, new HttpClientHelper(null));
+        Client client = this.component.getClients().add(Protocol.HTTP);
+        client.start();
+        assertTrue(client.isAsynchronous());
+
+        // Blocking calls would be run by the shared executor service
+        final AtomicInteger executions = new AtomicInteger();
+        ExecutorService executorService = IoUtils.getExecutorService();
+        IoUtils.setExecutorService(new ThreadPoolExecutor(1, 1, 0L,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            public void execute(Runnable command) {
+                executions.incrementAndGet();
+                super.execute(command);
+            }
+        });
+
+        try {
+            // The call goes through the outbound filters of the application
+            Application application = new Application(this.component
+                    .getContext().createChildContext());
+            application.start();
+            ClientResource resource = new ClientResource(
+                    application.getContext(), this.uri + "/promise");
+            resource.setApplication(application);
+
+            Promise<String> promise = resource.getAsync(String.class);
+            assertEquals("/promise", promise.get(10, TimeUnit.SECONDS));
+            assertEquals(0, executions.get());
+        } finally {
+            IoUtils.getExecutorService().shutdown();
+            IoUtils.setExecutorService(executorService);
+        }
+    }
+
+    public void testFailure() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Response[] result = new Response[1];
+        Request request = new Request(Method.GET, "http://localhost:1/");
+        request.setOnResponse(new Uniform() {
+            public void handle(Request request, Response response) {
+                result[0] = response;
+                latch.countDown();
+            }
+        });
+        this.helper.handle(request, new Response(request));
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(Status.CONNECTOR_ERROR_COMMUNICATION,
+                result[0].getStatus());
+    }
+
+    public void testFileEntity() throws Exception {
+        File file = File.createTempFile("restlet", ".txt");
+
+        try {
+            FileOutputStream fos = new FileOutputStream(file);
+            fos.write("Hello file".getBytes());
+            fos.close();
+
+            Request request = new Request(Method.POST, this.uri + "/echo");
+            request.setEntity(new FileRepresentation(file,
+                    MediaType.TEXT_PLAIN));
+            Response response = new Response(request);
+            this.helper.handle(request, response);
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            assertEquals("Hello file", response.getEntity().getText());
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testStringEntity() throws Exception {
+        Request request = new Request(Method.POST, this.uri + "/echo");
+        request.setEntity("Hello string", MediaType.TEXT_PLAIN);
+        Response response = new Response(request);
+        this.helper.handle(request, response);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("Hello string", response.getEntity().getText());
+    }
+
+}
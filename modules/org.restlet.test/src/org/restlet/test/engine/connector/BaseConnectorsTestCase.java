@@ -55,7 +55,7 @@ public abstract class BaseConnectorsTestCase extends RestletTestCase {
 
     private final boolean enabledServerJetty = true;
 
-    private final boolean enabledServerNetty = false;
+    private final boolean enabledServerNetty = true;
 
     protected abstract void call(String uri) throws Exception;
 
@@ -49,6 +49,7 @@ public class ConnectorsTestSuite extends TestSuite {
 
         // [ifdef jse]
         // addTestSuite(AsynchroneTestCase.class);
+        addTestSuite(AsynchronousClientTestCase.class);
         addTestSuite(ChunkedEncodingPutTestCase.class);
         addTestSuite(ChunkedEncodingTestCase.class);
         addTestSuite(GetTestCase.class);
@@ -56,8 +57,10 @@ public class ConnectorsTestSuite extends TestSuite {
         addTestSuite(GetQueryParamTestCase.class);
         addTestSuite(PostPutTestCase.class);
         addTestSuite(RemoteClientAddressTestCase.class);
+        addTestSuite(SocketClientHelperTestCase.class);
         addTestSuite(SslClientContextGetTestCase.class);
         addTestSuite(SslGetTestCase.class);
+        addTestSuite(SuspendedCallTestCase.class);
         // [enddef]
     }
 }
@@ -0,0 +1,303 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.engine.connector;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.restlet.Client;
+import org.restlet.Component;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.data.Status;
+import org.restlet.engine.connector.ConnectionPool;
+import org.restlet.engine.connector.SocketClientHelper;
+import org.restlet.representation.InputRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the {@link SocketClientHelper} and its connection pool.
+ * 
+ * @author Jerome Louvel
+ */
+public class SocketClientHelperTestCase extends RestletTestCase {
+
+    private Client client;
+
+    private Component component;
+
+    private SocketClientHelper helper;
+
+    private String uri;
+
+    private Response call(Method method, String path, Representation entity) {
+        Request request = new Request(method, this.uri + path);
+        request.setEntity(entity);
+        Response response = new Response(request);
+        this.helper.handle(request, response);
+        return response;
+    }
+
+    private void startClient(Context context, String... parameters)
+            throws Exception {
+        this.client = new Client(context, Protocol.HTTP);
+
+        for (int i = 0; i < parameters.length; i += 2) {
+            this.client.getContext().getParameters()
+                    .add(parameters[i], parameters[i + 1]);
+        }
+
+        this.helper = new SocketClientHelper(this.client);
+        this.helper.start();
+    }
+
+    private void startClient(String... parameters) throws Exception {
+        startClient(new Context(), parameters);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.component = new Component();
+        Server server = this.component.getServers().add(Protocol.HTTP, 0);
+        this.component.getDefaultHost().attach(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                if (Method.POST.equals(request.getMethod())) {
+                    try {
+                        response.setEntity(request.getEntity().getText(),
+                                MediaType.TEXT_PLAIN);
+                    } catch (IOException e) {
+                        response.setStatus(Status.SERVER_ERROR_INTERNAL, e);
+                    }
+                } else if (request.getResourceRef().getPath()
+                        .endsWith("stream")) {
+                    response.setEntity(new InputRepresentation(
+                            new ByteArrayInputStream("Hello stream"
+                                    .getBytes()), MediaType.TEXT_PLAIN));
+                } else {
+                    response.setEntity("Hello world", MediaType.TEXT_PLAIN);
+                }
+            }
+        });
+        this.component.start();
+        this.uri = "http://localhost:" + server.getEphemeralPort();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (this.helper != null) {
+            this.helper.stop();
+        }
+
+        this.component.stop();
+        this.component = null;
+        this.client = null;
+        this.helper = null;
+        super.tearDown();
+    }
+
+    public void testChunked() throws Exception {
+        startClient();
+        ConnectionPool pool = this.helper.getConnectionPool();
+
+        // Request entity of unknown size
+        Response response = call(Method.POST, "/echo",
+                new InputRepresentation(new ByteArrayInputStream(
+                        "Hello chunks".getBytes()), MediaType.TEXT_PLAIN));
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("Hello chunks", response.getEntity().getText());
+
+        // Response entity of unknown size
+        response = call(Method.GET, "/stream", null);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("Hello stream", response.getEntity().getText());
+
+        response = call(Method.GET, "/test", null);
+        assertEquals("Hello world", response.getEntity().getText());
+        assertEquals(0, pool.getLeasedCount());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2, pool.getReusedCount());
+    }
+
+    public void testContextExecutor() throws Exception {
+        ScheduledExecutorService executor = Executors
+                .newSingleThreadScheduledExecutor();
+
+        try {
+            // Like the context of a client belonging to a component
+            Context context = new Context();
+            context.setExecutorService(executor);
+            startClient(context);
+            ConnectionPool pool = this.helper.getConnectionPool();
+            assertTrue(pool.isStarted());
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals("Hello world", call(Method.GET, "/test", null)
+                        .getEntity().getText());
+            }
+
+            assertEquals(1, pool.getCreatedCount());
+            assertEquals(4, pool.getReusedCount());
+            assertEquals(0, pool.getClosedCount());
+
+            this.helper.stop();
+            this.helper = null;
+            assertFalse(pool.isStarted());
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testIdleTimeout() throws Exception {
+        startClient("idleTimeout", "1");
+        ConnectionPool pool = this.helper.getConnectionPool();
+
+        Response response = call(Method.GET, "/test", null);
+        assertEquals("Hello world", response.getEntity().getText());
+        assertEquals(1, pool.getIdleCount());
+
+        Thread.sleep(10);
+        pool.evictIdleConnections();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getClosedCount());
+
+        response = call(Method.GET, "/test", null);
+        assertEquals("Hello world", response.getEntity().getText());
+        assertEquals(2, pool.getCreatedCount());
+    }
+
+    public void testJmx() throws Exception {
+        startClient("jmxEnabled", "true");
+        call(Method.GET, "/test", null).getEntity().getText();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Set<ObjectName> names = server.queryNames(new ObjectName(
+                "org.restlet:type=ConnectionPool,*"), null);
+        assertEquals(1, names.size());
+        ObjectName name = names.iterator().next();
+        assertEquals(1L, server.getAttribute(name, "CreatedCount"));
+        assertEquals(1, server.getAttribute(name, "IdleCount"));
+
+        this.helper.stop();
+        this.helper = null;
+        assertFalse(server.isRegistered(name));
+    }
+
+    public void testKeepAlive() throws Exception {
+        startClient();
+        ConnectionPool pool = this.helper.getConnectionPool();
+
+        for (int i = 0; i < 5; i++) {
+            Response response = call(Method.GET, "/test", null);
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            assertEquals("Hello world", response.getEntity().getText());
+        }
+
+        Response response = call(Method.HEAD, "/test", null);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(5, pool.getReusedCount());
+        assertEquals(0, pool.getLeasedCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    public void testMaxConnectionsPerHost() throws Exception {
+        startClient("maxConnectionsPerHost", "1", "socketConnectTimeoutMs",
+                "200");
+        ConnectionPool pool = this.helper.getConnectionPool();
+
+        // The entity isn't consumed so the connection stays leased
+        Response first = call(Method.GET, "/test", null);
+        assertEquals(Status.SUCCESS_OK, first.getStatus());
+        assertEquals(1, pool.getLeasedCount());
+
+        Response second = call(Method.GET, "/test", null);
+        assertEquals(Status.CONNECTOR_ERROR_CONNECTION, second.getStatus());
+
+        assertEquals("Hello world", first.getEntity().getText());
+        assertEquals(0, pool.getLeasedCount());
+
+        Response third = call(Method.GET, "/test", null);
+        assertEquals("Hello world", third.getEntity().getText());
+        assertEquals(1, pool.getCreatedCount());
+    }
+
+    public void testStaleConnection() throws Exception {
+        startClient();
+        ConnectionPool pool = this.helper.getConnectionPool();
+        assertEquals("Hello world", call(Method.GET, "/test", null)
+                .getEntity().getText());
+
+        // Restart the server on the same port, closing the idle connection
+        int port = this.component.getServers().get(0).getActualPort();
+        this.component.stop();
+        this.component.getServers().clear();
+        this.component.getServers().add(Protocol.HTTP, port);
+        this.component.start();
+
+        Response response = call(Method.GET, "/test", null);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("Hello world", response.getEntity().getText());
+        assertEquals(2, pool.getCreatedCount());
+    }
+
+    public void testStaleConnectionNotIdempotent() throws Exception {
+        startClient();
+        ConnectionPool pool = this.helper.getConnectionPool();
+        assertEquals("Hello world", call(Method.GET, "/test", null)
+                .getEntity().getText());
+
+        // Restart the server on the same port, closing the idle connection
+        int port = this.component.getServers().get(0).getActualPort();
+        this.component.stop();
+        this.component.getServers().clear();
+        this.component.getServers().add(Protocol.HTTP, port);
+        this.component.start();
+
+        // The server may have processed the request, so it isn't sent again
+        Response response = call(Method.POST, "/test", null);
+        assertTrue(response.getStatus().isConnectorError());
+        assertEquals(1, pool.getCreatedCount());
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.engine.connector;
+
+import java.io.IOException;
+
+import org.restlet.Client;
+import org.restlet.Component;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.data.Status;
+import org.restlet.engine.Engine;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the responses committed after the connector thread returned,
+ * using the Jetty server connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class SuspendedCallTestCase extends RestletTestCase {
+
+    private Client client;
+
+    private Component component;
+
+    private String uri;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Engine engine = Engine.register(false);
+        engine.getRegisteredServers().add(
+                new org.restlet.ext.jetty.HttpServerHelper(null));
+        engine.getRegisteredClients().add(
+                new org.restlet.engine.connector.HttpClientHelper(null));
+        engine.registerDefaultConverters();
+
+        this.component = new Component();
+        Server server = this.component.getServers().add(Protocol.HTTP, 0);
+        server.getContext().getParameters().add("http.asyncTimeout", "500");
+        this.component.getDefaultHost().attach(new Restlet() {
+            @Override
+            public void handle(final Request request, final Response response) {
+                response.setAutoCommitting(false);
+
+                if (request.getResourceRef().getPath().endsWith("never")) {
+                    return;
+                }
+
+                new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(100);
+
+                            if (Method.POST.equals(request.getMethod())) {
+                                response.setEntity(request.getEntity()
+                                        .getText(), MediaType.TEXT_PLAIN);
+                            } else {
+                                response.setEntity("Committed later",
+                                        MediaType.TEXT_PLAIN);
+                            }
+                        } catch (InterruptedException e) {
+                            response.setStatus(Status.SERVER_ERROR_INTERNAL, e);
+                        } catch (IOException e) {
+                            response.setStatus(Status.SERVER_ERROR_INTERNAL, e);
+                        }
+
+                        response.commit();
+                    }
+                }.start();
+            }
+        });
+        this.component.start();
+        this.uri = "http://localhost:" + server.getEphemeralPort();
+
+        this.client = new Client(Protocol.HTTP);
+        this.client.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.client.stop();
+        this.component.stop();
+        this.client = null;
+        this.component = null;
+        super.tearDown();
+
+        // Restore a clean engine
+        Engine.register();
+    }
+
+    public void testCommitLater() throws Exception {
+        Response response = this.client.handle(new Request(Method.GET,
+                this.uri + "/later"));
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("Committed later", response.getEntity().getText());
+    }
+
+    public void testExpired() throws Exception {
+        Response response = this.client.handle(new Request(Method.GET,
+                this.uri + "/never"));
+        assertEquals(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                response.getStatus());
+    }
+
+    public void testRequestEntity() throws Exception {
+        Request request = new Request(Method.POST, this.uri + "/echo");
+        request.setEntity("Hello buffer", MediaType.TEXT_PLAIN);
+        Response response = this.client.handle(request);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("Hello buffer", response.getEntity().getText());
+    }
+
+}
@@ -30,6 +30,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
 
+import org.restlet.Context;
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
 import org.restlet.engine.io.IoUtils;
@@ -52,6 +53,35 @@ public class BioUtilsTestCase extends RestletTestCase {
         assertEquals("testé", writer.toString());
     }
 
+    public void testPipeExecution() throws IOException {
+        final Context context = new Context();
+        final String[] threadName = new String[1];
+        final Context[] currentContext = new Context[1];
+
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                threadName[0] = Thread.currentThread().getName();
+                currentContext[0] = Context.getCurrent();
+                outputStream.write(1);
+            }
+        };
+
+        Context.setCurrent(context);
+
+        try {
+            InputStream is = or.getStream();
+            assertEquals(1, is.read());
+            assertEquals(-1, is.read());
+        } finally {
+            Context.setCurrent(null);
+        }
+
+        assertTrue(threadName[0].startsWith("Restlet-IoUtils-"));
+        assertSame(context, currentContext[0]);
+    }
+
     public void testPipe() throws IOException {
         final byte[] content = new byte[] { 1, 2, 3, -1, -2, -3, 4, 5, 6 };
         ByteArrayInputStream bais = new ByteArrayInputStream(content);
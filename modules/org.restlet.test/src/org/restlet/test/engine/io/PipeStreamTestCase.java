@@ -0,0 +1,143 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.engine.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.restlet.engine.io.PipeStream;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the PipeStream class.
+ * 
+ * @author Jerome Louvel
+ */
+public class PipeStreamTestCase extends RestletTestCase {
+
+    public void testBulkTransfer() throws Exception {
+        final byte[] content = new byte[100000];
+        new Random(42).nextBytes(content);
+        final PipeStream pipe = new PipeStream(1000);
+
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    OutputStream os = pipe.getOutputStream();
+
+                    for (int i = 0; i < content.length; i += 777) {
+                        os.write(content, i, Math.min(777, content.length - i));
+                    }
+
+                    os.close();
+                } catch (IOException e) {
+                    fail(e.getMessage());
+                }
+            }
+        };
+        writer.start();
+
+        InputStream is = pipe.getInputStream();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[333];
+        int read;
+
+        while ((read = is.read(buffer)) != -1) {
+            baos.write(buffer, 0, read);
+        }
+
+        writer.join();
+        assertTrue(Arrays.equals(content, baos.toByteArray()));
+        assertEquals(-1, is.read());
+    }
+
+    public void testError() throws Exception {
+        PipeStream pipe = new PipeStream(16);
+        OutputStream os = pipe.getOutputStream();
+        os.write(new byte[] { 1, 2 });
+        pipe.setError(new IOException("test"));
+        os.close();
+
+        InputStream is = pipe.getInputStream();
+        assertEquals(1, is.read());
+        assertEquals(2, is.read());
+
+        try {
+            is.read();
+            fail("The writer error should be propagated");
+        } catch (IOException e) {
+            assertEquals("test", e.getCause().getMessage());
+        }
+    }
+
+    public void testInputClosed() throws Exception {
+        PipeStream pipe = new PipeStream(4);
+        OutputStream os = pipe.getOutputStream();
+        os.write(new byte[] { 1, 2, 3, 4 });
+        pipe.getInputStream().close();
+
+        try {
+            os.write(5);
+            fail("Writing into a pipe closed by its reader should fail");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    public void testSingleBytes() throws Exception {
+        PipeStream pipe = new PipeStream(2);
+        OutputStream os = pipe.getOutputStream();
+        InputStream is = pipe.getInputStream();
+
+        os.write(-1);
+        os.write(255);
+        assertEquals(2, is.available());
+        assertEquals(255, is.read());
+        os.write(7);
+        assertEquals(255, is.read());
+        assertEquals(7, is.read());
+        os.close();
+        assertEquals(-1, is.read());
+    }
+
+    public void testTimeout() throws Exception {
+        PipeStream pipe = new PipeStream(1, 50);
+        pipe.getOutputStream().write(1);
+
+        try {
+            pipe.getOutputStream().write(2);
+            fail("Writing into a full pipe should time out");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+}
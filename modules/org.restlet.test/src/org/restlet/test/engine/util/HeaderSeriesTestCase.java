@@ -0,0 +1,121 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.engine.util;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import org.restlet.data.Header;
+import org.restlet.engine.util.HeaderSeries;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Unit tests for the {@link HeaderSeries} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class HeaderSeriesTestCase extends RestletTestCase {
+
+    public void testLookups() {
+        HeaderSeries headers = new HeaderSeries();
+        headers.add("Accept", "text/html");
+        headers.add("Accept-Encoding", "gzip");
+        headers.add("accept-encoding", "deflate");
+        headers.add("X-Custom", "1");
+
+        assertEquals("text/html", headers.getFirstValue("accept", true));
+        assertNull(headers.getFirstValue("accept"));
+        assertEquals("gzip", headers.getFirstValue("ACCEPT-ENCODING", true));
+        assertEquals("deflate", headers.getFirstValue("accept-encoding"));
+        assertEquals("gzip,deflate", headers.getValues("Accept-Encoding"));
+        assertEquals("gzip", headers.getValues("Accept-Encoding", ",", false));
+        assertEquals(2, headers.subList("accept-encoding", true).size());
+        assertEquals(1, headers.getValuesArray("x-custom", true).length);
+        assertNull(headers.getFirst("Missing", true));
+
+        // Appending keeps the index up to date
+        headers.add("X-CUSTOM", "2");
+        assertEquals("1,2", headers.getValues("x-custom"));
+    }
+
+    public void testModifications() {
+        HeaderSeries headers = new HeaderSeries();
+        headers.add("Host", "localhost");
+        headers.add("Cookie", "a=1");
+        headers.add("cookie", "b=2");
+
+        assertFalse(headers.removeAll("Missing", true));
+        assertTrue(headers.removeAll("COOKIE", true));
+        assertNull(headers.getFirst("Cookie", true));
+        assertEquals(1, headers.size());
+
+        headers.set("Connection", "close", true);
+        assertEquals("close", headers.getFirstValue("connection", true));
+        headers.set("connection", "keep-alive", true);
+        assertEquals("keep-alive", headers.getFirstValue("Connection"));
+        assertEquals(2, headers.size());
+
+        // Replacement through the list API
+        headers.set(0, new Header("Server", "Restlet"));
+        assertNull(headers.getFirst("Host", true));
+        assertEquals("Restlet", headers.getFirstValue("server", true));
+
+        // Removal through an iterator
+        for (Iterator<Header> iter = headers.iterator(); iter.hasNext();) {
+            if ("Server".equals(iter.next().getName())) {
+                iter.remove();
+            }
+        }
+
+        assertNull(headers.getFirst("Server"));
+
+        // Modification through a view
+        Series<Header> view = headers.subList(0, 1);
+        view.set(0, new Header("Date", "now"));
+        assertNull(headers.getFirst("Connection", true));
+        assertEquals("now", headers.getFirstValue("date", true));
+        view.clear();
+        assertTrue(headers.isEmpty());
+        assertNull(headers.getFirst("Date"));
+
+        // Reordering
+        headers.add("B", "2");
+        headers.add("A", "1");
+        headers.add("b", "3");
+        Collections.sort(headers, new Comparator<Header>() {
+            public int compare(Header h1, Header h2) {
+                return h1.getValue().compareTo(h2.getValue());
+            }
+        });
+        assertEquals("A", headers.get(0).getName());
+        assertEquals("2,3", headers.getValues("b"));
+        assertTrue(headers.removeFirst("b", false));
+        assertEquals("2", headers.getValues("b"));
+    }
+
+}
@@ -26,15 +26,21 @@ package org.restlet.test.ext.freemarker;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.util.Date;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.restlet.Application;
 import org.restlet.data.MediaType;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.ext.freemarker.FreemarkerService;
 import org.restlet.ext.freemarker.TemplateRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.test.RestletTestCase;
 
 import freemarker.template.Configuration;
+import freemarker.template.Template;
 
 /**
  * Unit test for the FreeMarker extension.
@@ -43,6 +49,63 @@ import freemarker.template.Configuration;
  */
 public class FreeMarkerTestCase extends RestletTestCase {
 
+    /**
+     * Returns a template representation with a location and a modification
+     * date.
+     */
+    private static Representation getTemplateRepresentation(String text,
+            long modificationTime) {
+        Representation result = new StringRepresentation(text);
+        result.setLocationRef("clap://class/test.ftl");
+        result.setModificationDate(new Date(modificationTime));
+        return result;
+    }
+
+    public void testService() throws Exception {
+        Application application = new Application();
+        FreemarkerService service = new FreemarkerService();
+        application.getServices().add(service);
+        Application.setCurrent(application);
+
+        try {
+            Map<String, Object> map = new TreeMap<String, Object>();
+            map.put("value", "myValue");
+
+            // Parsed once per location and modification date
+            TemplateRepresentation tr1 = new TemplateRepresentation(
+                    getTemplateRepresentation("Value=${value}", 1000L), map,
+                    MediaType.TEXT_PLAIN);
+            TemplateRepresentation tr2 = new TemplateRepresentation(
+                    getTemplateRepresentation("Value=${value}", 1000L), map,
+                    MediaType.TEXT_PLAIN);
+            assertSame(tr1.getTemplate(), tr2.getTemplate());
+            assertSame(service.getConfiguration(), tr1.getTemplate()
+                    .getConfiguration());
+            assertEquals("Value=myValue", tr2.getText());
+
+            TemplateRepresentation tr3 = new TemplateRepresentation(
+                    getTemplateRepresentation("Modified=${value}", 2000L),
+                    map, MediaType.TEXT_PLAIN);
+            assertNotSame(tr1.getTemplate(), tr3.getTemplate());
+            assertEquals("Modified=myValue", tr3.getText());
+
+            // The cache is bounded
+            service = new FreemarkerService();
+            service.setCacheSize(1);
+            Template template = service.getTemplate(getTemplateRepresentation(
+                    "Value=${value}", 1000L));
+            assertSame(template, service.getTemplate(getTemplateRepresentation(
+                    "Value=${value}", 1000L)));
+            service.getTemplate(getTemplateRepresentation("Value=${value}",
+                    2000L));
+            assertNotSame(template, service
+                    .getTemplate(getTemplateRepresentation("Value=${value}",
+                            1000L)));
+        } finally {
+            Application.setCurrent(null);
+        }
+    }
+
     public void testTemplate() throws Exception {
         // Create a temporary directory for the tests
         final File testDir = new File(System.getProperty("java.io.tmpdir"),
@@ -25,15 +25,26 @@
 package org.restlet.test.ext.jackson;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Date;
 
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
 import org.restlet.data.MediaType;
+import org.restlet.ext.jackson.JacksonConverter;
 import org.restlet.ext.jackson.JacksonRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
 import org.restlet.resource.ClientResource;
+import org.restlet.resource.ServerResource;
 import org.restlet.test.RestletTestCase;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+
 /**
  * Unit test for the Jackson extension.
  * 
@@ -80,6 +91,92 @@ public class JacksonTestCase extends RestletTestCase {
         verify(customer, rep.getObject());
     }
 
+    @SuppressWarnings("unchecked")
+    public void testConverter() throws Exception {
+        JacksonConverter converter = new JacksonConverter();
+        Customer customer = createCustomer();
+
+        // The mappers and writers are shared between representations
+        JacksonRepresentation<Customer> rep1 = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(customer,
+                        new Variant(MediaType.APPLICATION_JSON), null);
+        JacksonRepresentation<Customer> rep2 = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(customer,
+                        new Variant(MediaType.APPLICATION_JSON), null);
+        assertSame(converter.getObjectMapper(MediaType.APPLICATION_JSON),
+                rep1.getObjectMapper());
+        assertSame(rep1.getObjectMapper(), rep2.getObjectMapper());
+        assertSame(rep1.getObjectWriter(), rep2.getObjectWriter());
+        assertNotSame(rep1.getObjectMapper(),
+                converter.getObjectMapper(MediaType.APPLICATION_YAML));
+
+        String text = rep1.getText();
+        verify(customer, converter.toObject(new StringRepresentation(text,
+                MediaType.APPLICATION_JSON), Customer.class, null));
+        verify(customer, converter.toObject(new StringRepresentation(text,
+                MediaType.APPLICATION_JSON), Customer.class, null));
+
+        // CSV schemas are cached too
+        Invoice invoice = createInvoice();
+        JacksonRepresentation<Invoice> rep3 = (JacksonRepresentation<Invoice>) converter
+                .toRepresentation(invoice, new Variant(MediaType.TEXT_CSV),
+                        null);
+        assertEquals("12456,1356533333882,false\n", rep3.getText());
+        assertSame(rep3.getCsvSchema(), ((JacksonRepresentation<Invoice>) converter
+                .toRepresentation(invoice, new Variant(MediaType.TEXT_CSV),
+                        null)).getCsvSchema());
+
+        // Application specific mappers
+        Context context = new Context();
+        ObjectMapper objectMapper = new ObjectMapper();
+        context.getAttributes().put(JacksonConverter.ATTRIBUTE_OBJECT_MAPPERS,
+                Collections.singletonMap(MediaType.APPLICATION_JSON,
+                        objectMapper));
+        ServerResource resource = new ServerResource() {
+        };
+        resource.init(context, new Request(), new Response(null));
+        rep1 = (JacksonRepresentation<Customer>) converter.toRepresentation(
+                customer, new Variant(MediaType.APPLICATION_JSON), resource);
+        assertSame(objectMapper, rep1.getObjectMapper());
+        assertEquals(text, rep1.getText());
+
+        // CSV schemas are cached per CSV mapper
+        CsvMapper csvMapper = new CsvMapper();
+        context.getAttributes().put(JacksonConverter.ATTRIBUTE_OBJECT_MAPPERS,
+                Collections.singletonMap(MediaType.TEXT_CSV, csvMapper));
+        JacksonRepresentation<Invoice> rep4 = (JacksonRepresentation<Invoice>) converter
+                .toRepresentation(invoice, new Variant(MediaType.TEXT_CSV),
+                        resource);
+        assertSame(csvMapper, rep4.getObjectMapper());
+        assertNotSame(rep3.getCsvSchema(), rep4.getCsvSchema());
+        assertEquals(rep3.getText(), rep4.getText());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testCustomizedConverter() throws Exception {
+        JacksonConverter converter = new JacksonConverter() {
+            @Override
+            protected <T> JacksonRepresentation<T> create(MediaType mediaType,
+                    T source) {
+                JacksonRepresentation<T> result = super.create(mediaType,
+                        source);
+                result.getObjectMapper().configure(
+                        SerializationFeature.INDENT_OUTPUT, true);
+                return result;
+            }
+        };
+
+        // The customized mapper is kept and the shared one is untouched
+        JacksonRepresentation<Customer> rep = (JacksonRepresentation<Customer>) converter
+                .toRepresentation(createCustomer(), new Variant(
+                        MediaType.APPLICATION_JSON), null);
+        ObjectMapper sharedMapper = converter
+                .getObjectMapper(MediaType.APPLICATION_JSON);
+        assertNotSame(sharedMapper, rep.getObjectMapper());
+        assertTrue(rep.getText().contains("\n"));
+        assertFalse(sharedMapper.isEnabled(SerializationFeature.INDENT_OUTPUT));
+    }
+
     public void testCsv() throws Exception {
         Invoice invoice = createInvoice();
         JacksonRepresentation<Invoice> rep = new JacksonRepresentation<Invoice>(
@@ -25,12 +25,17 @@
 package org.restlet.test.ext.jaxb;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
 
 import org.restlet.data.MediaType;
+import org.restlet.ext.jaxb.JaxbCollectionRepresentation;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.representation.Variant;
 import org.restlet.service.ConverterService;
 import org.restlet.test.RestletTestCase;
@@ -42,6 +47,56 @@ import org.restlet.test.RestletTestCase;
  */
 public class JaxbBasicConverterTestCase extends RestletTestCase {
 
+    public void testCollectionRepresentation() throws IOException {
+        List<Sample> samples = new ArrayList<Sample>();
+
+        for (int i = 0; i < 100; i++) {
+            samples.add(new Sample("value" + i));
+        }
+
+        JaxbCollectionRepresentation<Sample> rep = new JaxbCollectionRepresentation<Sample>(
+                new QName("samples"), samples, Sample.class);
+        String text = rep.getText();
+        assertTrue(text.startsWith("<?xml"));
+        assertTrue(text.contains("<samples><sample><value>value0</value>"));
+        assertTrue(text.endsWith("<value>value99</value></sample></samples>"));
+
+        // Non root elements are wrapped
+        rep.setElementName(new QName("http://restlet.org", "item"));
+        rep.setRootName(new QName("http://restlet.org", "items", "r"));
+        text = rep.getText();
+        assertTrue(text.contains("<r:items xmlns:r=\"http://restlet.org\">"));
+        assertEquals(100, text.split(":item xmlns:").length - 1);
+    }
+
+    public void testContext() throws JAXBException {
+        String contextPath = Sample.class.getPackage().getName();
+        assertSame(JaxbRepresentation.getContext(contextPath),
+                JaxbRepresentation.getContext(contextPath));
+
+        try {
+            JaxbRepresentation.getContext("org.restlet.unknown");
+            fail("The context shouldn't be created");
+        } catch (JAXBException e) {
+            // Expected
+        }
+    }
+
+    public void testMarshalling() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            JaxbRepresentation<Sample> sampleRep = new JaxbRepresentation<Sample>(
+                    MediaType.APPLICATION_XML, new Sample("value" + i));
+            sampleRep.setFormattedOutput(i % 2 == 0);
+            String text = sampleRep.getText();
+            assertEquals(i % 2 == 0, text.contains("\n    <value>"));
+
+            JaxbRepresentation<Sample> parsedRep = new JaxbRepresentation<Sample>(
+                    new StringRepresentation(text, MediaType.APPLICATION_XML),
+                    Sample.class);
+            assertEquals("value" + i, parsedRep.getObject().getVal());
+        }
+    }
+
     public void testObjectionToRepresentation() throws IOException {
         ConverterService cs = new ConverterService();
         Representation rep = cs.toRepresentation(new Sample(), new Variant(
@@ -25,14 +25,18 @@
 package org.restlet.test.ext.jaxrs.util;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.ws.rs.Path;
 
 import junit.framework.TestCase;
 
 import org.restlet.ext.jaxrs.internal.util.MatchingResult;
+import org.restlet.ext.jaxrs.internal.util.PathDispatchTable;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
 import org.restlet.ext.jaxrs.internal.util.RemainingPath;
+import org.restlet.ext.jaxrs.internal.wrappers.RrcOrRml;
 
 /**
  * @author Stephan Koops
@@ -87,6 +91,67 @@ public class PathRegExpTests extends TestCase {
 
     private final PathRegExp regExpOneSegment2 = newPathRegExp(PATH_PATTERN_2);
 
+    private static final RrcOrRml newRrcOrRml(String pathPattern) {
+        final PathRegExp pathRegExp = newPathRegExp(pathPattern);
+        return new RrcOrRml() {
+            public PathRegExp getPathRegExp() {
+                return pathRegExp;
+            }
+        };
+    }
+
+    /**
+     * Test method for {@link PathDispatchTable#getCandidates(RemainingPath)}.
+     */
+    public void testDispatchTable() {
+        final List<RrcOrRml> members = new ArrayList<RrcOrRml>();
+        final RrcOrRml abc = newRrcOrRml(PATH_PATTERN_1);
+        final RrcOrRml var = newRrcOrRml("{id}");
+        final RrcOrRml abcd = newRrcOrRml("abcd");
+        final RrcOrRml dot = newRrcOrRml("a.c");
+        members.add(abc);
+        members.add(var);
+        members.add(abcd);
+        members.add(dot);
+        final PathDispatchTable<RrcOrRml> table = new PathDispatchTable<RrcOrRml>(
+                members);
+
+        List<RrcOrRml> candidates = table.getCandidates(VALID_PATH_1_RP);
+        assertEquals(3, candidates.size());
+        assertSame(abc, candidates.get(0));
+        assertSame(var, candidates.get(1));
+        assertSame(dot, candidates.get(2));
+
+        candidates = table.getCandidates(new RemainingPath("/abcd;a=b"));
+        assertEquals(3, candidates.size());
+        assertSame(abcd, candidates.get(1));
+
+        candidates = table.getCandidates(new RemainingPath("/xyz"));
+        assertEquals(2, candidates.size());
+        assertSame(var, candidates.get(0));
+        assertSame(dot, candidates.get(1));
+        assertNotNull(dot.getPathRegExp().match(new RemainingPath("/abc")));
+
+        assertEquals(2, table.getCandidates(new RemainingPath("")).size());
+    }
+
+    /**
+     * Test method for {@link PathRegExp#getFirstLiteralSegment()}.
+     */
+    public void testFirstLiteralSegment() {
+        assertEquals("abc", this.regExpMultipleSegments1
+                .getFirstLiteralSegment());
+        assertEquals("abc", this.regExpMultipleSegments2
+                .getFirstLiteralSegment());
+        assertEquals("abc", newPathRegExp("abc").getFirstLiteralSegment());
+        assertNull(newPathRegExp("abc{id}").getFirstLiteralSegment());
+        assertNull(newPathRegExp("{id}/abc").getFirstLiteralSegment());
+        assertNull(newPathRegExp("a.c").getFirstLiteralSegment());
+        assertNull(newPathRegExp("a%20c").getFirstLiteralSegment());
+        assertNull(newPathRegExp("/").getFirstLiteralSegment());
+        assertNull(PathRegExp.EMPTY.getFirstLiteralSegment());
+    }
+
     /**
      * Test method for
      * {@link org.restlet.ext.jaxrs.internal.util.PathRegExp#match(java.lang.String)}
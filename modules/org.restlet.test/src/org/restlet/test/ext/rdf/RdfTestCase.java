@@ -24,7 +24,14 @@
 
 package org.restlet.test.ext.rdf;
 
+import java.util.Iterator;
+import java.util.List;
+
 import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.ext.rdf.Graph;
+import org.restlet.ext.rdf.Link;
+import org.restlet.ext.rdf.Literal;
 import org.restlet.ext.rdf.RdfRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
@@ -35,6 +42,59 @@ import org.restlet.test.RestletTestCase;
  */
 public class RdfTestCase extends RestletTestCase {
 
+    public void testGraph() throws Exception {
+        Representation rep = new StringRepresentation(
+                "<http://ex.org/a> <http://ex.org/knows> <http://ex.org/b> .\n"
+                        + "<http://ex.org/a> <http://ex.org/name> \"A\" .\n"
+                        + "<http://ex.org/b> <http://ex.org/knows> <http://ex.org/a> .\n"
+                        + "<http://ex.org/b> <http://ex.org/name> \"B\" .\n",
+                MediaType.TEXT_RDF_NTRIPLES);
+        Graph graph = new RdfRepresentation(rep).getGraph();
+        assertEquals(4, graph.size());
+
+        Reference a = new Reference("http://ex.org/a");
+        Reference b = new Reference("http://ex.org/b");
+        Reference knows = new Reference("http://ex.org/knows");
+        Reference name = new Reference("http://ex.org/name");
+
+        assertEquals(2, graph.getLinks(a, null, null).size());
+        assertEquals(1, graph.getLinks(a, knows, null).size());
+        assertEquals(1, graph.getLinks(a, knows, b).size());
+        assertEquals(0, graph.getLinks(a, knows, a).size());
+        assertEquals(1, graph.getLinks(a, null, b).size());
+        assertEquals(2, graph.getLinks(null, knows, null).size());
+        assertEquals(1, graph.getLinks(null, knows, a).size());
+        assertEquals(1, graph.getLinks(null, null, a).size());
+        assertEquals(4, graph.getLinks(null, null, null).size());
+
+        List<Link> links = graph.getLinks(null, name, new Literal("B"));
+        assertEquals(1, links.size());
+        assertEquals(b, links.get(0).getSourceAsReference());
+
+        // References are interned
+        assertSame(graph.getLinks(a, knows, null).get(0).getTypeRef(), graph
+                .getLinks(b, knows, null).get(0).getTypeRef());
+
+        // Removed links are no longer indexed
+        assertTrue(graph.remove(links.get(0)));
+        assertEquals(0, graph.getLinks(null, name, new Literal("B")).size());
+        assertEquals(1, graph.getLinks(b, null, null).size());
+
+        for (Iterator<Link> iter = graph.iterator(); iter.hasNext();) {
+            if (knows.equals(iter.next().getTypeRef())) {
+                iter.remove();
+            }
+        }
+
+        assertEquals(1, graph.size());
+        assertEquals(0, graph.getLinks(null, knows, null).size());
+        assertEquals(1, graph.getLinks(a, name, new Literal("A")).size());
+
+        // Interned references are dropped once unused
+        assertSame(knows, graph.add(a, knows, b).getTypeRef());
+        assertNotSame(name, graph.add(b, name, new Literal("B")).getTypeRef());
+    }
+
     public void testN3() throws Exception {
         Representation rep = new StringRepresentation(
                 "@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> ."
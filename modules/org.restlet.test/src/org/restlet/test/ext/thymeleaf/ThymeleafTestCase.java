@@ -28,8 +28,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.restlet.Application;
 import org.restlet.data.MediaType;
 import org.restlet.ext.thymeleaf.TemplateRepresentation;
+import org.restlet.ext.thymeleaf.ThymeleafService;
 import org.restlet.test.RestletTestCase;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 import org.thymeleaf.templateresolver.TemplateResolver;
@@ -41,6 +43,33 @@ import org.thymeleaf.templateresolver.TemplateResolver;
  */
 public class ThymeleafTestCase extends RestletTestCase {
 
+    public void testService() throws Exception {
+        TemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("org/restlet/test/ext/thymeleaf/");
+        templateResolver.setSuffix(".html");
+        Application application = new Application();
+        ThymeleafService service = new ThymeleafService();
+        service.setTemplateResolver(templateResolver);
+        application.getServices().add(service);
+        Application.setCurrent(application);
+
+        try {
+            Map<String, Object> map = new TreeMap<String, Object>();
+            map.put("welcome", "Hello, world");
+
+            String result = new TemplateRepresentation("test",
+                    Locale.getDefault(), map, MediaType.TEXT_PLAIN).getText();
+            assertTrue(result.contains("Hello, world"));
+            assertTrue(service.getTemplateEngine().isInitialized());
+
+            result = new TemplateRepresentation("test", Locale.getDefault(),
+                    map, MediaType.TEXT_PLAIN).getText();
+            assertTrue(result.contains("Hello, world"));
+        } finally {
+            Application.setCurrent(null);
+        }
+    }
+
     public void testTemplate() throws Exception {
         TemplateResolver templateResolver = new ClassLoaderTemplateResolver();
         templateResolver.setPrefix("org/restlet/test/ext/thymeleaf/");
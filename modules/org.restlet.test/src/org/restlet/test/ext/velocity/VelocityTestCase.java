@@ -26,15 +26,20 @@ package org.restlet.test.ext.velocity;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Date;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.restlet.Application;
 import org.restlet.data.LocalReference;
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
 import org.restlet.engine.io.IoUtils;
 import org.restlet.ext.velocity.TemplateRepresentation;
+import org.restlet.ext.velocity.VelocityService;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.ClientResource;
 import org.restlet.test.RestletTestCase;
 
@@ -74,6 +79,92 @@ public class VelocityTestCase extends RestletTestCase {
         IoUtils.delete(testDir, true);
     }
 
+    public void testService() throws Exception {
+        // Create a temporary directory for the tests
+        File testDir = new File(System.getProperty("java.io.tmpdir"),
+                "VelocityTestCase");
+        testDir.mkdir();
+
+        // Create a temporary template file
+        File testFile = File.createTempFile("test", ".vm", testDir);
+        FileWriter fw = new FileWriter(testFile);
+        fw.write("Value=$value");
+        fw.close();
+
+        Application application = new Application();
+        VelocityService service = new VelocityService();
+        service.getProperties().put("file.resource.loader.path",
+                testDir.getAbsolutePath());
+        service.getProperties().put("runtime.references.strict", "true");
+        application.getServices().add(service);
+        Application.setCurrent(application);
+
+        try {
+            Map<String, Object> map = new TreeMap<String, Object>();
+            map.put("value", "myValue");
+
+            // Named templates are loaded by the shared engine
+            TemplateRepresentation tr = new TemplateRepresentation(
+                    testFile.getName(), map, MediaType.TEXT_PLAIN);
+            assertEquals("Value=myValue", tr.getText());
+            assertSame(service.getTemplate(testFile.getName()),
+                    tr.getTemplate());
+            assertSame(tr.getTemplate(), new TemplateRepresentation(
+                    testFile.getName(), map, MediaType.TEXT_PLAIN)
+                    .getTemplate());
+
+            // Configuring the engine of a representation doesn't affect the
+            // shared engine
+            TemplateRepresentation own = new TemplateRepresentation(
+                    testFile.getName(), map, MediaType.TEXT_PLAIN);
+            assertSame(service, own.getService());
+            own.setService(null);
+            own.getEngine().setProperty("file.resource.loader.path",
+                    testDir.getParent());
+            assertNotSame(service.getEngine(), own.getEngine());
+            assertNull(own.getTemplate());
+            assertEquals(testDir.getAbsolutePath(), service.getEngine()
+                    .getProperty("file.resource.loader.path"));
+
+            // Representation templates are parsed once per location and
+            // modification date
+            Representation templateRepresentation = new StringRepresentation(
+                    "Value=$value");
+            templateRepresentation.setLocationRef("clap://class/test.vm");
+            templateRepresentation.setModificationDate(new Date(1000L));
+            tr = new TemplateRepresentation(templateRepresentation, map,
+                    MediaType.TEXT_PLAIN);
+            assertEquals("Value=myValue", tr.getText());
+            assertSame(tr.getTemplate(), service
+                    .getTemplate(templateRepresentation));
+
+            templateRepresentation = new StringRepresentation("Modified=$value");
+            templateRepresentation.setLocationRef("clap://class/test.vm");
+            templateRepresentation.setModificationDate(new Date(2000L));
+            TemplateRepresentation tr2 = new TemplateRepresentation(
+                    templateRepresentation, map, MediaType.TEXT_PLAIN);
+            assertNotSame(tr.getTemplate(), tr2.getTemplate());
+            assertEquals("Modified=myValue", tr2.getText());
+
+            // Representation templates are parsed by the shared engine, with
+            // strict references enabled
+            try {
+                new TemplateRepresentation(new StringRepresentation(
+                        "Missing=$missing"), map, MediaType.TEXT_PLAIN)
+                        .getText();
+                fail("The shared engine's properties should apply");
+            } catch (IOException e) {
+                // Expected
+            }
+        } finally {
+            Application.setCurrent(null);
+        }
+
+        // Clean-up
+        IoUtils.delete(testFile);
+        IoUtils.delete(testDir, true);
+    }
+
     public void testStandardTemplate() throws Exception {
         // Create a temporary directory for the tests
         final File testDir = new File(System.getProperty("java.io.tmpdir"),
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.ext.xml;
+
+import java.io.IOException;
+
+import org.restlet.data.MediaType;
+import org.restlet.ext.xml.DomRepresentation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the XPath evaluation of the {@link DomRepresentation} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class DomRepresentationTestCase extends RestletTestCase {
+
+    private static final String XML = "<?xml version=\"1.0\"?>"
+            + "<a:purchase xmlns:a=\"urn:a\" xmlns:b=\"urn:b\">"
+            + "<a:customer>cust123</a:customer>"
+            + "<b:customer>cust456</b:customer>" + "</a:purchase>";
+
+    private DomRepresentation createDom() throws IOException {
+        return new DomRepresentation(new StringRepresentation(XML,
+                MediaType.TEXT_XML));
+    }
+
+    public void testNamespaceContext() throws Exception {
+        DomRepresentation dom = new DomRepresentation(new StringRepresentation(
+                XML, MediaType.TEXT_XML)) {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                return "x".equals(prefix) ? "urn:b" : super
+                        .getNamespaceURI(prefix);
+            }
+        };
+        dom.setNamespaceAware(true);
+        dom.getNamespaces().put("x", "urn:a");
+        assertEquals("cust456", dom.getText("/*/x:customer"));
+    }
+
+    public void testNamespaces() throws Exception {
+        DomRepresentation dom = createDom();
+        dom.setNamespaceAware(true);
+        dom.getNamespaces().put("x", "urn:a");
+        assertEquals("cust123", dom.getText("/*/x:customer"));
+
+        // Same expression with another map of namespaces
+        dom = createDom();
+        dom.setNamespaceAware(true);
+        dom.getNamespaces().put("x", "urn:b");
+        assertEquals("cust456", dom.getText("/*/x:customer"));
+    }
+
+}
@@ -26,6 +26,8 @@ package org.restlet.test.ext.xml;
 
 import java.io.ByteArrayOutputStream;
 
+import javax.xml.transform.Templates;
+
 import org.restlet.Component;
 import org.restlet.data.MediaType;
 import org.restlet.ext.xml.TransformRepresentation;
@@ -139,6 +141,14 @@ public class TransformerTestCase extends RestletTestCase {
         final String result = transformer.transform(this.source).getText();
 
         assertEquals(this.output, result);
+
+        // The compiled templates are reused by subsequent transformations
+        final Templates templates = transformer.getTemplates();
+        assertEquals(this.output, transformer.transform(this.source).getText());
+        assertSame(templates, transformer.getTemplates());
+
+        transformer.setTransformSheet(this.xslt);
+        assertNotSame(templates, transformer.getTemplates());
     }
 
 }
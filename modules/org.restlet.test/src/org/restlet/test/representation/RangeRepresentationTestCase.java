@@ -24,8 +24,18 @@
 
 package org.restlet.test.representation;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import org.restlet.data.MediaType;
 import org.restlet.data.Range;
 import org.restlet.engine.application.RangeRepresentation;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.test.RestletTestCase;
 
@@ -47,6 +57,55 @@ public class RangeRepresentationTestCase extends RestletTestCase {
         assertEquals("34567", rr.getText());
     }
 
+    public void testFile() throws Exception {
+        File file = File.createTempFile("range", ".txt");
+
+        try {
+            FileOutputStream fos = new FileOutputStream(file);
+            new StringRepresentation("1234567890").write(fos);
+            fos.close();
+            FileRepresentation fr = new FileRepresentation(file,
+                    MediaType.TEXT_PLAIN);
+            RangeRepresentation rr = new RangeRepresentation(fr, new Range(2,
+                    5));
+            assertSame(fr, rr.getFileRepresentation());
+            assertEquals(2, rr.getStartIndex());
+            assertEquals("34567", rr.getText());
+
+            // Write to a channel
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            rr.write(Channels.newChannel(baos));
+            assertEquals("34567", baos.toString());
+
+            // Last bytes
+            rr.setRange(new Range(Range.INDEX_LAST, 3));
+            assertEquals(7, rr.getStartIndex());
+            assertEquals("890", rr.getText());
+
+            // Open ended range written with a memory mapping
+            fr.setMapped(true);
+            rr.setRange(new Range(6, Range.SIZE_MAX));
+            baos = new ByteArrayOutputStream();
+            rr.write(baos);
+            assertEquals("7890", baos.toString());
+
+            // Transfer to another file
+            File target = File.createTempFile("range", ".txt");
+
+            try {
+                FileChannel fc = new FileOutputStream(target).getChannel();
+                rr.setRange(new Range(1, 3));
+                rr.write(fc);
+                fc.close();
+                assertEquals("234", IoUtils.toString(new FileInputStream(target)));
+            } finally {
+                target.delete();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
     public void testSize() throws Exception {
         StringRepresentation sr = new StringRepresentation("1234567890");
         RangeRepresentation rr = new RangeRepresentation(sr);
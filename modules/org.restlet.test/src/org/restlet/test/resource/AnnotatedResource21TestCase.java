@@ -0,0 +1,168 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.resource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.MediaType;
+import org.restlet.data.Status;
+import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
+import org.restlet.resource.Finder;
+import org.restlet.resource.Promise;
+import org.restlet.resource.ResourceException;
+import org.restlet.resource.Result;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test the asynchronous calls of client resources and their proxies.
+ * 
+ * @author Jerome Louvel
+ */
+public class AnnotatedResource21TestCase extends RestletTestCase {
+
+    private ClientResource clientResource;
+
+    private MyResource21 myResource;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        Finder finder = new Finder();
+        finder.setTargetClass(MyServerResource21.class);
+
+        this.clientResource = new ClientResource("http://local");
+        this.clientResource.setNext(finder);
+        this.myResource = clientResource.wrap(MyResource21.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        clientResource = null;
+        myResource = null;
+        super.tearDown();
+    }
+
+    public void testAsync() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        clientResource.setNext(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                started.countDown();
+
+                try {
+                    released.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                response.setEntity("done", MediaType.TEXT_PLAIN);
+            }
+        });
+
+        // The calling thread isn't blocked
+        Promise<String> promise = clientResource.getAsync(String.class);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(promise.isDone());
+
+        final String[] notified = new String[1];
+        final CountDownLatch notifying = new CountDownLatch(1);
+        promise.addListener(new Result<String>() {
+            public void onFailure(Throwable caught) {
+            }
+
+            public void onSuccess(String result) {
+                notified[0] = result;
+                notifying.countDown();
+            }
+        });
+
+        released.countDown();
+        assertEquals("done", promise.get(5, TimeUnit.SECONDS));
+        assertTrue(notifying.await(5, TimeUnit.SECONDS));
+        assertEquals("done", notified[0]);
+        assertEquals(Status.SUCCESS_OK, clientResource.getStatus());
+    }
+
+    public void testError() throws Exception {
+        clientResource.setRetryOnError(false);
+        clientResource.setNext(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+            }
+        });
+
+        try {
+            clientResource.getAsync().get(5, TimeUnit.SECONDS);
+            fail("A resource exception should have been reported");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ResourceException);
+            assertEquals(Status.CLIENT_ERROR_NOT_FOUND,
+                    ((ResourceException) e.getCause()).getStatus());
+        }
+    }
+
+    public void testProxy() throws Exception {
+        assertEquals("myName", myResource.represent().get(5, TimeUnit.SECONDS));
+
+        try {
+            myResource.remove().get(5, TimeUnit.SECONDS);
+            fail("A resource exception should have been reported");
+        } catch (ExecutionException e) {
+            assertEquals(Status.CLIENT_ERROR_FORBIDDEN,
+                    ((ResourceException) e.getCause()).getStatus());
+        }
+    }
+
+    public void testRetry() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        clientResource.setRetryDelay(50);
+        clientResource.setNext(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                if (calls.incrementAndGet() < 3) {
+                    response.setStatus(Status.SERVER_ERROR_SERVICE_UNAVAILABLE);
+                } else {
+                    response.setStatus(Status.SUCCESS_OK);
+                    response.setEntity("done", MediaType.TEXT_PLAIN);
+                }
+            }
+        });
+
+        Representation entity = clientResource.getAsync().get(5,
+                TimeUnit.SECONDS);
+        assertEquals("done", entity.getText());
+        assertEquals(3, calls.get());
+    }
+
+}
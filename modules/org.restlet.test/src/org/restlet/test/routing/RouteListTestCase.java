@@ -26,7 +26,11 @@ package org.restlet.test.routing;
 
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
 import org.restlet.routing.Route;
+import org.restlet.routing.Router;
+import org.restlet.routing.Template;
 import org.restlet.test.RestletTestCase;
 import org.restlet.util.RouteList;
 
@@ -51,6 +55,72 @@ public class RouteListTestCase extends RestletTestCase {
         }
     }
 
+    private static Restlet target(final String name) {
+        return new Restlet() {
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    private void checkIndexed(Router router, String uri) {
+        Request request = new Request(Method.GET, uri);
+        request.getResourceRef().setBaseRef("http://localhost/app");
+        Response response = new Response(request);
+        RouteList list = router.getRoutes();
+        float score = router.getRequiredScore();
+
+        assertSame(list.getFirst(request, response, score),
+                list.getFirstIndexed(request, response, score));
+        assertSame(list.getBest(request, response, score),
+                list.getBestIndexed(request, response, score));
+    }
+
+    public void testGetIndexed() {
+        Router router = new Router();
+        router.attach("/users", target("users"));
+        router.attach("/users/{id}", target("user"));
+        router.attach("/users/{id}/orders", target("orders"));
+        router.attach("/users/me", target("me"));
+        router.attach("/{any}", target("any"));
+        router.attach("/static", target("static"), Template.MODE_STARTS_WITH);
+        router.attach("/search?q={q}", target("search")).setMatchingQuery(
+                true);
+
+        // Ties with a shorter literal prefix are resolved in list order
+        router.attach("/{type}/{id}", target("typed"));
+
+        String[] uris = new String[] { "http://localhost/app/users",
+                "http://localhost/app/users/", "http://localhost/app/users/12",
+                "http://localhost/app/users/me",
+                "http://localhost/app/users/12/orders",
+                "http://localhost/app/static/css/main.css",
+                "http://localhost/app/search?q=restlet",
+                "http://localhost/app/other", "http://localhost/app" };
+
+        for (String uri : uris) {
+            checkIndexed(router, uri);
+        }
+
+        // The index must follow the structural changes of the list
+        Restlet user = router.getRoutes().get(1).getNext();
+        router.detach(user);
+        router.getRoutes().add(0, new MockScoringRoute(0));
+
+        for (String uri : uris) {
+            checkIndexed(router, uri);
+        }
+
+        router.setCompiledMatching(true);
+        Request request = new Request(Method.GET,
+                "http://localhost/app/users/12/orders");
+        request.getResourceRef().setBaseRef("http://localhost/app");
+        assertEquals("orders",
+                ((Route) router.getNext(request, new Response(request)))
+                        .getNext().toString());
+    }
+
     public void testGetLast() {
         final RouteList list = new RouteList();
 
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.restlet.Context;
+import org.restlet.data.ClientInfo;
+import org.restlet.data.Encoding;
+import org.restlet.data.MediaType;
+import org.restlet.data.Preference;
+import org.restlet.data.Reference;
+import org.restlet.data.Tag;
+import org.restlet.engine.application.DecodeRepresentation;
+import org.restlet.engine.application.EncodeRepresentation;
+import org.restlet.engine.application.Encoder;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.representation.InputRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.resource.ResourceException;
+import org.restlet.service.EncoderService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the pre-compressed files and the cache of the
+ * {@link EncoderService}.
+ * 
+ * @author Jerome Louvel
+ */
+public class EncoderServiceTestCase extends RestletTestCase {
+
+    private File testDir;
+
+    private ClientInfo createClientInfo(Encoding... encodings) {
+        ClientInfo result = new ClientInfo();
+
+        for (Encoding encoding : encodings) {
+            result.getAcceptedEncodings().add(
+                    new Preference<Encoding>(encoding));
+        }
+
+        return result;
+    }
+
+    private File createFile(String name, String content) throws Exception {
+        File result = new File(this.testDir, name);
+        FileOutputStream os = new FileOutputStream(result);
+        os.write(content.getBytes());
+        os.close();
+        return result;
+    }
+
+    private String createText() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 200; i++) {
+            sb.append("Restlet ").append(i).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.testDir = new File(System.getProperty("java.io.tmpdir"),
+                "EncoderServiceTestCase");
+        this.testDir.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        IoUtils.delete(this.testDir, true);
+        this.testDir = null;
+        super.tearDown();
+    }
+
+    public void testCache() throws Exception {
+        EncoderService encoderService = new EncoderService();
+        encoderService.setCacheSize(100000);
+        Encoder encoder = new Encoder(new Context(), false, true,
+                encoderService);
+        ClientInfo clientInfo = createClientInfo(Encoding.GZIP);
+        Reference resourceRef = new Reference("http://localhost/text");
+        String text = createText();
+
+        Representation rep = new StringRepresentation(text);
+        rep.setTag(new Tag("v1", false));
+        Representation encoded = encoder.encode(clientInfo, rep, resourceRef);
+        assertTrue(encoded instanceof ByteArrayRepresentation);
+        assertEquals(Encoding.GZIP, encoded.getEncodings().get(0));
+        assertEquals(new Tag("v1", false), encoded.getTag());
+        assertEquals(MediaType.TEXT_PLAIN, encoded.getMediaType());
+        assertEquals(text, new DecodeRepresentation(encoded).getText());
+
+        // Served from the cache, even if the entity changed
+        rep = new StringRepresentation("Other text");
+        rep.setTag(new Tag("v1", false));
+        encoded = encoder.encode(clientInfo, rep, resourceRef);
+        assertEquals(text, new DecodeRepresentation(encoded).getText());
+        assertFalse(rep.isAvailable());
+
+        // Another tag is encoded again
+        rep = new StringRepresentation(text + text);
+        rep.setTag(new Tag("v2", false));
+        encoded = encoder.encode(clientInfo, rep, resourceRef);
+        assertEquals(text + text, new DecodeRepresentation(encoded).getText());
+
+        // Weak tags aren't cached
+        rep = new StringRepresentation(text);
+        rep.setTag(new Tag("v3", true));
+        encoded = encoder.encode(clientInfo, rep, resourceRef);
+        assertTrue(encoded instanceof EncodeRepresentation);
+
+        // A partly consumed transient entity isn't encoded again
+        rep = new InputRepresentation(new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (this.count++ < 10) {
+                    return 'a';
+                }
+
+                throw new IOException("Broken entity");
+            }
+        }, MediaType.TEXT_PLAIN, 100);
+        rep.setTag(new Tag("v4", false));
+
+        try {
+            encoder.encode(clientInfo, rep, resourceRef);
+            fail("The broken entity shouldn't be served");
+        } catch (ResourceException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    public void testPrecompressed() throws Exception {
+        EncoderService encoderService = new EncoderService();
+        encoderService.setPrecompressed(true);
+        Encoder encoder = new Encoder(new Context(), false, true,
+                encoderService);
+
+        File file = createFile("app.js", createText());
+        File gzFile = createFile("app.js.gz", "gzip");
+        File brFile = createFile("app.js.br", "brotli");
+        gzFile.setLastModified(file.lastModified());
+        brFile.setLastModified(file.lastModified());
+
+        // Brotli is preferred when accepted
+        Representation encoded = encoder.encode(
+                createClientInfo(Encoding.GZIP, Encoding.BROTLI),
+                new FileRepresentation(file, MediaType.APPLICATION_JAVASCRIPT));
+        assertEquals(brFile, ((FileRepresentation) encoded).getFile());
+        assertEquals(Encoding.BROTLI, encoded.getEncodings().get(0));
+        assertEquals(MediaType.APPLICATION_JAVASCRIPT, encoded.getMediaType());
+
+        encoded = encoder.encode(createClientInfo(Encoding.GZIP),
+                new FileRepresentation(file, MediaType.APPLICATION_JAVASCRIPT));
+        assertEquals(gzFile, ((FileRepresentation) encoded).getFile());
+        assertEquals(Encoding.GZIP, encoded.getEncodings().get(0));
+        assertEquals(4, encoded.getSize());
+
+        // Outdated pre-compressed files are ignored
+        gzFile.setLastModified(file.lastModified() - 10000);
+        encoded = encoder.encode(createClientInfo(Encoding.GZIP),
+                new FileRepresentation(file, MediaType.APPLICATION_JAVASCRIPT));
+        assertTrue(encoded instanceof EncodeRepresentation);
+
+        // Disabled by default
+        encoder = new Encoder(new Context(), false, true,
+                new EncoderService());
+        encoded = encoder.encode(createClientInfo(Encoding.BROTLI,
+                Encoding.GZIP), new FileRepresentation(file,
+                MediaType.APPLICATION_JAVASCRIPT));
+        assertTrue(encoded instanceof EncodeRepresentation);
+    }
+
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+import org.restlet.Application;
+import org.restlet.Component;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.engine.metrics.LatencyHistogram;
+import org.restlet.engine.metrics.MetricsKey;
+import org.restlet.engine.metrics.MetricsRegistry;
+import org.restlet.routing.Router;
+import org.restlet.service.MetricsService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link MetricsService}.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsServiceTestCase extends RestletTestCase {
+
+    private Component component;
+
+    /** The response of the last suspended call. */
+    private volatile Response suspended;
+
+    private Response handle(String uri) {
+        Request request = new Request(Method.GET, uri);
+        Response response = new Response(request);
+        this.component.handle(request, response);
+        return response;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.component = new Component();
+        this.component.getLogService().setEnabled(false);
+        this.component.getMetricsService().setEnabled(true);
+
+        Application application = new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                Router router = new Router(getContext());
+                router.attach("/users/{id}", new Restlet() {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setStatus(Status.SUCCESS_OK);
+                    }
+                });
+                router.attach("/jobs/{id}", new Restlet() {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setAutoCommitting(false);
+                        suspended = response;
+                    }
+                });
+                return router;
+            }
+        };
+        application.setName("users");
+        this.component.getDefaultHost().setName("default");
+        this.component.getDefaultHost().attach("/app", application);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.component.stop();
+        this.component = null;
+        this.suspended = null;
+        super.tearDown();
+    }
+
+    public void testDisabledByDefault() {
+        assertFalse(new Component().getMetricsService().isEnabled());
+    }
+
+    public void testExport() throws Exception {
+        this.component.start();
+        handle("http://localhost/app/users/1");
+
+        MetricsService service = this.component.getMetricsService();
+        String text = service.export().getText();
+        assertEquals(MediaType.TEXT_PLAIN, service.export().getMediaType());
+        assertTrue(text.contains("# TYPE restlet_request_duration_seconds summary"));
+        assertTrue(text.contains("restlet_requests_in_flight 0"));
+        assertTrue(text
+                .contains("restlet_request_duration_seconds_count{host=\"default\",application=\"users\",route=\"/app/users/{id}\",status=\"2xx\"} 1"));
+    }
+
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getPercentile(50D));
+
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000L, histogram.getCount());
+        assertEquals(1000L, histogram.getMax());
+        assertEquals(500.5D, histogram.getMean());
+        assertEquals(1000L, histogram.getPercentile(100D));
+        assertEquals(1L, histogram.getPercentile(0D));
+
+        // The relative error is bounded
+        long median = histogram.getPercentile(50D);
+        assertTrue(median >= 500L && median <= 500L * 1.125D);
+        long p99 = histogram.getPercentile(99D);
+        assertTrue(p99 >= 990L && p99 <= 1000L);
+
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getMax());
+    }
+
+    public void testJmx() throws Exception {
+        this.component.getMetricsService().setJmxEnabled(true);
+        this.component.start();
+        handle("http://localhost/app/users/1");
+
+        ObjectName name = new ObjectName("org.restlet:type=Metrics,*");
+        assertEquals(1, ManagementFactory.getPlatformMBeanServer()
+                .queryNames(name, null).size());
+        ObjectName registered = ManagementFactory.getPlatformMBeanServer()
+                .queryNames(name, null).iterator().next();
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(registered, "RequestCount"));
+
+        this.component.stop();
+        assertTrue(ManagementFactory.getPlatformMBeanServer()
+                .queryNames(name, null).isEmpty());
+    }
+
+    public void testSuspended() throws Exception {
+        this.component.start();
+        handle("http://localhost/app/jobs/1");
+
+        // The call is only recorded once its response is committed
+        MetricsRegistry registry = this.component.getMetricsService()
+                .getRegistry();
+        assertNotNull(this.suspended);
+        assertEquals(0L, registry.getRequestCount());
+        assertEquals(1L, registry.getInFlightCount());
+
+        Thread.sleep(50);
+        this.suspended.setStatus(Status.SUCCESS_ACCEPTED);
+        this.suspended.commit();
+        assertEquals(1L, registry.getRequestCount());
+        assertEquals(0L, registry.getInFlightCount());
+
+        LatencyHistogram jobs = registry.getSeries().get(
+                new MetricsKey("default", "users", "/app/jobs/{id}", "2xx"));
+        assertNotNull(jobs);
+        assertTrue(jobs.getMax() >= 50000L);
+
+        // Committing again doesn't record the call twice
+        this.suspended.commit();
+        assertEquals(1L, registry.getRequestCount());
+    }
+
+    public void testSeries() throws Exception {
+        this.component.start();
+        handle("http://localhost/app/users/1");
+        handle("http://localhost/app/users/2");
+        handle("http://localhost/app/missing");
+
+        MetricsRegistry registry = this.component.getMetricsService()
+                .getRegistry();
+        assertEquals(3L, registry.getRequestCount());
+        assertEquals(1L, registry.getClientErrorCount());
+        assertEquals(0L, registry.getServerErrorCount());
+        assertEquals(0L, registry.getInFlightCount());
+
+        Map<MetricsKey, LatencyHistogram> series = registry.getSeries();
+        LatencyHistogram users = series.get(new MetricsKey("default", "users",
+                "/app/users/{id}", "2xx"));
+        assertNotNull(users);
+        assertEquals(2L, users.getCount());
+        assertNotNull(series.get(new MetricsKey("default", "users", "/app",
+                "4xx")));
+
+        // Beyond the maximum number of series, calls are gathered
+        registry.reset();
+        registry.setMaxSeries(1);
+        handle("http://localhost/app/users/1");
+        handle("http://localhost/app/missing");
+        assertEquals(2, series.size());
+        assertNotNull(series.get(new MetricsKey("default", "users",
+                MetricsRegistry.OVERFLOW_ROUTE, "4xx")));
+    }
+
+}
@@ -160,6 +160,20 @@ public class Client extends Connector {
         }
     }
 
+    // [ifndef gwt] method
+    /**
+     * Indicates if the underlying connector helper handles the asynchronous
+     * calls without blocking the calling thread, invoking the callback set with
+     * {@link Request#setOnResponse(Uniform)} once the response is received.
+     * 
+     * @return True if the asynchronous calls are handled without blocking.
+     */
+    public boolean isAsynchronous() {
+        return (getHelper() instanceof org.restlet.engine.connector.ClientHelper)
+                && ((org.restlet.engine.connector.ClientHelper) getHelper())
+                        .isAsynchronous();
+    }
+
     /**
      * Indicates the underlying connector helper is available.
      * 
@@ -34,6 +34,7 @@ import org.restlet.routing.Router;
 import org.restlet.routing.VirtualHost;
 import org.restlet.security.Realm;
 import org.restlet.service.LogService;
+import org.restlet.service.MetricsService;
 import org.restlet.service.Service;
 import org.restlet.service.StatusService;
 import org.restlet.util.ClientList;
@@ -85,9 +86,11 @@ import org.restlet.util.ServiceList;
  * 
  * <br>
  * Components also have useful services associated. They are all enabled by
- * default and are available as properties that can be eventually overridden:
+ * default, except the metrics service, and are available as properties that
+ * can be eventually overridden:
  * <ul>
  * <li>"logService" to configure access logging.</li>
+ * <li>"metricsService" to collect aggregated metrics about the calls.</li>
  * <li>"statusService" to provide common representations for exception status.</li>
  * <li>"taskService" to run tasks asynchronously.</li>
  * </ul>
@@ -154,6 +157,7 @@ public class Component extends Restlet {
             this.services.add(new LogService());
             getLogService().setContext(childContext);
             this.services.add(new StatusService());
+            this.services.add(new MetricsService());
             this.clients.setContext(childContext);
             this.servers.setContext(childContext);
         }
@@ -235,6 +239,15 @@ public class Component extends Restlet {
         return getServices().get(LogService.class);
     }
 
+    /**
+     * Returns the global metrics service. This service is disabled by default.
+     * 
+     * @return The global metrics service.
+     */
+    public MetricsService getMetricsService() {
+        return getServices().get(MetricsService.class);
+    }
+
     /**
      * Finds the realm with the given name.
      * 
@@ -379,6 +392,16 @@ public class Component extends Restlet {
         getServices().set(logService);
     }
 
+    /**
+     * Sets the global metrics service.
+     * 
+     * @param metricsService
+     *            The global metrics service.
+     */
+    public void setMetricsService(MetricsService metricsService) {
+        getServices().set(metricsService);
+    }
+
     /**
      * Sets the list of realms. This method clears the current list and adds all
      * entries in the parameter list.
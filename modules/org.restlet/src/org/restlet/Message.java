@@ -38,6 +38,7 @@ import org.restlet.data.MediaType;
 import org.restlet.data.RecipientInfo;
 import org.restlet.data.Warning;
 import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.util.HeaderSeries;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.ClientResource;
@@ -266,10 +267,7 @@ public abstract class Message {
         Series<Header> headers = (Series<Header>) getAttributes().get(
                 HeaderConstants.ATTRIBUTE_HEADERS);
         if (headers == null) {
-            // [ifndef gwt] instruction
-            headers = new Series<Header>(Header.class);
-            // [ifdef gwt] instruction uncomment
-            // headers = new org.restlet.engine.util.HeaderSeries();
+            headers = new HeaderSeries();
             getAttributes().put(HeaderConstants.ATTRIBUTE_HEADERS, headers);
         }
         return headers;
@@ -216,6 +216,8 @@ public class Response extends Message {
      * request which holds the link with the underlying network connection.
      */
     public void commit() {
+        // [ifndef gwt] instruction
+        org.restlet.engine.metrics.MetricsFilter.committed(this);
         getRequest().commit(this);
     }
 
@@ -24,14 +24,25 @@
 
 package org.restlet.data;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Metadata used to specify the character set of textual representations.
  * 
  * @author Jerome Louvel
  */
 public final class CharacterSet extends Metadata {
+    /**
+     * The known character sets registered with {@link #register(String,
+     * String)} and retrievable using {@link #valueOf(String)}, indexed by lower
+     * case name.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final ConcurrentMap<String, CharacterSet> _characterSets = new ConcurrentHashMap<String, CharacterSet>();
+
     /** All character sets acceptable. */
-    public static final CharacterSet ALL = new CharacterSet("*",
+    public static final CharacterSet ALL = register("*",
             "All character sets");
 
     /**
@@ -39,7 +50,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-1">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_1 = new CharacterSet(
+    public static final CharacterSet ISO_8859_1 = register(
             "ISO-8859-1", "ISO/IEC 8859-1 or Latin 1 character set");
 
     /**
@@ -47,7 +58,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-2">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_2 = new CharacterSet(
+    public static final CharacterSet ISO_8859_2 = register(
             "ISO-8859-2", "ISO/IEC 8859-2 or Latin 2 character set");
 
     /**
@@ -55,7 +66,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-3">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_3 = new CharacterSet(
+    public static final CharacterSet ISO_8859_3 = register(
             "ISO-8859-3", "ISO/IEC 8859-3 or Latin 3 character set");
 
     /**
@@ -63,7 +74,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-4">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_4 = new CharacterSet(
+    public static final CharacterSet ISO_8859_4 = register(
             "ISO-8859-4", "ISO/IEC 8859-4 or Latin 4 character set");
 
     /**
@@ -71,7 +82,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-5">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_5 = new CharacterSet(
+    public static final CharacterSet ISO_8859_5 = register(
             "ISO-8859-5", "ISO/IEC 8859-5 or Cyrillic character set");
 
     /**
@@ -79,7 +90,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-6">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_6 = new CharacterSet(
+    public static final CharacterSet ISO_8859_6 = register(
             "ISO-8859-6", "ISO/IEC 8859-6 or Arabic character set");
 
     /**
@@ -87,7 +98,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-7">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_7 = new CharacterSet(
+    public static final CharacterSet ISO_8859_7 = register(
             "ISO-8859-7", "ISO/IEC 8859-7 or Greek character set");
 
     /**
@@ -95,7 +106,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-8">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_8 = new CharacterSet(
+    public static final CharacterSet ISO_8859_8 = register(
             "ISO-8859-8", "ISO/IEC 8859-8 or Hebrew character set");
 
     /**
@@ -103,7 +114,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-9">Wikipedia page</a>
      */
-    public static final CharacterSet ISO_8859_9 = new CharacterSet(
+    public static final CharacterSet ISO_8859_9 = register(
             "ISO-8859-9", "ISO/IEC 8859-9 or Latin 5 character set");
 
     /**
@@ -112,7 +123,7 @@ public final class CharacterSet extends Metadata {
      * @see <a href="http://en.wikipedia.org/wiki/ISO_8859-10">Wikipedia
      *      page</a>
      */
-    public static final CharacterSet ISO_8859_10 = new CharacterSet(
+    public static final CharacterSet ISO_8859_10 = register(
             "ISO-8859-10", "ISO/IEC 8859-10 or Latin 6 character set");
 
     /**
@@ -121,7 +132,7 @@ public final class CharacterSet extends Metadata {
      * @see <a href="http://en.wikipedia.org/wiki/Mac_OS_Roman">Wikipedia
      *      page</a>
      */
-    public static final CharacterSet MACINTOSH = new CharacterSet("macintosh",
+    public static final CharacterSet MACINTOSH = register("macintosh",
             "Mac OS Roman character set");
 
     /**
@@ -129,7 +140,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/US-ASCII">Wikipedia page</a>
      */
-    public static final CharacterSet US_ASCII = new CharacterSet("US-ASCII",
+    public static final CharacterSet US_ASCII = register("US-ASCII",
             "US ASCII character set");
 
     /**
@@ -137,7 +148,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/UTF-16">Wikipedia page</a>
      */
-    public static final CharacterSet UTF_16 = new CharacterSet("UTF-16",
+    public static final CharacterSet UTF_16 = register("UTF-16",
             "UTF 16 character set");
 
     /**
@@ -145,7 +156,7 @@ public final class CharacterSet extends Metadata {
      * 
      * @see <a href="http://en.wikipedia.org/wiki/UTF-8">Wikipedia page</a>
      */
-    public static final CharacterSet UTF_8 = new CharacterSet("UTF-8",
+    public static final CharacterSet UTF_8 = register("UTF-8",
             "UTF 8 character set");
 
     /**
@@ -155,7 +166,7 @@ public final class CharacterSet extends Metadata {
      *      page</a>
      * 
      */
-    public static final CharacterSet WINDOWS_1252 = new CharacterSet(
+    public static final CharacterSet WINDOWS_1252 = register(
             "windows-1252", "Windows 1232 character set");
 
     // [ifndef gwt] member
@@ -215,8 +226,27 @@ public final class CharacterSet extends Metadata {
     }
 
     /**
-     * Returns the character set associated to a name. If an existing constant
-     * exists then it is returned, otherwise a new instance is created.
+     * Register a character set as a known character set that can later be
+     * retrieved using {@link #valueOf(String)}. If the character set already
+     * exists, the existing one is returned, otherwise a new instance is
+     * created.
+     * 
+     * @param name
+     *            The name.
+     * @param description
+     *            The description.
+     * @return The registered character set.
+     */
+    public static CharacterSet register(String name, String description) {
+        CharacterSet result = new CharacterSet(name, description);
+        CharacterSet existing = _characterSets.putIfAbsent(result.getName()
+                .toLowerCase(), result);
+        return (existing == null) ? result : existing;
+    }
+
+    /**
+     * Returns the character set associated to a name. If a registered character
+     * set exists then it is returned, otherwise a new instance is created.
      * 
      * @param name
      *            The name.
@@ -227,21 +257,9 @@ public final class CharacterSet extends Metadata {
         name = getIanaName(name);
 
         if ((name != null) && !name.equals("")) {
-            if (name.equalsIgnoreCase(ALL.getName())) {
-                result = ALL;
-            } else if (name.equalsIgnoreCase(ISO_8859_1.getName())) {
-                result = ISO_8859_1;
-            } else if (name.equalsIgnoreCase(US_ASCII.getName())) {
-                result = US_ASCII;
-            } else if (name.equalsIgnoreCase(UTF_8.getName())) {
-                result = UTF_8;
-            } else if (name.equalsIgnoreCase(UTF_16.getName())) {
-                result = UTF_16;
-            } else if (name.equalsIgnoreCase(WINDOWS_1252.getName())) {
-                result = WINDOWS_1252;
-            } else if (name.equalsIgnoreCase(MACINTOSH.getName())) {
-                result = MACINTOSH;
-            } else {
+            result = _characterSets.get(name.toLowerCase());
+
+            if (result == null) {
                 result = new CharacterSet(name);
             }
         }
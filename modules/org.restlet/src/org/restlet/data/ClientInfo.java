@@ -27,6 +27,8 @@ package org.restlet.data;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -123,6 +125,22 @@ import org.restlet.engine.io.IoUtils;
  */
 public final class ClientInfo {
 
+    // [ifndef gwt] member
+    /**
+     * Immutable agent attributes cached by agent name, as the same agent names
+     * are received over and over again.
+     */
+    private static final org.restlet.engine.util.BoundedCache<String, Map<String, String>> agentAttributesCache = new org.restlet.engine.util.BoundedCache<String, Map<String, String>>(
+            1024);
+
+    // [ifndef gwt] member
+    /**
+     * List of parsed user-agent templates defined in "agent.properties" file.
+     * 
+     * @see The {@link ClientInfo#getAgentAttributes()} method.
+     */
+    private static volatile List<org.restlet.routing.Template> userAgentMatchers = null;
+
     // [ifndef gwt] member
     /**
      * List of user-agent templates defined in "agent.properties" file.<br>
@@ -162,6 +180,66 @@ public final class ClientInfo {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the list of parsed user-agent templates defined in
+     * "agent.properties" file. The templates are created once and their
+     * regular expressions are compiled once, then shared by all the calls.
+     * 
+     * @return The list of parsed user-agent templates.
+     * @see The {@link ClientInfo#getAgentAttributes()} method.
+     */
+    private static List<org.restlet.routing.Template> getUserAgentMatchers() {
+        // Lazy initialization with double-check.
+        List<org.restlet.routing.Template> m = ClientInfo.userAgentMatchers;
+        if (m == null) {
+            synchronized (ClientInfo.class) {
+                m = ClientInfo.userAgentMatchers;
+                if (m == null) {
+                    m = new CopyOnWriteArrayList<org.restlet.routing.Template>();
+
+                    if (getUserAgentTemplates() != null) {
+                        // Predefined variables.
+                        org.restlet.routing.Variable agentName = new org.restlet.routing.Variable(
+                                org.restlet.routing.Variable.TYPE_TOKEN);
+                        org.restlet.routing.Variable agentVersion = new org.restlet.routing.Variable(
+                                org.restlet.routing.Variable.TYPE_TOKEN);
+                        org.restlet.routing.Variable agentComment = new org.restlet.routing.Variable(
+                                org.restlet.routing.Variable.TYPE_COMMENT);
+                        org.restlet.routing.Variable agentCommentAttribute = new org.restlet.routing.Variable(
+                                org.restlet.routing.Variable.TYPE_COMMENT_ATTRIBUTE);
+                        org.restlet.routing.Variable facultativeData = new org.restlet.routing.Variable(
+                                org.restlet.routing.Variable.TYPE_ALL, null,
+                                false, false);
+
+                        for (String string : getUserAgentTemplates()) {
+                            org.restlet.routing.Template template = new org.restlet.routing.Template(
+                                    string,
+                                    org.restlet.routing.Template.MODE_EQUALS);
+
+                            // Update the predefined variables.
+                            template.getVariables().put("agentName", agentName);
+                            template.getVariables().put("agentVersion",
+                                    agentVersion);
+                            template.getVariables().put("agentComment",
+                                    agentComment);
+                            template.getVariables().put("agentOs",
+                                    agentCommentAttribute);
+                            template.getVariables().put("commentAttribute",
+                                    agentCommentAttribute);
+                            template.getVariables().put("facultativeData",
+                                    facultativeData);
+                            m.add(template);
+                        }
+                    }
+
+                    ClientInfo.userAgentMatchers = m;
+                }
+            }
+        }
+        return m;
+    }
+
     // [ifndef gwt] method
     /**
      * Returns the list of user-agent templates defined in "agent.properties"
@@ -219,6 +297,36 @@ public final class ClientInfo {
         return u;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Parses the attributes of an agent name. Loops on the list of user-agent
+     * templates until a template matches the agent name. The list of templates
+     * is located in a file named "agent.properties" available on the
+     * classpath. Some defined variables are used in order to catch the name,
+     * version and optional comment. Respectively, these variables are called
+     * "agentName", "agentVersion" and "agentComment".
+     * 
+     * @param agent
+     *            The agent name.
+     * @return The immutable map of attributes.
+     */
+    private static Map<String, String> parseAgentAttributes(String agent) {
+        Map<String, String> result = new HashMap<String, String>();
+        Map<String, Object> map = new HashMap<String, Object>();
+
+        for (org.restlet.routing.Template template : getUserAgentMatchers()) {
+            // Parse the template
+            if (template.parse(agent, map) > -1) {
+                for (String key : map.keySet()) {
+                    result.put(key, (String) map.get(key));
+                }
+                break;
+            }
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
     /** The character set preferences. */
     private volatile List<Preference<CharacterSet>> acceptedCharacterSets;
 
@@ -532,56 +640,16 @@ public final class ClientInfo {
      */
     public Map<String, String> getAgentAttributes() {
         if (this.agentAttributes == null) {
-            this.agentAttributes = new ConcurrentHashMap<String, String>();
-            Map<String, Object> map = new ConcurrentHashMap<String, Object>();
-
-            // Loop on a list of user-agent templates until a template match
-            // the current user-agent string. The list of templates is
-            // located in a file named "agent.properties" available on
-            // the classpath.
-            // Some defined variables are used in order to catch the name,
-            // version and optional comment. Respectively, these
-            // variables are called "agentName", "agentVersion" and
-            // "agentComment".
-            org.restlet.routing.Template template = null;
-            // Predefined variables.
-            org.restlet.routing.Variable agentName = new org.restlet.routing.Variable(
-                    org.restlet.routing.Variable.TYPE_TOKEN);
-            org.restlet.routing.Variable agentVersion = new org.restlet.routing.Variable(
-                    org.restlet.routing.Variable.TYPE_TOKEN);
-            org.restlet.routing.Variable agentComment = new org.restlet.routing.Variable(
-                    org.restlet.routing.Variable.TYPE_COMMENT);
-            org.restlet.routing.Variable agentCommentAttribute = new org.restlet.routing.Variable(
-                    org.restlet.routing.Variable.TYPE_COMMENT_ATTRIBUTE);
-            org.restlet.routing.Variable facultativeData = new org.restlet.routing.Variable(
-                    org.restlet.routing.Variable.TYPE_ALL, null, false, false);
-
-            if (ClientInfo.getUserAgentTemplates() != null) {
-                for (String string : ClientInfo.getUserAgentTemplates()) {
-                    template = new org.restlet.routing.Template(string,
-                            org.restlet.routing.Template.MODE_EQUALS);
-
-                    // Update the predefined variables.
-                    template.getVariables().put("agentName", agentName);
-                    template.getVariables().put("agentVersion", agentVersion);
-                    template.getVariables().put("agentComment", agentComment);
-                    template.getVariables().put("agentOs",
-                            agentCommentAttribute);
-                    template.getVariables().put("commentAttribute",
-                            agentCommentAttribute);
-                    template.getVariables().put("facultativeData",
-                            facultativeData);
-
-                    // Parse the template
-                    if (template.parse(getAgent(), map) > -1) {
-                        for (String key : map.keySet()) {
-                            this.agentAttributes
-                                    .put(key, (String) map.get(key));
-                        }
-                        break;
-                    }
-                }
+            Map<String, String> attributes = agentAttributesCache
+                    .get(getAgent());
+
+            if (attributes == null) {
+                attributes = agentAttributesCache.put(getAgent(),
+                        parseAgentAttributes(getAgent()));
             }
+
+            this.agentAttributes = new ConcurrentHashMap<String, String>(
+                    attributes);
         }
 
         return this.agentAttributes;
@@ -24,6 +24,9 @@
 
 package org.restlet.data;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Modifier of a representation's media type. Useful to apply compression
  * without losing the identity of the underlying media type.
@@ -31,43 +34,73 @@ package org.restlet.data;
  * @author Jerome Louvel
  */
 public final class Encoding extends Metadata {
+    /**
+     * The known encodings registered with {@link #register(String, String)} and
+     * retrievable using {@link #valueOf(String)}, indexed by lower case
+     * name.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final ConcurrentMap<String, Encoding> _encodings = new ConcurrentHashMap<String, Encoding>();
+
     /** All encodings acceptable. */
-    public static final Encoding ALL = new Encoding("*", "All encodings");
+    public static final Encoding ALL = register("*", "All encodings");
+
+    /** The Brotli compression format defined by RFC 7932. */
+    public static final Encoding BROTLI = register("br",
+            "Brotli compression");
 
     /** The common Unix file compression. */
-    public static final Encoding COMPRESS = new Encoding("compress",
+    public static final Encoding COMPRESS = register("compress",
             "Common Unix compression");
 
     /** The zlib format defined by RFC 1950 and 1951. */
-    public static final Encoding DEFLATE = new Encoding("deflate",
+    public static final Encoding DEFLATE = register("deflate",
             "Deflate compression using the zlib format");
 
     /** The zlib format defined by RFC 1950 and 1951, without wrapping. */
-    public static final Encoding DEFLATE_NOWRAP = new Encoding(
+    public static final Encoding DEFLATE_NOWRAP = register(
             "deflate-no-wrap",
             "Deflate compression using the zlib format (without wrapping)");
 
     /** The FreeMarker encoding. */
-    public static final Encoding FREEMARKER = new Encoding("freemarker",
+    public static final Encoding FREEMARKER = register("freemarker",
             "FreeMarker templated representation");
 
     /** The GNU Zip encoding. */
-    public static final Encoding GZIP = new Encoding("gzip", "GZip compression");
+    public static final Encoding GZIP = register("gzip", "GZip compression");
 
     /** The default (identity) encoding. */
-    public static final Encoding IDENTITY = new Encoding("identity",
+    public static final Encoding IDENTITY = register("identity",
             "The default encoding with no transformation");
 
     /** The Velocity encoding. */
-    public static final Encoding VELOCITY = new Encoding("velocity",
+    public static final Encoding VELOCITY = register("velocity",
             "Velocity templated representation");
 
     /** The Info-Zip encoding. */
-    public static final Encoding ZIP = new Encoding("zip", "Zip compression");
+    public static final Encoding ZIP = register("zip", "Zip compression");
 
     /**
-     * Returns the encoding associated to a name. If an existing constant exists
-     * then it is returned, otherwise a new instance is created.
+     * Register an encoding as a known encoding that can later be retrieved
+     * using {@link #valueOf(String)}. If the encoding already exists, the
+     * existing one is returned, otherwise a new instance is created.
+     * 
+     * @param name
+     *            The name.
+     * @param description
+     *            The description.
+     * @return The registered encoding.
+     */
+    public static Encoding register(String name, String description) {
+        Encoding result = new Encoding(name, description);
+        Encoding existing = _encodings.putIfAbsent(result.getName()
+                .toLowerCase(), result);
+        return (existing == null) ? result : existing;
+    }
+
+    /**
+     * Returns the encoding associated to a name. If a registered encoding
+     * exists then it is returned, otherwise a new instance is created.
      * 
      * @param name
      *            The name.
@@ -77,25 +110,9 @@ public final class Encoding extends Metadata {
         Encoding result = null;
 
         if ((name != null) && !name.equals("")) {
-            if (name.equalsIgnoreCase(ALL.getName())) {
-                result = ALL;
-            } else if (name.equalsIgnoreCase(GZIP.getName())) {
-                result = GZIP;
-            } else if (name.equalsIgnoreCase(ZIP.getName())) {
-                result = ZIP;
-            } else if (name.equalsIgnoreCase(COMPRESS.getName())) {
-                result = COMPRESS;
-            } else if (name.equalsIgnoreCase(DEFLATE.getName())) {
-                result = DEFLATE;
-            } else if (name.equalsIgnoreCase(DEFLATE_NOWRAP.getName())) {
-                result = DEFLATE_NOWRAP;
-            } else if (name.equalsIgnoreCase(IDENTITY.getName())) {
-                result = IDENTITY;
-            } else if (name.equalsIgnoreCase(FREEMARKER.getName())) {
-                result = FREEMARKER;
-            } else if (name.equalsIgnoreCase(VELOCITY.getName())) {
-                result = VELOCITY;
-            } else {
+            result = _encodings.get(name.toLowerCase());
+
+            if (result == null) {
                 result = new Encoding(name);
             }
         }
@@ -26,6 +26,8 @@ package org.restlet.data;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -36,8 +38,16 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @author Jerome Louvel
  */
 public final class Language extends Metadata {
+    /**
+     * The known languages registered with {@link #register(String, String)} and
+     * retrievable using {@link #valueOf(String)}, indexed by lower case
+     * name.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final ConcurrentMap<String, Language> _languages = new ConcurrentHashMap<String, Language>();
+
     /** All languages acceptable. */
-    public static final Language ALL = new Language("*", "All languages");
+    public static final Language ALL = register("*", "All languages");
 
     // [ifndef gwt] member
     /**
@@ -53,27 +63,45 @@ public final class Language extends Metadata {
     // "English language");
 
     /** English language. */
-    public static final Language ENGLISH = new Language("en",
+    public static final Language ENGLISH = register("en",
             "English language");
 
     /** English language spoken in USA. */
-    public static final Language ENGLISH_US = new Language("en-us",
+    public static final Language ENGLISH_US = register("en-us",
             "English language in USA");
 
     /** French language. */
-    public static final Language FRENCH = new Language("fr", "French language");
+    public static final Language FRENCH = register("fr", "French language");
 
     /** French language spoken in France. */
-    public static final Language FRENCH_FRANCE = new Language("fr-fr",
+    public static final Language FRENCH_FRANCE = register("fr-fr",
             "French language in France");
 
     /** Spanish language. */
-    public static final Language SPANISH = new Language("es",
+    public static final Language SPANISH = register("es",
             "Spanish language");
 
     /**
-     * Returns the language associated to a name. If an existing constant exists
-     * then it is returned, otherwise a new instance is created.
+     * Register a language as a known language that can later be retrieved using
+     * {@link #valueOf(String)}. If the language already exists, the existing
+     * one is returned, otherwise a new instance is created.
+     * 
+     * @param name
+     *            The name.
+     * @param description
+     *            The description.
+     * @return The registered language.
+     */
+    public static Language register(String name, String description) {
+        Language result = new Language(name, description);
+        Language existing = _languages.putIfAbsent(result.getName()
+                .toLowerCase(), result);
+        return (existing == null) ? result : existing;
+    }
+
+    /**
+     * Returns the language associated to a name. If a registered language
+     * exists then it is returned, otherwise a new instance is created.
      * 
      * @param name
      *            The name.
@@ -83,19 +111,9 @@ public final class Language extends Metadata {
         Language result = null;
 
         if ((name != null) && !name.equals("")) {
-            if (name.equalsIgnoreCase(ALL.getName())) {
-                result = ALL;
-            } else if (name.equalsIgnoreCase(ENGLISH.getName())) {
-                result = ENGLISH;
-            } else if (name.equalsIgnoreCase(ENGLISH_US.getName())) {
-                result = ENGLISH_US;
-            } else if (name.equalsIgnoreCase(FRENCH.getName())) {
-                result = FRENCH;
-            } else if (name.equalsIgnoreCase(FRENCH_FRANCE.getName())) {
-                result = FRENCH_FRANCE;
-            } else if (name.equalsIgnoreCase(SPANISH.getName())) {
-                result = SPANISH;
-            } else {
+            result = _languages.get(name.toLowerCase());
+
+            if (result == null) {
                 result = new Language(name);
             }
         }
@@ -25,8 +25,8 @@
 package org.restlet.data;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
 import org.restlet.Context;
@@ -57,7 +57,7 @@ public final class MediaType extends Metadata {
      * retrievable using {@link #valueOf(String)}.<br>
      * Keep the underscore for the ordering.
      */
-    private static volatile Map<String, MediaType> _types = null;
+    private static final ConcurrentMap<String, MediaType> _types = new ConcurrentHashMap<String, MediaType>();
 
     public static final MediaType ALL = register("*/*", "All media");
 
@@ -726,18 +726,6 @@ public final class MediaType extends Metadata {
         return mostSpecific;
     }
 
-    /**
-     * Returns the known media types map.
-     * 
-     * @return the known media types map.
-     */
-    private static Map<String, MediaType> getTypes() {
-        if (_types == null) {
-            _types = new HashMap<String, MediaType>();
-        }
-        return _types;
-    }
-
     /**
      * Normalizes the specified token.
      * 
@@ -845,15 +833,19 @@ public final class MediaType extends Metadata {
      *            The description.
      * @return The registered media type
      */
-    public static synchronized MediaType register(String name,
-            String description) {
+    public static MediaType register(String name, String description) {
+        MediaType result = _types.get(name);
+
+        if (result == null) {
+            result = new MediaType(name, description);
+            MediaType existing = _types.putIfAbsent(name, result);
 
-        if (!getTypes().containsKey(name)) {
-            final MediaType type = new MediaType(name, description);
-            getTypes().put(name, type);
+            if (existing != null) {
+                result = existing;
+            }
         }
 
-        return getTypes().get(name);
+        return result;
     }
 
     /**
@@ -868,7 +860,8 @@ public final class MediaType extends Metadata {
         MediaType result = null;
 
         if ((name != null) && !name.equals("")) {
-            result = getTypes().get(name);
+            result = _types.get(name);
+
             if (result == null) {
                 result = new MediaType(name);
             }
@@ -148,6 +148,29 @@ public class Engine {
      */
     public static Thread createThreadWithLocalVariables(
             final Runnable runnable, String name) {
+        Runnable r = createRunnableWithLocalVariables(runnable);
+
+        // [ifndef gae] instruction
+        return new Thread(r, name);
+        // [ifdef gae] instruction uncomment
+        // return
+        // com.google.appengine.api.ThreadManager.createThreadForCurrentRequest(r);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Wraps a runnable task so that it runs with the Restlet thread local
+     * variables of the calling thread, for example on a pooled thread. If the
+     * task is a {@link org.restlet.engine.util.ContextualRunnable}, its context class loader is also
+     * set while it runs. The thread local variables are cleared once the task
+     * completes.
+     * 
+     * @param runnable
+     *            The runnable task to wrap.
+     * @return The wrapper task, ready to run in another thread.
+     */
+    public static Runnable createRunnableWithLocalVariables(
+            final Runnable runnable) {
         // Save the thread local variables
         final org.restlet.Application currentApplication = org.restlet.Application
                 .getCurrent();
@@ -156,7 +179,7 @@ public class Engine {
                 .getCurrent();
         final Response currentResponse = Response.getCurrent();
 
-        Runnable r = new Runnable() {
+        return new Runnable() {
 
             @Override
             public void run() {
@@ -166,21 +189,31 @@ public class Engine {
                 org.restlet.routing.VirtualHost.setCurrent(currentVirtualHost);
                 org.restlet.Application.setCurrent(currentApplication);
 
-                try {
-                    // Run the user task
-                    runnable.run();
-                } finally {
-                    Engine.clearThreadLocalVariables();
+                if (runnable instanceof org.restlet.engine.util.ContextualRunnable) {
+                    ClassLoader tccl = Thread.currentThread()
+                            .getContextClassLoader();
+
+                    try {
+                        // Run the user task
+                        Thread.currentThread().setContextClassLoader(
+                                ((org.restlet.engine.util.ContextualRunnable) runnable)
+                                        .getContextClassLoader());
+                        runnable.run();
+                    } finally {
+                        Engine.clearThreadLocalVariables();
+                        Thread.currentThread().setContextClassLoader(tccl);
+                    }
+                } else {
+                    try {
+                        // Run the user task
+                        runnable.run();
+                    } finally {
+                        Engine.clearThreadLocalVariables();
+                    }
                 }
             }
 
         };
-
-        // [ifndef gae] instruction
-        return new Thread(r, name);
-        // [ifdef gae] instruction uncomment
-        // return
-        // com.google.appengine.api.ThreadManager.createThreadForCurrentRequest(r);
     }
 
     // [ifndef gwt] method
@@ -894,6 +927,8 @@ public class Engine {
         // [enddef]
 
         // [ifndef android, gae, gwt]
+        getRegisteredClients().add(
+                new org.restlet.engine.connector.SocketClientHelper(null));
         getRegisteredServers().add(
                 new org.restlet.engine.connector.HttpServerHelper(null));
         getRegisteredServers().add(
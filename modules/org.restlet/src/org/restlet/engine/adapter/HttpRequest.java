@@ -29,11 +29,13 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.Message;
 import org.restlet.Request;
+import org.restlet.Response;
 import org.restlet.data.CacheDirective;
 import org.restlet.data.ChallengeResponse;
 import org.restlet.data.ClientInfo;
@@ -67,6 +69,15 @@ import org.restlet.util.Series;
  * @author Jerome Louvel
  */
 public class HttpRequest extends Request {
+    /** The call is being handled by the connector thread. */
+    private static final int STATE_HANDLING = 0;
+
+    /** The call was suspended, waiting for the response to be committed. */
+    private static final int STATE_SUSPENDED = 1;
+
+    /** The response was committed. */
+    private static final int STATE_COMMITTED = 2;
+
     /**
      * Adds a new header to the given request.
      * 
@@ -96,6 +107,9 @@ public class HttpRequest extends Request {
      */
     private volatile boolean accessControlRequestMethodAdded;
 
+    /** The adapter used to commit a suspended call. */
+    private volatile ServerAdapter adapter;
+
     /** Indicates if the cache control data was parsed and added. */
     private volatile boolean cacheDirectivesAdded;
 
@@ -105,6 +119,9 @@ public class HttpRequest extends Request {
     /** Indicates if the conditions were parsed and added. */
     private volatile boolean conditionAdded;
 
+    /** The commit state of the call. */
+    private final AtomicInteger commitState;
+
     /** The context of the HTTP server connector that issued the call. */
     private volatile Context context;
 
@@ -129,6 +146,9 @@ public class HttpRequest extends Request {
     /** Indicates if the referrer was parsed and added. */
     private volatile boolean referrerAdded;
 
+    /** The response to commit when the call is suspended. */
+    private volatile HttpResponse response;
+
     /** Indicates if the security data was parsed and added. */
     private volatile boolean securityAdded;
 
@@ -145,6 +165,7 @@ public class HttpRequest extends Request {
      */
     public HttpRequest(Context context, ServerCall httpCall) {
         this.context = context;
+        this.commitState = new AtomicInteger(STATE_HANDLING);
         this.clientAdded = false;
         this.conditionAdded = false;
         this.cookiesAdded = false;
@@ -208,6 +229,30 @@ public class HttpRequest extends Request {
         return getHttpCall().abort();
     }
 
+    /**
+     * Commits the given response. If the call was previously suspended, the
+     * response is written back to the client using the current thread.
+     * Otherwise, the response will be committed by the connector thread once
+     * the handling returns.
+     * 
+     * @param response
+     *            The response to commit.
+     */
+    @Override
+    public void commit(Response response) {
+        if (this.commitState.compareAndSet(STATE_SUSPENDED, STATE_COMMITTED)) {
+            try {
+                this.adapter.commit(this.response);
+            } catch (Exception e) {
+                this.context.getLogger().log(Level.WARNING,
+                        "Error while committing a suspended HTTP server call",
+                        e);
+            }
+        } else {
+            this.commitState.compareAndSet(STATE_HANDLING, STATE_COMMITTED);
+        }
+    }
+
     @Override
     public void flushBuffers() throws IOException {
         getHttpCall().flushBuffers();
@@ -675,4 +720,25 @@ public class HttpRequest extends Request {
         super.setWarnings(warnings);
         this.warningsAdded = true;
     }
+
+    /**
+     * Tries to suspend the call once the connector thread has finished
+     * handling it, so that the response can be committed later by another
+     * thread. Fails if the underlying HTTP call doesn't support suspension or
+     * if the response was already committed.
+     * 
+     * @param adapter
+     *            The adapter used to commit the response.
+     * @param response
+     *            The response to commit later.
+     * @return True if the call was suspended.
+     */
+    public boolean suspend(ServerAdapter adapter, HttpResponse response) {
+        this.adapter = adapter;
+        this.response = response;
+        return (this.commitState.get() == STATE_HANDLING)
+                && getHttpCall().suspend()
+                && this.commitState.compareAndSet(STATE_HANDLING,
+                        STATE_SUSPENDED);
+    }
 }
@@ -131,7 +131,10 @@ public class HttpServerHelper extends ServerHelper {
 
     /**
      * Handles the connector call. The default behavior is to create an REST
-     * call and delegate it to the attached Restlet.
+     * call and delegate it to the attached Restlet. When the response isn't
+     * automatically committed and the call can be suspended, the response will
+     * be committed later on when {@link org.restlet.Response#commit()} is
+     * invoked.
      * 
      * @param httpCall
      *            The HTTP server call.
@@ -141,7 +144,11 @@ public class HttpServerHelper extends ServerHelper {
             HttpRequest request = getAdapter().toRequest(httpCall);
             HttpResponse response = new HttpResponse(httpCall, request);
             handle(request, response);
-            getAdapter().commit(response);
+
+            if (response.isAutoCommitting()
+                    || !request.suspend(getAdapter(), response)) {
+                getAdapter().commit(response);
+            }
         } catch (Exception e) {
             getLogger().log(Level.WARNING,
                     "Error while handling an HTTP server call", e);
@@ -537,6 +537,18 @@ public abstract class ServerCall extends Call {
                 && !response.getEntity().hasKnownSize();
     }
 
+    /**
+     * Suspends the call so that the connector thread can be released until the
+     * response is committed, typically by another thread. When the response is
+     * later committed, the {@link #complete()} method is invoked. By default,
+     * suspension isn't supported and false is returned.
+     *
+     * @return True if the call was suspended.
+     */
+    public boolean suspend() {
+        return false;
+    }
+
     /**
      * Attempts to write the response body. By default, it attempts to use the
      * {@link #getResponseEntityStream()} to synchronously write the entity
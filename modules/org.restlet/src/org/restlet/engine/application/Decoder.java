@@ -29,6 +29,7 @@ import java.util.Iterator;
 import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.Uniform;
 import org.restlet.data.Encoding;
 import org.restlet.representation.Representation;
 import org.restlet.routing.Filter;
@@ -101,7 +102,9 @@ public class Decoder extends Filter {
 
     /**
      * Allows filtering before its handling by the target Restlet. Does nothing
-     * by default.
+     * by default. For asynchronous calls, the response entity is only received
+     * after the {@link #afterHandle(Request, Response)} method is invoked, so
+     * the response callback is wrapped to decode it first.
      * 
      * @param request
      *            The request to filter.
@@ -116,6 +119,16 @@ public class Decoder extends Filter {
             request.setEntity(decode(request.getEntity()));
         }
 
+        if (isDecodingResponse() && request.isAsynchronous()) {
+            final Uniform onResponse = request.getOnResponse();
+            request.setOnResponse(new Uniform() {
+                public void handle(Request request, Response response) {
+                    afterHandle(request, response);
+                    onResponse.handle(request, response);
+                }
+            });
+        }
+
         return CONTINUE;
     }
 
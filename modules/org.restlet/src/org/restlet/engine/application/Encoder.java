@@ -24,8 +24,14 @@
 
 package org.restlet.engine.application;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.Request;
@@ -33,7 +39,11 @@ import org.restlet.Response;
 import org.restlet.data.ClientInfo;
 import org.restlet.data.Encoding;
 import org.restlet.data.Preference;
+import org.restlet.data.Reference;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
+import org.restlet.resource.ResourceException;
 import org.restlet.routing.Filter;
 import org.restlet.service.EncoderService;
 
@@ -44,7 +54,11 @@ import org.restlet.service.EncoderService;
  * GZip, Zip and Deflate.<br>
  * If the {@link org.restlet.representation.Representation} has an unknown size,
  * it will always be a candidate for encoding. Candidate representations need to
- * respect media type criteria by the lists of accepted and ignored media types.
+ * respect media type criteria by the lists of accepted and ignored media types.<br>
+ * <br>
+ * Depending on the {@link EncoderService} settings, pre-compressed sibling
+ * files can be served instead of file entities, and encoded response entities
+ * with a strong tag can be cached in memory.
  * 
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
@@ -56,6 +70,9 @@ import org.restlet.service.EncoderService;
  */
 public class Encoder extends Filter {
 
+    /** The cache of encoded response entities. */
+    private final EncodingCache cache;
+
     /** Indicates if the request entity should be encoded. */
     private final boolean encodingRequest;
 
@@ -83,6 +100,9 @@ public class Encoder extends Filter {
         this.encodingRequest = encodingRequest;
         this.encodingResponse = encodingResponse;
         this.encoderService = encoderService;
+        this.cache = (encodingResponse && (encoderService != null) && (encoderService
+                .getCacheSize() > 0)) ? new EncodingCache(
+                encoderService.getCacheSize()) : null;
     }
 
     /**
@@ -100,7 +120,7 @@ public class Encoder extends Filter {
         if (isEncodingResponse()
                 && getEncoderService().canEncode(response.getEntity())) {
             response.setEntity(encode(request.getClientInfo(),
-                    response.getEntity()));
+                    response.getEntity(), request.getResourceRef()));
         }
     }
 
@@ -126,6 +146,29 @@ public class Encoder extends Filter {
         return CONTINUE;
     }
 
+    /**
+     * Copies the metadata of a representation to its encoded version.
+     * 
+     * @param source
+     *            The original representation.
+     * @param target
+     *            The encoded representation.
+     * @param encoding
+     *            The encoding applied.
+     */
+    private void copyMetadata(Representation source, Representation target,
+            Encoding encoding) {
+        target.setCharacterSet(source.getCharacterSet());
+        target.setDisposition(source.getDisposition());
+        target.setExpirationDate(source.getExpirationDate());
+        target.getLanguages().addAll(source.getLanguages());
+        target.setLocationRef(source.getLocationRef());
+        target.setMediaType(source.getMediaType());
+        target.setModificationDate(source.getModificationDate());
+        target.setTag(source.getTag());
+        target.getEncodings().add(encoding);
+    }
+
     /**
      * Encodes a given representation if an encoding is supported by the client.
      * 
@@ -138,11 +181,49 @@ public class Encoder extends Filter {
      */
     public Representation encode(ClientInfo client,
             Representation representation) {
+        return encode(client, representation, null);
+    }
+
+    /**
+     * Encodes a given representation if an encoding is supported by the client.
+     * Pre-compressed sibling files are served for file entities and cached
+     * encoded entities are reused if enabled by the encoder service.
+     * 
+     * @param client
+     *            The client preferences to use.
+     * @param representation
+     *            The representation to encode.
+     * @param resourceRef
+     *            The reference of the identified resource, used to cache the
+     *            encoded entity or null.
+     * @return The encoded representation or the original one if no encoding
+     *         supported by the client.
+     */
+    public Representation encode(ClientInfo client,
+            Representation representation, Reference resourceRef) {
         Representation result = representation;
-        Encoding bestEncoding = getBestEncoding(client);
 
-        if (bestEncoding != null) {
-            result = new EncodeRepresentation(bestEncoding, representation);
+        if ((getEncoderService() != null)
+                && getEncoderService().isPrecompressed()
+                && (representation instanceof FileRepresentation)
+                && (representation.getRange() == null)) {
+            result = getPrecompressed(client,
+                    (FileRepresentation) representation);
+        }
+
+        if (result == representation) {
+            Encoding bestEncoding = getBestEncoding(client);
+
+            if (bestEncoding != null) {
+                if (isCacheable(representation, resourceRef)
+                        && !Encoding.IDENTITY.equals(bestEncoding)) {
+                    result = getCached(bestEncoding, representation,
+                            resourceRef);
+                } else {
+                    result = new EncodeRepresentation(bestEncoding,
+                            representation);
+                }
+            }
         }
 
         return result;
@@ -156,13 +237,26 @@ public class Encoder extends Filter {
      * @return The best supported encoding for the given call.
      */
     public Encoding getBestEncoding(ClientInfo client) {
+        return getBestEncoding(client, getSupportedEncodings());
+    }
+
+    /**
+     * Returns the best encoding for a given client among the given ones.
+     * 
+     * @param client
+     *            The client preferences to use.
+     * @param encodings
+     *            The available encodings.
+     * @return The best encoding for the given call or null.
+     */
+    protected Encoding getBestEncoding(ClientInfo client,
+            List<Encoding> encodings) {
         Encoding bestEncoding = null;
         Encoding currentEncoding = null;
         Preference<Encoding> currentPref = null;
         float bestScore = 0F;
 
-        for (Iterator<Encoding> iter = getSupportedEncodings().iterator(); iter
-                .hasNext();) {
+        for (Iterator<Encoding> iter = encodings.iterator(); iter.hasNext();) {
             currentEncoding = iter.next();
 
             for (Iterator<Preference<Encoding>> iter2 = client
@@ -183,6 +277,58 @@ public class Encoder extends Filter {
         return bestEncoding;
     }
 
+    /**
+     * Returns the encoded entity from the cache, encoding and caching it first
+     * if needed. The original entity is released once replaced. If the
+     * encoding fails, the entity is encoded on the fly instead, unless it is
+     * transient and was thus partly consumed.
+     * 
+     * @param encoding
+     *            The encoding to apply.
+     * @param representation
+     *            The representation to encode.
+     * @param resourceRef
+     *            The reference of the identified resource.
+     * @return The encoded representation.
+     * @throws ResourceException
+     *             If a transient entity couldn't be encoded.
+     */
+    private Representation getCached(Encoding encoding,
+            Representation representation, Reference resourceRef) {
+        String key = resourceRef.getTargetRef().toString(true, false) + ' '
+                + representation.getTag().format() + ' ' + encoding.getName();
+        byte[] entity = this.cache.get(key);
+
+        if (entity == null) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(
+                    (int) Math.min(representation.getSize(), 8192));
+
+            try {
+                new EncodeRepresentation(encoding, representation).write(baos);
+            } catch (IOException e) {
+                if (representation.isTransient()) {
+                    // The entity was partly consumed and can't be read again
+                    throw new ResourceException(e);
+                }
+
+                getLogger().log(Level.WARNING,
+                        "Unable to encode the entity to cache", e);
+                return new EncodeRepresentation(encoding, representation);
+            }
+
+            entity = baos.toByteArray();
+            this.cache.put(key, entity);
+        }
+
+        Representation result = new ByteArrayRepresentation(entity,
+                representation.getMediaType(), entity.length);
+        copyMetadata(representation, result, encoding);
+
+        // The original entity is replaced by the cached bytes
+        representation.release();
+        return result;
+    }
+
     /**
      * Returns the parent encoder service.
      * 
@@ -192,6 +338,73 @@ public class Encoder extends Filter {
         return encoderService;
     }
 
+    /**
+     * Returns a representation of the pre-compressed sibling file, based on
+     * the client preferences.
+     * 
+     * @param client
+     *            The client preferences to use.
+     * @param representation
+     *            The file representation.
+     * @return The pre-compressed representation or the original one if no
+     *         suitable sibling file was found.
+     */
+    private Representation getPrecompressed(ClientInfo client,
+            FileRepresentation representation) {
+        Representation result = representation;
+        File file = representation.getFile();
+
+        if (file != null) {
+            List<Encoding> encodings = new ArrayList<Encoding>();
+
+            for (Encoding encoding : getPrecompressedEncodings()) {
+                File sibling = getPrecompressedFile(file, encoding);
+
+                if (sibling.isFile()
+                        && (sibling.lastModified() >= file.lastModified())) {
+                    encodings.add(encoding);
+                }
+            }
+
+            Encoding bestEncoding = encodings.isEmpty() ? null
+                    : getBestEncoding(client, encodings);
+
+            if (bestEncoding != null) {
+                result = new FileRepresentation(getPrecompressedFile(file,
+                        bestEncoding), representation.getMediaType());
+                copyMetadata(representation, result, bestEncoding);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the encodings of the pre-compressed files that can be served,
+     * in order of preference. By default, it returns Brotli then GZip.
+     * 
+     * @return The encodings of the pre-compressed files.
+     */
+    public List<Encoding> getPrecompressedEncodings() {
+        return Arrays.asList(Encoding.BROTLI, Encoding.GZIP);
+    }
+
+    /**
+     * Returns the pre-compressed sibling of a file for a given encoding. By
+     * default, the ".br" extension is appended for Brotli and ".gz" for other
+     * encodings.
+     * 
+     * @param file
+     *            The original file.
+     * @param encoding
+     *            The encoding.
+     * @return The pre-compressed sibling file.
+     */
+    protected File getPrecompressedFile(File file, Encoding encoding) {
+        String extension = Encoding.BROTLI.equals(encoding) ? ".br" : ".gz";
+        return new File(file.getParentFile(), file.getName() + extension);
+    }
+
     /**
      * Returns the list of supported encodings. By default it calls
      * {@link EncodeRepresentation#getSupportedEncodings()} static method.
@@ -202,6 +415,27 @@ public class Encoder extends Filter {
         return EncodeRepresentation.getSupportedEncodings();
     }
 
+    /**
+     * Indicates if the encoded version of a response entity can be cached. The
+     * entity must have a strong tag, a known size and no range.
+     * 
+     * @param representation
+     *            The representation to encode.
+     * @param resourceRef
+     *            The reference of the identified resource.
+     * @return True if the encoded version of the response entity can be
+     *         cached.
+     */
+    private boolean isCacheable(Representation representation,
+            Reference resourceRef) {
+        return (this.cache != null) && (resourceRef != null)
+                && (representation.getTag() != null)
+                && !representation.getTag().isWeak()
+                && (representation.getRange() == null)
+                && (representation.getSize() != Representation.UNKNOWN_SIZE)
+                && (representation.getSize() <= this.cache.getCapacity());
+    }
+
     /**
      * Indicates if the request entity should be encoded.
      * 
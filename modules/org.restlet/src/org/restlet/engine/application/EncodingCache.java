@@ -0,0 +1,129 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.application;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// [excludes gwt]
+/**
+ * Bounded cache of encoded entities. The least recently used entries are
+ * evicted when the total size of the cached entities exceeds the capacity.
+ * 
+ * Concurrency note: instances of this class are thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class EncodingCache {
+
+    /** The maximum total size of the cached entities, in bytes. */
+    private final long capacity;
+
+    /** The cached entities, in access order. */
+    private final LinkedHashMap<String, byte[]> entries;
+
+    /** The current total size of the cached entities, in bytes. */
+    private long size;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The maximum total size of the cached entities, in bytes.
+     */
+    public EncodingCache(long capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+        this.size = 0;
+    }
+
+    /**
+     * Removes all the cached entities.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the cached entity associated to the given key.
+     * 
+     * @param key
+     *            The cache key.
+     * @return The cached entity or null.
+     */
+    public synchronized byte[] get(String key) {
+        return this.entries.get(key);
+    }
+
+    /**
+     * Returns the maximum total size of the cached entities, in bytes.
+     * 
+     * @return The maximum total size of the cached entities, in bytes.
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the current total size of the cached entities, in bytes.
+     * 
+     * @return The current total size of the cached entities, in bytes.
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Caches an encoded entity, evicting the least recently used entries if
+     * necessary. Entities larger than the capacity are ignored.
+     * 
+     * @param key
+     *            The cache key.
+     * @param entity
+     *            The encoded entity.
+     */
+    public synchronized void put(String key, byte[] entity) {
+        if (entity.length <= this.capacity) {
+            byte[] previous = this.entries.put(key, entity);
+
+            if (previous != null) {
+                this.size -= previous.length;
+            }
+
+            this.size += entity.length;
+
+            for (Iterator<Map.Entry<String, byte[]>> iter = this.entries
+                    .entrySet().iterator(); (this.size > this.capacity)
+                    && iter.hasNext();) {
+                this.size -= iter.next().getValue().length;
+                iter.remove();
+            }
+        }
+    }
+
+}
@@ -24,22 +24,29 @@
 
 package org.restlet.engine.application;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 
 import org.restlet.data.Range;
 import org.restlet.engine.io.IoUtils;
 import org.restlet.engine.io.RangeInputStream;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.util.WrapperRepresentation;
 
 // [excludes gwt]
 /**
  * Representation that exposes only a range of the content of a wrapped
- * representation.
+ * representation. When the wrapped representation is a
+ * {@link FileRepresentation} of known size, the range is directly read from
+ * the file at its start index instead of skipping the preceding bytes, and
+ * written to byte channels using a file transfer.
  * 
  * @author Jerome Louvel
  */
@@ -87,6 +94,24 @@ public class RangeRepresentation extends WrapperRepresentation {
         return IoUtils.getChannel(getStream());
     }
 
+    /**
+     * Returns the wrapped file representation if the range can be directly
+     * read from the file.
+     * 
+     * @return The wrapped file representation or null.
+     */
+    public FileRepresentation getFileRepresentation() {
+        FileRepresentation result = null;
+
+        if ((getRange() != null)
+                && (getWrappedRepresentation() instanceof FileRepresentation)
+                && hasKnownSize()) {
+            result = (FileRepresentation) getWrappedRepresentation();
+        }
+
+        return result;
+    }
+
     /**
      * Returns the range specific to this wrapper. The wrapped representation
      * must not have a range set itself.
@@ -103,8 +128,46 @@ public class RangeRepresentation extends WrapperRepresentation {
         return IoUtils.getReader(getStream(), getCharacterSet());
     }
 
+    /**
+     * Returns the index of the first byte of the range inside the content of
+     * the wrapped representation. Requires a known size when the range is
+     * relative to the end of the content.
+     * 
+     * @return The index of the first byte of the range.
+     */
+    public long getStartIndex() {
+        long result = 0;
+
+        if (getRange() != null) {
+            if (getRange().getIndex() != Range.INDEX_LAST) {
+                result = getRange().getIndex();
+            } else if (getRange().getSize() != Range.SIZE_MAX) {
+                result = Math.max(0, getSize() - getRange().getSize());
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public InputStream getStream() throws IOException {
+        FileRepresentation fileRepresentation = getFileRepresentation();
+
+        if (fileRepresentation != null) {
+            // Directly seek to the start index
+            FileInputStream fis = fileRepresentation.getStream();
+
+            try {
+                fis.getChannel().position(getStartIndex());
+            } catch (IOException e) {
+                fis.close();
+                throw e;
+            }
+
+            long count = getAvailableSize();
+            return new RangeInputStream(fis, count, new Range(0, count));
+        }
+
         return new RangeInputStream(super.getStream(), getSize(), getRange());
     }
 
@@ -135,14 +198,37 @@ public class RangeRepresentation extends WrapperRepresentation {
 
     @Override
     public void write(OutputStream outputStream) throws IOException {
-        IoUtils.copy(getStream(), outputStream);
+        if (getFileRepresentation() != null) {
+            write(Channels.newChannel(outputStream));
+            outputStream.flush();
+        } else {
+            IoUtils.copy(getStream(), outputStream);
+        }
     }
 
     @Override
     public void write(WritableByteChannel writableChannel) throws IOException {
-        OutputStream os = IoUtils.getStream(writableChannel);
-        write(os);
-        os.flush();
+        FileRepresentation fileRepresentation = getFileRepresentation();
+
+        if ((fileRepresentation != null) && IoUtils.isBlocking(writableChannel)) {
+            FileChannel fileChannel = fileRepresentation.getChannel();
+
+            try {
+                if (fileRepresentation.isMapped()) {
+                    IoUtils.copyMapped(fileChannel, getStartIndex(),
+                            getAvailableSize(), writableChannel);
+                } else {
+                    IoUtils.copy(fileChannel, getStartIndex(),
+                            getAvailableSize(), writableChannel);
+                }
+            } finally {
+                fileChannel.close();
+            }
+        } else {
+            OutputStream os = IoUtils.getStream(writableChannel);
+            write(os);
+            os.flush();
+        }
     }
 
 }
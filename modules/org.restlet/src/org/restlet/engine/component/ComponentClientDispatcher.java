@@ -26,6 +26,7 @@ package org.restlet.engine.component;
 
 import java.util.Iterator;
 
+import org.restlet.Client;
 import org.restlet.Component;
 import org.restlet.Request;
 import org.restlet.Response;
@@ -133,6 +134,35 @@ public class ComponentClientDispatcher extends TemplateDispatcher {
         return result;
     }
 
+    /**
+     * Returns the client connector of the component that will handle the given
+     * request, unless it is an internal call. The first client connector
+     * supporting the request's protocol is returned, as selected by the
+     * component's client router.
+     * 
+     * @param request
+     *            The request to handle.
+     * @return The client connector that will handle the request or null.
+     */
+    @Override
+    public Client getClient(Request request) {
+        Client result = null;
+        Component component = getComponent();
+
+        if (!Protocol.RIAP.equals(request.getProtocol()) && (component != null)) {
+            for (Iterator<Client> iter = component.getClients().iterator(); (result == null)
+                    && iter.hasNext();) {
+                Client client = iter.next();
+
+                if (client.getProtocols().contains(request.getProtocol())) {
+                    result = client;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the parent component.
      * 
@@ -25,6 +25,8 @@
 package org.restlet.engine.connector;
 
 import org.restlet.Client;
+import org.restlet.Request;
+import org.restlet.Uniform;
 
 /**
  * Client connector helper. Base client helper based on NIO non blocking
@@ -53,4 +55,17 @@ public class ClientHelper extends ConnectorHelper<Client> {
         super(client);
     }
 
+    /**
+     * Indicates if the helper handles the asynchronous calls without blocking
+     * the calling thread, invoking the callback set with
+     * {@link Request#setOnResponse(Uniform)} once the response is received.
+     * Returns false by default.
+     * 
+     * @return True if the helper handles the asynchronous calls without
+     *         blocking.
+     */
+    public boolean isAsynchronous() {
+        return false;
+    }
+
 }
@@ -0,0 +1,503 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.connector;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+import org.restlet.engine.log.LoggingThreadFactory;
+
+/**
+ * Pool of persistent connections to remote hosts. The number of connections
+ * used concurrently is limited per host and for all hosts, requests waiting
+ * for a connection when a limit is reached. Released connections are kept
+ * idle for reuse by later requests to the same host, the most recently used
+ * ones first, until they exceed the idle timeout and get evicted by a
+ * background task.
+ * 
+ * @author Jerome Louvel
+ */
+public class ConnectionPool implements ConnectionPoolMBean {
+
+    /** The number of connections closed. */
+    private final AtomicLong closedCount;
+
+    /** The number of connections created. */
+    private final AtomicLong createdCount;
+
+    /** The background task evicting the stale idle connections. */
+    private volatile ScheduledFuture<?> eviction;
+
+    /**
+     * The executor created to run the eviction task when the context of the
+     * helper doesn't provide one.
+     */
+    private volatile ScheduledExecutorService evictor;
+
+    /** The parent helper creating the sockets. */
+    private final SocketClientHelper helper;
+
+    /** The permits of connections per host. */
+    private final ConcurrentMap<String, Semaphore> hostPermits;
+
+    /** The idle connections per host, the most recently used first. */
+    private final ConcurrentMap<String, Deque<PooledConnection>> idleConnections;
+
+    /** The idle timeout in milliseconds. */
+    private final long idleTimeout;
+
+    /** The number of leased connections. */
+    private final AtomicInteger leasedCount;
+
+    /** The maximum number of connections per host. */
+    private final int maxConnectionsPerHost;
+
+    /** The maximum number of connections for all hosts. */
+    private final int maxTotalConnections;
+
+    /** The number of requests waiting for a connection. */
+    private final AtomicInteger pendingCount;
+
+    /** The number of times an idle connection was reused. */
+    private final AtomicLong reusedCount;
+
+    /** The permits of connections for all hosts. */
+    private final Semaphore totalPermits;
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The parent helper creating the sockets.
+     * @param maxConnectionsPerHost
+     *            The maximum number of connections per host.
+     * @param maxTotalConnections
+     *            The maximum number of connections for all hosts.
+     * @param idleTimeout
+     *            The idle timeout in milliseconds or 0 to keep idle
+     *            connections until they are closed by the server.
+     */
+    public ConnectionPool(SocketClientHelper helper, int maxConnectionsPerHost,
+            int maxTotalConnections, long idleTimeout) {
+        this.helper = helper;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.maxTotalConnections = maxTotalConnections;
+        this.idleTimeout = idleTimeout;
+        this.closedCount = new AtomicLong();
+        this.createdCount = new AtomicLong();
+        this.reusedCount = new AtomicLong();
+        this.leasedCount = new AtomicInteger();
+        this.pendingCount = new AtomicInteger();
+        this.hostPermits = new ConcurrentHashMap<String, Semaphore>();
+        this.idleConnections = new ConcurrentHashMap<String, Deque<PooledConnection>>();
+        this.totalPermits = new Semaphore(maxTotalConnections, true);
+    }
+
+    /**
+     * Acquires a connection to the given host, reusing an idle one if
+     * possible. Waits for a connection to be released if the limits are
+     * reached.
+     * 
+     * @param scheme
+     *            The URI scheme, "http" or "https".
+     * @param host
+     *            The host name.
+     * @param port
+     *            The port number.
+     * @return The connection leased to the caller.
+     * @throws IOException
+     */
+    public PooledConnection acquire(String scheme, String host, int port)
+            throws IOException {
+        String key = scheme + "://" + host + ":" + port;
+        Semaphore permits = getHostPermits(key);
+        long timeout = getHelper().getSocketConnectTimeoutMs();
+
+        this.pendingCount.incrementAndGet();
+
+        try {
+            if (!tryAcquire(permits, timeout)) {
+                throw new ConnectException(
+                        "No connection available in the pool for " + key);
+            }
+
+            if (!tryAcquire(this.totalPermits, timeout)) {
+                permits.release();
+                throw new ConnectException(
+                        "No connection available in the pool for " + key);
+            }
+        } finally {
+            this.pendingCount.decrementAndGet();
+        }
+
+        PooledConnection result = null;
+
+        try {
+            result = pollIdle(key);
+
+            if (result == null) {
+                if (getLeasedCount() + getIdleCount() >= getMaxTotalConnections()) {
+                    // Make room by closing the oldest idle connection
+                    closeOldestIdleConnection();
+                }
+
+                result = new PooledConnection(key, getHelper().createSocket(
+                        scheme, host, port));
+                this.createdCount.incrementAndGet();
+            } else {
+                this.reusedCount.incrementAndGet();
+            }
+
+            result.lease();
+            this.leasedCount.incrementAndGet();
+        } catch (IOException ioe) {
+            permits.release();
+            this.totalPermits.release();
+            throw ioe;
+        } catch (RuntimeException re) {
+            permits.release();
+            this.totalPermits.release();
+            throw re;
+        }
+
+        return result;
+    }
+
+    /**
+     * Closes the given connection.
+     * 
+     * @param connection
+     *            The connection to close.
+     */
+    private void close(PooledConnection connection) {
+        connection.close();
+        this.closedCount.incrementAndGet();
+    }
+
+    @Override
+    public void closeIdleConnections() {
+        for (Deque<PooledConnection> idle : this.idleConnections.values()) {
+            PooledConnection connection = idle.pollFirst();
+
+            while (connection != null) {
+                close(connection);
+                connection = idle.pollFirst();
+            }
+        }
+    }
+
+    /**
+     * Closes the least recently used idle connection, whatever its host.
+     */
+    private void closeOldestIdleConnection() {
+        Deque<PooledConnection> oldest = null;
+        long oldestTime = Long.MAX_VALUE;
+
+        for (Deque<PooledConnection> idle : this.idleConnections.values()) {
+            PooledConnection connection = idle.peekLast();
+
+            if ((connection != null) && (connection.getLastUsed() < oldestTime)) {
+                oldest = idle;
+                oldestTime = connection.getLastUsed();
+            }
+        }
+
+        if (oldest != null) {
+            PooledConnection connection = oldest.pollLast();
+
+            if (connection != null) {
+                close(connection);
+            }
+        }
+    }
+
+    /**
+     * Closes the idle connections that are stale.
+     */
+    public void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+
+        for (Deque<PooledConnection> idle : this.idleConnections.values()) {
+            for (Iterator<PooledConnection> iter = idle.iterator(); iter
+                    .hasNext();) {
+                PooledConnection connection = iter.next();
+
+                if (connection.isStale(getIdleTimeout(), now)
+                        && idle.remove(connection)) {
+                    close(connection);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getClosedCount() {
+        return this.closedCount.get();
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return this.createdCount.get();
+    }
+
+    /**
+     * Returns the parent helper creating the sockets.
+     * 
+     * @return The parent helper creating the sockets.
+     */
+    public SocketClientHelper getHelper() {
+        return this.helper;
+    }
+
+    /**
+     * Returns the permits of connections for the given host, creating them if
+     * necessary.
+     * 
+     * @param key
+     *            The pool key identifying the host.
+     * @return The permits of connections for the given host.
+     */
+    private Semaphore getHostPermits(String key) {
+        Semaphore result = this.hostPermits.get(key);
+
+        if (result == null) {
+            result = new Semaphore(getMaxConnectionsPerHost(), true);
+            Semaphore existing = this.hostPermits.putIfAbsent(key, result);
+
+            if (existing != null) {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public int getIdleCount() {
+        int result = 0;
+
+        for (Deque<PooledConnection> idle : this.idleConnections.values()) {
+            result += idle.size();
+        }
+
+        return result;
+    }
+
+    @Override
+    public long getIdleTimeout() {
+        return this.idleTimeout;
+    }
+
+    @Override
+    public int getLeasedCount() {
+        return this.leasedCount.get();
+    }
+
+    @Override
+    public int getMaxConnectionsPerHost() {
+        return this.maxConnectionsPerHost;
+    }
+
+    @Override
+    public int getMaxTotalConnections() {
+        return this.maxTotalConnections;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return this.pendingCount.get();
+    }
+
+    @Override
+    public long getReusedCount() {
+        return this.reusedCount.get();
+    }
+
+    /**
+     * Indicates if the pool is started.
+     * 
+     * @return True if the pool is started.
+     */
+    public boolean isStarted() {
+        return this.eviction != null;
+    }
+
+    /**
+     * Returns the most recently used idle connection for the given host that
+     * isn't stale, closing the stale ones found.
+     * 
+     * @param key
+     *            The pool key identifying the host.
+     * @return An idle connection or null.
+     */
+    private PooledConnection pollIdle(String key) {
+        PooledConnection result = null;
+        Deque<PooledConnection> idle = this.idleConnections.get(key);
+
+        if (idle != null) {
+            long now = System.currentTimeMillis();
+            result = idle.pollFirst();
+
+            while ((result != null) && result.isStale(getIdleTimeout(), now)) {
+                close(result);
+                result = idle.pollFirst();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Releases a connection leased by {@link #acquire(String, String, int)}.
+     * 
+     * @param connection
+     *            The connection to release.
+     * @param reusable
+     *            True if the connection can be reused by a later request.
+     */
+    public void release(PooledConnection connection, boolean reusable) {
+        this.leasedCount.decrementAndGet();
+
+        if (reusable && isStarted()
+                && !connection.isStale(0, System.currentTimeMillis())) {
+            connection.touch();
+            Deque<PooledConnection> idle = this.idleConnections.get(connection
+                    .getKey());
+
+            if (idle == null) {
+                idle = new ConcurrentLinkedDeque<PooledConnection>();
+                Deque<PooledConnection> existing = this.idleConnections
+                        .putIfAbsent(connection.getKey(), idle);
+
+                if (existing != null) {
+                    idle = existing;
+                }
+            }
+
+            idle.offerFirst(connection);
+        } else {
+            close(connection);
+        }
+
+        getHostPermits(connection.getKey()).release();
+        this.totalPermits.release();
+    }
+
+    /**
+     * Starts the pool and the background eviction of stale idle connections.
+     * The eviction task runs on the executor service of the helper's context,
+     * typically the parent application's
+     * {@link org.restlet.service.TaskService}, or on a dedicated daemon thread
+     * otherwise.
+     */
+    public synchronized void start() {
+        if (this.eviction == null) {
+            Context context = getHelper().getContext();
+            ScheduledExecutorService executor = (context == null) ? null
+                    : context.getExecutorService();
+
+            if (executor == null) {
+                this.evictor = Executors
+                        .newSingleThreadScheduledExecutor(new LoggingThreadFactory(
+                                getHelper().getLogger(), true));
+                executor = this.evictor;
+            }
+
+            long period = (getIdleTimeout() > 0) ? Math.max(
+                    getIdleTimeout() / 2, 1000) : 30000;
+            this.eviction = executor.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    try {
+                        evictIdleConnections();
+                    } catch (Throwable t) {
+                        getHelper().getLogger().log(Level.WARNING,
+                                "Unable to evict the idle connections", t);
+                    }
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the pool and closes the idle connections. Leased connections are
+     * closed when released.
+     */
+    public synchronized void stop() {
+        if (this.eviction != null) {
+            this.eviction.cancel(false);
+            this.eviction = null;
+        }
+
+        if (this.evictor != null) {
+            this.evictor.shutdownNow();
+            this.evictor = null;
+        }
+
+        closeIdleConnections();
+    }
+
+    /**
+     * Acquires a permit, waiting at most the given timeout.
+     * 
+     * @param permits
+     *            The permits to acquire from.
+     * @param timeout
+     *            The timeout in milliseconds or 0 to wait indefinitely.
+     * @return True if the permit was acquired.
+     * @throws IOException
+     */
+    private boolean tryAcquire(Semaphore permits, long timeout)
+            throws IOException {
+        try {
+            if (timeout > 0) {
+                return permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+            }
+
+            permits.acquire();
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interrupted while waiting for a connection");
+        }
+    }
+
+}
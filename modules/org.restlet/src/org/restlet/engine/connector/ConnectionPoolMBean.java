@@ -0,0 +1,105 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.connector;
+
+/**
+ * Management interface of a {@link ConnectionPool}, allowing its state to be
+ * monitored via JMX.
+ * 
+ * @author Jerome Louvel
+ */
+public interface ConnectionPoolMBean {
+
+    /**
+     * Closes all the idle connections.
+     */
+    void closeIdleConnections();
+
+    /**
+     * Returns the number of connections closed since the pool was created.
+     * 
+     * @return The number of connections closed.
+     */
+    long getClosedCount();
+
+    /**
+     * Returns the number of connections created since the pool was created.
+     * 
+     * @return The number of connections created.
+     */
+    long getCreatedCount();
+
+    /**
+     * Returns the number of idle connections for all hosts.
+     * 
+     * @return The number of idle connections.
+     */
+    int getIdleCount();
+
+    /**
+     * Returns the idle timeout in milliseconds.
+     * 
+     * @return The idle timeout in milliseconds.
+     */
+    long getIdleTimeout();
+
+    /**
+     * Returns the number of connections currently used by requests for all
+     * hosts.
+     * 
+     * @return The number of leased connections.
+     */
+    int getLeasedCount();
+
+    /**
+     * Returns the maximum number of connections per host.
+     * 
+     * @return The maximum number of connections per host.
+     */
+    int getMaxConnectionsPerHost();
+
+    /**
+     * Returns the maximum number of connections for all hosts.
+     * 
+     * @return The maximum number of connections for all hosts.
+     */
+    int getMaxTotalConnections();
+
+    /**
+     * Returns the number of requests waiting for a connection.
+     * 
+     * @return The number of requests waiting for a connection.
+     */
+    int getPendingCount();
+
+    /**
+     * Returns the number of times an idle connection was reused.
+     * 
+     * @return The number of times an idle connection was reused.
+     */
+    long getReusedCount();
+
+}
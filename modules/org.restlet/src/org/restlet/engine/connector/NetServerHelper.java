@@ -27,15 +27,18 @@ package org.restlet.engine.connector;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.restlet.Server;
 import org.restlet.engine.adapter.HttpServerHelper;
 import org.restlet.engine.log.LoggingThreadFactory;
+import org.restlet.engine.util.ThreadUtils;
 
 /**
  * Abstract Internal web server connector based on com.sun.net.httpserver
@@ -82,6 +85,15 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * <td>300 000</td>
  * <td>Time for an idle thread to wait for an operation before being collected.</td>
  * </tr>
+ * <tr>
+ * <td>virtualThreads</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if each call is serviced by a new virtual thread instead of a
+ * pool of worker threads, when the JVM supports virtual threads (Java 21 and
+ * later). This suits resources blocking on I/O, such as calls to remote
+ * resources. The other thread parameters are then ignored.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
@@ -107,6 +119,33 @@ public abstract class NetServerHelper extends HttpServerHelper {
         super(server);
     }
 
+    /**
+     * Creates the executor servicing the calls. Returns a new virtual thread
+     * per task executor if the "virtualThreads" parameter is enabled and
+     * supported by the JVM, or the result of {@link #createThreadPool()}
+     * otherwise.
+     * 
+     * @return The executor servicing the calls.
+     */
+    protected ExecutorService createExecutorService() {
+        if (isVirtualThreads()) {
+            ThreadFactory threadFactory = ThreadUtils
+                    .newVirtualThreadFactory(ThreadUtils.VIRTUAL_THREAD_NAME_PREFIX);
+            ExecutorService result = (threadFactory == null) ? null
+                    : ThreadUtils.newThreadPerTaskExecutor(threadFactory);
+
+            if (result != null) {
+                return result;
+            }
+
+            getLogger()
+                    .warning(
+                            "Virtual threads aren't supported by this JVM. Using a pool of worker threads instead.");
+        }
+
+        return createThreadPool();
+    }
+
     /**
      * Creates the handler service.
      * 
@@ -211,6 +250,17 @@ public abstract class NetServerHelper extends HttpServerHelper {
         return this.confidential;
     }
 
+    /**
+     * Indicates if each call is serviced by a new virtual thread when the JVM
+     * supports virtual threads (Java 21 and later).
+     * 
+     * @return True if each call is serviced by a new virtual thread.
+     */
+    public boolean isVirtualThreads() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "virtualThreads", "false"));
+    }
+
     /**
      * Sets the socket address this server is listening to.
      * 
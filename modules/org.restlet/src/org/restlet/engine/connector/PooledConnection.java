@@ -0,0 +1,188 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.connector;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import org.restlet.engine.io.IoUtils;
+
+/**
+ * Persistent socket connection managed by a {@link ConnectionPool}.
+ * 
+ * @author Jerome Louvel
+ */
+public class PooledConnection {
+
+    /** The buffered input stream. */
+    private final InputStream inputStream;
+
+    /** The pool key identifying the target host. */
+    private final String key;
+
+    /** The time when the connection was last released to the pool. */
+    private volatile long lastUsed;
+
+    /** The buffered output stream. */
+    private final OutputStream outputStream;
+
+    /** The number of requests sent with this connection. */
+    private volatile int requestCount;
+
+    /** The connected socket. */
+    private final Socket socket;
+
+    /**
+     * Constructor.
+     * 
+     * @param key
+     *            The pool key identifying the target host.
+     * @param socket
+     *            The connected socket.
+     * @throws IOException
+     */
+    public PooledConnection(String key, Socket socket) throws IOException {
+        this.key = key;
+        this.socket = socket;
+        this.inputStream = new BufferedInputStream(socket.getInputStream(),
+                IoUtils.BUFFER_SIZE);
+        this.outputStream = new BufferedOutputStream(socket.getOutputStream(),
+                IoUtils.BUFFER_SIZE);
+        this.lastUsed = System.currentTimeMillis();
+        this.requestCount = 0;
+    }
+
+    /**
+     * Closes the underlying socket, ignoring any error.
+     */
+    public void close() {
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            // Nothing more can be done
+        }
+    }
+
+    /**
+     * Returns the buffered input stream.
+     * 
+     * @return The buffered input stream.
+     */
+    public InputStream getInputStream() {
+        return this.inputStream;
+    }
+
+    /**
+     * Returns the pool key identifying the target host.
+     * 
+     * @return The pool key identifying the target host.
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Returns the time when the connection was last released to the pool.
+     * 
+     * @return The time when the connection was last released to the pool.
+     */
+    public long getLastUsed() {
+        return this.lastUsed;
+    }
+
+    /**
+     * Returns the buffered output stream.
+     * 
+     * @return The buffered output stream.
+     */
+    public OutputStream getOutputStream() {
+        return this.outputStream;
+    }
+
+    /**
+     * Returns the number of requests sent with this connection.
+     * 
+     * @return The number of requests sent with this connection.
+     */
+    public int getRequestCount() {
+        return this.requestCount;
+    }
+
+    /**
+     * Returns the connected socket.
+     * 
+     * @return The connected socket.
+     */
+    public Socket getSocket() {
+        return this.socket;
+    }
+
+    /**
+     * Indicates if the connection was reused, i.e. if requests were already
+     * sent with it.
+     * 
+     * @return True if the connection was reused.
+     */
+    public boolean isReused() {
+        return this.requestCount > 1;
+    }
+
+    /**
+     * Indicates if the connection can't be reused anymore, either because the
+     * socket was closed or because it stayed idle longer than the given
+     * timeout.
+     * 
+     * @param idleTimeout
+     *            The idle timeout in milliseconds.
+     * @param now
+     *            The current time.
+     * @return True if the connection can't be reused anymore.
+     */
+    public boolean isStale(long idleTimeout, long now) {
+        return this.socket.isClosed() || this.socket.isInputShutdown()
+                || this.socket.isOutputShutdown()
+                || ((idleTimeout > 0) && (now - this.lastUsed >= idleTimeout));
+    }
+
+    /**
+     * Marks the beginning of a new request sent with this connection.
+     */
+    void lease() {
+        this.requestCount++;
+    }
+
+    /**
+     * Marks the release of the connection to the pool.
+     */
+    void touch() {
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+}
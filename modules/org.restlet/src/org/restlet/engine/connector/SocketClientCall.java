@@ -0,0 +1,623 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.connector;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Uniform;
+import org.restlet.data.Header;
+import org.restlet.data.Protocol;
+import org.restlet.data.Reference;
+import org.restlet.data.Status;
+import org.restlet.engine.adapter.ClientCall;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.header.HeaderReader;
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.io.ChunkedInputStream;
+import org.restlet.engine.io.ChunkedOutputStream;
+import org.restlet.engine.io.UnclosableOutputStream;
+import org.restlet.engine.util.StringUtils;
+import org.restlet.representation.Representation;
+
+/**
+ * HTTP/1.1 client connector call sending requests over persistent socket
+ * connections leased from the {@link ConnectionPool} of the parent helper. The
+ * connection is released to the pool once the response entity has been fully
+ * consumed, or closed if the response entity was only partially consumed or if
+ * the server doesn't keep the connection alive.
+ * 
+ * @author Jerome Louvel
+ */
+public class SocketClientCall extends ClientCall {
+
+    /**
+     * Response entity stream releasing the connection when the end of the
+     * entity is reached or when it is closed.
+     */
+    private class EntityInputStream extends FilterInputStream {
+
+        /** Indicates if the end of the entity was reached. */
+        private volatile boolean ended;
+
+        /** The remaining number of bytes or -1 if unknown. */
+        private volatile long remaining;
+
+        /**
+         * Constructor.
+         * 
+         * @param source
+         *            The source stream.
+         * @param size
+         *            The size of the entity or -1 if unknown.
+         */
+        public EntityInputStream(InputStream source, long size) {
+            super(source);
+            this.ended = false;
+            this.remaining = size;
+        }
+
+        @Override
+        public int available() throws IOException {
+            int result = 0;
+
+            if (!this.ended) {
+                result = super.available();
+
+                if (this.remaining >= 0) {
+                    result = (int) Math.min(this.remaining, result);
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.ended) {
+                end(isComplete());
+            }
+        }
+
+        /**
+         * Marks the end of the entity and releases the connection.
+         * 
+         * @param complete
+         *            True if the entity was fully consumed.
+         */
+        private void end(boolean complete) {
+            this.ended = true;
+            releaseConnection(complete && isPersistent());
+        }
+
+        /**
+         * Indicates if the entity was fully consumed.
+         * 
+         * @return True if the entity was fully consumed.
+         */
+        private boolean isComplete() {
+            return (this.remaining == 0)
+                    || ((in instanceof ChunkedInputStream) && ((ChunkedInputStream) in)
+                            .isEndReached());
+        }
+
+        /**
+         * Indicates if the connection can be reused once the entity is fully
+         * consumed, i.e. if the end of the entity is delimited.
+         * 
+         * @return True if the connection can be reused.
+         */
+        private boolean isPersistent() {
+            return (this.remaining >= 0) || (in instanceof ChunkedInputStream);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = -1;
+
+            if (!this.ended) {
+                if (this.remaining == 0) {
+                    end(true);
+                } else {
+                    try {
+                        result = super.read();
+                    } catch (IOException ioe) {
+                        end(false);
+                        throw ioe;
+                    }
+
+                    if (result == -1) {
+                        end(this.remaining < 0);
+                    } else if ((this.remaining > 0) && (--this.remaining == 0)) {
+                        end(true);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int result = -1;
+
+            if (!this.ended) {
+                if (this.remaining == 0) {
+                    end(true);
+                } else {
+                    if (this.remaining > 0) {
+                        len = (int) Math.min(len, this.remaining);
+                    }
+
+                    try {
+                        result = super.read(b, off, len);
+                    } catch (IOException ioe) {
+                        end(false);
+                        throw ioe;
+                    }
+
+                    if (result == -1) {
+                        end(this.remaining < 0);
+                    } else if ((this.remaining > 0)
+                            && ((this.remaining -= result) == 0)) {
+                        end(true);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = 0;
+
+            if (!this.ended) {
+                if (this.remaining >= 0) {
+                    n = Math.min(n, this.remaining);
+                }
+
+                result = super.skip(n);
+
+                if ((this.remaining > 0) && ((this.remaining -= result) == 0)) {
+                    end(true);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    /** The connection leased from the pool. */
+    private volatile PooledConnection connection;
+
+    /** Indicates if the connection was released to the pool. */
+    private final AtomicBoolean connectionReleased;
+
+    /** The request entity stream. */
+    private volatile OutputStream requestEntityStream;
+
+    /** The target request URI reference. */
+    private final Reference targetRef;
+
+    /** Indicates if the response head was read. */
+    private volatile boolean responseHeadRead;
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The parent HTTP client helper.
+     * @param method
+     *            The method name.
+     * @param requestUri
+     *            The request URI.
+     */
+    public SocketClientCall(SocketClientHelper helper, String method,
+            String requestUri) {
+        super(helper, method, requestUri);
+        this.targetRef = new Reference(requestUri);
+        this.connectionReleased = new AtomicBoolean(false);
+        this.responseHeadRead = false;
+
+        if (Protocol.HTTPS.getSchemeName().equalsIgnoreCase(
+                this.targetRef.getScheme())) {
+            setProtocol(Protocol.HTTPS);
+            setConfidential(true);
+        } else if (Protocol.HTTP.getSchemeName().equalsIgnoreCase(
+                this.targetRef.getScheme())) {
+            setProtocol(Protocol.HTTP);
+        } else {
+            throw new IllegalArgumentException(
+                    "Only HTTP or HTTPS resource URIs are allowed here");
+        }
+
+        setServerAddress(this.targetRef.getHostDomain());
+        setServerPort((this.targetRef.getHostPort() == -1) ? getProtocol()
+                .getDefaultPort() : this.targetRef.getHostPort());
+    }
+
+    /**
+     * Returns the connection leased from the pool.
+     * 
+     * @return The connection leased from the pool.
+     */
+    public PooledConnection getConnection() {
+        return this.connection;
+    }
+
+    /**
+     * Returns the HTTP client helper.
+     * 
+     * @return The HTTP client helper.
+     */
+    @Override
+    public SocketClientHelper getHelper() {
+        return (SocketClientHelper) super.getHelper();
+    }
+
+    @Override
+    public WritableByteChannel getRequestEntityChannel() {
+        return null;
+    }
+
+    @Override
+    public OutputStream getRequestEntityStream() {
+        if (this.requestEntityStream == null) {
+            if (HeaderUtils.isChunkedEncoding(getRequestHeaders())) {
+                this.requestEntityStream = new ChunkedOutputStream(
+                        getRequestHeadStream(), getHelper().getChunkLength());
+            } else {
+                this.requestEntityStream = new UnclosableOutputStream(
+                        getRequestHeadStream());
+            }
+        }
+
+        return this.requestEntityStream;
+    }
+
+    @Override
+    public OutputStream getRequestHeadStream() {
+        return (getConnection() == null) ? null : getConnection()
+                .getOutputStream();
+    }
+
+    /**
+     * Returns the request target, i.e. the path and query of the request URI.
+     * 
+     * @return The request target.
+     */
+    protected String getRequestTarget() {
+        StringBuilder sb = new StringBuilder();
+        String path = this.targetRef.getPath();
+        sb.append(((path == null) || path.isEmpty()) ? "/" : path);
+
+        if (this.targetRef.getQuery() != null) {
+            sb.append('?').append(this.targetRef.getQuery());
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public Representation getResponseEntity(Response response) {
+        Representation result = super.getResponseEntity(response);
+
+        if ((result == null) || !result.isAvailable()) {
+            // No entity stream will release the connection
+            releaseConnection(true);
+        }
+
+        return result;
+    }
+
+    @Override
+    public ReadableByteChannel getResponseEntityChannel(long size) {
+        return null;
+    }
+
+    @Override
+    public InputStream getResponseEntityStream(long size) {
+        InputStream result = null;
+
+        if (getConnection() != null) {
+            if (HeaderUtils.isChunkedEncoding(getResponseHeaders())) {
+                result = new EntityInputStream(new ChunkedInputStream(
+                        getConnection().getInputStream()), -1);
+            } else {
+                // Without length, the entity is delimited by the closing of
+                // the connection
+                result = new EntityInputStream(getConnection()
+                        .getInputStream(), size);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public int getStatusCode() throws IOException {
+        readResponseHead();
+        return super.getStatusCode();
+    }
+
+    @Override
+    protected boolean isClientKeepAlive() {
+        return !HeaderUtils.isConnectionClose(getRequestHeaders());
+    }
+
+    /**
+     * Reads the status line and the headers of the response, skipping any
+     * interim response.
+     * 
+     * @throws IOException
+     */
+    protected void readResponseHead() throws IOException {
+        if (!this.responseHeadRead) {
+            getRequestHeadStream().flush();
+            InputStream is = getConnection().getInputStream();
+            StringBuilder sb = new StringBuilder();
+
+            do {
+                getResponseHeaders().clear();
+                readStatusLine(is, sb);
+
+                for (Header header = HeaderReader.readHeader(is, sb); header != null; header = HeaderReader
+                        .readHeader(is, sb)) {
+                    getResponseHeaders().add(header);
+                }
+            } while ((super.getStatusCode() >= 100)
+                    && (super.getStatusCode() < 200)
+                    && (super.getStatusCode() != 101));
+
+            this.responseHeadRead = true;
+        }
+    }
+
+    /**
+     * Reads the status line of the response.
+     * 
+     * @param is
+     *            The connection input stream.
+     * @param sb
+     *            The string builder to reuse.
+     * @throws IOException
+     */
+    private void readStatusLine(InputStream is, StringBuilder sb)
+            throws IOException {
+        sb.delete(0, sb.length());
+        int next = is.read();
+
+        if (next == -1) {
+            throw new EOFException(
+                    "The connection was closed by the server before sending a response.");
+        }
+
+        while ((next != -1) && !HeaderUtils.isCarriageReturn(next)) {
+            sb.append((char) next);
+            next = is.read();
+        }
+
+        if ((next == -1) || !HeaderUtils.isLineFeed(is.read())) {
+            throw new IOException(
+                    "Unable to parse the response status line. End of line expected.");
+        }
+
+        int versionEnd = sb.indexOf(" ");
+        int statusEnd = (versionEnd == -1) ? -1 : sb.indexOf(" ",
+                versionEnd + 1);
+
+        if (versionEnd == -1) {
+            throw new IOException("Invalid response status line: " + sb);
+        }
+
+        if (statusEnd == -1) {
+            statusEnd = sb.length();
+        }
+
+        try {
+            setVersion(sb.substring(0, versionEnd));
+            setStatusCode(Integer.parseInt(sb.substring(versionEnd + 1,
+                    statusEnd)));
+            setReasonPhrase((statusEnd < sb.length()) ? sb
+                    .substring(statusEnd + 1) : null);
+        } catch (NumberFormatException nfe) {
+            throw new IOException("Invalid response status code: " + sb);
+        }
+
+        sb.delete(0, sb.length());
+    }
+
+    /**
+     * Releases the connection to the pool, once.
+     * 
+     * @param reusable
+     *            True if the connection can be reused, provided that both
+     *            sides want to keep it alive.
+     */
+    protected void releaseConnection(boolean reusable) {
+        if ((getConnection() != null)
+                && this.connectionReleased.compareAndSet(false, true)) {
+            getHelper().getConnectionPool().release(
+                    getConnection(),
+                    reusable && this.responseHeadRead && isClientKeepAlive()
+                            && isServerKeepAlive());
+        }
+    }
+
+    /**
+     * Sends the request to the client. Commits the request line, headers and
+     * optional entity and send them over the network. A request without entity
+     * sent on a reused connection that was closed by the server in the
+     * meantime is sent again once on a new connection.
+     * 
+     * @param request
+     *            The high-level request.
+     * @return The result status.
+     */
+    @Override
+    public Status sendRequest(Request request) {
+        Status result = null;
+
+        try {
+            if (shouldRequestBeChunked(request)) {
+                getRequestHeaders().set(
+                        HeaderConstants.HEADER_TRANSFER_ENCODING, "chunked",
+                        true);
+            }
+
+            boolean sent = false;
+
+            while (!sent) {
+                this.connection = getHelper().getConnectionPool().acquire(
+                        getProtocol().getSchemeName(), getServerAddress(),
+                        getServerPort());
+                this.connectionReleased.set(false);
+
+                try {
+                    writeRequestHead();
+
+                    if (!request.isEntityAvailable()) {
+                        readResponseHead();
+                    }
+
+                    sent = true;
+                } catch (IOException ioe) {
+                    // Only idempotent requests can be safely sent again, as
+                    // the server may have processed the first one
+                    boolean retry = getConnection().isReused()
+                            && !request.isEntityAvailable()
+                            && request.getMethod().isIdempotent()
+                            && (ioe instanceof EOFException);
+                    releaseConnection(false);
+
+                    if (retry) {
+                        getHelper().getLogger().log(Level.FINE,
+                                "Stale connection detected, retrying.", ioe);
+                    } else {
+                        throw ioe;
+                    }
+                }
+            }
+
+            // Send the optional entity
+            result = super.sendRequest(request);
+        } catch (ConnectException ce) {
+            getHelper()
+                    .getLogger()
+                    .log(Level.FINE,
+                            "An error occurred during the connection to the remote HTTP server.",
+                            ce);
+            result = new Status(Status.CONNECTOR_ERROR_CONNECTION, ce);
+        } catch (SocketTimeoutException ste) {
+            getHelper()
+                    .getLogger()
+                    .log(Level.FINE,
+                            "An timeout error occurred during the communication with the remote HTTP server.",
+                            ste);
+            result = new Status(Status.CONNECTOR_ERROR_COMMUNICATION, ste);
+        } catch (IOException ioe) {
+            getHelper()
+                    .getLogger()
+                    .log(Level.FINE,
+                            "An error occurred during the communication with the remote HTTP server.",
+                            ioe);
+            result = new Status(Status.CONNECTOR_ERROR_COMMUNICATION, ioe);
+        } catch (Exception e) {
+            getHelper()
+                    .getLogger()
+                    .log(Level.FINE,
+                            "An unexpected error occurred during the sending of the HTTP request.",
+                            e);
+            result = new Status(Status.CONNECTOR_ERROR_INTERNAL, e);
+        }
+
+        if (result.isConnectorError()) {
+            releaseConnection(false);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void sendRequest(Request request, Response response, Uniform callback)
+            throws Exception {
+        // Send the request
+        sendRequest(request);
+
+        if (request.getOnSent() != null) {
+            request.getOnSent().handle(request, response);
+        }
+
+        if (callback != null) {
+            // Transmit to the callback, if any.
+            callback.handle(request, response);
+        }
+    }
+
+    /**
+     * Writes the request line and the request headers.
+     * 
+     * @throws IOException
+     */
+    protected void writeRequestHead() throws IOException {
+        OutputStream os = getRequestHeadStream();
+        os.write(StringUtils.getAsciiBytes(getMethod()));
+        os.write(' ');
+        os.write(StringUtils.getAsciiBytes(getRequestTarget()));
+        os.write(StringUtils.getAsciiBytes(" HTTP/1.1"));
+        HeaderUtils.writeCRLF(os);
+
+        for (Header header : getRequestHeaders()) {
+            if (header.getValue() != null) {
+                HeaderUtils.writeHeaderLine(header, os);
+            } else {
+                getHelper().getLogger().info(
+                        "The following header has a null value and has been discarded: "
+                                + header.getName());
+            }
+        }
+
+        HeaderUtils.writeCRLF(os);
+    }
+
+}
@@ -0,0 +1,357 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.connector;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.logging.Level;
+
+import javax.management.ObjectName;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.restlet.Client;
+import org.restlet.Request;
+import org.restlet.engine.adapter.ClientCall;
+import org.restlet.engine.ssl.SslContextFactory;
+import org.restlet.engine.ssl.SslUtils;
+import org.restlet.engine.util.ReferenceUtils;
+
+/**
+ * HTTP/1.1 client connector using the {@link SocketClientCall} and an explicit
+ * {@link ConnectionPool} of persistent socket connections. Contrary to the
+ * default {@link HttpClientHelper}, it doesn't rely on the hidden keep-alive
+ * cache of the JDK, so the number of connections and their lifetime can be
+ * controlled and monitored. To use it, pass its qualified class name as the
+ * helper class when creating the {@link Client}. Here is the list of
+ * parameters that are supported. They should be set in the Client's context
+ * before it is started:
+ * <table>
+ * <tr>
+ * <th>Parameter name</th>
+ * <th>Value type</th>
+ * <th>Default value</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>chunkLength</td>
+ * <td>int</td>
+ * <td>0 (uses the default buffer size)</td>
+ * <td>The maximum chunk length when using chunked encoding for request
+ * entities of unknown size.</td>
+ * </tr>
+ * <tr>
+ * <td>idleTimeout</td>
+ * <td>int</td>
+ * <td>60000</td>
+ * <td>The time in milliseconds after which an idle connection is closed. A
+ * value of zero keeps idle connections until they are closed by the server.</td>
+ * </tr>
+ * <tr>
+ * <td>jmxEnabled</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the connection pool should be registered in the platform
+ * MBean server as a {@link ConnectionPoolMBean}.</td>
+ * </tr>
+ * <tr>
+ * <td>maxConnectionsPerHost</td>
+ * <td>int</td>
+ * <td>10</td>
+ * <td>The maximum number of concurrent connections per host. Requests wait
+ * for a connection to be released when this limit is reached.</td>
+ * </tr>
+ * <tr>
+ * <td>maxTotalConnections</td>
+ * <td>int</td>
+ * <td>100</td>
+ * <td>The maximum number of concurrent connections for all hosts. Requests
+ * wait for a connection to be released when this limit is reached.</td>
+ * </tr>
+ * <tr>
+ * <td>readTimeout</td>
+ * <td>int</td>
+ * <td>60000</td>
+ * <td>Sets the read timeout to a specified timeout, in milliseconds. A timeout
+ * of zero is interpreted as an infinite timeout.</td>
+ * </tr>
+ * <tr>
+ * <td>socketConnectTimeoutMs</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>The socket connection timeout, also used when waiting for a connection
+ * from the pool, or 0 for unlimited wait.</td>
+ * </tr>
+ * <tr>
+ * <td>sslContextFactory</td>
+ * <td>String</td>
+ * <td>null</td>
+ * <td>Let you specify a {@link SslContextFactory} qualified class name as a
+ * parameter, or an instance as an attribute for a more complete and flexible
+ * SSL context setting. By default, the JVM's default SSL socket factory is
+ * used.</td>
+ * </tr>
+ * </table>
+ * <p>
+ * It is also possible to specify a hostname verifier for HTTPS connections. See
+ * the {@link #getHostnameVerifier()} method for details. By default, the host
+ * name is checked against the server certificate.
+ * <p>
+ * Note that proxies aren't supported and that requests are not pipelined: a
+ * connection is used by a single request at a time and released to the pool
+ * once the response entity has been fully consumed or closed.
+ * 
+ * @author Jerome Louvel
+ */
+public class SocketClientHelper extends HttpClientHelper {
+
+    /** The pool of persistent connections. */
+    private volatile ConnectionPool connectionPool;
+
+    /** The name of the registered management bean. */
+    private volatile ObjectName mbeanName;
+
+    /** The SSL socket factory. */
+    private volatile SSLSocketFactory sslSocketFactory;
+
+    /**
+     * Constructor.
+     * 
+     * @param client
+     *            The client to help.
+     */
+    public SocketClientHelper(Client client) {
+        super(client);
+    }
+
+    /**
+     * Creates a low-level HTTP client call from a high-level uniform call.
+     * 
+     * @param request
+     *            The high-level request.
+     * @return A low-level HTTP client call.
+     */
+    @Override
+    public ClientCall create(Request request) {
+        ClientCall result = null;
+
+        try {
+            result = new SocketClientCall(this, request.getMethod().toString(),
+                    ReferenceUtils.update(request.getResourceRef(), request)
+                            .toString());
+        } catch (IllegalArgumentException iae) {
+            getLogger().log(Level.WARNING,
+                    "Unable to create the HTTP client call", iae);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the connection pool. Can be overridden to customize the pool.
+     * 
+     * @return The connection pool.
+     */
+    protected ConnectionPool createConnectionPool() {
+        return new ConnectionPool(this, getMaxConnectionsPerHost(),
+                getMaxTotalConnections(), getIdleTimeout());
+    }
+
+    /**
+     * Creates a connected socket to the given host. For HTTPS, the TLS
+     * handshake is done and the host name verified.
+     * 
+     * @param scheme
+     *            The URI scheme, "http" or "https".
+     * @param host
+     *            The host name.
+     * @param port
+     *            The port number.
+     * @return The connected socket.
+     * @throws IOException
+     */
+    public Socket createSocket(String scheme, String host, int port)
+            throws IOException {
+        Socket result = new Socket();
+
+        try {
+            result.setTcpNoDelay(true);
+            result.setSoTimeout(getReadTimeout());
+            result.connect(new InetSocketAddress(host, port),
+                    getSocketConnectTimeoutMs());
+
+            if ("https".equalsIgnoreCase(scheme)) {
+                SSLSocket sslSocket = (SSLSocket) getSslSocketFactory()
+                        .createSocket(result, host, port, true);
+                result = sslSocket;
+                HostnameVerifier verifier = getHostnameVerifier();
+
+                if (verifier == null) {
+                    SSLParameters parameters = sslSocket.getSSLParameters();
+                    parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                    sslSocket.setSSLParameters(parameters);
+                }
+
+                sslSocket.startHandshake();
+
+                if ((verifier != null)
+                        && !verifier.verify(host, sslSocket.getSession())) {
+                    throw new SSLPeerUnverifiedException("The host name "
+                            + host + " doesn't match the server certificate");
+                }
+            }
+        } catch (IOException ioe) {
+            result.close();
+            throw ioe;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the pool of persistent connections.
+     * 
+     * @return The pool of persistent connections.
+     */
+    public ConnectionPool getConnectionPool() {
+        return this.connectionPool;
+    }
+
+    /**
+     * Returns the time in milliseconds after which an idle connection is
+     * closed. Defaults to 60000.
+     * 
+     * @return The idle timeout.
+     */
+    public long getIdleTimeout() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "idleTimeout", "60000"));
+    }
+
+    /**
+     * Returns the maximum number of concurrent connections per host. Defaults
+     * to 10.
+     * 
+     * @return The maximum number of concurrent connections per host.
+     */
+    public int getMaxConnectionsPerHost() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxConnectionsPerHost", "10"));
+    }
+
+    /**
+     * Returns the maximum number of concurrent connections for all hosts.
+     * Defaults to 100.
+     * 
+     * @return The maximum number of concurrent connections for all hosts.
+     */
+    public int getMaxTotalConnections() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxTotalConnections", "100"));
+    }
+
+    /**
+     * Returns the SSL socket factory, created from the SSL context factory if
+     * one is configured.
+     * 
+     * @return The SSL socket factory.
+     * @throws IOException
+     */
+    protected SSLSocketFactory getSslSocketFactory() throws IOException {
+        if (this.sslSocketFactory == null) {
+            SslContextFactory sslContextFactory = SslUtils
+                    .getSslContextFactory(this);
+
+            if (sslContextFactory == null) {
+                this.sslSocketFactory = (SSLSocketFactory) SSLSocketFactory
+                        .getDefault();
+            } else {
+                try {
+                    this.sslSocketFactory = sslContextFactory
+                            .createSslContext().getSocketFactory();
+                } catch (Exception e) {
+                    throw new IOException("Unable to create SSLContext.", e);
+                }
+            }
+        }
+
+        return this.sslSocketFactory;
+    }
+
+    /**
+     * Indicates if the connection pool should be registered in the platform
+     * MBean server.
+     * 
+     * @return True if the connection pool should be registered.
+     */
+    public boolean isJmxEnabled() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "jmxEnabled", "false"));
+    }
+
+    @Override
+    public synchronized void start() throws Exception {
+        this.connectionPool = createConnectionPool();
+        this.connectionPool.start();
+
+        if (isJmxEnabled()) {
+            this.mbeanName = new ObjectName(
+                    "org.restlet:type=ConnectionPool,id="
+                            + Integer.toHexString(System.identityHashCode(this)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    this.connectionPool, this.mbeanName);
+        }
+
+        super.start();
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+
+        if (this.mbeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+                        this.mbeanName);
+            } catch (Exception e) {
+                getLogger().log(Level.FINE,
+                        "Unable to unregister the connection pool MBean", e);
+            }
+
+            this.mbeanName = null;
+        }
+
+        if (this.connectionPool != null) {
+            this.connectionPool.stop();
+        }
+    }
+
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
+import org.restlet.engine.util.BoundedCache;
 import org.restlet.representation.Representation;
 
 /**
@@ -37,6 +38,13 @@ import org.restlet.representation.Representation;
  */
 public class ContentType {
 
+    /**
+     * The parsed content types cached by header value, in order to intern the
+     * metadata of frequently received headers.
+     */
+    private static final BoundedCache<String, ContentType> cache = new BoundedCache<String, ContentType>(
+            256);
+
     /**
      * Parses the given content type header and returns the character set.
      * 
@@ -135,8 +143,12 @@ public class ContentType {
      */
     public ContentType(String headerValue) {
         try {
-            ContentTypeReader ctr = new ContentTypeReader(headerValue);
-            ContentType ct = ctr.readValue();
+            ContentType ct = cache.get(headerValue);
+
+            if (ct == null) {
+                ContentTypeReader ctr = new ContentTypeReader(headerValue);
+                ct = cache.put(headerValue, ctr.readValue());
+            }
 
             if (ct != null) {
                 this.mediaType = ct.getMediaType();
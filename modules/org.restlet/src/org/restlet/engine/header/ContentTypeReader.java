@@ -67,14 +67,17 @@ public class ContentTypeReader extends HeaderReader<ContentType> {
 
             if (charSet != null) {
                 parameters.removeAll("charset");
-                characterSet = new CharacterSet(charSet);
+                characterSet = CharacterSet.valueOf(charSet);
             }
 
-            return new ContentType(new MediaType(mediaType.toString(),
-                    parameters), characterSet);
+            if (!parameters.isEmpty()) {
+                return new ContentType(new MediaType(mediaType.toString(),
+                        parameters), characterSet);
+            }
         }
 
-        return new ContentType(new MediaType(mediaType.toString()), null);
+        return new ContentType(MediaType.valueOf(mediaType.toString()),
+                characterSet);
     }
 
     @Override
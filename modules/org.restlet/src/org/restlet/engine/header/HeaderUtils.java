@@ -54,6 +54,7 @@ import org.restlet.data.Tag;
 import org.restlet.engine.Engine;
 import org.restlet.engine.util.CaseInsensitiveHashSet;
 import org.restlet.engine.util.DateUtils;
+import org.restlet.engine.util.HeaderSeries;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.representation.EmptyRepresentation;
 import org.restlet.representation.Representation;
@@ -662,11 +663,7 @@ public class HeaderUtils {
      */
     public static void keepExtensionHeadersOnly(Message message) {
         Series<Header> headers = message.getHeaders();
-        // [ifndef gwt] instruction
-        Series<Header> extensionHeaders = new Series<Header>(Header.class);
-        // [ifdef gwt] instruction uncomment
-        // Series<Header> extensionHeaders = new
-        // org.restlet.engine.util.HeaderSeries();
+        Series<Header> extensionHeaders = new HeaderSeries();
         for (Header header : headers) {
             if (!STANDARD_HEADERS.contains(header.getName())) {
                 extensionHeaders.add(header);
@@ -31,7 +31,9 @@ import static org.restlet.engine.header.HeaderUtils.isText;
 import static org.restlet.engine.header.HeaderUtils.isTokenChar;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.restlet.data.CharacterSet;
 import org.restlet.data.ClientInfo;
@@ -41,6 +43,7 @@ import org.restlet.data.MediaType;
 import org.restlet.data.Metadata;
 import org.restlet.data.Parameter;
 import org.restlet.data.Preference;
+import org.restlet.engine.util.BoundedCache;
 import org.restlet.util.Series;
 
 /**
@@ -52,6 +55,19 @@ import org.restlet.util.Series;
 public class PreferenceReader<T extends Metadata> extends
         HeaderReader<Preference<T>> {
 
+    /** The maximum number of parsed headers cached for each type. */
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * The parsed preferences cached by header value, indexed by type. Used as
+     * templates that are copied for each request.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final BoundedCache[] caches = { null,
+            new BoundedCache(CACHE_SIZE), new BoundedCache(CACHE_SIZE),
+            new BoundedCache(CACHE_SIZE), new BoundedCache(CACHE_SIZE),
+            new BoundedCache(CACHE_SIZE) };
+
     public static final int TYPE_CHARACTER_SET = 1;
 
     public static final int TYPE_ENCODING = 2;
@@ -80,10 +96,8 @@ public class PreferenceReader<T extends Metadata> extends
                 clientInfo.getAcceptedCharacterSets().add(
                         new Preference<CharacterSet>(CharacterSet.ISO_8859_1));
             } else {
-                PreferenceReader pr = new PreferenceReader(
-                        PreferenceReader.TYPE_CHARACTER_SET,
-                        acceptCharsetHeader);
-                pr.addValues(clientInfo.getAcceptedCharacterSets());
+                addPreferences(TYPE_CHARACTER_SET, acceptCharsetHeader,
+                        clientInfo.getAcceptedCharacterSets());
             }
         } else {
             clientInfo.getAcceptedCharacterSets().add(
@@ -103,9 +117,8 @@ public class PreferenceReader<T extends Metadata> extends
     public static void addEncodings(String acceptEncodingHeader,
             ClientInfo clientInfo) {
         if (acceptEncodingHeader != null) {
-            PreferenceReader pr = new PreferenceReader(
-                    PreferenceReader.TYPE_ENCODING, acceptEncodingHeader);
-            pr.addValues(clientInfo.getAcceptedEncodings());
+            addPreferences(TYPE_ENCODING, acceptEncodingHeader,
+                    clientInfo.getAcceptedEncodings());
         } else {
             clientInfo.getAcceptedEncodings().add(
                     new Preference(Encoding.IDENTITY));
@@ -124,9 +137,8 @@ public class PreferenceReader<T extends Metadata> extends
     public static void addLanguages(String acceptLanguageHeader,
             ClientInfo clientInfo) {
         if (acceptLanguageHeader != null) {
-            PreferenceReader pr = new PreferenceReader(
-                    PreferenceReader.TYPE_LANGUAGE, acceptLanguageHeader);
-            pr.addValues(clientInfo.getAcceptedLanguages());
+            addPreferences(TYPE_LANGUAGE, acceptLanguageHeader,
+                    clientInfo.getAcceptedLanguages());
         } else {
             clientInfo.getAcceptedLanguages().add(new Preference(Language.ALL));
         }
@@ -144,9 +156,8 @@ public class PreferenceReader<T extends Metadata> extends
     public static void addMediaTypes(String acceptMediaTypeHeader,
             ClientInfo clientInfo) {
         if (acceptMediaTypeHeader != null) {
-            PreferenceReader pr = new PreferenceReader(
-                    PreferenceReader.TYPE_MEDIA_TYPE, acceptMediaTypeHeader);
-            pr.addValues(clientInfo.getAcceptedMediaTypes());
+            addPreferences(TYPE_MEDIA_TYPE, acceptMediaTypeHeader,
+                    clientInfo.getAcceptedMediaTypes());
         } else {
             clientInfo.getAcceptedMediaTypes().add(
                     new Preference(MediaType.ALL));
@@ -165,12 +176,72 @@ public class PreferenceReader<T extends Metadata> extends
     public static void addPatches(String acceptPatchHeader,
             ClientInfo clientInfo) {
         if (acceptPatchHeader != null) {
-            PreferenceReader pr = new PreferenceReader(
-                    PreferenceReader.TYPE_PATCH, acceptPatchHeader);
-            pr.addValues(clientInfo.getAcceptedPatches());
+            addPreferences(TYPE_PATCH, acceptPatchHeader,
+                    clientInfo.getAcceptedPatches());
+        }
+    }
+
+    /**
+     * Adds the preferences parsed from a header to a collection. The parsed
+     * preferences are cached by header value and copied before being added,
+     * so that repeated headers don't need to be parsed again while the
+     * preferences remain modifiable.
+     * 
+     * @param type
+     *            The type of metadata read.
+     * @param header
+     *            The header to parse.
+     * @param values
+     *            The collection to update.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void addPreferences(int type, String header,
+            Collection values) {
+        BoundedCache<String, List<Preference>> cache = caches[type];
+        List<Preference> preferences = cache.get(header);
+
+        if (preferences == null) {
+            preferences = cache.put(header,
+                    new PreferenceReader(type, header).readValues());
+        }
+
+        for (Preference preference : preferences) {
+            Preference copy = copy(preference);
+
+            if (!values.contains(copy)) {
+                values.add(copy);
+            }
         }
     }
 
+    /**
+     * Copies a preference. The metadata is shared as it is immutable, while
+     * the parameters are copied.
+     * 
+     * @param preference
+     *            The preference to copy.
+     * @return The copied preference.
+     */
+    private static <M extends Metadata> Preference<M> copy(
+            Preference<M> preference) {
+        Series<Parameter> parameters = null;
+
+        if (!preference.getParameters().isEmpty()) {
+            // [ifndef gwt] instruction
+            parameters = new Series<Parameter>(Parameter.class);
+            // [ifdef gwt] instruction uncomment
+            // parameters = new org.restlet.engine.util.ParameterSeries();
+
+            for (Parameter parameter : preference.getParameters()) {
+                parameters.add(new Parameter(parameter.getName(), parameter
+                        .getValue()));
+            }
+        }
+
+        return new Preference<M>(preference.getMetadata(),
+                preference.getQuality(), parameters);
+    }
+
     /**
      * Parses a quality value.<br>
      * If the quality is invalid, an IllegalArgumentException is thrown.
@@ -253,21 +324,26 @@ public class PreferenceReader<T extends Metadata> extends
 
             switch (this.type) {
             case TYPE_CHARACTER_SET:
-                result.setMetadata((T) new CharacterSet(metadata.toString()));
+                result.setMetadata((T) CharacterSet.valueOf(metadata.toString()));
                 break;
 
             case TYPE_ENCODING:
-                result.setMetadata((T) new Encoding(metadata.toString()));
+                result.setMetadata((T) Encoding.valueOf(metadata.toString()));
                 break;
 
             case TYPE_LANGUAGE:
-                result.setMetadata((T) new Language(metadata.toString()));
+                result.setMetadata((T) Language.valueOf(metadata.toString()));
                 break;
 
             case TYPE_MEDIA_TYPE:
             case TYPE_PATCH:
-                result.setMetadata((T) new MediaType(metadata.toString(),
-                        mediaParams));
+                if (mediaParams.isEmpty()) {
+                    result.setMetadata((T) MediaType.valueOf(metadata
+                            .toString()));
+                } else {
+                    result.setMetadata((T) new MediaType(metadata.toString(),
+                            mediaParams));
+                }
                 break;
             }
         }
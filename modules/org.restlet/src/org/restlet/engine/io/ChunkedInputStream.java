@@ -0,0 +1,227 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.restlet.engine.header.HeaderReader;
+import org.restlet.engine.header.HeaderUtils;
+
+// [excludes gwt]
+/**
+ * Input stream decoding the HTTP chunked transfer encoding. The end of the
+ * stream is reached after the last chunk and the optional trailer headers have
+ * been read. Closing this stream doesn't close the underlying stream so that a
+ * persistent connection can be reused.
+ * 
+ * @author Jerome Louvel
+ */
+public class ChunkedInputStream extends FilterInputStream {
+
+    /** Indicates if the last chunk has been read. */
+    private volatile boolean endReached;
+
+    /** The number of bytes remaining in the current chunk. */
+    private volatile long remaining;
+
+    /**
+     * Constructor.
+     * 
+     * @param source
+     *            The source stream to decode.
+     */
+    public ChunkedInputStream(InputStream source) {
+        super(source);
+        this.endReached = false;
+        this.remaining = 0;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.endReached ? 0 : (int) Math.min(this.remaining,
+                super.available());
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Indicates if the last chunk and the trailer headers have been read.
+     * 
+     * @return True if the last chunk and the trailer headers have been read.
+     */
+    public boolean isEndReached() {
+        return this.endReached;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Ensures that a chunk with remaining bytes is available, reading the next
+     * chunk header if necessary.
+     * 
+     * @return True if bytes can be read, false if the end was reached.
+     * @throws IOException
+     */
+    private boolean prepareChunk() throws IOException {
+        if (!this.endReached && (this.remaining == 0)) {
+            this.remaining = readChunkSize();
+
+            if (this.remaining == 0) {
+                // Skip the optional trailer headers
+                StringBuilder sb = new StringBuilder();
+
+                while (HeaderReader.readHeader(in, sb) != null) {
+                    sb.delete(0, sb.length());
+                }
+
+                this.endReached = true;
+            }
+        }
+
+        return !this.endReached;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = -1;
+
+        if (prepareChunk()) {
+            result = super.read();
+
+            if (result == -1) {
+                throw new IOException(
+                        "End of stream reached before the end of the chunk.");
+            }
+
+            if (--this.remaining == 0) {
+                readCRLF();
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int result = -1;
+
+        if (len == 0) {
+            result = 0;
+        } else if (prepareChunk()) {
+            result = super.read(b, off, (int) Math.min(len, this.remaining));
+
+            if (result == -1) {
+                throw new IOException(
+                        "End of stream reached before the end of the chunk.");
+            }
+
+            this.remaining -= result;
+
+            if (this.remaining == 0) {
+                readCRLF();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the size of the next chunk, ignoring the optional chunk
+     * extensions.
+     * 
+     * @return The size of the next chunk.
+     * @throws IOException
+     */
+    private long readChunkSize() throws IOException {
+        long result = 0;
+        boolean digits = false;
+        boolean extension = false;
+        int next = in.read();
+
+        while ((next != -1) && !HeaderUtils.isCarriageReturn(next)) {
+            if (!extension) {
+                int digit = Character.digit(next, 16);
+
+                if (digit != -1) {
+                    result = (result << 4) + digit;
+                    digits = true;
+                } else if (next == ';' || HeaderUtils.isSpace(next)) {
+                    extension = true;
+                } else {
+                    throw new IOException("Invalid chunk size character: "
+                            + (char) next);
+                }
+            }
+
+            next = in.read();
+        }
+
+        if ((next == -1) || !digits) {
+            throw new IOException("Unable to read the chunk size.");
+        } else if (!HeaderUtils.isLineFeed(in.read())) {
+            throw new IOException(
+                    "Invalid chunk size line. Line feed missing after the carriage return.");
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the CRLF sequence terminating a chunk.
+     * 
+     * @throws IOException
+     */
+    private void readCRLF() throws IOException {
+        if (!HeaderUtils.isCarriageReturn(in.read())
+                || !HeaderUtils.isLineFeed(in.read())) {
+            throw new IOException("Invalid end of chunk. CRLF expected.");
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long result = 0;
+
+        if ((n > 0) && prepareChunk()) {
+            result = super.skip(Math.min(n, this.remaining));
+            this.remaining -= result;
+
+            if (this.remaining == 0) {
+                readCRLF();
+            }
+        }
+
+        return result;
+    }
+
+}
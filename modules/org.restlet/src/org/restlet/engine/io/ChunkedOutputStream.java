@@ -0,0 +1,150 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.util.StringUtils;
+
+// [excludes gwt]
+/**
+ * Output stream applying the HTTP chunked transfer encoding. Written bytes are
+ * buffered and sent as a chunk each time the buffer is full or the stream is
+ * flushed. Closing this stream writes the last chunk but doesn't close the
+ * underlying stream so that a persistent connection can be reused.
+ * 
+ * @author Jerome Louvel
+ */
+public class ChunkedOutputStream extends FilterOutputStream {
+
+    /** The buffer of the current chunk. */
+    private final byte[] buffer;
+
+    /** Indicates if the stream was closed. */
+    private volatile boolean closed;
+
+    /** The number of bytes in the buffer. */
+    private volatile int count;
+
+    /**
+     * Constructor using {@link IoUtils#BUFFER_SIZE} as the maximum chunk size.
+     * 
+     * @param target
+     *            The target stream.
+     */
+    public ChunkedOutputStream(OutputStream target) {
+        this(target, IoUtils.BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param target
+     *            The target stream.
+     * @param chunkSize
+     *            The maximum chunk size.
+     */
+    public ChunkedOutputStream(OutputStream target, int chunkSize) {
+        super(target);
+        this.buffer = new byte[(chunkSize > 0) ? chunkSize
+                : IoUtils.BUFFER_SIZE];
+        this.closed = false;
+        this.count = 0;
+    }
+
+    /**
+     * Writes the last chunk and flushes the underlying stream which is left
+     * open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.closed) {
+            writeChunk();
+            out.write('0');
+            HeaderUtils.writeCRLF(out);
+            HeaderUtils.writeCRLF(out);
+            out.flush();
+            this.closed = true;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeChunk();
+        out.flush();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("The chunked stream is closed.");
+        }
+
+        while (len > 0) {
+            int length = Math.min(len, this.buffer.length - this.count);
+            System.arraycopy(b, off, this.buffer, this.count, length);
+            this.count += length;
+            off += length;
+            len -= length;
+
+            if (this.count == this.buffer.length) {
+                writeChunk();
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (this.closed) {
+            throw new IOException("The chunked stream is closed.");
+        }
+
+        this.buffer[this.count++] = (byte) b;
+
+        if (this.count == this.buffer.length) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes as a new chunk, if any.
+     * 
+     * @throws IOException
+     */
+    private void writeChunk() throws IOException {
+        if (this.count > 0) {
+            out.write(StringUtils.getAsciiBytes(Integer.toHexString(this.count)));
+            HeaderUtils.writeCRLF(out);
+            out.write(this.buffer, 0, this.count);
+            HeaderUtils.writeCRLF(out);
+            this.count = 0;
+        }
+    }
+
+}
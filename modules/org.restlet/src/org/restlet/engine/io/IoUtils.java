@@ -25,6 +25,7 @@
 package org.restlet.engine.io;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -34,11 +35,20 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.restlet.Context;
@@ -64,10 +74,28 @@ public class IoUtils {
     public static final int BUFFER_SIZE = getProperty(
             "org.restlet.engine.io.bufferSize", 8192);
 
+    // [ifndef gwt] member
+    /**
+     * The shared executor service running the pipe writing tasks when the
+     * current context doesn't provide one.
+     */
+    private static volatile ExecutorService executorService;
+
     // [ifndef gwt] member
     /** Support for byte to hexa conversions. */
     private static final char[] HEXDIGITS = "0123456789ABCDEF".toCharArray();
 
+    // [ifndef gwt] member
+    /**
+     * The maximum number of pooled threads of the shared executor service
+     * running the pipe writing tasks. It looks for the System property
+     * "org.restlet.engine.io.maxThreads" and if not defined, uses the "64"
+     * default value. When all pooled threads are busy, additional tasks run in
+     * dedicated threads.
+     */
+    public static final int MAX_THREADS = getProperty(
+            "org.restlet.engine.io.maxThreads", 64);
+
     /**
      * The number of milliseconds after which IO operation will time out. It
      * looks for the System property "org.restlet.engine.io.timeoutMs" and if
@@ -76,6 +104,16 @@ public class IoUtils {
     public final static int TIMEOUT_MS = getProperty(
             "org.restlet.engine.io.timeoutMs", 60000);
 
+    // [ifndef gwt] member
+    /**
+     * Indicates if the shared executor service running the pipe writing tasks
+     * should start a virtual thread per task, when supported by the JVM. It
+     * looks for the System property "org.restlet.engine.io.virtualThreads" and
+     * if not defined, uses the "false" default value.
+     */
+    public static final boolean VIRTUAL_THREADS = Boolean
+            .getBoolean("org.restlet.engine.io.virtualThreads");
+
     // [ifndef gwt] method
     /**
      * Copies an input stream to an output stream. When the reading is done, the
@@ -148,7 +186,56 @@ public class IoUtils {
     public static void copy(ReadableByteChannel readableChannel,
             WritableByteChannel writableChannel) throws IOException {
         if ((readableChannel != null) && (writableChannel != null)) {
-            copy(getStream(readableChannel), getStream(writableChannel));
+            if ((readableChannel instanceof FileChannel)
+                    && isBlocking(writableChannel)) {
+                FileChannel fileChannel = (FileChannel) readableChannel;
+
+                try {
+                    long position = fileChannel.position();
+                    copy(fileChannel, position, fileChannel.size() - position,
+                            writableChannel);
+                } finally {
+                    fileChannel.close();
+                }
+            } else {
+                copy(getStream(readableChannel), getStream(writableChannel));
+            }
+        }
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Writes a region of a file channel to a writable channel. It relies on
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)} so that
+     * the operating system can directly send the file content to the target
+     * channel (sendfile) without copying it in the JVM heap. The file channel
+     * isn't closed.
+     * 
+     * @param fileChannel
+     *            The file channel.
+     * @param position
+     *            The index of the first byte to write.
+     * @param count
+     *            The number of bytes to write.
+     * @param writableChannel
+     *            The blocking writable channel.
+     * @throws IOException
+     */
+    public static void copy(FileChannel fileChannel, long position,
+            long count, WritableByteChannel writableChannel)
+            throws IOException {
+        long end = position + count;
+
+        while (position < end) {
+            long transferred = fileChannel.transferTo(position, end
+                    - position, writableChannel);
+
+            if (transferred <= 0) {
+                throw new EOFException(
+                        "Unable to transfer the file region. Unexpected end of file.");
+            }
+
+            position += transferred;
         }
     }
 
@@ -176,6 +263,42 @@ public class IoUtils {
         reader.close();
     }
 
+    // [ifndef gwt] method
+    /**
+     * Writes a region of a file channel to a writable channel by mapping it in
+     * memory. This is typically faster than a transfer for files that are
+     * repeatedly served as their content stays in the page cache. Regions
+     * larger than {@link Integer#MAX_VALUE} are mapped in several times. The
+     * file channel isn't closed.
+     * 
+     * @param fileChannel
+     *            The file channel.
+     * @param position
+     *            The index of the first byte to write.
+     * @param count
+     *            The number of bytes to write.
+     * @param writableChannel
+     *            The blocking writable channel.
+     * @throws IOException
+     */
+    public static void copyMapped(FileChannel fileChannel, long position,
+            long count, WritableByteChannel writableChannel)
+            throws IOException {
+        long end = position + count;
+
+        while (position < end) {
+            long size = Math.min(end - position, Integer.MAX_VALUE);
+            ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY,
+                    position, size);
+
+            while (buffer.hasRemaining()) {
+                writableChannel.write(buffer);
+            }
+
+            position += size;
+        }
+    }
+
     // [ifndef gwt] method
     /**
      * Deletes an individual file or an empty directory.
@@ -324,6 +447,76 @@ public class IoUtils {
         // return representation.getSize();
     }
 
+    // [ifndef gwt] method
+    /**
+     * Creates the shared executor service running the pipe writing tasks. By
+     * default, it starts a virtual thread per task if {@link #VIRTUAL_THREADS}
+     * is true and the JVM supports them. Otherwise, it reuses up to
+     * {@link #MAX_THREADS} pooled daemon threads, kept alive 60 seconds when
+     * idle. As the pipe writing tasks block until their content is consumed,
+     * tasks are never queued: when all pooled threads are busy, the task runs
+     * in a dedicated daemon thread created by the same factory.
+     * 
+     * @return The new executor service.
+     */
+    private static ExecutorService createExecutorService() {
+        ExecutorService result = null;
+
+        if (VIRTUAL_THREADS) {
+            result = org.restlet.engine.util.ThreadUtils
+                    .newVirtualThreadPerTaskExecutor();
+        }
+
+        if (result == null) {
+            final ThreadFactory threadFactory = new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    Thread t = new Thread(runnable, "Restlet-IoUtils-"
+                            + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            };
+
+            result = new ThreadPoolExecutor(0, MAX_THREADS, 60L,
+                    TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                    threadFactory, new RejectedExecutionHandler() {
+                        public void rejectedExecution(Runnable task,
+                                ThreadPoolExecutor executor) {
+                            threadFactory.newThread(task).start();
+                        }
+                    });
+        }
+
+        return result;
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Executes a pipe writing task asynchronously. It uses the executor service
+     * of the current context if available, typically the parent application's
+     * {@link org.restlet.service.TaskService}, or the shared executor service
+     * returned by {@link #getExecutorService()}. The Restlet thread local
+     * variables of the calling thread are copied in both cases.
+     * 
+     * @param task
+     *            The task to execute.
+     */
+    private static void execute(Runnable task) {
+        org.restlet.Context context = org.restlet.Context.getCurrent();
+
+        if (context != null && context.getExecutorService() != null) {
+            context.getExecutorService().execute(task);
+        } else {
+            // [ifndef gae] instruction
+            getExecutorService().execute(
+                    Engine.createRunnableWithLocalVariables(task));
+            // [ifdef gae] instruction uncomment
+            // Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils").start();
+        }
+    }
+
     // [ifndef gwt] method
     /**
      * Returns a readable byte channel based on a given input stream. If it is
@@ -405,15 +598,7 @@ public class IoUtils {
                 }
             };
 
-            org.restlet.Context context = org.restlet.Context.getCurrent();
-
-            if (context != null && context.getExecutorService() != null) {
-                context.getExecutorService().execute(task);
-            } else {
-                Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                        .start();
-            }
-
+            execute(task);
             result = pipe.source();
             // [enddef]
         } else {
@@ -424,6 +609,31 @@ public class IoUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the shared executor service running the pipe writing tasks when
+     * the current context doesn't provide one. It also runs the blocking
+     * asynchronous calls of client resources. It is lazily created.
+     * 
+     * @return The shared executor service.
+     * @see #setExecutorService(ExecutorService)
+     */
+    public static ExecutorService getExecutorService() {
+        ExecutorService result = executorService;
+
+        if (result == null) {
+            synchronized (IoUtils.class) {
+                result = executorService;
+
+                if (result == null) {
+                    executorService = result = createExecutorService();
+                }
+            }
+        }
+
+        return result;
+    }
+
     private static int getProperty(String name, int defaultValue) {
         int result = defaultValue;
 
@@ -497,15 +707,7 @@ public class IoUtils {
             }
         };
 
-        org.restlet.Context context = org.restlet.Context.getCurrent();
-
-        if (context != null && context.getExecutorService() != null) {
-            context.getExecutorService().execute(task);
-        } else {
-            Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                    .start();
-        }
-
+        execute(task);
         result = pipedReader;
 
         return result;
@@ -601,6 +803,7 @@ public class IoUtils {
                     Context.getCurrentLogger().log(Level.WARNING,
                             "Error while writing to the piped input stream.",
                             ioe);
+                    pipe.setError(ioe);
                 } finally {
                     try {
                         os.close();
@@ -612,15 +815,7 @@ public class IoUtils {
             }
         };
 
-        org.restlet.Context context = org.restlet.Context.getCurrent();
-
-        if (context != null && context.getExecutorService() != null) {
-            context.getExecutorService().execute(task);
-        } else {
-            Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                    .start();
-        }
-
+        execute(task);
         result = pipe.getInputStream();
 
         return result;
@@ -720,6 +915,19 @@ public class IoUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Sets the shared executor service running the pipe writing tasks when the
+     * current context doesn't provide one. The previous executor service isn't
+     * shut down.
+     * 
+     * @param executorService
+     *            The shared executor service.
+     */
+    public static void setExecutorService(ExecutorService executorService) {
+        IoUtils.executorService = executorService;
+    }
+
     // [ifndef gwt] method
     /**
      * Converts a char array into a byte array using the default character set.
@@ -22,33 +22,122 @@
  * Restlet is a registered trademark of Restlet S.A.S.
  */
 
+
 package org.restlet.engine.io;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 // [excludes gwt]
 /**
  * Pipe stream that pipes output streams into input streams. Implementation
- * based on a shared synchronized queue.
+ * based on a shared ring buffer of bytes, allowing bulk transfers between the
+ * writer and the reader threads.<br>
+ * <br>
+ * Closing the output stream signals the end of the content to the reader.
+ * Errors reported by the writer via {@link #setError(IOException)} are thrown
+ * to the reader once the buffered bytes have been consumed. Closing the input
+ * stream makes pending and subsequent writes fail.
  * 
  * @author Jerome Louvel
  */
 public class PipeStream {
 
-    /** The queue timeout. */
+    /** The default timeout in seconds of read and write operations. */
     private static final long QUEUE_TIMEOUT = 5;
 
-    /** The supporting synchronized queue. */
-    private final BlockingQueue<Integer> queue;
+    /** The supporting ring buffer. */
+    private final byte[] buffer;
+
+    /** The number of bytes available for reading in the buffer. */
+    private int count;
+
+    /** The error reported by the writer. */
+    private IOException error;
+
+    /** Indicates if the input stream has been closed. */
+    private boolean inputClosed;
+
+    /** Indicates if the output stream has been closed. */
+    private boolean outputClosed;
 
-    /** Constructor. */
+    /** The index of the next byte to read in the buffer. */
+    private int readIndex;
+
+    /** The timeout in milliseconds of read and write operations. */
+    private final long timeoutMs;
+
+    /**
+     * Constructor. Uses a capacity of {@link IoUtils#BUFFER_SIZE} bytes.
+     */
     public PipeStream() {
-        this.queue = new ArrayBlockingQueue<Integer>(1024);
+        this(IoUtils.BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The capacity in bytes of the pipe buffer.
+     */
+    public PipeStream(int capacity) {
+        this(capacity, TimeUnit.SECONDS.toMillis(QUEUE_TIMEOUT));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The capacity in bytes of the pipe buffer.
+     * @param timeoutMs
+     *            The timeout in milliseconds of read and write operations.
+     */
+    public PipeStream(int capacity, long timeoutMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "The pipe capacity must be strictly positive");
+        }
+
+        this.buffer = new byte[capacity];
+        this.count = 0;
+        this.readIndex = 0;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Waits until the pipe state changes or the deadline is reached.
+     * 
+     * @param deadline
+     *            The deadline, based on {@link System#nanoTime()}.
+     * @param message
+     *            The timeout message.
+     * @throws IOException
+     */
+    private void await(long deadline, String message) throws IOException {
+        long remaining = deadline - System.nanoTime();
+
+        if (remaining <= 0) {
+            throw new IOException(message);
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException(
+                    "Interruption occurred while waiting on the pipe");
+        }
+    }
+
+    /**
+     * Returns the capacity in bytes of the pipe buffer.
+     * 
+     * @return The capacity in bytes of the pipe buffer.
+     */
+    public int getCapacity() {
+        return this.buffer.length;
     }
 
     /**
@@ -58,30 +147,34 @@ public class PipeStream {
      */
     public InputStream getInputStream() {
         return new InputStream() {
-            private boolean endReached = false;
+            /** Buffer for single byte reads. */
+            private final byte[] single = new byte[1];
 
             @Override
-            public int read() throws IOException {
-                try {
-                    if (this.endReached) {
-                        return -1;
-                    }
-
-                    final Integer value = queue.poll(QUEUE_TIMEOUT,
-                            TimeUnit.SECONDS);
-
-                    if (value == null) {
-                        throw new IOException(
-                                "Timeout while reading from the queue-based input stream");
-                    } else {
-                        this.endReached = (value == -1);
-                        return value.intValue();
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
+            public int available() throws IOException {
+                synchronized (PipeStream.this) {
+                    return count;
                 }
             }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (PipeStream.this) {
+                    inputClosed = true;
+                    PipeStream.this.notifyAll();
+                }
+            }
+
+            @Override
+            public int read() throws IOException {
+                int result = read(single, 0, 1);
+                return (result == -1) ? -1 : (single[0] & 0xff);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return PipeStream.this.read(b, off, len);
+            }
         };
     }
 
@@ -92,32 +185,137 @@ public class PipeStream {
      */
     public OutputStream getOutputStream() {
         return new OutputStream() {
+            /** Buffer for single byte writes. */
+            private final byte[] single = new byte[1];
+
             @Override
-            public void write(int b) throws IOException {
-                try {
-                    if (!queue.offer(b & 0xff, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
+            public void close() throws IOException {
+                synchronized (PipeStream.this) {
+                    outputClosed = true;
+                    PipeStream.this.notifyAll();
                 }
             }
 
             @Override
-            public void close() throws IOException {
-                try {
-                    if (!queue.offer(-1, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
-                }
+            public void write(byte[] b, int off, int len) throws IOException {
+                PipeStream.this.write(b, off, len);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                single[0] = (byte) b;
+                write(single, 0, 1);
             }
         };
     }
 
+    /**
+     * Reads bytes from the pipe, blocking until at least one byte is
+     * available, the end of the content is reached or the timeout expires.
+     * 
+     * @param b
+     *            The target array.
+     * @param off
+     *            The offset in the target array.
+     * @param len
+     *            The maximum number of bytes to read.
+     * @return The number of bytes read or -1 if the end was reached.
+     * @throws IOException
+     */
+    private synchronized int read(byte[] b, int off, int len)
+            throws IOException {
+        if ((off < 0) || (len < 0) || (len > b.length - off)) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        }
+
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(this.timeoutMs);
+
+        while (this.count == 0) {
+            if (this.inputClosed) {
+                throw new IOException("The pipe input stream is closed");
+            } else if (this.error != null) {
+                throw new IOException("Error while writing to the pipe",
+                        this.error);
+            } else if (this.outputClosed) {
+                return -1;
+            }
+
+            await(deadline,
+                    "Timeout while reading from the pipe-based input stream");
+        }
+
+        int result = Math.min(len, this.count);
+        int first = Math.min(result, this.buffer.length - this.readIndex);
+        System.arraycopy(this.buffer, this.readIndex, b, off, first);
+        System.arraycopy(this.buffer, 0, b, off + first, result - first);
+        this.readIndex = (this.readIndex + result) % this.buffer.length;
+        this.count -= result;
+        notifyAll();
+        return result;
+    }
+
+    /**
+     * Reports an error that occurred while producing the content written into
+     * the pipe. It will be thrown to the reader once the buffered bytes have
+     * been read, instead of signaling a premature end of content.
+     * 
+     * @param error
+     *            The error to report.
+     */
+    public synchronized void setError(IOException error) {
+        this.error = error;
+        notifyAll();
+    }
+
+    /**
+     * Writes bytes into the pipe, blocking while the buffer is full.
+     * 
+     * @param b
+     *            The source array.
+     * @param off
+     *            The offset in the source array.
+     * @param len
+     *            The number of bytes to write.
+     * @throws IOException
+     */
+    private synchronized void write(byte[] b, int off, int len)
+            throws IOException {
+        if ((off < 0) || (len < 0) || (len > b.length - off)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(this.timeoutMs);
+
+        while (len > 0) {
+            if (this.outputClosed) {
+                throw new IOException("The pipe output stream is closed");
+            } else if (this.inputClosed) {
+                throw new IOException("The pipe input stream is closed");
+            } else if (this.count == this.buffer.length) {
+                await(deadline,
+                        "Timeout while writing to the pipe-based output stream");
+            } else {
+                int written = Math.min(len, this.buffer.length - this.count);
+                int writeIndex = (this.readIndex + this.count)
+                        % this.buffer.length;
+                int first = Math.min(written, this.buffer.length - writeIndex);
+                System.arraycopy(b, off, this.buffer, writeIndex, first);
+                System.arraycopy(b, off + first, this.buffer, 0, written
+                        - first);
+                this.count += written;
+                off += written;
+                len -= written;
+                notifyAll();
+
+                // Progress was made, restart the timeout
+                deadline = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(this.timeoutMs);
+            }
+        }
+    }
+
 }
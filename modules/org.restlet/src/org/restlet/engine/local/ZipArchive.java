@@ -0,0 +1,456 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.local;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.restlet.Context;
+
+/**
+ * Open Zip archive shared between requests. It keeps the {@link ZipFile} open
+ * and indexes its entries by name and by parent directory, including the
+ * directories that are only implied by the entry names, so that lookups and
+ * directory listings don't scan the whole archive. The location of the data of
+ * stored (uncompressed) entries is also read from the central directory so
+ * that they can be transferred without copy.<br>
+ * <br>
+ * The archive is reference counted: each user must call {@link #acquire()}
+ * and {@link #release()}, and the archive is only closed once it has been
+ * evicted from its cache and released by all its users.
+ * 
+ * @author Jerome Louvel
+ */
+public class ZipArchive {
+
+    /** The signature of a central directory file header. */
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    /** The signature of the end of central directory record. */
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    /** The fixed size of the end of central directory record. */
+    private static final int END_SIZE = 22;
+
+    /** The signature of a local file header. */
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    /** The fixed size of a local file header. */
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    /** The file channel used to transfer stored entries. */
+    private final FileChannel channel;
+
+    /** The direct children of each directory, by directory name. */
+    private final Map<String, List<ZipEntry>> children;
+
+    /** The entries by name. */
+    private final Map<String, ZipEntry> entries;
+
+    /** Indicates if the archive was evicted from its cache. */
+    private boolean evicted;
+
+    /** The archive file. */
+    private final File file;
+
+    /** The modification time of the archive file when it was opened. */
+    private final long lastModified;
+
+    /** The length of the archive file when it was opened. */
+    private final long length;
+
+    /** The offsets of the local headers of stored entries, by name. */
+    private final Map<String, Long> localHeaderOffsets;
+
+    /** The number of current users. */
+    private int references;
+
+    /** The Zip file. */
+    private final ZipFile zipFile;
+
+    /**
+     * Constructor. Opens and indexes the archive.
+     * 
+     * @param file
+     *            The archive file.
+     * @throws IOException
+     */
+    public ZipArchive(File file) throws IOException {
+        this.file = file;
+        this.lastModified = file.lastModified();
+        this.length = file.length();
+        this.zipFile = new ZipFile(file);
+        this.entries = new HashMap<String, ZipEntry>();
+        this.children = new HashMap<String, List<ZipEntry>>();
+        this.localHeaderOffsets = new HashMap<String, Long>();
+        FileInputStream fis;
+
+        try {
+            fis = new FileInputStream(file);
+        } catch (IOException e) {
+            this.zipFile.close();
+            throw e;
+        }
+
+        this.channel = fis.getChannel();
+
+        try {
+            Enumeration<? extends ZipEntry> zipEntries = this.zipFile.entries();
+
+            while (zipEntries.hasMoreElements()) {
+                index(zipEntries.nextElement());
+            }
+
+            indexLocalHeaders();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Acquires a reference to the archive. It must be released by calling
+     * {@link #release()}.
+     */
+    public synchronized void acquire() {
+        this.references++;
+    }
+
+    /**
+     * Closes the Zip file and the file channel.
+     */
+    private void close() {
+        try {
+            this.zipFile.close();
+        } catch (IOException e) {
+            Context.getCurrentLogger().fine(
+                    "Unable to close the Zip file " + this.file);
+        }
+
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            Context.getCurrentLogger().fine(
+                    "Unable to close the channel of the Zip file " + this.file);
+        }
+    }
+
+    /**
+     * Marks the archive as evicted from its cache. It is closed as soon as it
+     * isn't used anymore.
+     */
+    public synchronized void evict() {
+        if (!this.evicted) {
+            this.evicted = true;
+
+            if (this.references == 0) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Returns the file channel of the archive. It is only used with absolute
+     * positions so that it can be shared.
+     * 
+     * @return The file channel of the archive.
+     */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Returns the direct children of a directory.
+     * 
+     * @param directoryName
+     *            The directory name, ending with a slash, or an empty string
+     *            for the root.
+     * @return The direct children or an empty list.
+     */
+    public List<ZipEntry> getChildren(String directoryName) {
+        List<ZipEntry> result = this.children.get(directoryName);
+        return (result == null) ? Collections.<ZipEntry> emptyList() : result;
+    }
+
+    /**
+     * Returns the offset in the archive file of the data of a stored
+     * (uncompressed) entry.
+     * 
+     * @param entry
+     *            The entry.
+     * @return The offset of the entry data or -1 if the entry isn't stored or
+     *         its local header can't be found.
+     * @throws IOException
+     */
+    public long getDataOffset(ZipEntry entry) throws IOException {
+        Long localHeaderOffset = this.localHeaderOffsets.get(entry.getName());
+
+        if ((localHeaderOffset == null)
+                || (entry.getMethod() != ZipEntry.STORED)) {
+            return -1;
+        }
+
+        // The name and extra field of the local header may differ from the
+        // central directory ones
+        ByteBuffer header = read(localHeaderOffset, LOCAL_HEADER_SIZE);
+
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            return -1;
+        }
+
+        return localHeaderOffset + LOCAL_HEADER_SIZE
+                + (header.getShort(26) & 0xffff)
+                + (header.getShort(28) & 0xffff);
+    }
+
+    /**
+     * Returns an entry by name.
+     * 
+     * @param name
+     *            The entry name.
+     * @return The entry or null.
+     */
+    public ZipEntry getEntry(String name) {
+        return this.entries.get(name);
+    }
+
+    /**
+     * Returns the archive file.
+     * 
+     * @return The archive file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the Zip file.
+     * 
+     * @return The Zip file.
+     */
+    public ZipFile getZipFile() {
+        return zipFile;
+    }
+
+    /**
+     * Indexes an entry and its parent directories.
+     * 
+     * @param entry
+     *            The entry to index.
+     */
+    private void index(ZipEntry entry) {
+        String name = entry.getName();
+
+        if (this.entries.containsKey(name)) {
+            // Directory already implied by a previous entry
+            if (entry.isDirectory()) {
+                replace(name, entry);
+            }
+
+            return;
+        }
+
+        this.entries.put(name, entry);
+        String parentName = getParentName(name);
+
+        if (parentName != null) {
+            List<ZipEntry> siblings = this.children.get(parentName);
+
+            if (siblings == null) {
+                siblings = new ArrayList<ZipEntry>();
+                this.children.put(parentName, siblings);
+
+                if (!this.entries.containsKey(parentName)) {
+                    // Add the implied parent directory
+                    ZipEntry directory = new ZipEntry(parentName);
+                    directory.setSize(0);
+                    directory.setTime(this.lastModified);
+                    index(directory);
+                }
+            }
+
+            siblings.add(entry);
+        }
+    }
+
+    /**
+     * Reads the central directory to locate the local headers of the stored
+     * entries. Zip64 archives are ignored, their entries being read with the
+     * Zip file streams. The offsets are relative to the start of the Zip data,
+     * so they are shifted by the size of any data prepended to the archive,
+     * such as the launcher of a self-extracting archive.
+     * 
+     * @throws IOException
+     */
+    private void indexLocalHeaders() throws IOException {
+        // Look for the end of central directory record
+        int tailSize = (int) Math.min(this.length, END_SIZE + 0xffff);
+        ByteBuffer tail = read(this.length - tailSize, tailSize);
+        int end = -1;
+
+        for (int i = tailSize - END_SIZE; (end == -1) && (i >= 0); i--) {
+            if (tail.getInt(i) == END_SIGNATURE) {
+                end = i;
+            }
+        }
+
+        if (end != -1) {
+            long size = tail.getInt(end + 12) & 0xffffffffL;
+            long offset = tail.getInt(end + 16) & 0xffffffffL;
+
+            // The central directory ends where the end record starts
+            long prefix = this.length - tailSize + end - size - offset;
+
+            if ((size != 0xffffffffL) && (offset != 0xffffffffL)
+                    && (prefix >= 0)) {
+                ByteBuffer directory = read(prefix + offset, (int) size);
+                int position = 0;
+
+                while ((position + 46 <= size)
+                        && (directory.getInt(position) == CENTRAL_HEADER_SIGNATURE)) {
+                    int method = directory.getShort(position + 10) & 0xffff;
+                    int nameLength = directory.getShort(position + 28) & 0xffff;
+                    int extraLength = directory.getShort(position + 30) & 0xffff;
+                    int commentLength = directory.getShort(position + 32) & 0xffff;
+                    long localHeaderOffset = directory.getInt(position + 42) & 0xffffffffL;
+
+                    if ((method == ZipEntry.STORED)
+                            && (localHeaderOffset != 0xffffffffL)) {
+                        byte[] name = new byte[nameLength];
+                        directory.position(position + 46);
+                        directory.get(name);
+                        ZipEntry entry = this.entries.get(new String(name,
+                                "UTF-8"));
+
+                        if ((entry != null) && !entry.isDirectory()) {
+                            this.localHeaderOffsets.put(entry.getName(),
+                                    prefix + localHeaderOffset);
+                        }
+                    }
+
+                    position += 46 + nameLength + extraLength + commentLength;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates if the archive file was modified since it was opened.
+     * 
+     * @return True if the archive file was modified since it was opened.
+     */
+    public boolean isStale() {
+        return (this.file.lastModified() != this.lastModified)
+                || (this.file.length() != this.length);
+    }
+
+    /**
+     * Returns the name of the parent directory of an entry.
+     * 
+     * @param name
+     *            The entry name.
+     * @return The name of the parent directory or null for the root.
+     */
+    private static String getParentName(String name) {
+        if (name.length() == 0) {
+            return null;
+        }
+
+        int index = name.lastIndexOf('/', name.length() - 2);
+        return (index == -1) ? "" : name.substring(0, index + 1);
+    }
+
+    /**
+     * Reads a region of the archive file.
+     * 
+     * @param position
+     *            The start position.
+     * @param size
+     *            The number of bytes to read.
+     * @return The little-endian buffer read.
+     * @throws IOException
+     */
+    private ByteBuffer read(long position, int size) throws IOException {
+        ByteBuffer result = ByteBuffer.allocate(size).order(
+                ByteOrder.LITTLE_ENDIAN);
+
+        while (result.hasRemaining()) {
+            if (this.channel.read(result, position + result.position()) == -1) {
+                throw new IOException("Unexpected end of the Zip file "
+                        + this.file);
+            }
+        }
+
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Releases a reference to the archive. Closes it if it was evicted and
+     * isn't used anymore.
+     */
+    public synchronized void release() {
+        this.references--;
+
+        if (this.evicted && (this.references == 0)) {
+            close();
+        }
+    }
+
+    /**
+     * Replaces an implied directory by the actual entry.
+     * 
+     * @param name
+     *            The directory name.
+     * @param entry
+     *            The actual entry.
+     */
+    private void replace(String name, ZipEntry entry) {
+        ZipEntry implied = this.entries.put(name, entry);
+        List<ZipEntry> siblings = this.children.get(getParentName(name));
+
+        if (siblings != null) {
+            int index = siblings.indexOf(implied);
+
+            if (index != -1) {
+                siblings.set(index, entry);
+            }
+        }
+    }
+
+}
@@ -32,6 +32,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -53,12 +56,36 @@ import org.restlet.service.MetadataService;
  * files.<br>
  * <br>
  * Handles GET, HEAD and PUT request on resources referenced as :
- * zip:file://<file path>
+ * zip:file://<file path><br>
+ * <br>
+ * The archives read are kept open and indexed in a bounded cache, see the
+ * {@link ZipArchive} class. A cached archive is reopened as soon as the
+ * modification date or the size of its file changes. Here is the list of
+ * additional parameters that are supported. They should be set in the Client's
+ * context before it is started:
+ * <table>
+ * <tr>
+ * <th>Parameter name</th>
+ * <th>Value type</th>
+ * <th>Default value</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>cacheSize</td>
+ * <td>int</td>
+ * <td>16</td>
+ * <td>Maximum number of archives kept open. If you set the value to '0', the
+ * archives are closed after each call.</td>
+ * </tr>
+ * </table>
  * 
  * @author Remi Dewitte <remi@gide.net>
  */
 public class ZipClientHelper extends LocalClientHelper {
 
+    /** The open archives, by absolute path and in access order. */
+    private final Map<String, ZipArchive> archives;
+
     /**
      * Constructor.
      * 
@@ -69,6 +96,67 @@ public class ZipClientHelper extends LocalClientHelper {
         super(client);
         getProtocols().add(Protocol.ZIP);
         getProtocols().add(Protocol.JAR);
+        this.archives = new LinkedHashMap<String, ZipArchive>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns an open archive, reusing the cached one unless its file has
+     * changed. A reference to the archive is acquired for the caller, that
+     * must release it by calling {@link ZipArchive#release()}.
+     * 
+     * @param file
+     *            The Zip archive file.
+     * @return The open archive.
+     * @throws IOException
+     */
+    protected ZipArchive getArchive(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        int cacheSize = getCacheSize();
+        ZipArchive result;
+
+        synchronized (this.archives) {
+            result = this.archives.get(key);
+
+            if ((result != null) && result.isStale()) {
+                this.archives.remove(key);
+                result.evict();
+                result = null;
+            }
+
+            if (result == null) {
+                result = new ZipArchive(file);
+
+                if (cacheSize > 0) {
+                    this.archives.put(key, result);
+                } else {
+                    // Closed as soon as the caller releases it
+                    result.evict();
+                }
+            }
+
+            result.acquire();
+
+            // Close the least recently used archives
+            Iterator<ZipArchive> iterator = this.archives.values().iterator();
+
+            while ((this.archives.size() > cacheSize) && iterator.hasNext()) {
+                ZipArchive eldest = iterator.next();
+                iterator.remove();
+                eldest.evict();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of archives kept open.
+     * 
+     * @return The maximum number of archives kept open.
+     */
+    public int getCacheSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "cacheSize", "16"));
     }
 
     /**
@@ -104,7 +192,14 @@ public class ZipClientHelper extends LocalClientHelper {
                 handleGet(request, response, file, entryName,
                         getMetadataService());
             } else if (Method.PUT.equals(request.getMethod())) {
-                handlePut(request, response, file, entryName);
+                // Release the cached archive before rewriting its file
+                invalidate(file);
+
+                try {
+                    handlePut(request, response, file, entryName);
+                } finally {
+                    invalidate(file);
+                }
             } else {
                 response.setStatus(Status.CLIENT_ERROR_METHOD_NOT_ALLOWED);
                 response.getAllowedMethods().add(Method.GET);
@@ -137,55 +232,74 @@ public class ZipClientHelper extends LocalClientHelper {
         if (!file.exists()) {
             response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
         } else {
-            ZipFile zipFile;
+            ZipArchive archive;
 
             try {
-                zipFile = new ZipFile(file);
+                archive = getArchive(file);
             } catch (Exception e) {
                 response.setStatus(Status.SERVER_ERROR_INTERNAL, e);
                 return;
             }
 
-            Entity entity = new ZipEntryEntity(zipFile, entryName,
-                    metadataService);
-            if (!entity.exists()) {
-                response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
-            } else {
-                final Representation output;
-
-                if (entity.isDirectory()) {
-                    // Return the directory listing
-                    final Collection<Entity> children = entity.getChildren();
-                    final ReferenceList rl = new ReferenceList(children.size());
-                    String fileUri = LocalReference.createFileReference(file)
-                            .toString();
-                    String scheme = request.getResourceRef().getScheme();
-                    String baseUri = scheme + ":" + fileUri + "!/";
-
-                    for (final Entity entry : children) {
-                        rl.add(baseUri + entry.getName());
-                    }
+            try {
+                handleGet(request, response, archive, entryName,
+                        metadataService);
+            } finally {
+                archive.release();
+            }
+        }
+    }
 
-                    output = rl.getTextRepresentation();
+    /**
+     * Handles a GET call on an open archive.
+     * 
+     * @param request
+     *            The request to answer.
+     * @param response
+     *            The response to update.
+     * @param archive
+     *            The open Zip archive.
+     * @param entryName
+     *            The Zip archive entry name.
+     * @param metadataService
+     *            The metadata service.
+     */
+    private void handleGet(Request request, Response response,
+            ZipArchive archive, String entryName,
+            MetadataService metadataService) {
+        Entity entity = new ZipEntryEntity(archive, entryName, metadataService);
 
-                    try {
-                        zipFile.close();
-                    } catch (IOException e) {
-                        // Do something ???
-                    }
-                } else {
-                    // Return the file content
-                    output = entity.getRepresentation(
-                            metadataService.getDefaultMediaType(),
-                            getTimeToLive());
-                    output.setLocationRef(request.getResourceRef());
-                    Entity.updateMetadata(entity.getName(), output, true,
-                            getMetadataService());
+        if (!entity.exists()) {
+            response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+        } else {
+            final Representation output;
+
+            if (entity.isDirectory()) {
+                // Return the directory listing
+                final Collection<Entity> children = entity.getChildren();
+                final ReferenceList rl = new ReferenceList(children.size());
+                String fileUri = LocalReference.createFileReference(
+                        archive.getFile()).toString();
+                String scheme = request.getResourceRef().getScheme();
+                String baseUri = scheme + ":" + fileUri + "!/";
+
+                for (final Entity entry : children) {
+                    rl.add(baseUri + entry.getName());
                 }
 
-                response.setStatus(Status.SUCCESS_OK);
-                response.setEntity(output);
+                output = rl.getTextRepresentation();
+            } else {
+                // Return the file content
+                output = entity.getRepresentation(
+                        metadataService.getDefaultMediaType(),
+                        getTimeToLive());
+                output.setLocationRef(request.getResourceRef());
+                Entity.updateMetadata(entity.getName(), output, true,
+                        getMetadataService());
             }
+
+            response.setStatus(Status.SUCCESS_OK);
+            response.setEntity(output);
         }
     }
 
@@ -334,6 +448,38 @@ public class ZipClientHelper extends LocalClientHelper {
         }
     }
 
+    /**
+     * Removes an archive from the cache. It is closed as soon as it isn't used
+     * anymore.
+     * 
+     * @param file
+     *            The Zip archive file.
+     */
+    protected void invalidate(File file) {
+        ZipArchive archive;
+
+        synchronized (this.archives) {
+            archive = this.archives.remove(file.getAbsolutePath());
+        }
+
+        if (archive != null) {
+            archive.evict();
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        synchronized (this.archives) {
+            for (ZipArchive archive : this.archives.values()) {
+                archive.evict();
+            }
+
+            this.archives.clear();
+        }
+
+        super.stop();
+    }
+
     /**
      * Writes an entity to a given ZIP output stream with a given ZIP entry
      * name.
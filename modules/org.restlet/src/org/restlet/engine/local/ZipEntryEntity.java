@@ -41,12 +41,59 @@ import org.restlet.service.MetadataService;
  */
 public class ZipEntryEntity extends Entity {
 
+    /** The indexed Zip archive, if available. */
+    protected final ZipArchive archive;
+
     /** The Zip entry. */
     protected final ZipEntry entry;
 
     /** The Zip file. */
     protected final ZipFile zipFile;
 
+    /**
+     * Constructor.
+     * 
+     * @param archive
+     *            The indexed Zip archive.
+     * @param entryName
+     *            The Zip entry name.
+     * @param metadataService
+     *            The metadata service to use.
+     */
+    public ZipEntryEntity(ZipArchive archive, String entryName,
+            MetadataService metadataService) {
+        super(metadataService);
+        this.archive = archive;
+        this.zipFile = archive.getZipFile();
+
+        // Checking we don't have a directory
+        ZipEntry entry = archive.getEntry(entryName + "/");
+
+        if (entry == null) {
+            entry = archive.getEntry(entryName);
+        }
+
+        this.entry = (entry == null) ? new ZipEntry(entryName) : entry;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param archive
+     *            The indexed Zip archive.
+     * @param entry
+     *            The Zip entry.
+     * @param metadataService
+     *            The metadata service to use.
+     */
+    public ZipEntryEntity(ZipArchive archive, ZipEntry entry,
+            MetadataService metadataService) {
+        super(metadataService);
+        this.archive = archive;
+        this.zipFile = archive.getZipFile();
+        this.entry = entry;
+    }
+
     /**
      * Constructor.
      * 
@@ -60,6 +107,7 @@ public class ZipEntryEntity extends Entity {
     public ZipEntryEntity(ZipFile zipFile, String entryName,
             MetadataService metadataService) {
         super(metadataService);
+        this.archive = null;
         this.zipFile = zipFile;
         ZipEntry entry = zipFile.getEntry(entryName);
         if (entry == null)
@@ -87,6 +135,7 @@ public class ZipEntryEntity extends Entity {
     public ZipEntryEntity(ZipFile zipFile, ZipEntry entry,
             MetadataService metadataService) {
         super(metadataService);
+        this.archive = null;
         this.zipFile = zipFile;
         this.entry = entry;
     }
@@ -104,7 +153,16 @@ public class ZipEntryEntity extends Entity {
     public List<Entity> getChildren() {
         List<Entity> result = null;
 
-        if (isDirectory()) {
+        if (isDirectory() && (archive != null)) {
+            // Only the direct children are listed
+            List<ZipEntry> children = archive.getChildren(entry.getName());
+            result = new ArrayList<Entity>(children.size());
+
+            for (ZipEntry child : children) {
+                result.add(new ZipEntryEntity(archive, child,
+                        getMetadataService()));
+            }
+        } else if (isDirectory()) {
             result = new ArrayList<Entity>();
             Enumeration<? extends ZipEntry> entries = zipFile.entries();
             String n = entry.getName();
@@ -131,7 +189,12 @@ public class ZipEntryEntity extends Entity {
             return null;
 
         String n = entry.getName();
-        String pn = n.substring(0, n.lastIndexOf('/') + 1);
+        String pn = n.substring(0, n.lastIndexOf('/', n.length() - 2) + 1);
+
+        if (archive != null) {
+            return new ZipEntryEntity(archive, pn, getMetadataService());
+        }
+
         return new ZipEntryEntity(zipFile, zipFile.getEntry(pn),
                 getMetadataService());
     }
@@ -139,6 +202,11 @@ public class ZipEntryEntity extends Entity {
     @Override
     public Representation getRepresentation(MediaType defaultMediaType,
             int timeToLive) {
+        if (archive != null) {
+            return new ZipEntryRepresentation(defaultMediaType, archive, entry,
+                    timeToLive);
+        }
+
         return new ZipEntryRepresentation(defaultMediaType, zipFile, entry,
                 timeToLive);
     }
@@ -27,7 +27,9 @@ package org.restlet.engine.local;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -40,34 +42,43 @@ import org.restlet.representation.StreamRepresentation;
  * An entry in a Zip/JAR file.
  * 
  * It is very important {@link #release()} is called to close the underlying Zip
- * file.
+ * file or to release the shared Zip archive. When the entry is stored without
+ * compression in a shared archive, it is directly transferred from the archive
+ * file to the target channel.
  * 
  * @author Remi Dewitte <remi@gide.net>
  */
 public class ZipEntryRepresentation extends StreamRepresentation {
 
+    /** The shared Zip archive, if available. */
+    protected final ZipArchive archive;
+
     /** The Zip entry. */
     protected final ZipEntry entry;
 
     /** The Zip file. */
     protected final ZipFile zipFile;
 
+    /** Indicates if the representation was released. */
+    private final AtomicBoolean released = new AtomicBoolean();
+
     /**
-     * Constructor.
+     * Constructor. Acquires a reference to the shared archive until the
+     * representation is released.
      * 
      * @param mediaType
      *            The entry media type.
-     * @param zipFile
-     *            The parent Zip archive file.
+     * @param archive
+     *            The shared Zip archive.
      * @param entry
      *            The Zip entry.
-     * @deprecated Use
-     *             {@link #ZipEntryRepresentation(MediaType, ZipFile, ZipEntry, int)}
-     *             instead.
+     * @param timeToLive
+     *            The time to live before it expires (in seconds).
      */
-    public ZipEntryRepresentation(MediaType mediaType, ZipFile zipFile,
-            ZipEntry entry) {
-        this(mediaType, zipFile, entry, -1);
+    public ZipEntryRepresentation(MediaType mediaType, ZipArchive archive,
+            ZipEntry entry, int timeToLive) {
+        this(mediaType, archive, archive.getZipFile(), entry, timeToLive);
+        archive.acquire();
     }
 
     /**
@@ -75,6 +86,8 @@ public class ZipEntryRepresentation extends StreamRepresentation {
      * 
      * @param mediaType
      *            The entry media type.
+     * @param archive
+     *            The shared Zip archive or null.
      * @param zipFile
      *            The parent Zip archive file.
      * @param entry
@@ -82,9 +95,10 @@ public class ZipEntryRepresentation extends StreamRepresentation {
      * @param timeToLive
      *            The time to live before it expires (in seconds).
      */
-    public ZipEntryRepresentation(MediaType mediaType, ZipFile zipFile,
-            ZipEntry entry, int timeToLive) {
+    private ZipEntryRepresentation(MediaType mediaType, ZipArchive archive,
+            ZipFile zipFile, ZipEntry entry, int timeToLive) {
         super(mediaType);
+        this.archive = archive;
         this.zipFile = zipFile;
         this.entry = entry;
         Disposition disposition = new Disposition();
@@ -101,6 +115,41 @@ public class ZipEntryRepresentation extends StreamRepresentation {
         }
     }
 
+    /**
+     * Constructor.
+     * 
+     * @param mediaType
+     *            The entry media type.
+     * @param zipFile
+     *            The parent Zip archive file.
+     * @param entry
+     *            The Zip entry.
+     * @deprecated Use
+     *             {@link #ZipEntryRepresentation(MediaType, ZipFile, ZipEntry, int)}
+     *             instead.
+     */
+    public ZipEntryRepresentation(MediaType mediaType, ZipFile zipFile,
+            ZipEntry entry) {
+        this(mediaType, zipFile, entry, -1);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param mediaType
+     *            The entry media type.
+     * @param zipFile
+     *            The parent Zip archive file.
+     * @param entry
+     *            The Zip entry.
+     * @param timeToLive
+     *            The time to live before it expires (in seconds).
+     */
+    public ZipEntryRepresentation(MediaType mediaType, ZipFile zipFile,
+            ZipEntry entry, int timeToLive) {
+        this(mediaType, null, zipFile, entry, timeToLive);
+    }
+
     @Override
     public InputStream getStream() throws IOException {
         return zipFile.getInputStream(entry);
@@ -108,9 +157,15 @@ public class ZipEntryRepresentation extends StreamRepresentation {
 
     @Override
     public void release() {
-        try {
-            zipFile.close();
-        } catch (IOException e) {
+        if (archive != null) {
+            if (released.compareAndSet(false, true)) {
+                archive.release();
+            }
+        } else {
+            try {
+                zipFile.close();
+            } catch (IOException e) {
+            }
         }
     }
 
@@ -119,4 +174,20 @@ public class ZipEntryRepresentation extends StreamRepresentation {
         IoUtils.copy(getStream(), outputStream);
     }
 
+    @Override
+    public void write(WritableByteChannel writableChannel) throws IOException {
+        long offset = -1;
+
+        if ((archive != null) && IoUtils.isBlocking(writableChannel)) {
+            offset = archive.getDataOffset(entry);
+        }
+
+        if (offset != -1) {
+            IoUtils.copy(archive.getChannel(), offset, entry.getSize(),
+                    writableChannel);
+        } else {
+            super.write(writableChannel);
+        }
+    }
+
 }
@@ -0,0 +1,219 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies with a bounded relative error, in the spirit of HDR
+ * histograms. Values are recorded in buckets whose width doubles with each
+ * power of two, each power of two being split into eight linear sub-buckets.
+ * The relative error of the reported percentiles is therefore below 12.5%
+ * whatever the magnitude of the values, while the whole range of positive
+ * long values fits in less than 500 buckets.<br>
+ * <br>
+ * Recording a value only updates atomic counters and never blocks. Reading
+ * while recording is possible but the snapshot obtained isn't atomic.
+ * 
+ * @author Jerome Louvel
+ */
+public class LatencyHistogram {
+
+    /** The number of bits used to select a linear sub-bucket. */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** The number of linear sub-buckets per power of two. */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** The total number of buckets. */
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS)
+            * SUB_BUCKET_COUNT;
+
+    /**
+     * Returns the index of the bucket containing a value.
+     * 
+     * @param value
+     *            The positive value.
+     * @return The index of the bucket.
+     */
+    protected static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Returns the highest value recorded in a bucket.
+     * 
+     * @param index
+     *            The index of the bucket.
+     * @return The highest value recorded in the bucket.
+     */
+    protected static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1));
+        long lowerBound = subBucket << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    /** The number of values recorded in each bucket. */
+    private final AtomicLongArray buckets;
+
+    /** The number of values recorded. */
+    private final StripedCounter count;
+
+    /** The highest value recorded. */
+    private final AtomicLong max;
+
+    /** The sum of the values recorded. */
+    private final StripedCounter sum;
+
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new StripedCounter();
+        this.max = new AtomicLong();
+        this.sum = new StripedCounter();
+    }
+
+    /**
+     * Returns the number of values recorded.
+     * 
+     * @return The number of values recorded.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * Returns the highest value recorded.
+     * 
+     * @return The highest value recorded.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     * 
+     * @return The mean of the values recorded or 0 if none was recorded.
+     */
+    public double getMean() {
+        long c = getCount();
+        return (c == 0) ? 0D : ((double) getSum()) / c;
+    }
+
+    /**
+     * Returns the value at a given percentile. The value returned is the
+     * highest value of the bucket containing the percentile, capped by the
+     * highest value recorded.
+     * 
+     * @param percentile
+     *            The percentile, between 0 and 100.
+     * @return The value at the given percentile or 0 if none was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = this.buckets.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0L) {
+            return 0L;
+        }
+
+        double p = Math.min(100D, Math.max(0D, percentile));
+        long rank = Math.max(1L, (long) Math.ceil((p / 100D) * total));
+        long cumulated = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulated += snapshot[i];
+
+            if (cumulated >= rank) {
+                return Math.min(getBucketUpperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     * 
+     * @return The sum of the values recorded.
+     */
+    public long getSum() {
+        return this.sum.get();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     * 
+     * @param value
+     *            The value to record.
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        this.buckets.incrementAndGet(getBucketIndex(v));
+        this.count.increment();
+        this.sum.add(v);
+
+        long current = this.max.get();
+
+        while ((v > current) && !this.max.compareAndSet(current, v)) {
+            current = this.max.get();
+        }
+    }
+
+    /**
+     * Resets the histogram.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets.set(i, 0L);
+        }
+
+        this.count.reset();
+        this.max.set(0L);
+        this.sum.reset();
+    }
+
+}
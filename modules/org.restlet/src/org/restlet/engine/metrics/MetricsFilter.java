@@ -0,0 +1,127 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.routing.Filter;
+import org.restlet.routing.TemplateRoute;
+import org.restlet.service.MetricsService;
+
+/**
+ * Filter recording the duration and the status of all calls in the registry of
+ * a {@link MetricsService}. The labels of each call are collected while it is
+ * routed, using a {@link MetricsTrace} stored in the request attributes.
+ * 
+ * Concurrency note: instances of this class or its subclasses can be invoked by
+ * several threads at the same time and therefore must be thread-safe. You
+ * should be especially careful when storing state in member variables.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsFilter extends Filter {
+
+    /** The name of the request attribute holding the metrics trace. */
+    public static final String ATTRIBUTE_TRACE = "org.restlet.metrics.trace";
+
+    /**
+     * Records the end of a call whose response is committed, if it wasn't
+     * already recorded.
+     * 
+     * @param response
+     *            The response committed.
+     */
+    public static void committed(Response response) {
+        Request request = response.getRequest();
+        Object trace = (request == null) ? null : request.getAttributes().get(
+                ATTRIBUTE_TRACE);
+
+        if (trace instanceof MetricsTrace) {
+            ((MetricsTrace) trace).end(response.getStatus().getCode());
+        }
+    }
+
+    /**
+     * Updates the metrics trace of a request, if any, with a matched route.
+     * 
+     * @param request
+     *            The request routed.
+     * @param route
+     *            The matched route.
+     */
+    public static void matched(Request request, TemplateRoute route) {
+        Object trace = request.getAttributes().get(ATTRIBUTE_TRACE);
+
+        if (trace instanceof MetricsTrace) {
+            ((MetricsTrace) trace).matched(route);
+        }
+    }
+
+    /** The metrics service. */
+    private final MetricsService metricsService;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param metricsService
+     *            The metrics service.
+     */
+    public MetricsFilter(Context context, MetricsService metricsService) {
+        super(context);
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Handles the call while measuring it. Calls that fail with an unexpected
+     * exception are recorded with a server error status. Calls whose response
+     * isn't automatically committed are recorded when
+     * {@link Response#commit()} is invoked.
+     */
+    @Override
+    protected int doHandle(Request request, Response response) {
+        MetricsRegistry registry = this.metricsService.getRegistry();
+        MetricsTrace trace = new MetricsTrace(registry, System.nanoTime());
+        request.getAttributes().put(ATTRIBUTE_TRACE, trace);
+        registry.begin();
+        int statusCode = 500;
+        boolean committedLater = false;
+
+        try {
+            int result = super.doHandle(request, response);
+            statusCode = response.getStatus().getCode();
+            committedLater = !response.isAutoCommitting();
+            return result;
+        } finally {
+            if (!committedLater) {
+                trace.end(statusCode);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+/**
+ * Immutable set of labels identifying a series of metrics. A series gathers
+ * the calls handled by the same virtual host, application and route, and
+ * answered with the same class of status.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsKey {
+
+    /** The application name. */
+    private final String application;
+
+    /** The cached hash code. */
+    private final int hashCode;
+
+    /** The virtual host name. */
+    private final String host;
+
+    /** The route pattern. */
+    private final String route;
+
+    /** The status class, such as "2xx". */
+    private final String statusClass;
+
+    /**
+     * Constructor.
+     * 
+     * @param host
+     *            The virtual host name.
+     * @param application
+     *            The application name.
+     * @param route
+     *            The route pattern.
+     * @param statusClass
+     *            The status class, such as "2xx".
+     */
+    public MetricsKey(String host, String application, String route,
+            String statusClass) {
+        this.host = (host == null) ? "" : host;
+        this.application = (application == null) ? "" : application;
+        this.route = (route == null) ? "" : route;
+        this.statusClass = (statusClass == null) ? "" : statusClass;
+
+        int h = this.host.hashCode();
+        h = 31 * h + this.application.hashCode();
+        h = 31 * h + this.route.hashCode();
+        h = 31 * h + this.statusClass.hashCode();
+        this.hashCode = h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof MetricsKey)) {
+            return false;
+        }
+
+        MetricsKey that = (MetricsKey) obj;
+        return (this.hashCode == that.hashCode)
+                && this.host.equals(that.host)
+                && this.application.equals(that.application)
+                && this.route.equals(that.route)
+                && this.statusClass.equals(that.statusClass);
+    }
+
+    /**
+     * Returns the application name.
+     * 
+     * @return The application name.
+     */
+    public String getApplication() {
+        return application;
+    }
+
+    /**
+     * Returns the virtual host name.
+     * 
+     * @return The virtual host name.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Returns the route pattern.
+     * 
+     * @return The route pattern.
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns the status class, such as "2xx".
+     * 
+     * @return The status class.
+     */
+    public String getStatusClass() {
+        return statusClass;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "host=" + host + ", application=" + application + ", route="
+                + route + ", status=" + statusClass;
+    }
+
+}
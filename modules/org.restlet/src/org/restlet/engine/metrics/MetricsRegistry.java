@@ -0,0 +1,268 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the metrics collected for the calls handled by a component or an
+ * application. Latencies are recorded in microseconds, both globally and per
+ * series of calls identified by a {@link MetricsKey}. The number of series is
+ * bounded in order to protect the memory when routes contain many distinct
+ * patterns; the calls beyond this limit are gathered in a single overflow
+ * series per status class.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsRegistry implements MetricsRegistryMBean {
+
+    /** The route label of the overflow series. */
+    public static final String OVERFLOW_ROUTE = "(other)";
+
+    /**
+     * Converts a duration in microseconds into milliseconds.
+     * 
+     * @param micros
+     *            The duration in microseconds.
+     * @return The duration in milliseconds.
+     */
+    private static double toMillis(double micros) {
+        return micros / 1000D;
+    }
+
+    /** The number of calls being handled. */
+    private final StripedCounter inFlight;
+
+    /** The latencies of all the calls. */
+    private final LatencyHistogram latencies;
+
+    /** The maximum number of series tracked. */
+    private volatile int maxSeries;
+
+    /** The latencies per series. */
+    private final ConcurrentMap<MetricsKey, LatencyHistogram> series;
+
+    /** The number of calls per status class, from 1xx to 5xx. */
+    private final StripedCounter[] statusCounts;
+
+    /**
+     * Constructor.
+     */
+    public MetricsRegistry() {
+        this(1000);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSeries
+     *            The maximum number of series tracked.
+     */
+    public MetricsRegistry(int maxSeries) {
+        this.inFlight = new StripedCounter();
+        this.latencies = new LatencyHistogram();
+        this.maxSeries = maxSeries;
+        this.series = new ConcurrentHashMap<MetricsKey, LatencyHistogram>();
+        this.statusCounts = new StripedCounter[6];
+
+        for (int i = 0; i < this.statusCounts.length; i++) {
+            this.statusCounts[i] = new StripedCounter();
+        }
+    }
+
+    /**
+     * Records the beginning of a call.
+     */
+    public void begin() {
+        this.inFlight.increment();
+    }
+
+    /**
+     * Records the end of a call.
+     * 
+     * @param key
+     *            The key identifying the series of the call.
+     * @param statusCode
+     *            The final status code.
+     * @param duration
+     *            The call duration, in microseconds.
+     */
+    public void end(MetricsKey key, int statusCode, long duration) {
+        this.inFlight.decrement();
+        this.latencies.record(duration);
+        int statusClass = statusCode / 100;
+
+        if ((statusClass > 0) && (statusClass < this.statusCounts.length)) {
+            this.statusCounts[statusClass].increment();
+        }
+
+        getLatencies(key).record(duration);
+    }
+
+    @Override
+    public long getClientErrorCount() {
+        return this.statusCounts[4].get();
+    }
+
+    @Override
+    public long getInFlightCount() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Returns the latencies of all the calls, in microseconds.
+     * 
+     * @return The latencies of all the calls.
+     */
+    public LatencyHistogram getLatencies() {
+        return this.latencies;
+    }
+
+    /**
+     * Returns the latencies of a series, creating it if needed. When the
+     * maximum number of series is reached, the overflow series of the same
+     * host, application and status class is returned instead.
+     * 
+     * @param key
+     *            The key identifying the series.
+     * @return The latencies of the series.
+     */
+    protected LatencyHistogram getLatencies(MetricsKey key) {
+        LatencyHistogram result = this.series.get(key);
+
+        if (result == null) {
+            MetricsKey k = key;
+
+            if (this.series.size() >= getMaxSeries()) {
+                k = new MetricsKey(key.getHost(), key.getApplication(),
+                        OVERFLOW_ROUTE, key.getStatusClass());
+            }
+
+            result = new LatencyHistogram();
+            LatencyHistogram existing = this.series.putIfAbsent(k, result);
+
+            if (existing != null) {
+                result = existing;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public double getLatency95thPercentile() {
+        return toMillis(this.latencies.getPercentile(95D));
+    }
+
+    @Override
+    public double getLatency99thPercentile() {
+        return toMillis(this.latencies.getPercentile(99D));
+    }
+
+    @Override
+    public double getLatencyMax() {
+        return toMillis(this.latencies.getMax());
+    }
+
+    @Override
+    public double getLatencyMean() {
+        return toMillis(this.latencies.getMean());
+    }
+
+    @Override
+    public double getLatencyMedian() {
+        return toMillis(this.latencies.getPercentile(50D));
+    }
+
+    /**
+     * Returns the maximum number of series tracked.
+     * 
+     * @return The maximum number of series tracked.
+     */
+    public int getMaxSeries() {
+        return maxSeries;
+    }
+
+    @Override
+    public long getRequestCount() {
+        return this.latencies.getCount();
+    }
+
+    /**
+     * Returns an unmodifiable view of the latencies per series, in
+     * microseconds.
+     * 
+     * @return The latencies per series.
+     */
+    public Map<MetricsKey, LatencyHistogram> getSeries() {
+        return Collections.unmodifiableMap(this.series);
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return this.series.size();
+    }
+
+    @Override
+    public long getServerErrorCount() {
+        return this.statusCounts[5].get();
+    }
+
+    /**
+     * Returns the number of calls answered with a status of a given class.
+     * 
+     * @param statusClass
+     *            The status class, between 1 and 5.
+     * @return The number of calls answered with a status of the given class.
+     */
+    public long getStatusCount(int statusClass) {
+        return this.statusCounts[statusClass].get();
+    }
+
+    @Override
+    public void reset() {
+        this.latencies.reset();
+        this.series.clear();
+
+        for (StripedCounter counter : this.statusCounts) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Sets the maximum number of series tracked.
+     * 
+     * @param maxSeries
+     *            The maximum number of series tracked.
+     */
+    public void setMaxSeries(int maxSeries) {
+        this.maxSeries = maxSeries;
+    }
+
+}
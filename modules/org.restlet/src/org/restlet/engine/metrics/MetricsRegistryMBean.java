@@ -0,0 +1,111 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+/**
+ * Management interface of a {@link MetricsRegistry}. Durations are expressed
+ * in milliseconds.
+ * 
+ * @author Jerome Louvel
+ */
+public interface MetricsRegistryMBean {
+
+    /**
+     * Returns the number of calls answered with a client error status (4xx).
+     * 
+     * @return The number of calls answered with a client error status.
+     */
+    long getClientErrorCount();
+
+    /**
+     * Returns the number of calls being handled.
+     * 
+     * @return The number of calls being handled.
+     */
+    long getInFlightCount();
+
+    /**
+     * Returns the 95th percentile of the call durations.
+     * 
+     * @return The 95th percentile of the call durations.
+     */
+    double getLatency95thPercentile();
+
+    /**
+     * Returns the 99th percentile of the call durations.
+     * 
+     * @return The 99th percentile of the call durations.
+     */
+    double getLatency99thPercentile();
+
+    /**
+     * Returns the longest call duration.
+     * 
+     * @return The longest call duration.
+     */
+    double getLatencyMax();
+
+    /**
+     * Returns the mean call duration.
+     * 
+     * @return The mean call duration.
+     */
+    double getLatencyMean();
+
+    /**
+     * Returns the median call duration.
+     * 
+     * @return The median call duration.
+     */
+    double getLatencyMedian();
+
+    /**
+     * Returns the number of completed calls.
+     * 
+     * @return The number of completed calls.
+     */
+    long getRequestCount();
+
+    /**
+     * Returns the number of series tracked.
+     * 
+     * @return The number of series tracked.
+     */
+    int getSeriesCount();
+
+    /**
+     * Returns the number of calls answered with a server error status (5xx).
+     * 
+     * @return The number of calls answered with a server error status.
+     */
+    long getServerErrorCount();
+
+    /**
+     * Resets all the metrics.
+     */
+    void reset();
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.restlet.Application;
+import org.restlet.Restlet;
+import org.restlet.routing.TemplateRoute;
+import org.restlet.routing.VirtualHost;
+
+/**
+ * Labels of a call collected while it is routed. Each matched
+ * {@link TemplateRoute} reports itself so that the virtual host, the
+ * application and the full route pattern are known when the call completes.
+ * The call is recorded once, either when it returns to the {@link MetricsFilter}
+ * or when its response is committed later on.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsTrace {
+
+    /**
+     * Returns the name identifying a Restlet in the metrics.
+     * 
+     * @param restlet
+     *            The Restlet.
+     * @return The name identifying the Restlet.
+     */
+    private static String getName(Restlet restlet) {
+        String result = restlet.getName();
+
+        if (result == null) {
+            result = restlet.getClass().getSimpleName();
+
+            if (result.length() == 0) {
+                result = restlet.getClass().getName();
+            }
+        }
+
+        return result;
+    }
+
+    /** The application name. */
+    private volatile String application;
+
+    /** Indicates if the call was recorded. */
+    private final AtomicBoolean ended;
+
+    /** The virtual host name. */
+    private volatile String host;
+
+    /** The registry where the call is recorded. */
+    private final MetricsRegistry registry;
+
+    /** The route pattern. */
+    private volatile String route;
+
+    /** The start time, in nanoseconds. */
+    private final long startTime;
+
+    /**
+     * Constructor.
+     * 
+     * @param registry
+     *            The registry where the call is recorded.
+     * @param startTime
+     *            The start time, in nanoseconds.
+     */
+    public MetricsTrace(MetricsRegistry registry, long startTime) {
+        this.ended = new AtomicBoolean();
+        this.registry = registry;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Records the end of the call in the registry, unless it was already
+     * recorded.
+     * 
+     * @param statusCode
+     *            The final status code.
+     */
+    public void end(int statusCode) {
+        if (this.ended.compareAndSet(false, true)) {
+            long duration = (System.nanoTime() - getStartTime()) / 1000L;
+            this.registry.end(toKey(statusCode), statusCode, duration);
+        }
+    }
+
+    /**
+     * Returns the application name.
+     * 
+     * @return The application name.
+     */
+    public String getApplication() {
+        return application;
+    }
+
+    /**
+     * Returns the virtual host name.
+     * 
+     * @return The virtual host name.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Returns the route pattern, concatenating the patterns of all the matched
+     * routes.
+     * 
+     * @return The route pattern.
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns the start time, in nanoseconds.
+     * 
+     * @return The start time, in nanoseconds.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Updates the labels with a matched route.
+     * 
+     * @param route
+     *            The matched route.
+     */
+    public void matched(TemplateRoute route) {
+        if (route.getRouter() instanceof VirtualHost) {
+            VirtualHost virtualHost = (VirtualHost) route.getRouter();
+            this.host = (virtualHost.getName() == null) ? virtualHost
+                    .getHostDomain() : virtualHost.getName();
+        }
+
+        if (route.getNext() instanceof Application) {
+            this.application = getName(route.getNext());
+        }
+
+        if (route.getTemplate() != null) {
+            this.route = (this.route == null) ? route.getTemplate()
+                    .getPattern() : this.route
+                    + route.getTemplate().getPattern();
+        }
+    }
+
+    /**
+     * Creates the key identifying the series of the call.
+     * 
+     * @param statusCode
+     *            The final status code.
+     * @return The key identifying the series of the call.
+     */
+    public MetricsKey toKey(int statusCode) {
+        return new MetricsKey(getHost(), getApplication(), getRoute(),
+                (statusCode / 100) + "xx");
+    }
+
+}
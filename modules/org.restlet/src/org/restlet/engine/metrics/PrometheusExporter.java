@@ -0,0 +1,171 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+import java.util.Map;
+
+import org.restlet.data.CharacterSet;
+import org.restlet.data.MediaType;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+
+/**
+ * Exports metrics using the Prometheus text format. The latencies of each
+ * series are exported as a summary in seconds, with the median, 95th and 99th
+ * percentiles.
+ * 
+ * @see <a
+ *      href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus
+ *      exposition formats</a>
+ * @author Jerome Louvel
+ */
+public class PrometheusExporter implements MetricsExporter {
+
+    /** The exported quantiles. */
+    private static final double[] QUANTILES = { 0.5D, 0.95D, 0.99D };
+
+    /**
+     * Appends a label, escaping its value.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param name
+     *            The label name.
+     * @param value
+     *            The label value.
+     */
+    private static void appendLabel(StringBuilder sb, String name, String value) {
+        if (sb.charAt(sb.length() - 1) != '{') {
+            sb.append(',');
+        }
+
+        sb.append(name).append("=\"");
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c == '"') {
+                sb.append("\\\"");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+
+        sb.append('"');
+    }
+
+    /**
+     * Appends the labels of a series, without the closing brace.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param name
+     *            The metric name.
+     * @param key
+     *            The series key.
+     */
+    private static void appendLabels(StringBuilder sb, String name,
+            MetricsKey key) {
+        sb.append(name).append('{');
+        appendLabel(sb, "host", key.getHost());
+        appendLabel(sb, "application", key.getApplication());
+        appendLabel(sb, "route", key.getRoute());
+        appendLabel(sb, "status", key.getStatusClass());
+    }
+
+    /**
+     * Appends the help and type lines of a metric.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param name
+     *            The metric name.
+     * @param type
+     *            The metric type.
+     * @param help
+     *            The metric description.
+     */
+    private static void appendHeader(StringBuilder sb, String name,
+            String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help)
+                .append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type)
+                .append('\n');
+    }
+
+    /**
+     * Converts a duration in microseconds into seconds.
+     * 
+     * @param micros
+     *            The duration in microseconds.
+     * @return The duration in seconds.
+     */
+    private static double toSeconds(long micros) {
+        return micros / 1000000D;
+    }
+
+    @Override
+    public Representation export(MetricsRegistry registry) {
+        StringBuilder sb = new StringBuilder();
+
+        appendHeader(sb, "restlet_requests_in_flight", "gauge",
+                "Number of calls being handled.");
+        sb.append("restlet_requests_in_flight ")
+                .append(registry.getInFlightCount()).append('\n');
+
+        String name = "restlet_request_duration_seconds";
+        appendHeader(sb, name, "summary", "Duration of the handled calls.");
+
+        for (Map.Entry<MetricsKey, LatencyHistogram> entry : registry
+                .getSeries().entrySet()) {
+            LatencyHistogram latencies = entry.getValue();
+
+            for (double quantile : QUANTILES) {
+                appendLabels(sb, name, entry.getKey());
+                appendLabel(sb, "quantile", Double.toString(quantile));
+                sb.append("} ")
+                        .append(toSeconds(latencies
+                                .getPercentile(quantile * 100D)))
+                        .append('\n');
+            }
+
+            appendLabels(sb, name + "_sum", entry.getKey());
+            sb.append("} ").append(toSeconds(latencies.getSum())).append('\n');
+            appendLabels(sb, name + "_count", entry.getKey());
+            sb.append("} ").append(latencies.getCount()).append('\n');
+        }
+
+        Representation result = new StringRepresentation(sb,
+                MediaType.TEXT_PLAIN);
+        result.setCharacterSet(CharacterSet.UTF_8);
+        return result;
+    }
+
+}
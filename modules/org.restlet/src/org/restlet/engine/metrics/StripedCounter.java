@@ -0,0 +1,144 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter updated without locks and with little contention by concurrent
+ * threads. Each thread updates one of several cells, selected by its
+ * identifier, and reading the counter sums all the cells. The cells are spread
+ * over distinct cache lines to prevent false sharing.
+ * 
+ * @author Jerome Louvel
+ */
+public class StripedCounter {
+
+    /** The number of longs separating two cells, one cache line. */
+    private static final int PADDING = 8;
+
+    /**
+     * Returns the smallest power of two greater than or equal to a number.
+     * 
+     * @param number
+     *            The number.
+     * @return The smallest power of two greater than or equal to the number.
+     */
+    private static int nextPowerOfTwo(int number) {
+        int result = 1;
+
+        while (result < number) {
+            result <<= 1;
+        }
+
+        return result;
+    }
+
+    /** The padded cells. */
+    private final AtomicLongArray cells;
+
+    /** The mask applied to select a cell. */
+    private final int mask;
+
+    /**
+     * Constructor. Uses one stripe per available processor.
+     */
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param stripes
+     *            The minimum number of stripes, rounded to a power of two.
+     */
+    public StripedCounter(int stripes) {
+        int size = nextPowerOfTwo(Math.max(1, stripes));
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds a value to the counter.
+     * 
+     * @param value
+     *            The value to add.
+     */
+    public void add(long value) {
+        this.cells.getAndAdd(getIndex(), value);
+    }
+
+    /**
+     * Decrements the counter.
+     */
+    public void decrement() {
+        add(-1L);
+    }
+
+    /**
+     * Returns the current value, summing all the cells.
+     * 
+     * @return The current value.
+     */
+    public long get() {
+        long result = 0L;
+
+        for (int i = 0; i < this.cells.length(); i += PADDING) {
+            result += this.cells.get(i);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the index of the cell updated by the current thread.
+     * 
+     * @return The index of the cell updated by the current thread.
+     */
+    private int getIndex() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & this.mask) * PADDING;
+    }
+
+    /**
+     * Increments the counter.
+     */
+    public void increment() {
+        add(1L);
+    }
+
+    /**
+     * Resets all the cells to zero.
+     */
+    public void reset() {
+        for (int i = 0; i < this.cells.length(); i += PADDING) {
+            this.cells.set(i, 0L);
+        }
+    }
+
+}
@@ -26,7 +26,12 @@ package org.restlet.engine.resource;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -49,6 +54,9 @@ public class AnnotationUtils {
     /** Annotation info cache. */
     private static final ConcurrentMap<Class<?>, List<AnnotationInfo>> cache = new ConcurrentHashMap<Class<?>, List<AnnotationInfo>>();
 
+    /** Method annotation dispatch tables, keyed by resource class. */
+    private static final ConcurrentMap<Class<?>, Map<Method, List<MethodAnnotationInfo>>> dispatchCache = new ConcurrentHashMap<Class<?>, Map<Method, List<MethodAnnotationInfo>>>();
+
     /** Current instance. */
     private static AnnotationUtils instance = new AnnotationUtils();
 
@@ -224,28 +232,33 @@ public class AnnotationUtils {
      */
     public void clearCache() {
         cache.clear();
+        dispatchCache.clear();
     }
 
     /**
-     * Returns the annotation descriptors for the given resource class.
+     * Returns the annotation descriptors for the given resource class. Lookups
+     * of classes already introspected don't acquire any lock, while the
+     * introspection of a new class is done only once.
      * 
      * @param clazz
      *            The resource class to introspect.
      * @return The list of annotation descriptors.
      */
-    public synchronized List<AnnotationInfo> getAnnotations(Class<?> clazz) {
+    public List<AnnotationInfo> getAnnotations(Class<?> clazz) {
         List<AnnotationInfo> result = cache.get(clazz);
 
         if (result == null) {
-            // Inspect the class itself for annotations
-            result = addAnnotations(result, clazz, clazz);
+            synchronized (this) {
+                result = cache.get(clazz);
 
-            // Put the list in the cache if no one was previously present
-            List<AnnotationInfo> prev = cache.putIfAbsent(clazz, result);
+                if (result == null) {
+                    // Inspect the class itself for annotations
+                    result = addAnnotations(result, clazz, clazz);
 
-            if (prev != null) {
-                // Reuse the previous entry
-                result = prev;
+                    if (result != null) {
+                        cache.put(clazz, result);
+                    }
+                }
             }
         }
 
@@ -264,6 +277,62 @@ public class AnnotationUtils {
         return addMethodAnnotationDescriptors(null, clazz, clazz, javaMethod);
     }
 
+    /**
+     * Returns the dispatch table of the given resource class, grouping its
+     * method annotation descriptors by Restlet method. Within each group, the
+     * descriptors keep the order of {@link #getAnnotations(Class)}.
+     * 
+     * @param clazz
+     *            The resource class to introspect.
+     * @return The dispatch table.
+     */
+    private Map<Method, List<MethodAnnotationInfo>> getDispatchTable(
+            Class<?> clazz) {
+        Map<Method, List<MethodAnnotationInfo>> result = dispatchCache
+                .get(clazz);
+
+        if (result == null) {
+            List<AnnotationInfo> annotations = getAnnotations(clazz);
+
+            if (annotations == null) {
+                return Collections.emptyMap();
+            }
+
+            Map<Method, List<MethodAnnotationInfo>> table = new LinkedHashMap<Method, List<MethodAnnotationInfo>>();
+
+            for (AnnotationInfo annotationInfo : annotations) {
+                if (annotationInfo instanceof MethodAnnotationInfo) {
+                    MethodAnnotationInfo methodAnnotationInfo = (MethodAnnotationInfo) annotationInfo;
+                    List<MethodAnnotationInfo> entries = table
+                            .get(methodAnnotationInfo.getRestletMethod());
+
+                    if (entries == null) {
+                        entries = new ArrayList<MethodAnnotationInfo>();
+                        table.put(methodAnnotationInfo.getRestletMethod(),
+                                entries);
+                    }
+
+                    entries.add(methodAnnotationInfo);
+                }
+            }
+
+            for (Map.Entry<Method, List<MethodAnnotationInfo>> entry : table
+                    .entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+
+            result = Collections.unmodifiableMap(table);
+            Map<Method, List<MethodAnnotationInfo>> prev = dispatchCache
+                    .putIfAbsent(clazz, result);
+
+            if (prev != null) {
+                result = prev;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the first annotation descriptor matching the given Java method.
      * 
@@ -288,6 +357,42 @@ public class AnnotationUtils {
         return null;
     }
 
+    /**
+     * Returns the first annotation descriptor of the given resource class
+     * matching the given Restlet method. Only the descriptors annotating this
+     * Restlet method are checked, using the class dispatch table.
+     * 
+     * @param clazz
+     *            The resource class.
+     * @param restletMethod
+     *            The method to match.
+     * @param query
+     *            The query parameters.
+     * @param entity
+     *            The request entity to match or null if no entity is provided.
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     * @return The annotation descriptor.
+     * @throws IOException
+     */
+    public MethodAnnotationInfo getMethodAnnotation(Class<?> clazz,
+            Method restletMethod, Form query, Representation entity,
+            MetadataService metadataService,
+            org.restlet.service.ConverterService converterService)
+            throws IOException {
+        for (MethodAnnotationInfo methodAnnotationInfo : getMethodAnnotations(
+                clazz, restletMethod)) {
+            if (methodAnnotationInfo.isCompatible(restletMethod, query, entity,
+                    metadataService, converterService)) {
+                return methodAnnotationInfo;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Returns the first annotation descriptor matching the given Restlet
      * method.
@@ -327,6 +432,37 @@ public class AnnotationUtils {
         return null;
     }
 
+    /**
+     * Returns the method annotation descriptors of the given resource class
+     * that annotate the given Restlet method, in declaration order.
+     * 
+     * @param clazz
+     *            The resource class.
+     * @param restletMethod
+     *            The Restlet method.
+     * @return The unmodifiable list of method annotation descriptors, empty if
+     *         none is found.
+     */
+    public List<MethodAnnotationInfo> getMethodAnnotations(Class<?> clazz,
+            Method restletMethod) {
+        List<MethodAnnotationInfo> result = getDispatchTable(clazz).get(
+                restletMethod);
+        return (result == null) ? Collections
+                .<MethodAnnotationInfo> emptyList() : result;
+    }
+
+    /**
+     * Returns the Restlet methods annotated in the given resource class, in
+     * declaration order.
+     * 
+     * @param clazz
+     *            The resource class.
+     * @return The unmodifiable set of annotated Restlet methods.
+     */
+    public Set<Method> getRestletMethods(Class<?> clazz) {
+        return getDispatchTable(clazz).keySet();
+    }
+
     /**
      * Returns an instance of {@link Method} according to the given annotations.
      * 
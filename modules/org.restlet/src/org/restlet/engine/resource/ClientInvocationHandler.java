@@ -43,6 +43,7 @@ import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.ClientProxy;
 import org.restlet.resource.ClientResource;
+import org.restlet.resource.Promise;
 import org.restlet.resource.ResourceException;
 import org.restlet.resource.Result;
 
@@ -259,76 +260,145 @@ public class ClientInvocationHandler<T> implements InvocationHandler {
                     }
                 }
 
-                // Effectively handle the call
-                Response response = getClientResource().handleOutbound(request);
-
-                // Handle the response, synchronous call
-                if (getClientResource().getOnResponse() == null) {
-                    if ((response != null) && response.getStatus().isError()) {
-                        ThrowableAnnotationInfo tai = getAnnotationUtils()
-                                .getThrowableAnnotationInfo(javaMethod,
-                                        response.getStatus().getCode());
-
-                        if (tai != null) {
-                            Class<?> throwableClazz = tai.getJavaClass();
-                            Throwable t = null;
-
-                            if (tai.isSerializable()
-                                    && response.isEntityAvailable()) {
-                                t = (Throwable) getClientResource().toObject(
-                                        response.getEntity(), throwableClazz);
-                            } else {
-                                try {
-                                    t = (Throwable) throwableClazz
-                                            .newInstance();
-                                } catch (Exception e) {
-                                    Context.getCurrentLogger()
-                                            .log(Level.FINE,
-                                                    "Unable to instantiate the client-side exception using the default constructor.");
-                                }
+                if (Promise.class.equals(javaMethod.getReturnType())) {
+                    // Asynchronous mode where a promise is returned
+                    result = invokeAsync(javaMethod, request);
+                } else {
+                    // Effectively handle the call
+                    Response response = getClientResource().handleOutbound(
+                            request);
+
+                    // Handle the response, synchronous call
+                    if (getClientResource().getOnResponse() == null) {
+                        result = toResult(javaMethod, response,
+                                annotationInfo.getJavaOutputType());
+                    }
+                }
+            }
+        }
 
-                                if (response.isEntityAvailable()) {
-                                    StatusInfo si = getClientResource()
-                                            .toObject(response.getEntity(),
-                                                    StatusInfo.class);
+        return result;
+    }
 
-                                    if (si != null) {
-                                        response.setStatus(new Status(si
-                                                .getCode(), si
-                                                .getReasonPhrase(), si
-                                                .getDescription()));
-                                    }
-                                }
-                            }
-
-                            if (t != null) {
-                                throw t;
-                            }
-                            // TODO cf issues 1004 and 1018.
-                            // this code has been commented as the automatic
-                            // deserialization is problematic. We may rethink a
-                            // way to recover the status info.
-                            // } else if (response.isEntityAvailable()) {
-                            // StatusInfo si = getClientResource().toObject(
-                            // response.getEntity(), StatusInfo.class);
-                            //
-                            // if (si != null) {
-                            // response.setStatus(new Status(si.getCode(), si
-                            // .getReasonPhrase(), si.getDescription()));
-                            // }
+    /**
+     * Asynchronously invokes a Java method returning a {@link Promise}. The
+     * expected result class is the type argument of the returned promise.
+     * 
+     * @param javaMethod
+     *            The Java method invoked.
+     * @param request
+     *            The request to send.
+     * @return The promise of the result.
+     */
+    protected Promise<Object> invokeAsync(final Method javaMethod,
+            Request request) {
+        Type returnType = javaMethod.getGenericReturnType();
+        Type actualType = (returnType instanceof ParameterizedType) ? ((ParameterizedType) returnType)
+                .getActualTypeArguments()[0] : null;
+
+        if (actualType instanceof ParameterizedType) {
+            actualType = ((ParameterizedType) actualType).getRawType();
+        }
+
+        final Class<?> outputType = (actualType instanceof Class<?>) ? (Class<?>) actualType
+                : null;
+        final Promise<Object> result = new Promise<Object>();
+        getClientResource().handleOutboundAsync(request).addListener(
+                new Result<Response>() {
+                    public void onFailure(Throwable caught) {
+                        result.fail(caught);
+                    }
+
+                    public void onSuccess(Response response) {
+                        try {
+                            result.complete(toResult(javaMethod, response,
+                                    outputType));
+                        } catch (Throwable t) {
+                            result.fail(t);
                         }
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Converts the response of a call into the result of a Java method. If an
+     * error status is received, the matching annotated exception is thrown if
+     * any, otherwise a {@link ResourceException}.
+     * 
+     * @param javaMethod
+     *            The Java method invoked.
+     * @param response
+     *            The response received.
+     * @param outputType
+     *            The expected class of the result.
+     * @return The result of the Java method.
+     * @throws Throwable
+     */
+    protected Object toResult(Method javaMethod, Response response,
+            Class<?> outputType) throws Throwable {
+        Object result = null;
 
-                        getClientResource().doError(response.getStatus());
-                    } else if (!annotationInfo.getJavaOutputType().equals(
-                            void.class)) {
-                        result = getClientResource()
-                                .toObject(
-                                        (response == null ? null
-                                                : response.getEntity()),
-                                        annotationInfo.getJavaOutputType());
+        if ((response != null) && response.getStatus().isError()) {
+            ThrowableAnnotationInfo tai = getAnnotationUtils()
+                    .getThrowableAnnotationInfo(javaMethod,
+                            response.getStatus().getCode());
+
+            if (tai != null) {
+                Class<?> throwableClazz = tai.getJavaClass();
+                Throwable t = null;
+
+                if (tai.isSerializable()
+                        && response.isEntityAvailable()) {
+                    t = (Throwable) getClientResource().toObject(
+                            response.getEntity(), throwableClazz);
+                } else {
+                    try {
+                        t = (Throwable) throwableClazz
+                                .newInstance();
+                    } catch (Exception e) {
+                        Context.getCurrentLogger()
+                                .log(Level.FINE,
+                                        "Unable to instantiate the client-side exception using the default constructor.");
+                    }
+
+                    if (response.isEntityAvailable()) {
+                        StatusInfo si = getClientResource()
+                                .toObject(response.getEntity(),
+                                        StatusInfo.class);
+
+                        if (si != null) {
+                            response.setStatus(new Status(si
+                                    .getCode(), si
+                                    .getReasonPhrase(), si
+                                    .getDescription()));
+                        }
                     }
                 }
+
+                if (t != null) {
+                    throw t;
+                }
+                // TODO cf issues 1004 and 1018.
+                // this code has been commented as the automatic
+                // deserialization is problematic. We may rethink a
+                // way to recover the status info.
+                // } else if (response.isEntityAvailable()) {
+                // StatusInfo si = getClientResource().toObject(
+                // response.getEntity(), StatusInfo.class);
+                //
+                // if (si != null) {
+                // response.setStatus(new Status(si.getCode(), si
+                // .getReasonPhrase(), si.getDescription()));
+                // }
             }
+
+            getClientResource().doError(response.getStatus());
+        } else if ((outputType != null) && !outputType.equals(void.class)
+                && !outputType.equals(Void.class)) {
+            result = getClientResource().toObject(
+                    (response == null ? null : response.getEntity()),
+                    outputType);
         }
 
         return result;
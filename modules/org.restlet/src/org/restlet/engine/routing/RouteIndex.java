@@ -0,0 +1,324 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.routing.Route;
+import org.restlet.routing.Template;
+import org.restlet.routing.TemplateRoute;
+
+/**
+ * Immutable prefix trie compiled from the URI templates of a list of routes.
+ * Each {@link TemplateRoute} is indexed under the literal prefix of its
+ * template pattern, that is the characters located before the first variable.
+ * Looking up a remaining part only walks the trie along its characters and
+ * scores the routes whose literal prefix is a prefix of the remaining part,
+ * without allocating any intermediary collection. Only those candidates can
+ * have a non-zero score, so the regular expressions of the other templates are
+ * never evaluated.<br>
+ * <br>
+ * Routes that can't be indexed, such as custom {@link Route} subclasses or
+ * template routes overriding the scoring logic, are always returned as
+ * candidates.
+ * 
+ * @author Jerome Louvel
+ */
+public class RouteIndex {
+
+    /** Node of the prefix trie. */
+    private static class Node {
+        /** The child nodes, keyed by the next literal character. */
+        private final Map<Character, Node> children;
+
+        /** The indexes of the routes whose literal prefix ends here. */
+        private int[] routes;
+
+        /**
+         * Constructor.
+         */
+        private Node() {
+            this.children = new HashMap<Character, Node>();
+            this.routes = new int[0];
+        }
+
+        /**
+         * Adds a route index to this node.
+         * 
+         * @param index
+         *            The route index.
+         */
+        private void add(int index) {
+            this.routes = Arrays.copyOf(this.routes, this.routes.length + 1);
+            this.routes[this.routes.length - 1] = index;
+        }
+    }
+
+    /**
+     * Returns the literal prefix of a template pattern, located before the
+     * first variable. Characters that aren't quoted when the template is
+     * compiled into a regular expression also end the prefix.
+     * 
+     * @param pattern
+     *            The template pattern.
+     * @return The literal prefix.
+     */
+    public static String getLiteralPrefix(String pattern) {
+        int length = pattern.length();
+
+        for (int i = 0; i < length; i++) {
+            char next = pattern.charAt(i);
+
+            if ((next == '{') || (next == '}') || (next == '+')) {
+                return pattern.substring(0, i);
+            }
+        }
+
+        return pattern;
+    }
+
+    /**
+     * Indicates if a route can be indexed by its literal template prefix.
+     * 
+     * @param route
+     *            The route to test.
+     * @return True if the route can be indexed.
+     */
+    private static boolean isIndexable(Route route) {
+        return (route != null) && (route.getClass() == TemplateRoute.class)
+                && (((TemplateRoute) route).getTemplate() != null)
+                && (((TemplateRoute) route).getTemplate().getPattern() != null);
+    }
+
+    /** The root node, holding the unindexed routes. */
+    private final Node root;
+
+    /** The snapshot of indexed routes. */
+    private final Route[] routes;
+
+    /** The version of the route list when the snapshot was taken. */
+    private final int version;
+
+    /**
+     * Constructor.
+     * 
+     * @param routes
+     *            The routes to index.
+     * @param version
+     *            The version of the route list when the snapshot was taken.
+     */
+    public RouteIndex(List<Route> routes, int version) {
+        this.routes = routes.toArray(new Route[0]);
+        this.version = version;
+        this.root = new Node();
+
+        for (int i = 0; i < this.routes.length; i++) {
+            Node node = this.root;
+
+            if (isIndexable(this.routes[i])) {
+                Template template = ((TemplateRoute) this.routes[i])
+                        .getTemplate();
+                String prefix = getLiteralPrefix(template.getPattern());
+
+                for (int j = 0; j < prefix.length(); j++) {
+                    Character key = Character.valueOf(prefix.charAt(j));
+                    Node child = node.children.get(key);
+
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(key, child);
+                    }
+
+                    node = child;
+                }
+            }
+
+            node.add(i);
+        }
+    }
+
+    /**
+     * Returns the best route match for a given call, only scoring the
+     * candidate routes. Ties are resolved in favor of the first route in the
+     * original list order.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @param remainingPart
+     *            The remaining part of the resource reference, including the
+     *            query string.
+     * @param pathPart
+     *            The remaining part of the resource reference, without the
+     *            query string.
+     * @return The best route match or null.
+     */
+    public Route getBest(Request request, Response response,
+            float requiredScore, String remainingPart, String pathPart) {
+        int result = -1;
+        float bestScore = 0F;
+        float score;
+        Node node = this.root;
+
+        for (int i = 0; node != null; i++) {
+            for (int index : node.routes) {
+                score = score(index, request, response, remainingPart,
+                        pathPart);
+
+                if ((score >= requiredScore)
+                        && ((score > bestScore) || ((score == bestScore)
+                                && (index < result)))) {
+                    bestScore = score;
+                    result = index;
+                }
+            }
+
+            node = getChild(node, remainingPart, i);
+        }
+
+        return (result == -1) ? null : this.routes[result];
+    }
+
+    /**
+     * Returns the child node matching a character of the remaining part.
+     * 
+     * @param node
+     *            The parent node.
+     * @param remainingPart
+     *            The remaining part of the resource reference.
+     * @param position
+     *            The position of the character in the remaining part.
+     * @return The child node or null.
+     */
+    private Node getChild(Node node, String remainingPart, int position) {
+        if (node.children.isEmpty() || (position >= remainingPart.length())) {
+            return null;
+        }
+
+        return node.children.get(Character.valueOf(remainingPart
+                .charAt(position)));
+    }
+
+    /**
+     * Returns the first route match for a given call, in the original list
+     * order, only scoring the candidate routes.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @param remainingPart
+     *            The remaining part of the resource reference, including the
+     *            query string.
+     * @param pathPart
+     *            The remaining part of the resource reference, without the
+     *            query string.
+     * @return The first route match or null.
+     */
+    public Route getFirst(Request request, Response response,
+            float requiredScore, String remainingPart, String pathPart) {
+        int result = this.routes.length;
+        Node node = this.root;
+
+        for (int i = 0; node != null; i++) {
+            // The indexes of each node are sorted, so only the routes located
+            // before the current match need to be scored
+            for (int index : node.routes) {
+                if (index >= result) {
+                    break;
+                } else if (score(index, request, response, remainingPart,
+                        pathPart) >= requiredScore) {
+                    result = index;
+                    break;
+                }
+            }
+
+            node = getChild(node, remainingPart, i);
+        }
+
+        return (result == this.routes.length) ? null : this.routes[result];
+    }
+
+    /**
+     * Returns the version of the route list when the snapshot was taken.
+     * 
+     * @return The version of the route list when the snapshot was taken.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Scores a route, reusing the remaining parts computed once per call for
+     * the indexed template routes.
+     * 
+     * @param index
+     *            The index of the route to score.
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param remainingPart
+     *            The remaining part of the resource reference, including the
+     *            query string.
+     * @param pathPart
+     *            The remaining part of the resource reference, without the
+     *            query string.
+     * @return The score.
+     */
+    private float score(int index, Request request, Response response,
+            String remainingPart, String pathPart) {
+        Route route = this.routes[index];
+
+        if (isIndexable(route)) {
+            TemplateRoute templateRoute = (TemplateRoute) route;
+            return templateRoute.score(request, response, templateRoute
+                    .isMatchingQuery() ? remainingPart : pathPart);
+        }
+
+        return route.score(request, response);
+    }
+
+    /**
+     * Returns the number of indexed routes.
+     * 
+     * @return The number of indexed routes.
+     */
+    public int size() {
+        return this.routes.length;
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Concurrent cache holding a bounded number of entries. Used to intern values
+ * that are expensive to compute and frequently requested with the same key,
+ * such as parsed header values. When the maximum size is reached, the cache is
+ * simply cleared, which keeps lookups lock-free and avoids unbounded growth
+ * when keys are forged by remote clients.
+ * 
+ * @author Jerome Louvel
+ * 
+ * @param <K>
+ *            The key type.
+ * @param <V>
+ *            The value type.
+ */
+public class BoundedCache<K, V> {
+
+    /** The cached entries. */
+    private final ConcurrentMap<K, V> entries;
+
+    /** The maximum number of entries. */
+    private final int maxSize;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of entries.
+     */
+    public BoundedCache(int maxSize) {
+        this.entries = new ConcurrentHashMap<K, V>();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the value cached for the given key.
+     * 
+     * @param key
+     *            The key.
+     * @return The cached value or null.
+     */
+    public V get(K key) {
+        return (key == null) ? null : this.entries.get(key);
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     * 
+     * @return The maximum number of entries.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Caches a value unless one is already cached for the same key, clearing
+     * the cache first if it is full.
+     * 
+     * @param key
+     *            The key.
+     * @param value
+     *            The value to cache.
+     * @return The value cached for the key, either the existing one or the
+     *         given one.
+     */
+    public V put(K key, V value) {
+        if ((key == null) || (value == null) || (this.maxSize <= 0)) {
+            return value;
+        }
+
+        if (this.entries.size() >= this.maxSize) {
+            this.entries.clear();
+        }
+
+        V existing = this.entries.putIfAbsent(key, value);
+        return (existing == null) ? value : existing;
+    }
+
+    /**
+     * Returns the current number of entries.
+     * 
+     * @return The current number of entries.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+}
@@ -25,6 +25,8 @@
 package org.restlet.engine.util;
 
 import org.restlet.Application;
+import org.restlet.Client;
+import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.LocalReference;
@@ -124,6 +126,30 @@ public class ChildClientDispatcher extends TemplateDispatcher {
         return childContext;
     }
 
+    /**
+     * Returns the client connector of the parent component that will handle
+     * the given request, unless it is an internal call.
+     * 
+     * @param request
+     *            The request to handle.
+     * @return The client connector that will handle the request or null.
+     */
+    @Override
+    public Client getClient(Request request) {
+        Client result = null;
+        Context parentContext = (getChildContext() == null) ? null
+                : getChildContext().getParentContext();
+
+        if (!Protocol.RIAP.equals(request.getProtocol())
+                && (parentContext != null)
+                && (parentContext.getClientDispatcher() instanceof TemplateDispatcher)) {
+            result = ((TemplateDispatcher) parentContext.getClientDispatcher())
+                    .getClient(request);
+        }
+
+        return result;
+    }
+
     /**
      * Asks to the parent component to handle the call.
      * 
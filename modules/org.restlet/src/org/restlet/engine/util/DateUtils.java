@@ -175,6 +175,14 @@ public final class DateUtils {
         }
 
         // [ifndef gwt]
+        if (FORMAT_RFC_1123.get(0).equals(format)) {
+            return HttpDateFormat.format(date);
+        } else if (FORMAT_RFC_1036.get(0).equals(format)) {
+            return HttpDateFormat.formatRfc1036(date);
+        } else if (FORMAT_ASC_TIME.get(0).equals(format)) {
+            return HttpDateFormat.formatAscTime(date);
+        }
+
         java.text.DateFormat formatter = null;
 
         if (FORMAT_RFC_3339.get(0).equals(format)) {
@@ -238,6 +246,12 @@ public final class DateUtils {
         for (int i = 0; (result == null) && (i < formatsSize); i++) {
             format = formats.get(i);
             // [ifndef gwt]
+            result = parseHttpDate(date, format);
+
+            if (result != null) {
+                break;
+            }
+
             java.text.DateFormat parser = null;
 
             if (FORMAT_RFC_3339.get(0).equals(format)) {
@@ -272,6 +286,29 @@ public final class DateUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Parses a formatted date with the {@link HttpDateFormat} parsers when the
+     * format is one of the HTTP date formats.
+     * 
+     * @param date
+     *            The date to parse.
+     * @param format
+     *            The date format to use.
+     * @return The parsed date or null.
+     */
+    private static Date parseHttpDate(String date, String format) {
+        if (FORMAT_RFC_1123.get(0).equals(format)) {
+            return HttpDateFormat.parse(date);
+        } else if (FORMAT_RFC_1036.get(0).equals(format)) {
+            return HttpDateFormat.parseRfc1036(date);
+        } else if (FORMAT_ASC_TIME.get(0).equals(format)) {
+            return HttpDateFormat.parseAscTime(date);
+        }
+
+        return null;
+    }
+
     /**
      * Returns an immutable version of a given date.
      * 
@@ -0,0 +1,353 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.restlet.data.Header;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.util.Series;
+
+/**
+ * Series of headers keeping the insertion order while maintaining a case
+ * insensitive index of the header names. The index is lazily built on the
+ * first lookup and updated as long as headers are appended, which is the usual
+ * way of filling a series of headers. Any other modification invalidates it.<br>
+ * <br>
+ * Note that the names of the contained headers are expected to stay unchanged
+ * once added to the series.
+ * 
+ * @author Jerome Louvel
+ */
+public class HeaderSeries extends Series<Header> {
+
+    /**
+     * List of headers counting all the modifications, including the
+     * replacements of entries. Views and iterators are inherited from
+     * {@link AbstractList} so that they rely on the counting methods.
+     */
+    private static class HeaderList extends AbstractList<Header> {
+
+        /** The headers. */
+        private final ArrayList<Header> headers = new ArrayList<Header>();
+
+        /** The number of replaced entries. */
+        private int replacements;
+
+        @Override
+        public void add(int index, Header element) {
+            this.headers.add(index, element);
+            this.modCount++;
+        }
+
+        @Override
+        public Header get(int index) {
+            return this.headers.get(index);
+        }
+
+        /**
+         * Returns the number of modifications of the list.
+         * 
+         * @return The number of modifications of the list.
+         */
+        public int getModifications() {
+            return this.modCount + this.replacements;
+        }
+
+        @Override
+        public Header remove(int index) {
+            Header result = this.headers.remove(index);
+            this.modCount++;
+            return result;
+        }
+
+        @Override
+        public Header set(int index, Header element) {
+            this.replacements++;
+            return this.headers.set(index, element);
+        }
+
+        @Override
+        public int size() {
+            return this.headers.size();
+        }
+    }
+
+    /** The index keys of the standard header names. */
+    private static final Map<String, String> KEYS = new HashMap<String, String>();
+
+    static {
+        for (Field field : HeaderConstants.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())
+                    && field.getName().startsWith("HEADER_")) {
+                try {
+                    String name = (String) field.get(null);
+                    KEYS.put(name, name.toLowerCase(Locale.ENGLISH));
+                } catch (IllegalAccessException e) {
+                    // Skip this constant
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index key of the given header name.
+     * 
+     * @param name
+     *            The header name.
+     * @return The index key.
+     */
+    private static String getKey(String name) {
+        String result = KEYS.get(name);
+        return (result == null) ? name.toLowerCase(Locale.ENGLISH) : result;
+    }
+
+    /** The headers indexed by lower case name, in the series order. */
+    private Map<String, List<Header>> index;
+
+    /** The number of list modifications covered by the index. */
+    private int indexedModifications;
+
+    /**
+     * Constructor.
+     */
+    public HeaderSeries() {
+        super(Header.class, new HeaderList());
+    }
+
+    @Override
+    public boolean add(Header element) {
+        boolean indexed = isIndexed();
+        boolean result = super.add(element);
+
+        if (indexed) {
+            // Keep the index up to date
+            index(element);
+            this.indexedModifications = getHeaderList().getModifications();
+        }
+
+        return result;
+    }
+
+    @Override
+    public Header createEntry(String name, String value) {
+        return new Header(name, value);
+    }
+
+    /**
+     * Returns the headers whose name matches the given one, ignoring the case.
+     * 
+     * @param name
+     *            The header name.
+     * @return The matching headers or null.
+     */
+    private List<Header> getCandidates(String name) {
+        if (!isIndexed()) {
+            this.index = new HashMap<String, List<Header>>();
+
+            for (Header header : getDelegate()) {
+                index(header);
+            }
+
+            this.indexedModifications = getHeaderList().getModifications();
+        }
+
+        return this.index.get(getKey(name));
+    }
+
+    @Override
+    public Header getFirst(String name, boolean ignoreCase) {
+        if (name == null) {
+            return super.getFirst(name, ignoreCase);
+        }
+
+        List<Header> candidates = getCandidates(name);
+
+        if (candidates != null) {
+            for (Header header : candidates) {
+                if (matches(header, name, ignoreCase)) {
+                    return header;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the wrapped list of headers.
+     * 
+     * @return The wrapped list of headers.
+     */
+    private HeaderList getHeaderList() {
+        return (HeaderList) getDelegate();
+    }
+
+    @Override
+    public String getValues(String name, String separator, boolean ignoreCase) {
+        if (name == null) {
+            return super.getValues(name, separator, ignoreCase);
+        }
+
+        String result = null;
+        StringBuilder sb = null;
+        List<Header> candidates = getCandidates(name);
+
+        if (candidates != null) {
+            for (Header header : candidates) {
+                if (matches(header, name, ignoreCase)) {
+                    if (sb == null) {
+                        if (result == null) {
+                            result = header.getValue();
+                        } else {
+                            sb = new StringBuilder();
+                            sb.append(result).append(separator)
+                                    .append(header.getValue());
+                        }
+                    } else {
+                        sb.append(separator).append(header.getValue());
+                    }
+                }
+            }
+        }
+
+        if (sb != null) {
+            result = sb.toString();
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if a header matching the given name is contained.
+     * 
+     * @param name
+     *            The header name.
+     * @param ignoreCase
+     *            Indicates if the name comparison is case insensitive.
+     * @return True if a header matching the given name is contained.
+     */
+    private boolean hasMatch(String name, boolean ignoreCase) {
+        return (name == null) || (getFirst(name, ignoreCase) != null);
+    }
+
+    /**
+     * Adds a header to the index.
+     * 
+     * @param header
+     *            The header to index.
+     */
+    private void index(Header header) {
+        if ((header != null) && (header.getName() != null)) {
+            String key = getKey(header.getName());
+            List<Header> headers = this.index.get(key);
+
+            if (headers == null) {
+                headers = new ArrayList<Header>(1);
+                this.index.put(key, headers);
+            }
+
+            headers.add(header);
+        }
+    }
+
+    /**
+     * Indicates if the index is up to date with the list of headers.
+     * 
+     * @return True if the index is up to date with the list of headers.
+     */
+    private boolean isIndexed() {
+        return (this.index != null)
+                && (this.indexedModifications == getHeaderList()
+                        .getModifications());
+    }
+
+    /**
+     * Indicates if the header has the given name, with the requested case
+     * sensitivity.
+     * 
+     * @param header
+     *            The header to test.
+     * @param name
+     *            The header name.
+     * @param ignoreCase
+     *            Indicates if the name comparison is case insensitive.
+     * @return True if the header has the given name.
+     */
+    private boolean matches(Header header, String name, boolean ignoreCase) {
+        return ignoreCase ? name.equalsIgnoreCase(header.getName()) : name
+                .equals(header.getName());
+    }
+
+    @Override
+    public boolean removeAll(String name, boolean ignoreCase) {
+        return hasMatch(name, ignoreCase) && super.removeAll(name, ignoreCase);
+    }
+
+    @Override
+    public boolean removeFirst(String name, boolean ignoreCase) {
+        return hasMatch(name, ignoreCase)
+                && super.removeFirst(name, ignoreCase);
+    }
+
+    @Override
+    public Header set(String name, String value, boolean ignoreCase) {
+        if (hasMatch(name, ignoreCase)) {
+            return super.set(name, value, ignoreCase);
+        }
+
+        add(name, value);
+        return null;
+    }
+
+    @Override
+    public Series<Header> subList(String name, boolean ignoreCase) {
+        if (name == null) {
+            return super.subList(name, ignoreCase);
+        }
+
+        HeaderSeries result = new HeaderSeries();
+        List<Header> candidates = getCandidates(name);
+
+        if (candidates != null) {
+            for (Header header : candidates) {
+                if (matches(header, name, ignoreCase)) {
+                    result.add(header);
+                }
+            }
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,507 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.util;
+
+import java.util.Date;
+
+// [excludes gwt]
+/**
+ * Immutable and thread-safe formatter and parser of the three HTTP date formats
+ * (RFC 1123, RFC 1036 and ANSI C asctime()) in the GMT time zone. Contrary to
+ * {@link java.text.SimpleDateFormat}, it doesn't need to be instantiated for
+ * each call and it relies on simple arithmetic instead of calendars. In
+ * addition, the current date formatted in RFC 1123 is cached with a precision
+ * of one second as it is written in the "Date" header of each message.<br>
+ * <br>
+ * The parsing methods only accept the exact layout of each format in the GMT
+ * or UTC time zone and return null otherwise, letting the caller fall back to
+ * a more lenient parser.
+ * 
+ * @author Jerome Louvel
+ */
+public final class HttpDateFormat {
+
+    /**
+     * Formatted date associated to the second it represents.
+     */
+    private static final class CachedDate {
+
+        /** The number of seconds since January 1, 1970, 00:00:00 GMT. */
+        private final long second;
+
+        /** The formatted date. */
+        private final String value;
+
+        /**
+         * Constructor.
+         * 
+         * @param second
+         *            The number of seconds since January 1, 1970, 00:00:00
+         *            GMT.
+         * @param value
+         *            The formatted date.
+         */
+        private CachedDate(long second, String value) {
+            this.second = second;
+            this.value = value;
+        }
+    }
+
+    /** The short names of the days of the week, starting on Sunday. */
+    private static final String[] DAYS = { "Sun", "Mon", "Tue", "Wed", "Thu",
+            "Fri", "Sat" };
+
+    /** The long names of the days of the week, starting on Sunday. */
+    private static final String[] DAYS_LONG = { "Sunday", "Monday",
+            "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday" };
+
+    /** The number of milliseconds in a day. */
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    /** The short names of the months. */
+    private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr",
+            "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+
+    /** The last formatted RFC 1123 current date. */
+    private static volatile CachedDate cachedDate;
+
+    /**
+     * Appends a number padded with zeros.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param value
+     *            The positive number to append.
+     * @param digits
+     *            The minimum number of digits.
+     */
+    private static void append(StringBuilder sb, int value, int digits) {
+        for (int limit = 10, i = 1; i < digits; limit *= 10, i++) {
+            if (value < limit) {
+                sb.append('0');
+            }
+        }
+
+        sb.append(value);
+    }
+
+    /**
+     * Appends the time of the day in the "HH:mm:ss" format.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param fields
+     *            The date fields.
+     */
+    private static void appendTime(StringBuilder sb, int[] fields) {
+        append(sb, fields[4], 2);
+        sb.append(':');
+        append(sb, fields[5], 2);
+        sb.append(':');
+        append(sb, fields[6], 2);
+    }
+
+    /**
+     * Returns the number of days since January 1, 1970 of a date of the
+     * proleptic Gregorian calendar.
+     * 
+     * @param year
+     *            The year.
+     * @param month
+     *            The month, from 1 to 12.
+     * @param day
+     *            The day of the month, from 1 to 31.
+     * @return The number of days since January 1, 1970.
+     */
+    private static long daysFromCivil(long year, int month, int day) {
+        year -= (month <= 2) ? 1 : 0;
+        long era = ((year >= 0) ? year : year - 399) / 400;
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5
+                + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100
+                + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns the largest value that is less than or equal to the algebraic
+     * quotient.
+     * 
+     * @param x
+     *            The dividend.
+     * @param y
+     *            The positive divisor.
+     * @return The floor quotient.
+     */
+    private static long floorDiv(long x, long y) {
+        long result = x / y;
+
+        if ((x % y) < 0) {
+            result--;
+        }
+
+        return result;
+    }
+
+    /**
+     * Formats a date in the RFC 1123 format, for example
+     * "Sun, 06 Nov 1994 08:49:37 GMT".
+     * 
+     * @param date
+     *            The date to format.
+     * @return The formatted date.
+     */
+    public static String format(Date date) {
+        long time = date.getTime();
+        long second = floorDiv(time, 1000);
+        CachedDate cached = cachedDate;
+
+        if ((cached != null) && (cached.second == second)) {
+            return cached.value;
+        }
+
+        int[] fields = getFields(time);
+        StringBuilder sb = new StringBuilder(29);
+        sb.append(DAYS[fields[3]]).append(", ");
+        append(sb, fields[2], 2);
+        sb.append(' ').append(MONTHS[fields[1] - 1]).append(' ');
+        append(sb, fields[0], 4);
+        sb.append(' ');
+        appendTime(sb, fields);
+        sb.append(" GMT");
+        String result = sb.toString();
+
+        if (second == floorDiv(System.currentTimeMillis(), 1000)) {
+            // Only cache the current date
+            cachedDate = new CachedDate(second, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Formats a date in the obsolete ANSI C asctime() format, for example
+     * "Sun Nov 06 08:49:37 1994".
+     * 
+     * @param date
+     *            The date to format.
+     * @return The formatted date.
+     */
+    public static String formatAscTime(Date date) {
+        int[] fields = getFields(date.getTime());
+        StringBuilder sb = new StringBuilder(24);
+        sb.append(DAYS[fields[3]]).append(' ');
+        sb.append(MONTHS[fields[1] - 1]).append(' ');
+        append(sb, fields[2], 2);
+        sb.append(' ');
+        appendTime(sb, fields);
+        sb.append(' ');
+        append(sb, fields[0], 4);
+        return sb.toString();
+    }
+
+    /**
+     * Formats a date in the obsolete RFC 1036 format, for example
+     * "Sunday, 06-Nov-94 08:49:37 GMT".
+     * 
+     * @param date
+     *            The date to format.
+     * @return The formatted date.
+     */
+    public static String formatRfc1036(Date date) {
+        int[] fields = getFields(date.getTime());
+        StringBuilder sb = new StringBuilder(32);
+        sb.append(DAYS_LONG[fields[3]]).append(", ");
+        append(sb, fields[2], 2);
+        sb.append('-').append(MONTHS[fields[1] - 1]).append('-');
+        append(sb, Math.abs(fields[0] % 100), 2);
+        sb.append(' ');
+        appendTime(sb, fields);
+        sb.append(" GMT");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the current date formatted in the RFC 1123 format. The value is
+     * computed at most once per second.
+     * 
+     * @return The current date formatted in the RFC 1123 format.
+     */
+    public static String getCurrentDate() {
+        return format(new Date());
+    }
+
+    /**
+     * Splits a time into the year, month (1-12), day of the month, day of the
+     * week (0 for Sunday), hours, minutes and seconds in the GMT time zone.
+     * 
+     * @param time
+     *            The number of milliseconds since January 1, 1970, 00:00:00
+     *            GMT.
+     * @return The date fields.
+     */
+    private static int[] getFields(long time) {
+        long days = floorDiv(time, MILLIS_PER_DAY);
+        int secondOfDay = (int) ((time - days * MILLIS_PER_DAY) / 1000);
+
+        // Convert the days into a civil date
+        long z = days + 719468;
+        long era = ((z >= 0) ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra
+                - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) ((mp < 10) ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + ((month <= 2) ? 1 : 0);
+
+        // January 1, 1970 was a Thursday
+        int dayOfWeek = (int) ((days + 4) % 7);
+
+        if (dayOfWeek < 0) {
+            dayOfWeek += 7;
+        }
+
+        return new int[] { (int) year, month, day, dayOfWeek,
+                secondOfDay / 3600, (secondOfDay / 60) % 60, secondOfDay % 60 };
+    }
+
+    /**
+     * Returns the index of a name in an array, matched in a case insensitive
+     * way at a given position of a string.
+     * 
+     * @param date
+     *            The string to parse.
+     * @param start
+     *            The start position.
+     * @param end
+     *            The end position (exclusive).
+     * @param names
+     *            The names to look for.
+     * @return The index of the matching name or -1.
+     */
+    private static int indexOf(String date, int start, int end, String[] names) {
+        if ((start >= 0) && (end <= date.length())) {
+            int length = end - start;
+
+            for (int i = 0; i < names.length; i++) {
+                if ((names[i].length() == length)
+                        && date.regionMatches(true, start, names[i], 0, length)) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses a date in the RFC 1123 format.
+     * 
+     * @param date
+     *            The date to parse.
+     * @return The parsed date or null if the date doesn't exactly match the
+     *         format.
+     */
+    public static Date parse(String date) {
+        // "Sun, 06 Nov 1994 08:49:37 GMT"
+        if ((date.length() != 29) || (date.charAt(3) != ',')
+                || (date.charAt(4) != ' ') || (date.charAt(7) != ' ')
+                || (date.charAt(11) != ' ') || (date.charAt(16) != ' ')
+                || (indexOf(date, 0, 3, DAYS) == -1)) {
+            return null;
+        }
+
+        return toDate(parseNumber(date, 12, 16), indexOf(date, 8, 11, MONTHS),
+                parseNumber(date, 5, 7), date, 17, 25, 26);
+    }
+
+    /**
+     * Parses a date in the obsolete ANSI C asctime() format. The day of the
+     * month can be padded with a zero or a space.
+     * 
+     * @param date
+     *            The date to parse.
+     * @return The parsed date or null if the date doesn't exactly match the
+     *         format.
+     */
+    public static Date parseAscTime(String date) {
+        // "Sun Nov 06 08:49:37 1994" or "Sun Nov  6 08:49:37 1994"
+        if ((date.length() != 24) || (date.charAt(3) != ' ')
+                || (date.charAt(7) != ' ') || (date.charAt(10) != ' ')
+                || (date.charAt(19) != ' ')
+                || (indexOf(date, 0, 3, DAYS) == -1)) {
+            return null;
+        }
+
+        int day = (date.charAt(8) == ' ') ? parseNumber(date, 9, 10)
+                : parseNumber(date, 8, 10);
+        return toDate(parseNumber(date, 20, 24), indexOf(date, 4, 7, MONTHS),
+                day, date, 11, 19, -1);
+    }
+
+    /**
+     * Parses a positive decimal number.
+     * 
+     * @param date
+     *            The string to parse.
+     * @param start
+     *            The start position.
+     * @param end
+     *            The end position (exclusive).
+     * @return The parsed number or -1.
+     */
+    private static int parseNumber(String date, int start, int end) {
+        int result = 0;
+
+        if ((start >= end) || (start < 0) || (end > date.length())) {
+            return -1;
+        }
+
+        for (int i = start; i < end; i++) {
+            char c = date.charAt(i);
+
+            if ((c < '0') || (c > '9')) {
+                return -1;
+            }
+
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses a date in the obsolete RFC 1036 format. Two digits years are
+     * interpreted within 80 years before and 20 years after the current date.
+     * 
+     * @param date
+     *            The date to parse.
+     * @return The parsed date or null if the date doesn't exactly match the
+     *         format.
+     */
+    public static Date parseRfc1036(String date) {
+        // "Sunday, 06-Nov-94 08:49:37 GMT"
+        int comma = date.indexOf(',');
+
+        if ((comma == -1)
+                || ((indexOf(date, 0, comma, DAYS_LONG) == -1) && (indexOf(
+                        date, 0, comma, DAYS) == -1))) {
+            return null;
+        }
+
+        int start = comma + 2;
+        int yearEnd = date.indexOf(' ', start);
+
+        if ((yearEnd < start + 9) || (date.charAt(start - 1) != ' ')
+                || (date.charAt(start + 2) != '-')
+                || (date.charAt(start + 6) != '-')) {
+            return null;
+        }
+
+        int year = parseNumber(date, start + 7, yearEnd);
+
+        if ((year != -1) && (yearEnd - start - 7 == 2)) {
+            int startYear = getFields(System.currentTimeMillis())[0] - 80;
+            year += (startYear / 100) * 100;
+
+            if (year < startYear) {
+                year += 100;
+            }
+        } else if (yearEnd - start - 7 != 4) {
+            year = -1;
+        }
+
+        return toDate(year, indexOf(date, start + 3, start + 6, MONTHS),
+                parseNumber(date, start, start + 2), date, yearEnd + 1,
+                yearEnd + 9, yearEnd + 10);
+    }
+
+    /**
+     * Builds a date from its parsed fields, after parsing the time of the day
+     * in the "HH:mm:ss" format and the time zone.
+     * 
+     * @param year
+     *            The year or -1.
+     * @param monthIndex
+     *            The month index, from 0 to 11, or -1.
+     * @param day
+     *            The day of the month or -1.
+     * @param date
+     *            The string to parse.
+     * @param timeStart
+     *            The position of the time of the day.
+     * @param timeEnd
+     *            The end position of the time of the day (exclusive).
+     * @param zoneStart
+     *            The position of the time zone, ending the string, or -1 if
+     *            there is none.
+     * @return The parsed date or null.
+     */
+    private static Date toDate(int year, int monthIndex, int day, String date,
+            int timeStart, int timeEnd, int zoneStart) {
+        if ((year == -1) || (monthIndex == -1) || (day < 1) || (day > 31)
+                || (timeEnd > date.length()) || (timeEnd - timeStart != 8)
+                || (date.charAt(timeStart + 2) != ':')
+                || (date.charAt(timeStart + 5) != ':')) {
+            return null;
+        }
+
+        if (zoneStart != -1) {
+            String zone = date.substring(zoneStart);
+
+            if ((timeEnd != zoneStart - 1) || (date.charAt(timeEnd) != ' ')
+                    || !("GMT".equals(zone) || "UTC".equals(zone))) {
+                return null;
+            }
+        } else if (timeEnd != date.length() - 5) {
+            return null;
+        }
+
+        int hours = parseNumber(date, timeStart, timeStart + 2);
+        int minutes = parseNumber(date, timeStart + 3, timeStart + 5);
+        int seconds = parseNumber(date, timeStart + 6, timeStart + 8);
+
+        if ((hours == -1) || (hours > 23) || (minutes == -1) || (minutes > 59)
+                || (seconds == -1) || (seconds > 60)) {
+            return null;
+        }
+
+        long days = daysFromCivil(year, monthIndex + 1, day);
+        return new Date(((days * 24 + hours) * 60 + minutes) * 60000L
+                + seconds * 1000L);
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility class
+     * i.e. it isn't instantiable and extensible.
+     */
+    private HttpDateFormat() {
+    }
+
+}
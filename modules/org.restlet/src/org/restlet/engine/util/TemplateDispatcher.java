@@ -24,6 +24,7 @@
 
 package org.restlet.engine.util;
 
+import org.restlet.Client;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.Protocol;
@@ -88,4 +89,17 @@ public class TemplateDispatcher extends Filter {
         return CONTINUE;
     }
 
+    /**
+     * Returns the client connector that will handle the given request, if it
+     * can be determined before handling it. By default, returns the next
+     * Restlet if it is a client connector.
+     * 
+     * @param request
+     *            The request to handle.
+     * @return The client connector that will handle the request or null.
+     */
+    public Client getClient(Request request) {
+        return (getNext() instanceof Client) ? (Client) getNext() : null;
+    }
+
 }
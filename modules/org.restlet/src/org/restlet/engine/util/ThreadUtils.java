@@ -0,0 +1,153 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.engine.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+
+/**
+ * Thread related utilities. Virtual threads are looked up by reflection so
+ * that they can be used when running on a JVM supporting them (Java 21 and
+ * later) while remaining compatible with older JVMs.
+ * 
+ * @author Jerome Louvel
+ */
+public class ThreadUtils {
+
+    /** The name prefix of the virtual threads created by the engine. */
+    public static final String VIRTUAL_THREAD_NAME_PREFIX = "Restlet-virtual-";
+
+    /**
+     * Indicates if the current JVM supports virtual threads.
+     * 
+     * @return True if the current JVM supports virtual threads.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a new executor service that starts a new thread for each task,
+     * using the given thread factory. Typically used with
+     * {@link #newVirtualThreadFactory(String)} to run each task on a named
+     * virtual thread.
+     *
+     * @param threadFactory
+     *            The thread factory.
+     * @return A new executor service or null if the current JVM doesn't
+     *         support it.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(
+            ThreadFactory threadFactory) {
+        ExecutorService result = null;
+
+        try {
+            result = (ExecutorService) Executors.class.getMethod(
+                    "newThreadPerTaskExecutor", ThreadFactory.class).invoke(
+                    null, threadFactory);
+        } catch (NoSuchMethodException e) {
+            // Not supported before Java 21
+        } catch (Exception e) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "Unable to create a thread per task executor", e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a new thread factory producing virtual threads named with the
+     * given prefix followed by a counter.
+     * 
+     * @param prefix
+     *            The thread name prefix.
+     * @return A new thread factory or null if virtual threads aren't supported.
+     */
+    public static ThreadFactory newVirtualThreadFactory(String prefix) {
+        ThreadFactory result = null;
+
+        try {
+            // Use the public Thread.Builder interface for reflective access
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class,
+                    long.class);
+            Method factory = builderClass.getMethod("factory");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = name.invoke(builder, prefix, 0L);
+            result = (ThreadFactory) factory.invoke(builder);
+        } catch (ClassNotFoundException e) {
+            // Virtual threads aren't supported
+        } catch (NoSuchMethodException e) {
+            // Virtual threads aren't supported
+        } catch (Exception e) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "Unable to create a virtual thread factory", e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a new executor service that starts a new virtual thread for each
+     * task.
+     * 
+     * @return A new executor service or null if virtual threads aren't
+     *         supported.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        ExecutorService result = null;
+
+        try {
+            result = (ExecutorService) Executors.class.getMethod(
+                    "newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            // Virtual threads aren't supported
+        } catch (Exception e) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "Unable to create a virtual thread executor", e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility class
+     * i.e. it isn't instantiable and extensible.
+     */
+    private ThreadUtils() {
+    }
+
+}
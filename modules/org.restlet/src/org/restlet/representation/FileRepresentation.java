@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Date;
@@ -45,7 +46,13 @@ import org.restlet.engine.io.IoUtils;
  * Representation based on a static file. Note that in order for Web clients to
  * display a download box upon reception of a file representation, it needs an
  * additional call to {@link Disposition#setType(String)} with a
- * {@link Disposition#TYPE_ATTACHMENT} value.
+ * {@link Disposition#TYPE_ATTACHMENT} value.<br>
+ * <br>
+ * When written to a byte channel, the file content is transferred using
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} which lets
+ * the operating system send it without copying it in memory. For files that
+ * are repeatedly served, the content can instead be memory mapped, see
+ * {@link #setMapped(boolean)}.
  * 
  * @author Jerome Louvel
  */
@@ -76,6 +83,9 @@ public class FileRepresentation extends Representation {
     /** The file handle. */
     private volatile File file;
 
+    /** Indicates if the file content should be memory mapped when written. */
+    private volatile boolean mapped;
+
     /**
      * Constructor that does not set an expiration date for {@code file}
      * 
@@ -218,6 +228,16 @@ public class FileRepresentation extends Representation {
         return autoDeleting;
     }
 
+    /**
+     * Indicates if the file content should be memory mapped when written.
+     * Default value is false.
+     * 
+     * @return True if the file content should be memory mapped when written.
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
     /**
      * Releases the file handle.
      */
@@ -256,21 +276,51 @@ public class FileRepresentation extends Representation {
         this.file = file;
     }
 
+    /**
+     * Indicates if the file content should be memory mapped when written. This
+     * is useful for files that are repeatedly served as the mapped pages stay
+     * in the operating system cache.
+     * 
+     * @param mapped
+     *            True if the file content should be memory mapped when
+     *            written.
+     */
+    public void setMapped(boolean mapped) {
+        this.mapped = mapped;
+    }
+
     @Override
     public void write(OutputStream outputStream) throws IOException {
-        IoUtils.copy(getStream(), outputStream);
+        if (isMapped()) {
+            write(Channels.newChannel(outputStream));
+            outputStream.flush();
+        } else {
+            IoUtils.copy(getStream(), outputStream);
+        }
     }
 
     /**
      * Writes the representation to a byte channel. Optimizes using the file
-     * channel transferTo method.
+     * channel transferTo method or a memory mapping if the
+     * {@link #isMapped()} property is true.
      * 
      * @param writableChannel
      *            A writable byte channel.
      */
     @Override
     public void write(WritableByteChannel writableChannel) throws IOException {
-        IoUtils.copy(getChannel(), writableChannel);
+        if (isMapped() && IoUtils.isBlocking(writableChannel)) {
+            FileChannel fileChannel = getChannel();
+
+            try {
+                IoUtils.copyMapped(fileChannel, 0, fileChannel.size(),
+                        writableChannel);
+            } finally {
+                fileChannel.close();
+            }
+        } else {
+            IoUtils.copy(getChannel(), writableChannel);
+        }
     }
 
     @Override
@@ -27,6 +27,9 @@ package org.restlet.resource;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.restlet.Client;
@@ -48,9 +51,15 @@ import org.restlet.data.Protocol;
 import org.restlet.data.Range;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.engine.Engine;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.util.TemplateDispatcher;
+import org.restlet.engine.util.ThreadUtils;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.representation.Variant;
+import org.restlet.routing.Filter;
+import org.restlet.service.TaskService;
 import org.restlet.util.Series;
 
 /**
@@ -74,6 +83,14 @@ import org.restlet.util.Series;
  */
 public class ClientResource extends Resource {
 
+    // [ifndef gwt] member
+    /**
+     * The default executor service scheduling the retries of asynchronous
+     * calls, used when none is available from the context. Runs the tasks on
+     * virtual threads when the JVM supports them.
+     */
+    private static volatile TaskService defaultExecutorService;
+
     // [ifndef gwt] method
     /**
      * Creates a client resource that proxy calls to the given Java interface
@@ -128,6 +145,36 @@ public class ClientResource extends Resource {
         return create(null, new Reference(uri), resourceInterface);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the default executor service scheduling the retries of
+     * asynchronous calls, used when none is available from the context.
+     * 
+     * @return The default executor service.
+     */
+    private static TaskService getDefaultExecutorService() {
+        TaskService result = defaultExecutorService;
+
+        if (result == null) {
+            synchronized (ClientResource.class) {
+                result = defaultExecutorService;
+
+                if (result == null) {
+                    result = new TaskService(true, true);
+                    result.setVirtualThreads(ThreadUtils
+                            .isVirtualThreadsSupported());
+                    defaultExecutorService = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    // [ifndef gwt] member
+    /** The executor service scheduling the retries of asynchronous calls. */
+    private volatile ScheduledExecutorService executorService;
+
     // [ifndef gwt] member
     /** Indicates if redirections should be automatically followed. */
     private volatile boolean followingRedirects;
@@ -189,6 +236,7 @@ public class ClientResource extends Resource {
         this.retryAttempts = resource.getRetryAttempts();
 
         // [ifndef gwt]
+        this.executorService = resource.executorService;
         this.followingRedirects = resource.isFollowingRedirects();
         this.requestEntityBuffering = resource.isRequestEntityBuffering();
         this.responseEntityBuffering = resource.isResponseEntityBuffering();
@@ -552,6 +600,54 @@ public class ClientResource extends Resource {
         return new Request(getRequest());
     }
 
+    // [ifndef gwt] method
+    /**
+     * Creates a request by cloning the prototype request, setting the method
+     * and an object entity automatically serialized using the
+     * {@link org.restlet.service.ConverterService}.
+     * 
+     * @param method
+     *            The request method to use.
+     * @param entity
+     *            The object entity to send.
+     * @param resultClass
+     *            The class of the response entity.
+     * @return The request created.
+     * @throws ResourceException
+     */
+    private Request createRequest(Method method, Object entity,
+            Class<?> resultClass) throws ResourceException {
+        org.restlet.service.ConverterService cs = getConverterService();
+        ClientInfo clientInfo = getClientInfo();
+
+        if (clientInfo.getAcceptedMediaTypes().isEmpty()) {
+            cs.updatePreferences(clientInfo.getAcceptedMediaTypes(),
+                    resultClass);
+        }
+
+        // Prepare the request by cloning the prototype request
+        Request result = createRequest();
+        result.setMethod(method);
+        result.setClientInfo(clientInfo);
+
+        if (entity != null) {
+            List<? extends Variant> entityVariants;
+            try {
+                entityVariants = cs.getVariants(entity.getClass(), null);
+                result.setEntity(toRepresentation(
+                        entity,
+                        getConnegService().getPreferredVariant(entityVariants,
+                                result, getMetadataService())));
+            } catch (IOException e) {
+                throw new ResourceException(e);
+            }
+        } else {
+            result.setEntity(null);
+        }
+
+        return result;
+    }
+
     /**
      * Creates a new response for the given request.
      * 
@@ -610,6 +706,38 @@ public class ClientResource extends Resource {
         return handle(Method.DELETE, mediaType);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Asynchronously deletes the target resource and all its representations.
+     * If a success status is not returned, then the promise fails with a
+     * resource exception.
+     * 
+     * @return The promise of the optional result entity.
+     * @see #delete()
+     */
+    public Promise<Representation> deleteAsync() {
+        return handleAsync(Method.DELETE, (Representation) null);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously deletes the target resource and all its representations.
+     * If a success status is not returned, then the promise fails with a
+     * resource exception.
+     * 
+     * @param <T>
+     *            The expected type for the response entity.
+     * @param resultClass
+     *            The expected class for the response entity object.
+     * @return The promise of the response entity object.
+     * @throws ResourceException
+     * @see #delete(Class)
+     */
+    public <T> Promise<T> deleteAsync(Class<T> resultClass)
+            throws ResourceException {
+        return handleAsync(Method.DELETE, null, resultClass);
+    }
+
     /**
      * By default, it throws a new resource exception. This can be overridden to
      * provide a different behavior.
@@ -708,6 +836,39 @@ public class ClientResource extends Resource {
         return handle(Method.GET, mediaType);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Asynchronously represents the resource using content negotiation to
+     * select the best variant based on the client preferences. If a success
+     * status is not returned, then the promise fails with a resource
+     * exception.
+     * 
+     * @return The promise of the best representation.
+     * @see #get()
+     */
+    public Promise<Representation> getAsync() {
+        return handleAsync(Method.GET, (Representation) null);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously represents the resource in the given object class. If a
+     * success status is not returned, then the promise fails with a resource
+     * exception.
+     * 
+     * @param <T>
+     *            The expected type for the response entity.
+     * @param resultClass
+     *            The expected class for the response entity object.
+     * @return The promise of an instance of the expected class.
+     * @throws ResourceException
+     * @see #get(Class)
+     */
+    public <T> Promise<T> getAsync(Class<T> resultClass)
+            throws ResourceException {
+        return handleAsync(Method.GET, null, resultClass);
+    }
+
     /**
      * Returns the attribute value by looking up the given name in the response
      * attributes maps. The toString() method is then invoked on the attribute
@@ -813,6 +974,26 @@ public class ClientResource extends Resource {
         return getChild(new Reference(relativeUri), resourceInterface);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the executor service scheduling the retries of asynchronous
+     * calls. By default, it returns the executor service of the context if
+     * available or a default task service shared by all client resources
+     * otherwise. Blocking calls aren't run by this executor service, see
+     * {@link #handleAsync(Request, Response, List, int, Uniform, Promise)}.
+     * 
+     * @return The executor service scheduling the retries.
+     */
+    public ScheduledExecutorService getExecutorService() {
+        ScheduledExecutorService result = this.executorService;
+
+        if ((result == null) && (getContext() != null)) {
+            result = getContext().getExecutorService();
+        }
+
+        return (result == null) ? getDefaultExecutorService() : result;
+    }
+
     /**
      * Returns the maximum number of redirections that can be automatically
      * followed for a single call. Default value is 10.
@@ -1010,36 +1191,9 @@ public class ClientResource extends Resource {
      */
     protected <T> T handle(Method method, Object entity, Class<T> resultClass)
             throws ResourceException {
-        org.restlet.service.ConverterService cs = getConverterService();
-        ClientInfo clientInfo = getClientInfo();
-
-        if (clientInfo.getAcceptedMediaTypes().isEmpty()) {
-            cs.updatePreferences(clientInfo.getAcceptedMediaTypes(),
-                    resultClass);
-        }
-
-        // Prepare the request by cloning the prototype request
-        Request request = createRequest();
-        request.setMethod(method);
-        request.setClientInfo(clientInfo);
-
-        if (entity != null) {
-            List<? extends Variant> entityVariants;
-            try {
-                entityVariants = cs.getVariants(entity.getClass(), null);
-                request.setEntity(toRepresentation(
-                        entity,
-                        getConnegService().getPreferredVariant(entityVariants,
-                                request, getMetadataService())));
-            } catch (IOException e) {
-                throw new ResourceException(e);
-            }
-        } else {
-            request.setEntity(null);
-        }
-
         // Actually handle the call
-        Response response = handleOutbound(request);
+        Response response = handleOutbound(createRequest(method, entity,
+                resultClass));
         Representation responseEntity = handleInbound(response);
         return toObject(responseEntity, resultClass);
     }
@@ -1128,42 +1282,12 @@ public class ClientResource extends Resource {
             // Actually handle the call
             next.handle(request, response);
 
-            if (isRetryOnError()
-                    && response.getStatus().isRecoverableError()
-                    && request.getMethod().isIdempotent()
-                    && (retryAttempt < getRetryAttempts())
-                    && ((request.getEntity() == null) || request.getEntity()
-                            .isAvailable())) {
+            if (isRetryNeeded(request, response, retryAttempt)) {
                 retry(request, response, references, retryAttempt, next);
             }
             // [ifndef gwt]
-            else if (isFollowingRedirects()
-                    && response.getStatus().isRedirection()
-                    && (response.getLocationRef() != null)) {
-                boolean doRedirection = false;
-
-                if (request.getMethod().isSafe()) {
-                    doRedirection = true;
-                } else {
-                    if (Status.REDIRECTION_SEE_OTHER.equals(response
-                            .getStatus())) {
-                        // The user agent is redirected using the GET method
-                        request.setMethod(Method.GET);
-                        request.setEntity(null);
-                        doRedirection = true;
-                    } else if (Status.REDIRECTION_USE_PROXY.equals(response
-                            .getStatus())) {
-                        doRedirection = true;
-                    }
-                }
-
-                if (doRedirection) {
-                    redirect(request, response, references, retryAttempt, next);
-                } else {
-                    getLogger().fine(
-                            "Unable to redirect the client call after a response"
-                                    + response);
-                }
+            else if (prepareRedirection(request, response)) {
+                redirect(request, response, references, retryAttempt, next);
             }
 
             // Check if response entity buffering must be done
@@ -1177,6 +1301,144 @@ public class ClientResource extends Resource {
         }
     }
 
+    // [ifndef gwt] method
+    /**
+     * Asynchronously handles the call by cloning the prototype request. This
+     * is the asynchronous equivalent of {@link #handle()}.
+     * 
+     * @return The promise of the optional response entity.
+     * @see #handleOutboundAsync(Request)
+     */
+    public Promise<Representation> handleAsync() {
+        final Promise<Representation> result = new Promise<Representation>();
+        handleOutboundAsync(createRequest()).addListener(
+                new Result<Response>() {
+                    public void onFailure(Throwable caught) {
+                        result.fail(caught);
+                    }
+
+                    public void onSuccess(Response response) {
+                        result.complete(response.getEntity());
+                    }
+                });
+        return result;
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously handles an object entity. Automatically serializes the
+     * object using the {@link org.restlet.service.ConverterService}.
+     * 
+     * @param method
+     *            The request method to use.
+     * @param entity
+     *            The object entity to send.
+     * @param resultClass
+     *            The class of the response entity.
+     * @return The promise of the response object entity.
+     * @throws ResourceException
+     */
+    protected <T> Promise<T> handleAsync(Method method, Object entity,
+            Class<T> resultClass) throws ResourceException {
+        return handleInboundAsync(
+                handleOutboundAsync(createRequest(method, entity, resultClass)),
+                resultClass);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously handles the call by cloning the prototype request,
+     * setting the method and entity.
+     * 
+     * @param method
+     *            The request method to use.
+     * @param entity
+     *            The request entity to set.
+     * @return The promise of the optional response entity.
+     */
+    protected Promise<Representation> handleAsync(Method method,
+            Representation entity) {
+        // Prepare the request by cloning the prototype request
+        Request request = createRequest();
+        request.setMethod(method);
+        request.setEntity(entity);
+        request.setClientInfo(getClientInfo());
+        return handleInboundAsync(handleOutboundAsync(request),
+                Representation.class);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously handles the call and follow redirection for safe methods.
+     * If the call ends up in a client connector able to invoke the response
+     * callback without blocking (see {@link #isAsynchronous(Uniform, Request)}
+     * ), the call is directly handled by the current thread. Otherwise the
+     * blocking call is run by the shared executor service returned by
+     * {@link IoUtils#getExecutorService()}, which never queues tasks, so that
+     * slow calls don't delay each other.
+     * 
+     * @param request
+     *            The request to send.
+     * @param response
+     *            The response to update.
+     * @param references
+     *            The references that caused a redirection to prevent infinite
+     *            loops.
+     * @param retryAttempt
+     *            The number of remaining attempts.
+     * @param next
+     *            The next handler handling the call.
+     * @param promise
+     *            The promise to complete with the final response.
+     */
+    protected void handleAsync(final Request request, final Response response,
+            final List<Reference> references, final int retryAttempt,
+            final Uniform next, final Promise<Response> promise) {
+        if (isAsynchronous(next, request)) {
+            request.setOnResponse(new Uniform() {
+                public void handle(Request req, Response resp) {
+                    handleResponseAsync(request, response, references,
+                            retryAttempt, next, promise);
+                }
+            });
+
+            try {
+                if (isRequestEntityBuffering()) {
+                    request.bufferEntity();
+                }
+
+                next.handle(request, response);
+            } catch (Throwable t) {
+                promise.fail(t);
+            }
+        } else {
+            // The call will be handled synchronously by the executor
+            request.setOnResponse(null);
+            Runnable call = new Runnable() {
+                public void run() {
+                    try {
+                        if (isRequestEntityBuffering()) {
+                            request.bufferEntity();
+                        }
+
+                        next.handle(request, response);
+                        handleResponseAsync(request, response, references,
+                                retryAttempt, next, promise);
+                    } catch (Throwable t) {
+                        promise.fail(t);
+                    }
+                }
+            };
+
+            try {
+                IoUtils.getExecutorService().execute(
+                        Engine.createRunnableWithLocalVariables(call));
+            } catch (RejectedExecutionException e) {
+                promise.fail(e);
+            }
+        }
+    }
+
     /**
      * Handles the inbound call. Note that only synchronous calls are processed.
      * 
@@ -1225,6 +1487,128 @@ public class ClientResource extends Resource {
         return response;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Asynchronously handles the inbound call. If an error status is
+     * received, the {@link #doError(Status)} method is invoked and the promise
+     * fails with the resource exception thrown by default. Otherwise the
+     * response entity is converted to the expected class.
+     * 
+     * @param response
+     *            The promise of the response.
+     * @param resultClass
+     *            The class of the response entity.
+     * @return The promise of the response object entity.
+     */
+    protected <T> Promise<T> handleInboundAsync(Promise<Response> response,
+            final Class<T> resultClass) {
+        final Promise<T> result = new Promise<T>();
+        response.addListener(new Result<Response>() {
+            public void onFailure(Throwable caught) {
+                result.fail(caught);
+            }
+
+            public void onSuccess(Response response) {
+                try {
+                    Representation entity = null;
+
+                    if (response.getStatus().isError()) {
+                        doError(response.getStatus());
+                    } else {
+                        entity = response.getEntity();
+                    }
+
+                    result.complete(Representation.class
+                            .isAssignableFrom(resultClass) ? resultClass
+                            .cast(entity) : toObject(entity, resultClass));
+                } catch (Throwable t) {
+                    result.fail(t);
+                }
+            }
+        });
+        return result;
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously handles the outbound call by invoking the next handler.
+     * The retry attempts and redirections are handled as for synchronous
+     * calls, but without blocking the calling thread.
+     * 
+     * @param request
+     *            The request to handle.
+     * @return The promise of the response.
+     * @see #getNext()
+     */
+    public Promise<Response> handleOutboundAsync(Request request) {
+        Promise<Response> result = new Promise<Response>();
+        Uniform next = getNext();
+
+        if (next != null) {
+            // Effectively handle the call
+            handleAsync(request, createResponse(request), null, 0, next,
+                    result);
+        } else {
+            getLogger()
+                    .warning(
+                            "Unable to process the call for a client resource. No next Restlet has been provided.");
+            result.complete(createResponse(request));
+        }
+
+        return result;
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Handles the response of an asynchronous call, retrying or redirecting it
+     * if needed before completing the promise.
+     * 
+     * @param request
+     *            The request sent.
+     * @param response
+     *            The response received.
+     * @param references
+     *            The references that caused a redirection to prevent infinite
+     *            loops.
+     * @param retryAttempt
+     *            The number of remaining attempts.
+     * @param next
+     *            The next handler handling the call.
+     * @param promise
+     *            The promise to complete with the final response.
+     */
+    private void handleResponseAsync(Request request, Response response,
+            List<Reference> references, int retryAttempt, Uniform next,
+            Promise<Response> promise) {
+        try {
+            if (isRetryNeeded(request, response, retryAttempt)) {
+                retryAsync(request, response, references, retryAttempt, next,
+                        promise);
+                return;
+            } else if (prepareRedirection(request, response)) {
+                List<Reference> redirectRefs = updateReferences(request,
+                        response, references);
+
+                if (redirectRefs != null) {
+                    handleAsync(request, response, redirectRefs, 0, next,
+                            promise);
+                    return;
+                }
+            }
+
+            // Check if response entity buffering must be done
+            if (isResponseEntityBuffering()) {
+                response.bufferEntity();
+            }
+
+            // Update the last received response.
+            setResponse(response);
+            promise.complete(response);
+        } catch (Throwable t) {
+            promise.fail(t);
+        }
+    }
+
     /**
      * Indicates if there is a next Restlet.
      * 
@@ -1279,6 +1663,37 @@ public class ClientResource extends Resource {
         return handle(Method.HEAD, mediaType);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Indicates if a call can be handled without blocking the calling thread.
+     * The client connector that will handle the call is looked up through the
+     * outbound filters and the client dispatchers starting from the next
+     * handler (see {@link TemplateDispatcher#getClient(Request)}). If it can't
+     * be determined before handling the call, false is returned.
+     * 
+     * @param next
+     *            The next handler handling the call.
+     * @param request
+     *            The request to send.
+     * @return True if the call can be handled without blocking.
+     * @see Client#isAsynchronous()
+     */
+    protected boolean isAsynchronous(Uniform next, Request request) {
+        Uniform current = next;
+
+        while ((current instanceof Filter)
+                && !(current instanceof TemplateDispatcher)) {
+            current = ((Filter) current).getNext();
+        }
+
+        if (current instanceof TemplateDispatcher) {
+            current = ((TemplateDispatcher) current).getClient(request);
+        }
+
+        return (current instanceof Client)
+                && ((Client) current).isAsynchronous();
+    }
+
     // [ifndef gwt] method
     /**
      * Indicates if redirections are followed.
@@ -1317,6 +1732,26 @@ public class ClientResource extends Resource {
         return responseEntityBuffering;
     }
 
+    /**
+     * Indicates if a failed call should be retried.
+     * 
+     * @param request
+     *            The request sent.
+     * @param response
+     *            The response received.
+     * @param retryAttempt
+     *            The number of the current attempt.
+     * @return True if the call should be retried.
+     */
+    private boolean isRetryNeeded(Request request, Response response,
+            int retryAttempt) {
+        return isRetryOnError() && response.getStatus().isRecoverableError()
+                && request.getMethod().isIdempotent()
+                && (retryAttempt < getRetryAttempts())
+                && ((request.getEntity() == null) || request.getEntity()
+                        .isAvailable());
+    }
+
     /**
      * Indicates if idempotent requests should be retried on error. Default
      * value is true.
@@ -1530,6 +1965,85 @@ public class ClientResource extends Resource {
         return handle(Method.POST, entity);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Asynchronously posts an object entity. Automatically serializes the
+     * object using the {@link org.restlet.service.ConverterService}.
+     * 
+     * @param entity
+     *            The object entity to post.
+     * @return The promise of the optional result entity.
+     * @throws ResourceException
+     * @see #post(Object)
+     */
+    public Promise<Representation> postAsync(Object entity)
+            throws ResourceException {
+        try {
+            return handleAsync(Method.POST, toRepresentation(entity));
+        } catch (IOException e) {
+            throw new ResourceException(e);
+        }
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously posts an object entity. Automatically serializes the
+     * object using the {@link org.restlet.service.ConverterService}.
+     * 
+     * @param entity
+     *            The object entity to post.
+     * @param resultClass
+     *            The class of the response entity.
+     * @return The promise of the result object.
+     * @throws ResourceException
+     * @see #post(Object, Class)
+     */
+    public <T> Promise<T> postAsync(Object entity, Class<T> resultClass)
+            throws ResourceException {
+        return handleAsync(Method.POST, entity, resultClass);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Indicates if the response is a redirection that should be automatically
+     * followed. When a non safe method is redirected with a 303 status, the
+     * request method is changed to GET and its entity removed.
+     * 
+     * @param request
+     *            The request sent.
+     * @param response
+     *            The response received.
+     * @return True if the redirection should be followed.
+     */
+    private boolean prepareRedirection(Request request, Response response) {
+        boolean result = false;
+
+        if (isFollowingRedirects() && response.getStatus().isRedirection()
+                && (response.getLocationRef() != null)) {
+            if (request.getMethod().isSafe()) {
+                result = true;
+            } else {
+                if (Status.REDIRECTION_SEE_OTHER.equals(response.getStatus())) {
+                    // The user agent is redirected using the GET method
+                    request.setMethod(Method.GET);
+                    request.setEntity(null);
+                    result = true;
+                } else if (Status.REDIRECTION_USE_PROXY.equals(response
+                        .getStatus())) {
+                    result = true;
+                }
+            }
+
+            if (!result) {
+                getLogger().fine(
+                        "Unable to redirect the client call after a response"
+                                + response);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Puts an object entity. Automatically serializes the object using the
      * {@link org.restlet.service.ConverterService}.
@@ -1610,6 +2124,44 @@ public class ClientResource extends Resource {
         return handle(Method.PUT, entity);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Asynchronously puts an object entity. Automatically serializes the
+     * object using the {@link org.restlet.service.ConverterService}.
+     * 
+     * @param entity
+     *            The object entity to put.
+     * @return The promise of the optional result entity.
+     * @throws ResourceException
+     * @see #put(Object)
+     */
+    public Promise<Representation> putAsync(Object entity)
+            throws ResourceException {
+        try {
+            return handleAsync(Method.PUT, toRepresentation(entity));
+        } catch (IOException e) {
+            throw new ResourceException(e);
+        }
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Asynchronously puts an object entity. Automatically serializes the
+     * object using the {@link org.restlet.service.ConverterService}.
+     * 
+     * @param entity
+     *            The object entity to put.
+     * @param resultClass
+     *            The class of the response entity.
+     * @return The promise of the result object.
+     * @throws ResourceException
+     * @see #put(Object, Class)
+     */
+    public <T> Promise<T> putAsync(Object entity, Class<T> resultClass)
+            throws ResourceException {
+        return handleAsync(Method.PUT, entity, resultClass);
+    }
+
     /**
      * Effectively redirects a client call. By default, it checks for infinite
      * loops and unavailable entities, the references list is updated and the
@@ -1629,32 +2181,10 @@ public class ClientResource extends Resource {
      */
     protected void redirect(Request request, Response response,
             List<Reference> references, int retryAttempt, Uniform next) {
-        Reference newTargetRef = response.getLocationRef();
+        references = updateReferences(request, response, references);
 
-        if ((references != null) && references.contains(newTargetRef)) {
-            getLogger().warning(
-                    "Infinite redirection loop detected with URI: "
-                            + newTargetRef);
-        } else if (request.getEntity() != null && !request.isEntityAvailable()) {
-            getLogger()
-                    .warning(
-                            "Unable to follow the redirection because the request entity isn't available anymore.");
-        } else {
-            if (references == null) {
-                references = new ArrayList<Reference>();
-            }
-
-            if (references.size() >= getMaxRedirects()) {
-                getLogger()
-                        .warning(
-                                "Unable to follow the redirection because the request the maximum number of redirections for a single call has been reached.");
-            } else {
-                // Add to the list of redirection reference
-                // to prevent infinite loops
-                references.add(request.getResourceRef());
-                request.setResourceRef(newTargetRef);
-                handle(request, response, references, 0, next);
-            }
+        if (references != null) {
+            handle(request, response, references, 0, next);
         }
     }
 
@@ -1705,6 +2235,54 @@ public class ClientResource extends Resource {
         handle(request, response, references, ++retryAttempt, next);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Asynchronously retries a failed client call. Instead of sleeping, the
+     * retry attempt is scheduled on the executor service after the retry
+     * delay.
+     * 
+     * @param request
+     *            The request to send.
+     * @param response
+     *            The response to update.
+     * @param references
+     *            The references that caused a redirection to prevent infinite
+     *            loops.
+     * @param retryAttempt
+     *            The number of remaining attempts.
+     * @param next
+     *            The next handler handling the call.
+     * @param promise
+     *            The promise to complete with the final response.
+     * @see #getExecutorService()
+     */
+    protected void retryAsync(final Request request, final Response response,
+            final List<Reference> references, final int retryAttempt,
+            final Uniform next, final Promise<Response> promise) {
+        getLogger().log(
+                Level.INFO,
+                "A recoverable error was detected ("
+                        + response.getStatus().getCode()
+                        + "), attempting again in " + getRetryDelay() + " ms.");
+        Runnable retry = new Runnable() {
+            public void run() {
+                handleAsync(request, response, references, retryAttempt + 1,
+                        next, promise);
+            }
+        };
+
+        if (getRetryDelay() > 0) {
+            try {
+                getExecutorService().schedule(retry, getRetryDelay(),
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                promise.fail(e);
+            }
+        } else {
+            retry.run();
+        }
+    }
+
     /**
      * Sets the request attribute value.
      * 
@@ -1793,6 +2371,17 @@ public class ClientResource extends Resource {
         setResponseEntityBuffering(entityBuffering);
     }
 
+    // [ifndef gwt] method
+    /**
+     * Sets the executor service scheduling the retries of asynchronous calls.
+     * 
+     * @param executorService
+     *            The executor service scheduling the retries.
+     */
+    public void setExecutorService(ScheduledExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
     // [ifndef gwt] method
     /**
      * Indicates if redirections are followed.
@@ -2077,6 +2666,55 @@ public class ClientResource extends Resource {
         this.retryOnError = retryOnError;
     }
 
+    /**
+     * Updates the references that caused a redirection before following a new
+     * one. It checks for infinite loops, unavailable entities and the maximum
+     * number of redirections, then updates the target resource reference of
+     * the request.
+     * 
+     * @param request
+     *            The request to redirect.
+     * @param response
+     *            The redirection response.
+     * @param references
+     *            The references that caused a redirection to prevent infinite
+     *            loops.
+     * @return The updated references or null if the redirection can't be
+     *         followed.
+     */
+    private List<Reference> updateReferences(Request request,
+            Response response, List<Reference> references) {
+        List<Reference> result = null;
+        Reference newTargetRef = response.getLocationRef();
+
+        if ((references != null) && references.contains(newTargetRef)) {
+            getLogger().warning(
+                    "Infinite redirection loop detected with URI: "
+                            + newTargetRef);
+        } else if (request.getEntity() != null && !request.isEntityAvailable()) {
+            getLogger()
+                    .warning(
+                            "Unable to follow the redirection because the request entity isn't available anymore.");
+        } else {
+            result = (references == null) ? new ArrayList<Reference>()
+                    : references;
+
+            if (result.size() >= getMaxRedirects()) {
+                getLogger()
+                        .warning(
+                                "Unable to follow the redirection because the request the maximum number of redirections for a single call has been reached.");
+                result = null;
+            } else {
+                // Add to the list of redirection reference
+                // to prevent infinite loops
+                result.add(request.getResourceRef());
+                request.setResourceRef(newTargetRef);
+            }
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Wraps the client resource to proxy calls to the given Java interface into
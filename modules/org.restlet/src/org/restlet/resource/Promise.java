@@ -0,0 +1,265 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+
+/**
+ * Future result of an asynchronous task that is explicitly completed, either
+ * with a result or with a failure. Callbacks can be registered to be notified
+ * upon completion, without blocking any thread. This is typically returned by
+ * the asynchronous methods of {@link ClientResource} such as
+ * {@link ClientResource#getAsync()}.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The class of the result object.
+ */
+public class Promise<T> implements Future<T> {
+
+    /** Indicates if the task was cancelled. */
+    private volatile boolean cancelled;
+
+    /** Released upon completion. */
+    private final CountDownLatch done;
+
+    /** The failure, if any. */
+    private volatile Throwable failure;
+
+    /** The callbacks to notify upon completion, or null once completed. */
+    private List<Result<? super T>> listeners;
+
+    /** The result, if any. */
+    private volatile T result;
+
+    /**
+     * Constructor.
+     */
+    public Promise() {
+        this.done = new CountDownLatch(1);
+        this.listeners = new ArrayList<Result<? super T>>();
+    }
+
+    /**
+     * Registers a callback notified upon completion. If the promise is already
+     * completed, the callback is immediately notified in the current thread.
+     * 
+     * @param listener
+     *            The callback to notify.
+     * @return This promise.
+     */
+    public Promise<T> addListener(Result<? super T> listener) {
+        synchronized (this) {
+            if (this.listeners != null) {
+                this.listeners.add(listener);
+                return this;
+            }
+        }
+
+        notifyListener(listener);
+        return this;
+    }
+
+    /**
+     * Cancels the task by completing the promise with a
+     * {@link CancellationException}. The underlying call isn't interrupted.
+     * 
+     * @param mayInterruptIfRunning
+     *            Ignored.
+     * @return True if the promise was cancelled.
+     */
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return complete(null, new CancellationException(), true);
+    }
+
+    /**
+     * Completes the promise with the given result, unless it is already
+     * completed.
+     * 
+     * @param result
+     *            The result object.
+     * @return True if the promise was completed by this call.
+     */
+    public boolean complete(T result) {
+        return complete(result, null, false);
+    }
+
+    /**
+     * Completes the promise and notifies the callbacks, unless it is already
+     * completed.
+     * 
+     * @param result
+     *            The result object.
+     * @param failure
+     *            The failure.
+     * @param cancelled
+     *            True if the task was cancelled.
+     * @return True if the promise was completed by this call.
+     */
+    private boolean complete(T result, Throwable failure, boolean cancelled) {
+        List<Result<? super T>> toNotify;
+
+        synchronized (this) {
+            if (this.listeners == null) {
+                return false;
+            }
+
+            this.result = result;
+            this.failure = failure;
+            this.cancelled = cancelled;
+            toNotify = this.listeners;
+            this.listeners = null;
+        }
+
+        this.done.countDown();
+
+        for (Result<? super T> listener : toNotify) {
+            notifyListener(listener);
+        }
+
+        return true;
+    }
+
+    /**
+     * Completes the promise with the given failure, unless it is already
+     * completed.
+     * 
+     * @param failure
+     *            The exception or error caught.
+     * @return True if the promise was completed by this call.
+     */
+    public boolean fail(Throwable failure) {
+        return complete(null, failure, false);
+    }
+
+    /**
+     * Waits if necessary for the completion and returns the result.
+     * 
+     * @return The result object.
+     * @throws CancellationException
+     *             If the task was cancelled.
+     * @throws ExecutionException
+     *             If the task failed.
+     * @throws InterruptedException
+     *             If the current thread was interrupted while waiting.
+     */
+    public T get() throws InterruptedException, ExecutionException {
+        this.done.await();
+        return getResult();
+    }
+
+    /**
+     * Waits if necessary for at most the given time for the completion and
+     * returns the result.
+     * 
+     * @param timeout
+     *            The maximum time to wait.
+     * @param unit
+     *            The time unit of the timeout argument.
+     * @return The result object.
+     * @throws CancellationException
+     *             If the task was cancelled.
+     * @throws ExecutionException
+     *             If the task failed.
+     * @throws InterruptedException
+     *             If the current thread was interrupted while waiting.
+     * @throws TimeoutException
+     *             If the wait timed out.
+     */
+    public T get(long timeout, TimeUnit unit) throws InterruptedException,
+            ExecutionException, TimeoutException {
+        if (!this.done.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+
+        return getResult();
+    }
+
+    /**
+     * Returns the result of a completed promise.
+     * 
+     * @return The result object.
+     * @throws ExecutionException
+     *             If the task failed.
+     */
+    private T getResult() throws ExecutionException {
+        if (this.cancelled) {
+            throw (CancellationException) this.failure;
+        } else if (this.failure != null) {
+            throw new ExecutionException(this.failure);
+        }
+
+        return this.result;
+    }
+
+    /**
+     * Indicates if the task was cancelled.
+     * 
+     * @return True if the task was cancelled.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Indicates if the promise is completed, successfully or not.
+     * 
+     * @return True if the promise is completed.
+     */
+    public boolean isDone() {
+        return this.done.getCount() == 0;
+    }
+
+    /**
+     * Notifies a callback of the completion.
+     * 
+     * @param listener
+     *            The callback to notify.
+     */
+    private void notifyListener(Result<? super T> listener) {
+        try {
+            if (this.failure != null) {
+                listener.onFailure(this.failure);
+            } else {
+                listener.onSuccess(this.result);
+            }
+        } catch (Throwable t) {
+            Context.getCurrentLogger().log(Level.WARNING,
+                    "Unexpected error or exception inside the callback", t);
+        }
+    }
+
+}
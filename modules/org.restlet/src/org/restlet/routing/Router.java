@@ -124,6 +124,12 @@ public class Router extends Restlet {
      */
     public static final int MODE_RANDOM_MATCH = 5;
 
+    /**
+     * Indicates if the URI templates of the routes are compiled into a shared
+     * prefix index.
+     */
+    private volatile boolean compiledMatching;
+
     /** The default matching mode to use when selecting routes based on URIs. */
     private volatile int defaultMatchingMode;
 
@@ -173,6 +179,7 @@ public class Router extends Restlet {
     public Router(Context context) {
         super(context);
         this.routes = new RouteList();
+        this.compiledMatching = false;
         this.defaultMatchingMode = Template.MODE_EQUALS;
         this.defaultMatchingQuery = false;
         this.defaultRoute = null;
@@ -532,13 +539,23 @@ public class Router extends Restlet {
                 // Select the routing mode
                 switch (getRoutingMode()) {
                 case MODE_BEST_MATCH:
-                    result = getRoutes().getBest(request, response,
-                            getRequiredScore());
+                    if (isCompiledMatching()) {
+                        result = getRoutes().getBestIndexed(request, response,
+                                getRequiredScore());
+                    } else {
+                        result = getRoutes().getBest(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_FIRST_MATCH:
-                    result = getRoutes().getFirst(request, response,
-                            getRequiredScore());
+                    if (isCompiledMatching()) {
+                        result = getRoutes().getFirstIndexed(request,
+                                response, getRequiredScore());
+                    } else {
+                        result = getRoutes().getFirst(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_LAST_MATCH:
@@ -642,6 +659,32 @@ public class Router extends Restlet {
         }
     }
 
+    /**
+     * Indicates if the URI templates of the attached routes are compiled into
+     * a shared prefix index. In this case, only the routes whose template
+     * literal prefix (the characters before the first variable) matches the
+     * remaining part of the resource reference are scored, which avoids
+     * evaluating the regular expression of each template when many routes
+     * are attached. The selected route and the parsed variables are identical
+     * to the ones obtained without compilation. This only applies to the
+     * {@link #MODE_BEST_MATCH} and {@link #MODE_FIRST_MATCH} routing modes. By
+     * default, it returns false.<br>
+     * <br>
+     * Walking the index has a small fixed cost per call, so it pays off when
+     * the matching routes aren't the first ones in the list, increasingly with
+     * the number of attached routes. When the first routes match most calls,
+     * the default sequential scoring is as fast or faster.<br>
+     * <br>
+     * The index is rebuilt when routes are attached or detached. If the URI
+     * template of an attached route is modified, call
+     * {@link RouteList#invalidateIndex()} on the {@link #getRoutes()} list.
+     * 
+     * @return True if the URI templates of the routes are compiled.
+     */
+    public boolean isCompiledMatching() {
+        return this.compiledMatching;
+    }
+
     /**
      * Logs the route selected.
      * 
@@ -714,6 +757,18 @@ public class Router extends Restlet {
                 Redirector.MODE_CLIENT_TEMPORARY));
     }
 
+    /**
+     * Indicates if the URI templates of the attached routes should be compiled
+     * into a shared prefix index. By default, it is set to false.
+     * 
+     * @param compiledMatching
+     *            True if the URI templates of the routes should be compiled.
+     * @see #isCompiledMatching()
+     */
+    public void setCompiledMatching(boolean compiledMatching) {
+        this.compiledMatching = compiledMatching;
+    }
+
     /**
      * Sets the default matching mode to use when selecting routes based on
      * URIs. By default it is set to {@link Template#MODE_EQUALS}.
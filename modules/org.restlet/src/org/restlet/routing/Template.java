@@ -237,6 +237,12 @@ public class Template {
     /** True if the variables must be encoded when formatting the template. */
     private volatile boolean encodingVariables;
 
+    /**
+     * True if the pattern only contains literal characters and can be matched
+     * without the internal Regex pattern.
+     */
+    private volatile boolean literal;
+
     /** The logger to use. */
     private volatile Logger logger;
 
@@ -558,6 +564,8 @@ public class Template {
                         }
                     }
 
+                    this.literal = getRegexVariables().isEmpty()
+                            && isLiteral(getPattern());
                     this.regexPattern = Pattern.compile(patternBuffer
                             .toString());
                 }
@@ -663,6 +671,19 @@ public class Template {
         return this.encodingVariables;
     }
 
+    /**
+     * Indicates if the given pattern only contains characters that are matched
+     * literally by the internal Regex pattern.
+     * 
+     * @param pattern
+     *            The pattern to test.
+     * @return True if the pattern only contains literal characters.
+     */
+    private boolean isLiteral(String pattern) {
+        return (pattern.indexOf('{') == -1) && (pattern.indexOf('}') == -1)
+                && (pattern.indexOf('+') == -1);
+    }
+
     /**
      * Indicates if the current pattern matches the given formatted string.
      * 
@@ -675,8 +696,14 @@ public class Template {
 
         try {
             if (formattedString != null) {
-                final Matcher matcher = getRegexPattern().matcher(
-                        formattedString);
+                final Pattern regexPattern = getRegexPattern();
+
+                if (this.literal) {
+                    // Fast path, no need to run the Regex pattern
+                    return matchLiteral(formattedString);
+                }
+
+                final Matcher matcher = regexPattern.matcher(formattedString);
 
                 if ((getMatchingMode() == MODE_EQUALS) && matcher.matches()) {
                     result = matcher.end();
@@ -694,6 +721,29 @@ public class Template {
         return result;
     }
 
+    /**
+     * Indicates if the current literal pattern matches the given formatted
+     * string, without relying on the internal Regex pattern.
+     * 
+     * @param formattedString
+     *            The formatted string to match.
+     * @return The number of matched characters or -1 if the match failed.
+     */
+    private int matchLiteral(String formattedString) {
+        int result = -1;
+        final String pattern = getPattern();
+
+        if ((getMatchingMode() == MODE_EQUALS)
+                && formattedString.equals(pattern)) {
+            result = pattern.length();
+        } else if ((getMatchingMode() == MODE_STARTS_WITH)
+                && formattedString.startsWith(pattern)) {
+            result = pattern.length();
+        }
+
+        return result;
+    }
+
     /**
      * Attempts to parse a formatted reference. If the parsing succeeds, the
      * given request's attributes are updated.<br>
@@ -734,7 +784,14 @@ public class Template {
 
         if (formattedString != null) {
             try {
-                Matcher matcher = getRegexPattern().matcher(formattedString);
+                final Pattern regexPattern = getRegexPattern();
+
+                if (this.literal) {
+                    // Fast path, there is no variable to update
+                    return matchLiteral(formattedString);
+                }
+
+                Matcher matcher = regexPattern.matcher(formattedString);
                 boolean matched = ((getMatchingMode() == MODE_EQUALS) && matcher
                         .matches())
                         || ((getMatchingMode() == MODE_STARTS_WITH) && matcher
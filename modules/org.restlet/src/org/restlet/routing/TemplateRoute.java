@@ -31,6 +31,7 @@ import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.engine.metrics.MetricsFilter;
 
 /**
  * Filter scoring the affinity of calls with the attached Restlet. The score is
@@ -118,6 +119,11 @@ public class TemplateRoute extends Route {
                     false, isMatchingQuery());
             int matchedLength = getTemplate().parse(remainingPart, request);
 
+            if (matchedLength != -1) {
+                // Report the matched route to the metrics service, if enabled
+                MetricsFilter.matched(request, this);
+            }
+
             if (matchedLength == 0) {
                 if (request.isLoggable() && getLogger().isLoggable(Level.FINER)) {
                     getLogger().finer("No characters were matched");
@@ -222,12 +228,32 @@ public class TemplateRoute extends Route {
      * @return The score for a given call (between 0 and 1.0).
      */
     public float score(Request request, Response response) {
+        if (request.getResourceRef() == null) {
+            return 0F;
+        }
+
+        return score(request, response, request.getResourceRef()
+                .getRemainingPart(false, isMatchingQuery()));
+    }
+
+    /**
+     * Returns the score for a given call, matching the given remaining part of
+     * its resource reference. It lets callers scoring several routes compute
+     * the remaining part only once.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param remainingPart
+     *            The remaining part of the resource reference, including the
+     *            query string only if {@link #isMatchingQuery()} returns true.
+     * @return The score for this Restlet.
+     */
+    public float score(Request request, Response response, String remainingPart) {
         float result = 0F;
 
-        if ((getRouter() != null) && (request.getResourceRef() != null)
-                && (getTemplate() != null)) {
-            final String remainingPart = request.getResourceRef()
-                    .getRemainingPart(false, isMatchingQuery());
+        if ((getRouter() != null) && (getTemplate() != null)) {
             if (remainingPart != null) {
                 final int matchedLength = getTemplate().match(remainingPart);
 
@@ -37,7 +37,15 @@ import org.restlet.representation.Representation;
 import org.restlet.routing.Filter;
 
 /**
- * Application service automatically encoding or compressing request entities.
+ * Application service automatically encoding or compressing request entities.<br>
+ * <br>
+ * Compressing the same static or cacheable content over and over can be
+ * avoided in two ways. First, when the precompressed property is enabled, file
+ * entities are replaced by sibling files that were compressed beforehand, like
+ * "app.js.gz" or "app.js.br", when the client accepts the matching encoding.
+ * Second, when the cache size is positive, the encoded bytes of entities that
+ * have a strong entity tag are kept in memory, keyed by resource URI, entity tag
+ * and encoding.
  * 
  * @author Jerome Louvel
  */
@@ -83,6 +91,11 @@ public class EncoderService extends Service {
      */
     private final List<MediaType> acceptedMediaTypes;
 
+    /**
+     * The maximum total size of the cached encoded entities, in bytes.
+     */
+    private volatile long cacheSize;
+
     /**
      * The media types that should be ignored.
      */
@@ -93,6 +106,11 @@ public class EncoderService extends Service {
      */
     private volatile long mininumSize;
 
+    /**
+     * Indicates if pre-compressed sibling files should be served.
+     */
+    private volatile boolean precompressed;
+
     /**
      * Constructor.
      */
@@ -109,6 +127,8 @@ public class EncoderService extends Service {
     public EncoderService(boolean enabled) {
         super(enabled);
         this.mininumSize = DEFAULT_MINIMUM_SIZE;
+        this.cacheSize = 0;
+        this.precompressed = false;
         this.acceptedMediaTypes = new CopyOnWriteArrayList<MediaType>(
                 getDefaultAcceptedMediaTypes());
         this.ignoredMediaTypes = new CopyOnWriteArrayList<MediaType>(
@@ -193,6 +213,16 @@ public class EncoderService extends Service {
         return this.acceptedMediaTypes;
     }
 
+    /**
+     * Returns the maximum total size of the cached encoded entities, in bytes.
+     * Zero, the default value, disables the cache.
+     * 
+     * @return The maximum total size of the cached encoded entities, in bytes.
+     */
+    public long getCacheSize() {
+        return this.cacheSize;
+    }
+
     /**
      * Returns the media types that should be ignored.
      * 
@@ -213,6 +243,31 @@ public class EncoderService extends Service {
         return this.mininumSize;
     }
 
+    /**
+     * Indicates if pre-compressed sibling files should be served. For a file
+     * entity, a sibling file with the same name followed by the ".gz" or ".br"
+     * extension is then served instead of compressing the file, if it is at
+     * least as recent and if the client accepts the matching encoding. False
+     * by default.
+     * 
+     * @return True if pre-compressed sibling files should be served.
+     */
+    public boolean isPrecompressed() {
+        return this.precompressed;
+    }
+
+    /**
+     * Sets the maximum total size of the cached encoded entities, in bytes.
+     * Zero disables the cache. Must be set before the application starts.
+     * 
+     * @param cacheSize
+     *            The maximum total size of the cached encoded entities, in
+     *            bytes.
+     */
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
     /**
      * Sets the minimum size a representation must have before compression is
      * done.
@@ -225,4 +280,14 @@ public class EncoderService extends Service {
         this.mininumSize = mininumSize;
     }
 
+    /**
+     * Indicates if pre-compressed sibling files should be served.
+     * 
+     * @param precompressed
+     *            True if pre-compressed sibling files should be served.
+     */
+    public void setPrecompressed(boolean precompressed) {
+        this.precompressed = precompressed;
+    }
+
 }
@@ -0,0 +1,192 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.service;
+
+import org.restlet.Context;
+import org.restlet.engine.metrics.MetricsExporter;
+import org.restlet.engine.metrics.MetricsFilter;
+import org.restlet.engine.metrics.MetricsRegistry;
+import org.restlet.engine.metrics.PrometheusExporter;
+import org.restlet.representation.Representation;
+import org.restlet.routing.Filter;
+
+/**
+ * Service collecting aggregated metrics about the handled calls: the number of
+ * calls being handled, the number of calls per status class and histograms of
+ * the call durations. The durations are tracked per series of calls sharing
+ * the same virtual host, application, route pattern and status class.<br>
+ * <br>
+ * The recording is done by a filter and only updates lock-free counters, so
+ * the overhead per call stays low. The metrics can be read from the
+ * {@link #getRegistry()} method, from JMX if enabled or exported using a
+ * pluggable {@link MetricsExporter}, by default in the Prometheus text format.
+ * For example, to expose them under a "/metrics" URI:
+ * 
+ * <pre>
+ * final MetricsService metricsService = component.getMetricsService();
+ * metricsService.setEnabled(true);
+ * component.getDefaultHost().attach(&quot;/metrics&quot;, new Restlet() {
+ *     public void handle(Request request, Response response) {
+ *         response.setEntity(metricsService.export());
+ *     }
+ * });
+ * </pre>
+ * 
+ * This service is disabled by default.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsService extends Service {
+
+    /** The exporter of the metrics. */
+    private volatile MetricsExporter exporter;
+
+    /** Indicates if the registry is registered in the platform MBean server. */
+    private volatile boolean jmxEnabled;
+
+    /** The name of the registered management bean. */
+    private volatile Object mbeanName;
+
+    /** The registry of the metrics. */
+    private final MetricsRegistry registry;
+
+    /**
+     * Constructor.
+     */
+    public MetricsService() {
+        this(false);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public MetricsService(boolean enabled) {
+        super(enabled);
+        this.exporter = new PrometheusExporter();
+        this.jmxEnabled = false;
+        this.mbeanName = null;
+        this.registry = new MetricsRegistry();
+    }
+
+    @Override
+    public Filter createInboundFilter(Context context) {
+        return new MetricsFilter(context, this);
+    }
+
+    /**
+     * Exports the metrics using the current exporter.
+     * 
+     * @return The representation of the metrics.
+     */
+    public Representation export() {
+        return getExporter().export(getRegistry());
+    }
+
+    /**
+     * Returns the exporter of the metrics. By default, it is a
+     * {@link PrometheusExporter}.
+     * 
+     * @return The exporter of the metrics.
+     */
+    public MetricsExporter getExporter() {
+        return exporter;
+    }
+
+    /**
+     * Returns the registry of the metrics.
+     * 
+     * @return The registry of the metrics.
+     */
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Indicates if the registry is registered in the platform MBean server
+     * while the service is started. False by default.
+     * 
+     * @return True if the registry is registered in the platform MBean server.
+     */
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * Sets the exporter of the metrics.
+     * 
+     * @param exporter
+     *            The exporter of the metrics.
+     */
+    public void setExporter(MetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Indicates if the registry is registered in the platform MBean server
+     * while the service is started.
+     * 
+     * @param jmxEnabled
+     *            True if the registry is registered in the platform MBean
+     *            server.
+     */
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    @Override
+    public synchronized void start() throws Exception {
+        super.start();
+
+        // [ifndef android, gae]
+        if (isEnabled() && isJmxEnabled() && (this.mbeanName == null)) {
+            javax.management.ObjectName name = new javax.management.ObjectName(
+                    "org.restlet:type=Metrics,id="
+                            + Integer.toHexString(System.identityHashCode(this)));
+            java.lang.management.ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(getRegistry(), name);
+            this.mbeanName = name;
+        }
+        // [enddef]
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        // [ifndef android, gae]
+        if (this.mbeanName != null) {
+            java.lang.management.ManagementFactory.getPlatformMBeanServer()
+                    .unregisterMBean(
+                            (javax.management.ObjectName) this.mbeanName);
+            this.mbeanName = null;
+        }
+        // [enddef]
+
+        super.stop();
+    }
+
+}
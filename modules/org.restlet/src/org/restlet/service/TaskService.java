@@ -35,6 +35,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -42,10 +43,8 @@ import java.util.logging.Level;
 
 import org.restlet.Application;
 import org.restlet.Context;
-import org.restlet.Response;
 import org.restlet.engine.Engine;
-import org.restlet.engine.util.ContextualRunnable;
-import org.restlet.routing.VirtualHost;
+import org.restlet.engine.util.ThreadUtils;
 
 /**
  * Application service capable of running and scheduling tasks asynchronously.
@@ -100,6 +99,83 @@ public class TaskService extends Service implements ScheduledExecutorService {
         }
     }
 
+    /**
+     * Scheduled executor service running each task submitted for immediate
+     * execution on a new virtual thread. The scheduled tasks are run by a pool
+     * of virtual threads.
+     * 
+     * @author Jerome Louvel
+     */
+    private static class VirtualThreadsExecutorService extends
+            ScheduledThreadPoolExecutor {
+
+        /** The executor starting a new virtual thread for each task. */
+        private final ExecutorService tasks;
+
+        /**
+         * Constructor.
+         * 
+         * @param corePoolSize
+         *            The number of threads running the scheduled tasks.
+         * @param threadFactory
+         *            The virtual thread factory.
+         * @param tasks
+         *            The executor starting a new virtual thread for each task.
+         */
+        public VirtualThreadsExecutorService(int corePoolSize,
+                ThreadFactory threadFactory, ExecutorService tasks) {
+            super(corePoolSize, threadFactory);
+            this.tasks = tasks;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            return super.awaitTermination(timeout, unit)
+                    && tasks.awaitTermination(deadline - System.nanoTime(),
+                            TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.execute(command);
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return super.isTerminated() && tasks.isTerminated();
+        }
+
+        @Override
+        public void shutdown() {
+            super.shutdown();
+            tasks.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<Runnable> result = super.shutdownNow();
+            result.addAll(tasks.shutdownNow());
+            return result;
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return tasks.submit(task);
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return tasks.submit(task);
+        }
+
+        @Override
+        public <T> Future<T> submit(Runnable task, T result) {
+            return tasks.submit(task, result);
+        }
+    }
+
     /**
      * Wraps a JDK executor service to ensure that the threads executing the
      * tasks will have the thread local variables copied from the calling
@@ -120,44 +196,9 @@ public class TaskService extends Service implements ScheduledExecutorService {
             }
 
             public void execute(final Runnable runnable) {
-                // Save the thread local variables
-                final Application currentApplication = Application.getCurrent();
-                final Context currentContext = Context.getCurrent();
-                final Integer currentVirtualHost = VirtualHost.getCurrent();
-                final Response currentResponse = Response.getCurrent();
-
-                executorService.execute(new Runnable() {
-                    public void run() {
-                        // Copy the thread local variables
-                        Response.setCurrent(currentResponse);
-                        Context.setCurrent(currentContext);
-                        VirtualHost.setCurrent(currentVirtualHost);
-                        Application.setCurrent(currentApplication);
-
-                        if (runnable instanceof ContextualRunnable) {
-                            ClassLoader tccl = Thread.currentThread()
-                                    .getContextClassLoader();
-                            try {
-                                // Run the user task
-                                Thread.currentThread().setContextClassLoader(
-                                        ((ContextualRunnable) runnable)
-                                                .getContextClassLoader());
-                                runnable.run();
-                            } finally {
-                                Engine.clearThreadLocalVariables();
-                                Thread.currentThread().setContextClassLoader(
-                                        tccl);
-                            }
-                        } else {
-                            try {
-                                // Run the user task
-                                runnable.run();
-                            } finally {
-                                Engine.clearThreadLocalVariables();
-                            }
-                        }
-                    }
-                });
+                // Copy the thread local variables
+                executorService.execute(Engine
+                        .createRunnableWithLocalVariables(runnable));
             }
 
             @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -250,6 +291,12 @@ public class TaskService extends Service implements ScheduledExecutorService {
      */
     private volatile boolean shutdownAllowed;
 
+    /**
+     * Indicates if the tasks are run on virtual threads when the JVM supports
+     * them. False by default.
+     */
+    private volatile boolean virtualThreads;
+
     /** The wrapped JDK executor service. */
     private volatile ScheduledExecutorService wrapped;
 
@@ -296,6 +343,7 @@ public class TaskService extends Service implements ScheduledExecutorService {
         super(enabled);
         this.corePoolSize = corePoolSize;
         this.shutdownAllowed = false;
+        this.virtualThreads = false;
     }
 
     /**
@@ -328,14 +376,35 @@ public class TaskService extends Service implements ScheduledExecutorService {
 
     /**
      * Creates a new JDK executor service that will be wrapped. By default it
-     * calls {@link Executors#newCachedThreadPool(ThreadFactory)}, passing the
-     * result of {@link #createThreadFactory()} as a parameter.
+     * calls {@link Executors#newScheduledThreadPool(int, ThreadFactory)},
+     * passing the result of {@link #createThreadFactory()} as a parameter.<br>
+     * <br>
+     * If virtual threads are enabled and supported by the JVM, the tasks
+     * submitted for immediate execution are each run on a new virtual thread
+     * instead, so that the core pool size only limits the concurrency of the
+     * scheduled tasks.
      * 
      * @param corePoolSize
      *            The core pool size defining the maximum number of threads.
      * @return A new JDK executor service.
+     * @see #isVirtualThreads()
      */
     protected ScheduledExecutorService createExecutorService(int corePoolSize) {
+        if (isVirtualThreads()) {
+            ThreadFactory threadFactory = ThreadUtils
+                    .newVirtualThreadFactory(ThreadUtils.VIRTUAL_THREAD_NAME_PREFIX);
+            ExecutorService tasks = (threadFactory == null) ? null
+                    : ThreadUtils.newThreadPerTaskExecutor(threadFactory);
+
+            if (tasks != null) {
+                return new VirtualThreadsExecutorService(corePoolSize,
+                        threadFactory, tasks);
+            }
+
+            Context.getCurrentLogger().warning(
+                    "Virtual threads aren't supported by this JVM. Using a pool of platform threads instead.");
+        }
+
         return Executors.newScheduledThreadPool(corePoolSize,
                 createThreadFactory());
     }
@@ -517,6 +586,17 @@ public class TaskService extends Service implements ScheduledExecutorService {
         return (getWrapped() == null) || getWrapped().isTerminated();
     }
 
+    /**
+     * Indicates if the tasks are run on virtual threads when the JVM supports
+     * them (Java 21 and later). This suits tasks blocking on I/O, such as
+     * calls to remote resources. False by default.
+     * 
+     * @return True if the tasks are run on virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     /**
      * Creates and executes a ScheduledFuture that becomes enabled after the
      * given delay.
@@ -659,6 +739,17 @@ public class TaskService extends Service implements ScheduledExecutorService {
         this.shutdownAllowed = allowShutdown;
     }
 
+    /**
+     * Indicates if the tasks are run on virtual threads when the JVM supports
+     * them (Java 21 and later). Must be set before the service is started.
+     * 
+     * @param virtualThreads
+     *            True if the tasks are run on virtual threads.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
      * Sets the wrapped JDK executor service.
      * 
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.restlet.representation.Representation;
+
+/**
+ * Application service sharing the parsed templates of a template engine. It is
+ * the base class of the services provided by the template extensions such as
+ * FreeMarker, Thymeleaf or Velocity.<br>
+ * <br>
+ * Templates loaded by name are expected to be cached by the template engine
+ * itself, bounded by {@link #getCacheSize()} and checked for modification at
+ * most every {@link #getCheckInterval()} seconds. Templates provided via
+ * representations are cached by this service based on their location URI and
+ * modification date, so that a modified template is parsed again.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The parsed template type.
+ */
+public abstract class TemplateService<T> extends Service {
+
+    /** The maximum number of templates cached. */
+    private volatile int cacheSize;
+
+    /** The minimum number of seconds between two modification checks. */
+    private volatile int checkInterval;
+
+    /** The templates provided via representations, in access order. */
+    private final Map<String, T> templates;
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public TemplateService(boolean enabled) {
+        super(enabled);
+        this.cacheSize = 128;
+        this.checkInterval = 5;
+        this.templates = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return size() > getCacheSize();
+            }
+        };
+    }
+
+    /**
+     * Caches a template parsed from a representation. Representations without
+     * location reference or modification date aren't cached.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @param template
+     *            The parsed template.
+     */
+    protected void cacheTemplate(Representation templateRepresentation,
+            T template) {
+        String key = getKey(templateRepresentation);
+
+        if ((key != null) && (template != null)) {
+            synchronized (this.templates) {
+                this.templates.put(key, template);
+            }
+        }
+    }
+
+    /**
+     * Clears the cached templates.
+     */
+    public void clear() {
+        synchronized (this.templates) {
+            this.templates.clear();
+        }
+    }
+
+    /**
+     * Returns the template cached for a representation. On a cache hit, the
+     * representation is released as its content isn't needed.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The cached template or null.
+     */
+    protected T getCachedTemplate(Representation templateRepresentation) {
+        String key = getKey(templateRepresentation);
+        T result = null;
+
+        if (key != null) {
+            synchronized (this.templates) {
+                result = this.templates.get(key);
+            }
+
+            if (result != null) {
+                templateRepresentation.release();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of templates cached. The default value is 128.
+     * 
+     * @return The maximum number of templates cached.
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Returns the minimum number of seconds between two modification checks of
+     * a template loaded by name. The default value is 5.
+     * 
+     * @return The minimum number of seconds between two modification checks.
+     */
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Returns the cache key of a template representation, based on its
+     * location URI and modification date.
+     * 
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The cache key or null if the template can't be cached.
+     */
+    private String getKey(Representation templateRepresentation) {
+        Date modificationDate = templateRepresentation.getModificationDate();
+
+        if ((templateRepresentation.getLocationRef() == null)
+                || (modificationDate == null)) {
+            return null;
+        }
+
+        return templateRepresentation.getLocationRef().toString() + '|'
+                + modificationDate.getTime();
+    }
+
+    /**
+     * Sets the maximum number of templates cached. It must be set before the
+     * template engine is created.
+     * 
+     * @param cacheSize
+     *            The maximum number of templates cached.
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Sets the minimum number of seconds between two modification checks of a
+     * template loaded by name. It must be set before the template engine is
+     * created.
+     * 
+     * @param checkInterval
+     *            The minimum number of seconds between two modification
+     *            checks.
+     */
+    public void setCheckInterval(int checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        clear();
+        super.stop();
+    }
+
+}
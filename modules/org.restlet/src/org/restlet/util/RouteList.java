@@ -24,14 +24,18 @@
 
 package org.restlet.util;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
+import org.restlet.data.Reference;
+import org.restlet.engine.routing.RouteIndex;
 import org.restlet.routing.Route;
 
 /**
@@ -48,15 +52,79 @@ import org.restlet.routing.Route;
  * @see java.util.List
  */
 public final class RouteList extends WrapperList<Route> {
+
+    /**
+     * Returns the best route match for a given call among the given routes.
+     * 
+     * @param routes
+     *            The routes to score.
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The best route match or null.
+     */
+    private static Route getBest(Iterable<Route> routes, Request request,
+            Response response, float requiredScore) {
+        Route result = null;
+        float bestScore = 0F;
+        float score;
+
+        for (Route current : routes) {
+            score = current.score(request, response);
+
+            if ((score > bestScore) && (score >= requiredScore)) {
+                bestScore = score;
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the first route match for a given call among the given routes.
+     * 
+     * @param routes
+     *            The routes to score.
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The first route match or null.
+     */
+    private static Route getFirst(Iterable<Route> routes, Request request,
+            Response response, float requiredScore) {
+        for (Route current : routes) {
+            if (current.score(request, response) >= requiredScore) {
+                return current;
+            }
+        }
+
+        // No match found
+        return null;
+    }
+
+    /** The compiled index of the routes' URI templates. */
+    private volatile RouteIndex index;
+
     /** The index of the last route used in the round robin mode. */
     private volatile int lastIndex;
 
+    /** The version of the list, incremented on each structural change. */
+    private final AtomicInteger version;
+
     /**
      * Constructor.
      */
     public RouteList() {
         super(new CopyOnWriteArrayList<Route>());
         this.lastIndex = -1;
+        this.version = new AtomicInteger();
     }
 
     /**
@@ -68,6 +136,52 @@ public final class RouteList extends WrapperList<Route> {
     public RouteList(List<Route> delegate) {
         super(new CopyOnWriteArrayList<Route>(delegate));
         this.lastIndex = -1;
+        this.version = new AtomicInteger();
+    }
+
+    @Override
+    public boolean add(Route element) {
+        try {
+            return super.add(element);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void add(int index, Route element) {
+        try {
+            super.add(index, element);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Route> elements) {
+        try {
+            return super.addAll(elements);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Route> elements) {
+        try {
+            return super.addAll(index, elements);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            super.clear();
+        } finally {
+            this.version.incrementAndGet();
+        }
     }
 
     /**
@@ -82,20 +196,39 @@ public final class RouteList extends WrapperList<Route> {
      * @return The best route match or null.
      */
     public Route getBest(Request request, Response response, float requiredScore) {
-        Route result = null;
-        float bestScore = 0F;
-        float score;
+        return getBest(this, request, response, requiredScore);
+    }
 
-        for (Route current : this) {
-            score = current.score(request, response);
+    /**
+     * Returns the best route match for a given call, only scoring the routes
+     * whose URI template literal prefix matches the resource reference's
+     * remaining part. The result is identical to
+     * {@link #getBest(Request, Response, float)}.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The best route match or null.
+     */
+    public Route getBestIndexed(Request request, Response response,
+            float requiredScore) {
+        if (isIndexable(request, requiredScore)) {
+            // Compute the remaining parts once for all the scored routes
+            Reference resourceRef = request.getResourceRef();
+            String remainingPart = resourceRef.getRemainingPart(false, true);
+            String pathPart = resourceRef.getRemainingPart(false, false);
 
-            if ((score > bestScore) && (score >= requiredScore)) {
-                bestScore = score;
-                result = current;
+            if ((remainingPart != null) && (pathPart != null)
+                    && remainingPart.startsWith(pathPart)) {
+                return getIndex().getBest(request, response, requiredScore,
+                        remainingPart, pathPart);
             }
         }
 
-        return result;
+        return getBest(request, response, requiredScore);
     }
 
     /**
@@ -111,14 +244,59 @@ public final class RouteList extends WrapperList<Route> {
      */
     public Route getFirst(Request request, Response response,
             float requiredScore) {
-        for (Route current : this) {
-            if (current.score(request, response) >= requiredScore) {
-                return current;
+        return getFirst(this, request, response, requiredScore);
+    }
+
+    /**
+     * Returns the first route match for a given call, only scoring the routes
+     * whose URI template literal prefix matches the resource reference's
+     * remaining part. The result is identical to
+     * {@link #getFirst(Request, Response, float)}.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The first route match or null.
+     */
+    public Route getFirstIndexed(Request request, Response response,
+            float requiredScore) {
+        if (isIndexable(request, requiredScore)) {
+            // Compute the remaining parts once for all the scored routes
+            Reference resourceRef = request.getResourceRef();
+            String remainingPart = resourceRef.getRemainingPart(false, true);
+            String pathPart = resourceRef.getRemainingPart(false, false);
+
+            if ((remainingPart != null) && (pathPart != null)
+                    && remainingPart.startsWith(pathPart)) {
+                return getIndex().getFirst(request, response, requiredScore,
+                        remainingPart, pathPart);
             }
         }
 
-        // No match found
-        return null;
+        return getFirst(request, response, requiredScore);
+    }
+
+    /**
+     * Returns the compiled index of the routes' URI templates. It is lazily
+     * rebuilt after each structural change of the list. Note that changing the
+     * URI template of a route already in the list requires a call to
+     * {@link #invalidateIndex()}.
+     * 
+     * @return The compiled index of the routes' URI templates.
+     */
+    private RouteIndex getIndex() {
+        RouteIndex result = this.index;
+        int currentVersion = this.version.get();
+
+        if ((result == null) || (result.getVersion() != currentVersion)) {
+            result = new RouteIndex(getDelegate(), currentVersion);
+            this.index = result;
+        }
+
+        return result;
     }
 
     /**
@@ -220,6 +398,47 @@ public final class RouteList extends WrapperList<Route> {
         return null;
     }
 
+    /**
+     * Invalidates the compiled index of the routes' URI templates. It must be
+     * called after changing the URI template of a route already in the list.
+     */
+    public void invalidateIndex() {
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * Indicates if a request can be looked up in the compiled index. Otherwise,
+     * routes that don't match the request could still be selected.
+     * 
+     * @param request
+     *            The request to match.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return True if the request can be looked up in the compiled index.
+     */
+    private boolean isIndexable(Request request, float requiredScore) {
+        return (requiredScore > 0F) && (request != null)
+                && (request.getResourceRef() != null);
+    }
+
+    @Override
+    public Route remove(int index) {
+        try {
+            return super.remove(index);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        try {
+            return super.remove(element);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
     /**
      * Removes all routes routing to a given target.
      * 
@@ -234,6 +453,33 @@ public final class RouteList extends WrapperList<Route> {
         }
     }
 
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        try {
+            return super.removeAll(elements);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        try {
+            return super.retainAll(elements);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Route set(int index, Route element) {
+        try {
+            return super.set(index, element);
+        } finally {
+            this.version.incrementAndGet();
+        }
+    }
+
     /**
      * Returns a view of the portion of this list between the specified
      * fromIndex, inclusive, and toIndex, exclusive.